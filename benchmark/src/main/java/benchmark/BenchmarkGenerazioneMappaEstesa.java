@@ -0,0 +1,54 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.gioco.Mappa;
+
+/**
+ * Benchmark della generazione di una mappa estesa, al variare del lato della mappa e della
+ * probabilita' delle voragini. Le densita' degli elementi sono fisse.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkGenerazioneMappaEstesa {
+
+	@Param({"50", "200", "1000"})
+	public int latoMappa;
+
+	@Param({"10", "20", "30"})
+	public int probabilitaVoragine;
+
+	private SplittableRandom generatore;
+
+	@Setup
+	public void preparaGeneratore() {
+		// Seme fisso: ogni esecuzione del benchmark genera la stessa sequenza di mappe.
+		this.generatore = new SplittableRandom(42);
+	}
+
+	@Benchmark
+	public Mappa generazione() {
+		return Mappa.generaMappaEstesa(this.latoMappa, this.probabilitaVoragine, 0.001, 0.001, 0.001, this.generatore.split());
+	}
+}
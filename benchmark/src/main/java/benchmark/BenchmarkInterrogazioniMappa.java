@@ -0,0 +1,96 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.elementi.Elemento;
+
+/**
+ * Benchmark delle interrogazioni su di una Mappa gia' generata: contenuto di una casella, brezza,
+ * puzza e controllo di validita' della mappa. Le caselle interrogate vengono scelte a caso una volta
+ * sola e poi percorse ciclicamente, in modo che il risultato non sia costante.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkInterrogazioniMappa {
+
+	private static final int NUM_CASELLE = 1024;
+
+	@Param({"10", "100", "1000"})
+	public int latoMappa;
+
+	private MappaPerBenchmark mappa;
+	private Elemento[] caselle;
+	private int[] righe;
+	private int[] colonne;
+	private int prossimaCasella;
+
+	@Setup
+	public void preparaMappa() {
+		SplittableRandom generatore = new SplittableRandom(42);
+
+		this.mappa = MappaPerBenchmark.estesa(this.latoMappa, 20, generatore.split());
+		this.caselle = new Elemento[BenchmarkInterrogazioniMappa.NUM_CASELLE];
+		this.righe = new int[BenchmarkInterrogazioniMappa.NUM_CASELLE];
+		this.colonne = new int[BenchmarkInterrogazioniMappa.NUM_CASELLE];
+
+		for(int i = 0; i < BenchmarkInterrogazioniMappa.NUM_CASELLE; i++) {
+			this.righe[i] = generatore.nextInt(this.latoMappa);
+			this.colonne[i] = generatore.nextInt(this.latoMappa);
+			this.caselle[i] = new Elemento(this.latoMappa, this.righe[i], this.colonne[i]) {};
+		}
+	}
+
+	// Restituisce l'indice della prossima casella da interrogare.
+	private int prossimaCasella() {
+		this.prossimaCasella = (this.prossimaCasella + 1) & (BenchmarkInterrogazioniMappa.NUM_CASELLE - 1);
+		return this.prossimaCasella;
+	}
+
+	@Benchmark
+	public Elemento contenutoCasella() {
+		return this.mappa.contenutoCasella(this.caselle[this.prossimaCasella()]);
+	}
+
+	@Benchmark
+	public Elemento contenutoCasellaCoordinate() {
+		int i = this.prossimaCasella();
+
+		return this.mappa.contenutoCasella(this.righe[i], this.colonne[i]);
+	}
+
+	@Benchmark
+	public boolean controllaBrezza() {
+		return this.mappa.controllaBrezza(this.caselle[this.prossimaCasella()]);
+	}
+
+	@Benchmark
+	public boolean controllaPuzza() {
+		return this.mappa.controllaPuzza(this.caselle[this.prossimaCasella()]);
+	}
+
+	@Benchmark
+	public boolean controlloValiditaMappa() {
+		return this.mappa.verificaValidita();
+	}
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.gioco.Direzioni;
+import model.gioco.Partita;
+import model.gioco.RegistroAzioni;
+import model.gioco.RiproduttorePartita;
+import model.gioco.TipoAzione;
+
+/**
+ * Benchmark della riproduzione di una partita registrata: la riproduzione completa del registro e il
+ * ritorno ad un turno intermedio, che riparte dal punto di ripristino piu' vicino.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkRiproduzione {
+
+	private RegistroAzioni registro;
+	private RiproduttorePartita riproduttore;
+
+	@Setup(Level.Trial)
+	public void registraPartita() {
+		SplittableRandom generatore = new SplittableRandom(42);
+
+		// Partita registrata il piu' lunga possibile tra alcune generate, con turni fino a 2000
+		for(long seme = 0; seme < 20; seme++) {
+			Partita partita = Partita.avviaPartitaRegistrata(false, seme, 15, 10, 5, 5, 5);
+			for(int i = 0; i < 2000; i++) {
+				TipoAzione azione = generatore.nextInt(2) == 0 ? TipoAzione.VAI : null;
+				if(partita.eseguiTurno(azione, Direzioni.spostamentoRandom(generatore)) == 0) {
+					break;
+				}
+			}
+			if(this.registro == null || partita.getRegistroAzioni().getNumeroTurni() > this.registro.getNumeroTurni()) {
+				this.registro = partita.getRegistroAzioni();
+			}
+		}
+
+		this.riproduttore = new RiproduttorePartita(this.registro);
+		this.riproduttore.riproduciTutto();
+	}
+
+	@Benchmark
+	public Partita riproduciTutto() {
+		return new RiproduttorePartita(this.registro).riproduciTutto();
+	}
+
+	@Benchmark
+	public Partita vaiAlTurno() {
+		this.riproduttore.vaiAlTurno(this.registro.getNumeroTurni());
+		return this.riproduttore.vaiAlTurno(this.registro.getNumeroTurni() - 1);
+	}
+}
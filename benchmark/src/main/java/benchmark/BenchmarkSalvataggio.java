@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.gioco.Mappa;
+
+/**
+ * Benchmark del salvataggio su file e del caricamento da file di una Mappa, nel formato testuale e
+ * nel formato binario, al variare del lato della mappa. I file vengono scritti nella cartella dei file temporanei e cancellati al termine.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkSalvataggio {
+
+	@Param({"10", "100", "1000"})
+	public int latoMappa;
+
+	private Mappa mappa;
+	private File fileSalvataggio;
+	private File fileCaricamento;
+	private File fileSalvataggioBinario;
+	private File fileCaricamentoBinario;
+
+	@Setup
+	public void preparaMappa() throws IOException {
+		this.mappa = MappaPerBenchmark.estesa(this.latoMappa, 20, new SplittableRandom(42));
+		this.fileSalvataggio = Files.createTempFile("benchmarkSalvataggio", ".txt").toFile();
+		this.fileCaricamento = Files.createTempFile("benchmarkCaricamento", ".txt").toFile();
+		this.mappa.salvataggio(this.fileCaricamento.getPath());
+		this.fileSalvataggioBinario = Files.createTempFile("benchmarkSalvataggio", ".bin").toFile();
+		this.fileCaricamentoBinario = Files.createTempFile("benchmarkCaricamento", ".bin").toFile();
+		this.mappa.salvataggioBinario(this.fileCaricamentoBinario.getPath(), null);
+	}
+
+	@TearDown
+	public void eliminaFile() {
+		this.fileSalvataggio.delete();
+		this.fileCaricamento.delete();
+		this.fileSalvataggioBinario.delete();
+		this.fileCaricamentoBinario.delete();
+	}
+
+	@Benchmark
+	public void salvataggio() {
+		this.mappa.salvataggio(this.fileSalvataggio.getPath());
+	}
+
+	@Benchmark
+	public Mappa caricamento() throws IllegalArgumentException, IOException {
+		return new MappaPerBenchmark(this.fileCaricamento);
+	}
+
+	@Benchmark
+	public void salvataggioBinario() {
+		this.mappa.salvataggioBinario(this.fileSalvataggioBinario.getPath(), null);
+	}
+
+	@Benchmark
+	public Mappa caricamentoBinario() throws IllegalArgumentException, IOException {
+		return new MappaPerBenchmark(this.fileCaricamentoBinario);
+	}
+}
@@ -0,0 +1,121 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.gioco.EsitoTurno;
+import model.gioco.Partita;
+
+/**
+ * Benchmark di un turno di gioco con il salvataggio automatico attivo, da confrontare con
+ * BenchmarkTurno.eseguiTurno: misura il costo aggiunto al thread di gioco dalla registrazione della
+ * variazione del turno (e, ogni intervalloCompattazione turni, dalla codifica dell'istantanea), mentre
+ * la scrittura su disco avviene sul thread del salvataggio automatico.
+ * Come in BenchmarkTurno, ogni iterazione gioca TURNI_PER_ITERAZIONE turni su partite preparate prima
+ * dell'iterazione; il salvataggio automatico di ogni partita viene attivato (in una propria cartella)
+ * durante la preparazione e chiuso al termine dell'iterazione, quindi la misura non comprende
+ * l'attivazione e la chiusura del salvataggio.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, batchSize = BenchmarkSalvataggioAutomatico.TURNI_PER_ITERAZIONE)
+@Measurement(iterations = 20, batchSize = BenchmarkSalvataggioAutomatico.TURNI_PER_ITERAZIONE)
+@OperationsPerInvocation(BenchmarkSalvataggioAutomatico.TURNI_PER_ITERAZIONE)
+@Fork(1)
+public class BenchmarkSalvataggioAutomatico {
+
+	// Minore che in BenchmarkTurno: ogni partita dell'iterazione ha un proprio thread di salvataggio
+	static final int TURNI_PER_ITERAZIONE = 5000;
+
+	@Param({"10", "50"})
+	public int intervalloCompattazione;
+
+	private Path cartella;
+	private PartitePerBenchmark turni;
+	private Partita[] partite;
+	private int prossimaPartita;
+	private Partita partita;
+
+	@Setup(Level.Trial)
+	public void preparaCartella() throws IOException {
+		this.cartella = Files.createTempDirectory("benchmarkSalvataggioAutomatico");
+		this.turni = new PartitePerBenchmark(42);
+	}
+
+	@Setup(Level.Iteration)
+	public void preparaPartite() throws IOException, InterruptedException {
+		this.partite = this.turni.preparaPartite(BenchmarkSalvataggioAutomatico.TURNI_PER_ITERAZIONE);
+
+		// Le istantanee iniziali vengono scritte prima dell'iterazione
+		for(int i = 0; i < this.partite.length; i++) {
+			Path cartellaPartita = Files.createDirectory(this.cartella.resolve("partita" + i));
+			this.partite[i].attivaSalvataggioAutomatico(cartellaPartita, this.intervalloCompattazione).sincronizza();
+		}
+		this.partita = this.partite[0];
+		this.prossimaPartita = 1;
+	}
+
+	@TearDown(Level.Iteration)
+	public void chiudiSalvataggi() throws IOException {
+		for(Partita chiusa : this.partite) {
+			chiusa.getSalvataggioAutomatico().close();
+		}
+		BenchmarkSalvataggioAutomatico.elimina(this.cartella, false);
+	}
+
+	@TearDown(Level.Trial)
+	public void eliminaCartella() throws IOException {
+		BenchmarkSalvataggioAutomatico.elimina(this.cartella, true);
+	}
+
+	@Benchmark
+	public int eseguiTurno() {
+		int esito = this.partita.eseguiTurno(this.turni.azione(), this.turni.direzione());
+
+		this.turni.avanza();
+		if((esito & EsitoTurno.PARTITA_TERMINATA) != 0) {
+			this.partita = this.partite[this.prossimaPartita++];
+		}
+		return esito;
+	}
+
+	// Elimina il contenuto della cartella data e, se richiesto, la cartella stessa
+	private static void elimina(Path cartella, boolean ancheCartella) throws IOException {
+		try (Stream<Path> contenuto = Files.list(cartella)) {
+			for(Path file : contenuto.toList()) {
+				if(Files.isDirectory(file)) {
+					BenchmarkSalvataggioAutomatico.elimina(file, true);
+				}
+				else {
+					Files.delete(file);
+				}
+			}
+		}
+		if(ancheCartella) {
+			Files.delete(cartella);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.elementi.CuccioloDiWumpus;
+import model.gioco.Mappa;
+
+/**
+ * Benchmark dello spostamento casuale dei cuccioli di Wumpus su di una mappa estesa in cui il 5%
+ * delle caselle contiene un cucciolo; ad ogni invocazione si sposta il cucciolo successivo, oppure si
+ * sceglie la direzione di spostamento di tutti i cuccioli, in sequenza o in parallelo (la prima fase
+ * dello spostamento dei cuccioli in un turno di gioco).
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkSpostamentoCucciolo {
+
+	@Param({"10", "100"})
+	public int latoMappa;
+
+	private SplittableRandom generatore;
+	private Mappa mappa;
+	private CuccioloDiWumpus[] cuccioli;
+	private byte[] scelte;
+	private long seme;
+	private int prossimoCucciolo;
+
+	@Setup
+	public void preparaMappa() {
+		this.generatore = new SplittableRandom(42);
+		this.mappa = Mappa.generaMappaEstesa(this.latoMappa, 20, 0.01, 0.01, Mappa.MAX_DENSITA_ELEMENTI, this.generatore.split());
+		this.cuccioli = this.mappa.getCuccioli();
+		this.scelte = new byte[this.cuccioli.length];
+	}
+
+	// Restituisce il prossimo cucciolo da spostare.
+	private CuccioloDiWumpus prossimoCucciolo() {
+		this.prossimoCucciolo = (this.prossimoCucciolo + 1) % this.cuccioli.length;
+		return this.cuccioli[this.prossimoCucciolo];
+	}
+
+	@Benchmark
+	public String sposta() {
+		return this.prossimoCucciolo().sposta(this.mappa, this.generatore);
+	}
+
+	@Benchmark
+	public boolean spostaCasualmente() {
+		return this.prossimoCucciolo().spostaCasualmente(this.mappa, this.generatore);
+	}
+
+	@Benchmark
+	public byte[] scegliSpostamentiInSequenza() {
+		this.mappa.scegliSpostamenti(this.cuccioli, this.seme++, this.scelte, Integer.MAX_VALUE);
+		return this.scelte;
+	}
+
+	@Benchmark
+	public byte[] scegliSpostamentiInParallelo() {
+		this.mappa.scegliSpostamenti(this.cuccioli, this.seme++, this.scelte, 64);
+		return this.scelte;
+	}
+}
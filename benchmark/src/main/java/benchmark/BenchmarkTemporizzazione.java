@@ -0,0 +1,129 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.gioco.Partita;
+import server.ThreadSessioni;
+
+/**
+ * Benchmark del costo della temporizzazione di numPartite partite: avvio del temporizzatore, un turno
+ * del giocatore che ne rinvia la scadenza e arresto del temporizzatore, per ogni partita.
+ * Si confrontano un thread di piattaforma per partita che dorme e viene interrotto ad ogni turno (il
+ * vecchio Temporizzatore), lo stesso ciclo su un thread per sessione di ThreadSessioni (virtuale con
+ * Java 21 o successive, di piattaforma altrimenti) e il temporizzatore condiviso, che usa un solo
+ * thread per tutte le partite. Per confrontare anche la memoria allocata si usi l'opzione -prof gc;
+ * i thread di piattaforma riservano inoltre ciascuno il proprio stack fuori dallo heap.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkTemporizzazione {
+
+	@Param({"1000", "4000"})
+	public int numPartite;
+
+	private Partita[] partite;
+	private volatile boolean fermati;
+
+	@Setup(Level.Trial)
+	public void preparaPartite() {
+		SplittableRandom generatore = new SplittableRandom(42);
+
+		this.partite = new Partita[this.numPartite];
+		for(int i = 0; i < this.partite.length; i++) {
+			this.partite[i] = Partita.avviaPartita(false, generatore.split());
+		}
+	}
+
+	// Ciclo del vecchio Temporizzatore: dorme per la durata del turno e ricomincia se viene interrotto.
+	private Runnable cicloTemporizzatore(Partita partita) {
+		return () -> {
+			while(!(this.fermati)) {
+				try {
+					Thread.sleep(Partita.DEFAULT_TEMPO_PER_TURNO);
+				}
+				catch (InterruptedException e) {
+					continue;
+				}
+				partita.turnoAutomatico();
+			}
+		};
+	}
+
+	@Benchmark
+	public void threadDiPiattaforma() throws InterruptedException {
+		Thread[] temporizzatori = new Thread[this.partite.length];
+
+		this.fermati = false;
+		for(int i = 0; i < this.partite.length; i++) {
+			temporizzatori[i] = new Thread(this.cicloTemporizzatore(this.partite[i]));
+			temporizzatori[i].setDaemon(true);
+			temporizzatori[i].start();
+		}
+		for(int i = 0; i < this.partite.length; i++) {
+			this.partite[i].eseguiTurno(null, null);
+			temporizzatori[i].interrupt();
+		}
+
+		this.fermati = true;
+		for(Thread temporizzatore : temporizzatori) {
+			temporizzatore.interrupt();
+			temporizzatore.join();
+		}
+	}
+
+	@Benchmark
+	public void threadSessioni() throws InterruptedException {
+		ExecutorService esecutore = ThreadSessioni.crea(true, "benchmark-temporizzazione");
+
+		try {
+			this.fermati = false;
+			for(Partita partita : this.partite) {
+				esecutore.execute(this.cicloTemporizzatore(partita));
+			}
+			for(Partita partita : this.partite) {
+				partita.eseguiTurno(null, null);
+			}
+			this.fermati = true;
+		}
+		finally {
+			esecutore.shutdownNow();
+			esecutore.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	@Benchmark
+	public void temporizzatoreCondiviso() {
+		for(Partita partita : this.partite) {
+			partita.avviaTemporizzazione(Partita.DEFAULT_TEMPO_PER_TURNO);
+		}
+		for(Partita partita : this.partite) {
+			partita.eseguiTurno(null, null);
+		}
+		for(Partita partita : this.partite) {
+			partita.fermaTemporizzazione();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.gioco.EsitoTurno;
+import model.gioco.Partita;
+
+/**
+ * Benchmark di un turno di gioco su di una mappa con i valori di default, con e senza la
+ * costruzione della descrizione testuale del turno.
+ * Una partita dura in media una quindicina di turni: ogni iterazione gioca un numero fisso di turni
+ * (TURNI_PER_ITERAZIONE), con le azioni calcolate una volta sola e le partite preparate prima
+ * dell'iterazione (si veda PartitePerBenchmark), in modo da misurare solo i turni; il risultato e'
+ * il tempo medio di un turno.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, batchSize = BenchmarkTurno.TURNI_PER_ITERAZIONE)
+@Measurement(iterations = 20, batchSize = BenchmarkTurno.TURNI_PER_ITERAZIONE)
+@OperationsPerInvocation(BenchmarkTurno.TURNI_PER_ITERAZIONE)
+@Fork(1)
+public class BenchmarkTurno {
+
+	static final int TURNI_PER_ITERAZIONE = 20000;
+
+	private PartitePerBenchmark turni;
+	private Partita[] partite;
+	private int prossimaPartita;
+	private Partita partita;
+
+	@Setup(Level.Trial)
+	public void preparaAzioni() {
+		this.turni = new PartitePerBenchmark(42);
+	}
+
+	@Setup(Level.Iteration)
+	public void preparaPartite() {
+		this.partite = this.turni.preparaPartite(BenchmarkTurno.TURNI_PER_ITERAZIONE);
+		this.partita = this.partite[0];
+		this.prossimaPartita = 1;
+	}
+
+	@Benchmark
+	public String turnoDiGioco() {
+		String descrizione = this.partita.turnoDiGioco(this.turni.nomeAzione(), this.turni.direzione());
+		this.prossimoTurno(this.partita.getUltimoTurno().getEsito());
+		return descrizione;
+	}
+
+	@Benchmark
+	public int eseguiTurno() {
+		int esito = this.partita.eseguiTurno(this.turni.azione(), this.turni.direzione());
+		this.prossimoTurno(esito);
+		return esito;
+	}
+
+	// Sposta il cursore delle azioni e, se la partita e' terminata, passa alla partita successiva
+	private void prossimoTurno(int esito) {
+		this.turni.avanza();
+		if((esito & EsitoTurno.PARTITA_TERMINATA) != 0) {
+			this.partita = this.partite[this.prossimaPartita++];
+		}
+	}
+}
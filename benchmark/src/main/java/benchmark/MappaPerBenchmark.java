@@ -0,0 +1,54 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.random.RandomGenerator;
+
+import model.gioco.Mappa;
+
+/*
+ * Sottoclasse di Mappa usata dai benchmark per accedere ai membri protected di Mappa (il costruttore
+ * che carica una mappa da file e il controllo di validita' della mappa), come fa la classe Mappa
+ * del package test.
+ * Le mappe si ottengono con il metodo estesa, che genera una mappa estesa e la ricarica da file:
+ * in questo modo i benchmark possono usare mappe con lato maggiore di 15 caselle.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+class MappaPerBenchmark extends Mappa {
+
+	MappaPerBenchmark(File f) throws IllegalArgumentException, IOException {
+		super(f);
+	}
+
+	/*
+	 * Genera una mappa estesa di lato dato e la ricarica da un file temporaneo, in modo da ottenere
+	 * una MappaPerBenchmark (il costruttore delle mappe estese e' privato).
+	 */
+	static MappaPerBenchmark estesa(int latoMappa, int probabilitaVoragine, RandomGenerator generatoreCasuale) {
+		Mappa generata = Mappa.generaMappaEstesa(latoMappa, probabilitaVoragine, 0.001, 0.001, 0.001, generatoreCasuale);
+		File temporaneo = null;
+
+		try {
+			temporaneo = Files.createTempFile("benchmarkMappa", ".txt").toFile();
+			generata.salvataggio(temporaneo.getPath());
+			return new MappaPerBenchmark(temporaneo);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			if(temporaneo != null) {
+				temporaneo.delete();
+			}
+		}
+	}
+
+	boolean verificaValidita() {
+		return this.controlloValiditaMappa();
+	}
+}
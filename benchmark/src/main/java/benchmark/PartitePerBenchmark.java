@@ -0,0 +1,95 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import model.gioco.Direzioni;
+import model.gioco.EsitoTurno;
+import model.gioco.Partita;
+import model.gioco.TipoAzione;
+
+/*
+ * Sequenza di turni giocati dai benchmark dei turni di gioco, su partite con i valori di default.
+ * Le azioni (casuali, come quelle di PoliticaCasuale) vengono calcolate una volta sola in un array
+ * circolare, che i benchmark scorrono con un cursore; quando una partita termina si passa alla
+ * successiva tra quelle restituite da preparaPartite.
+ * preparaPartite gioca prima i turni dell'iterazione su partite di prova, per sapere quante partite
+ * serviranno, e restituisce poi partite nuove generate con gli stessi semi: giocando le stesse azioni
+ * a partire dallo stesso cursore, le partite terminano negli stessi turni, quindi la preparazione
+ * delle partite resta interamente fuori dalla misura.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+class PartitePerBenchmark {
+
+	// Numero di azioni calcolate, potenza di 2 per scorrere l'array con una maschera
+	static final int NUMERO_AZIONI = 1 << 12;
+
+	private final SplittableRandom generatore;
+	private final TipoAzione[] azioni = new TipoAzione[PartitePerBenchmark.NUMERO_AZIONI];
+	private final String[] nomiAzioni = new String[PartitePerBenchmark.NUMERO_AZIONI];
+	private final Direzioni[] direzioni = new Direzioni[PartitePerBenchmark.NUMERO_AZIONI];
+	private int cursore;
+
+	PartitePerBenchmark(long seme) {
+		this.generatore = new SplittableRandom(seme);
+
+		for(int i = 0; i < PartitePerBenchmark.NUMERO_AZIONI; i++) {
+			this.azioni[i] = this.generatore.nextInt(4) == 0 ? TipoAzione.FRECCIA : TipoAzione.VAI;
+			this.nomiAzioni[i] = this.azioni[i].name();
+			this.direzioni[i] = Direzioni.spostamentoRandom(this.generatore);
+		}
+	}
+
+	TipoAzione azione() {
+		return this.azioni[this.cursore];
+	}
+
+	String nomeAzione() {
+		return this.nomiAzioni[this.cursore];
+	}
+
+	Direzioni direzione() {
+		return this.direzioni[this.cursore];
+	}
+
+	void avanza() {
+		this.cursore = (this.cursore + 1) & (PartitePerBenchmark.NUMERO_AZIONI - 1);
+	}
+
+	/*
+	 * Restituisce le partite, nell'ordine in cui verranno giocate, necessarie per giocare numeroTurni
+	 * turni a partire dal cursore corrente (passando alla partita successiva quando l'esito del turno
+	 * contiene PARTITA_TERMINATA); l'ultima partita puo' restare inutilizzata. Il cursore non viene
+	 * spostato.
+	 */
+	Partita[] preparaPartite(int numeroTurni) {
+		long[] semi = new long[16];
+		int numeroPartite = 0;
+		int inizio = this.cursore;
+
+		semi[numeroPartite++] = this.generatore.nextLong();
+		Partita prova = Partita.avviaPartita(false, new SplittableRandom(semi[0]));
+		for(int turno = 0; turno < numeroTurni; turno++) {
+			int esito = prova.eseguiTurno(this.azione(), this.direzione());
+			this.avanza();
+
+			if((esito & EsitoTurno.PARTITA_TERMINATA) != 0) {
+				if(numeroPartite == semi.length) {
+					semi = Arrays.copyOf(semi, 2*semi.length);
+				}
+				semi[numeroPartite] = this.generatore.nextLong();
+				prova = Partita.avviaPartita(false, new SplittableRandom(semi[numeroPartite++]));
+			}
+		}
+		this.cursore = inizio;
+
+		Partita[] partite = new Partita[numeroPartite];
+		for(int i = 0; i < numeroPartite; i++) {
+			partite[i] = Partita.avviaPartita(false, new SplittableRandom(semi[i]));
+		}
+		return partite;
+	}
+}
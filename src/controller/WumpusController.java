@@ -9,14 +9,20 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.JCheckBoxMenuItem;
 
 import model.gioco.Direzioni;
 import model.gioco.Mappa;
 import model.gioco.Partita;
+import model.gioco.RegistroAzioni;
+import model.gioco.SalvataggioAutomatico;
+import model.gioco.TipoAzione;
 import view.WumpusView;
 import view.WumpusViewCompleta;
 
@@ -31,6 +37,8 @@ public class WumpusController implements KeyListener, ActionListener {
 	private final Partita partitaCorrente;
 	private final WumpusView vistaCorrente;
 	private WumpusViewCompleta vistaCorrenteCompleta;
+	// Esito dell'ultimo turno inviato alla partita (si veda giocaTurno).
+	private CompletableFuture<Integer> ultimoTurno;
 
 	/**
 	 * Costruttore di WumpusController.
@@ -51,7 +59,8 @@ public class WumpusController implements KeyListener, ActionListener {
 	 * @param parametri Parametri opzionali: latoMappa, probabilitaVoragine, numTesori, numSuperstiti e numCuccioli.
 	 */
 	public WumpusController(boolean temporizzazioneTurno, boolean visualizzaMappaCompleta, int...parametri) {
-		this.partitaCorrente = Partita.avviaPartita(temporizzazioneTurno, parametri);
+		this.partitaCorrente = Partita.avviaPartitaRegistrata(temporizzazioneTurno, new SplittableRandom().nextLong(), parametri);
+		this.attivaSalvataggioAutomatico();
 		this.vistaCorrente = new WumpusView(partitaCorrente);
 		this.vistaCorrente.addKeyListener(this);
 		this.vistaCorrente.menuCheckBoxMusica.addActionListener(this);
@@ -81,6 +90,7 @@ public class WumpusController implements KeyListener, ActionListener {
 	 */
 	public WumpusController(boolean temporizzazioneTurno, boolean visualizzaMappaCompleta, Mappa mappa) throws IllegalArgumentException, IOException {
 		this.partitaCorrente = Partita.avviaPartita(temporizzazioneTurno, mappa);
+		this.attivaSalvataggioAutomatico();
 		this.vistaCorrente = new WumpusView(partitaCorrente);
 		this.vistaCorrente.caricamentoCaselleScoperte();
 		this.vistaCorrente.addKeyListener(this);
@@ -108,6 +118,16 @@ public class WumpusController implements KeyListener, ActionListener {
 		return this.partitaCorrente;
 	}
 	
+	/**
+	 * Metodo che restituisce l'esito dell'ultimo turno inviato dal controller alla partita, che viene
+	 * completato quando il turno e' stato giocato; serve a chi deve attendere il turno, ad esempio nei test.
+	 * 
+	 * @return Esito dell'ultimo turno inviato, oppure null se non e' stato ancora inviato alcun turno.
+	 */
+	public CompletableFuture<Integer> getUltimoTurno() {
+		return this.ultimoTurno;
+	}
+	
 	/**
 	 * Metodo che restituisce la WumpusView corrente.
 	 * 
@@ -117,23 +137,68 @@ public class WumpusController implements KeyListener, ActionListener {
 		return this.vistaCorrente;
 	}
 	
+	// Attiva il salvataggio automatico della partita nella cartella predefinita; se la cartella non e'
+	// scrivibile la partita si gioca comunque, senza salvataggio automatico.
+	private void attivaSalvataggioAutomatico() {
+		try {
+			this.partitaCorrente.attivaSalvataggioAutomatico(Path.of(SalvataggioAutomatico.CARTELLA_PREDEFINITA), SalvataggioAutomatico.DEFAULT_INTERVALLO_COMPATTAZIONE);
+		}
+		catch (IOException e) {
+			System.err.println("Salvataggio automatico non disponibile");
+		}
+	}
+	
+	// Attende che il salvataggio automatico abbia scritto su disco tutti i turni giocati.
+	private void chiudiSalvataggioAutomatico() {
+		try {
+			if(this.partitaCorrente.getSalvataggioAutomatico() != null) {
+				this.partitaCorrente.getSalvataggioAutomatico().close();
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Salvataggio automatico non riuscito");
+		}
+	}
+	
+	// Salva il registro delle azioni della partita, se e' stata registrata, nel file predefinito.
+	private void salvaRegistroAzioni() {
+		try {
+			if(this.partitaCorrente.getRegistroAzioni() != null) {
+				this.partitaCorrente.getRegistroAzioni().salva(Path.of(RegistroAzioni.REGISTRO_PREDEFINITO));
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Salvataggio del registro delle azioni non riuscito");
+		}
+	}
+	
+	// Gioca un turno attraverso la casella dei comandi della partita, in sequenza con i turni del
+	// temporizzatore, senza attenderne l'esito: il thread dell'interfaccia grafica non si blocca dietro
+	// ai turni gia' accodati, e la vista si aggiorna con i frame del bus degli eventi della partita.
+	private void giocaTurno(TipoAzione azione, Direzioni direzione) {
+		this.ultimoTurno = this.partitaCorrente.inviaTurno(azione, direzione).exceptionally(e -> {
+			System.err.println("Turno non riuscito: " + e);
+			return null;
+		});
+	}
+	
 	@Override
 	public void keyTyped(KeyEvent evt) {
 		switch (evt.getKeyChar()) {
-			case 'a', 'A' -> this.partitaCorrente.turnoDiGioco("VAI", Direzioni.OVEST);
-			case 'w', 'W' -> this.partitaCorrente.turnoDiGioco("VAI", Direzioni.NORD);
-			case 'd', 'D' -> this.partitaCorrente.turnoDiGioco("VAI", Direzioni.EST);
-			case 's', 'S' -> this.partitaCorrente.turnoDiGioco("VAI", Direzioni.SUD);
+			case 'a', 'A' -> this.giocaTurno(TipoAzione.VAI, Direzioni.OVEST);
+			case 'w', 'W' -> this.giocaTurno(TipoAzione.VAI, Direzioni.NORD);
+			case 'd', 'D' -> this.giocaTurno(TipoAzione.VAI, Direzioni.EST);
+			case 's', 'S' -> this.giocaTurno(TipoAzione.VAI, Direzioni.SUD);
 		}
 	}
 
 	@Override
 	public void keyPressed(KeyEvent evt) {
 		switch (evt.getKeyCode()) {
-			case 37 -> this.partitaCorrente.turnoDiGioco("FRECCIA", Direzioni.OVEST);
-			case 38 -> this.partitaCorrente.turnoDiGioco("FRECCIA", Direzioni.NORD);
-			case 39 -> this.partitaCorrente.turnoDiGioco("FRECCIA", Direzioni.EST);
-			case 40 -> this.partitaCorrente.turnoDiGioco("FRECCIA", Direzioni.SUD);
+			case 37 -> this.giocaTurno(TipoAzione.FRECCIA, Direzioni.OVEST);
+			case 38 -> this.giocaTurno(TipoAzione.FRECCIA, Direzioni.NORD);
+			case 39 -> this.giocaTurno(TipoAzione.FRECCIA, Direzioni.EST);
+			case 40 -> this.giocaTurno(TipoAzione.FRECCIA, Direzioni.SUD);
 		}
 	}
 	
@@ -161,11 +226,12 @@ public class WumpusController implements KeyListener, ActionListener {
 		}
 		
 		if(evt.getActionCommand().equals("Salva")) {
-			this.partitaCorrente.getMappaDiGioco().salvataggio();
-			this.vistaCorrente.salvataggioCaselleScoperte();
+			this.partitaCorrente.getMappaDiGioco().salvataggioBinario(this.vistaCorrente.caselleScoperte());
 		}
 		
 		if(evt.getActionCommand().equals("Esci")) {
+			this.chiudiSalvataggioAutomatico();
+			this.salvaRegistroAzioni();
 			System.exit(0);
 		}
 		
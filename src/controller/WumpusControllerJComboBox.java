@@ -6,14 +6,21 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.JCheckBoxMenuItem;
 
 import model.gioco.Direzioni;
 import model.gioco.Mappa;
 import model.gioco.Partita;
+import model.gioco.RegistroAzioni;
+import model.gioco.SalvataggioAutomatico;
+import model.gioco.TipoAzione;
 import view.WumpusView;
 import view.WumpusViewJComboBox;
 import view.WumpusViewJComboBoxCompleta;
@@ -29,6 +36,8 @@ public class WumpusControllerJComboBox implements ActionListener {
 	private final Partita partitaCorrente;
 	private final WumpusViewJComboBox vistaCorrente;
 	private WumpusViewJComboBoxCompleta vistaCorrenteCompleta;
+	// Esito dell'ultimo turno inviato alla partita (si veda giocaTurno).
+	private CompletableFuture<Integer> ultimoTurno;
 	
 	/**
 	 * Costruttore di WumpusController.
@@ -49,7 +58,8 @@ public class WumpusControllerJComboBox implements ActionListener {
 	 * @param parametri Parametri opzionali: latoMappa, probabilitaVoragine, numTesori, numSuperstiti e numCuccioli.
 	 */
 	public WumpusControllerJComboBox(boolean temporizzazioneTurno, boolean visualizzaMappaCompleta, int...parametri) {
-		this.partitaCorrente = Partita.avviaPartita(temporizzazioneTurno, parametri);
+		this.partitaCorrente = Partita.avviaPartitaRegistrata(temporizzazioneTurno, new SplittableRandom().nextLong(), parametri);
+		this.attivaSalvataggioAutomatico();
 		this.vistaCorrente = new WumpusViewJComboBox(partitaCorrente);
 		vistaCorrente.bottoneEsegui.addActionListener(this);
 		vistaCorrente.menuCheckBoxMusica.addActionListener(this);
@@ -79,6 +89,7 @@ public class WumpusControllerJComboBox implements ActionListener {
 	 */
 	public WumpusControllerJComboBox(boolean temporizzazioneTurno, boolean visualizzaMappaCompleta, Mappa mappa) {
 		this.partitaCorrente = Partita.avviaPartita(temporizzazioneTurno, mappa);
+		this.attivaSalvataggioAutomatico();
 		this.vistaCorrente = new WumpusViewJComboBox(partitaCorrente);
 		vistaCorrente.bottoneEsegui.addActionListener(this);
 		vistaCorrente.menuCheckBoxMusica.addActionListener(this);
@@ -103,6 +114,16 @@ public class WumpusControllerJComboBox implements ActionListener {
 		return this.partitaCorrente;
 	}
 	
+	/**
+	 * Metodo che restituisce l'esito dell'ultimo turno inviato dal controller alla partita, che viene
+	 * completato quando il turno e' stato giocato; serve a chi deve attendere il turno, ad esempio nei test.
+	 * 
+	 * @return Esito dell'ultimo turno inviato, oppure null se non e' stato ancora inviato alcun turno.
+	 */
+	public CompletableFuture<Integer> getUltimoTurno() {
+		return this.ultimoTurno;
+	}
+	
 	/**
 	 * Metodo che restituisce la WumpusView corrente.
 	 * 
@@ -112,6 +133,51 @@ public class WumpusControllerJComboBox implements ActionListener {
 		return this.vistaCorrente;
 	}
 	
+	// Attiva il salvataggio automatico della partita nella cartella predefinita; se la cartella non e'
+	// scrivibile la partita si gioca comunque, senza salvataggio automatico.
+	private void attivaSalvataggioAutomatico() {
+		try {
+			this.partitaCorrente.attivaSalvataggioAutomatico(Path.of(SalvataggioAutomatico.CARTELLA_PREDEFINITA), SalvataggioAutomatico.DEFAULT_INTERVALLO_COMPATTAZIONE);
+		}
+		catch (IOException e) {
+			System.err.println("Salvataggio automatico non disponibile");
+		}
+	}
+	
+	// Attende che il salvataggio automatico abbia scritto su disco tutti i turni giocati.
+	private void chiudiSalvataggioAutomatico() {
+		try {
+			if(this.partitaCorrente.getSalvataggioAutomatico() != null) {
+				this.partitaCorrente.getSalvataggioAutomatico().close();
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Salvataggio automatico non riuscito");
+		}
+	}
+	
+	// Gioca un turno attraverso la casella dei comandi della partita, in sequenza con i turni del
+	// temporizzatore, senza attenderne l'esito: il thread dell'interfaccia grafica non si blocca dietro
+	// ai turni gia' accodati, e la vista si aggiorna con i frame del bus degli eventi della partita.
+	private void giocaTurno(TipoAzione azione, Direzioni direzione) {
+		this.ultimoTurno = this.partitaCorrente.inviaTurno(azione, direzione).exceptionally(e -> {
+			System.err.println("Turno non riuscito: " + e);
+			return null;
+		});
+	}
+	
+	// Salva il registro delle azioni della partita, se e' stata registrata, nel file predefinito.
+	private void salvaRegistroAzioni() {
+		try {
+			if(this.partitaCorrente.getRegistroAzioni() != null) {
+				this.partitaCorrente.getRegistroAzioni().salva(Path.of(RegistroAzioni.REGISTRO_PREDEFINITO));
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Salvataggio del registro delle azioni non riuscito");
+		}
+	}
+	
 	
 	@Override
 	public void actionPerformed(ActionEvent evt) {
@@ -135,12 +201,19 @@ public class WumpusControllerJComboBox implements ActionListener {
 			// La prima String dell'array (ovvero "comandi[0]") contiene l'azione da compiere ("Vai" o "Freccia"),
 			// la seconda String (ovvero "comandi[1]") la direzione in cui compierla.
 			String[] comandi = azioneDaCompiere.split(" ");
+			TipoAzione azione = null;
+			if(comandi[0].equalsIgnoreCase("VAI")) {
+				azione = TipoAzione.VAI;
+			}
+			else if(comandi[0].equalsIgnoreCase("FRECCIA")) {
+				azione = TipoAzione.FRECCIA;
+			}
 
 			switch (comandi[1].toUpperCase()) {
-				case "NORD" -> this.partitaCorrente.turnoDiGioco(comandi[0].toUpperCase(), Direzioni.NORD);
-				case "EST" -> this.partitaCorrente.turnoDiGioco(comandi[0].toUpperCase(), Direzioni.EST);
-				case "SUD" -> this.partitaCorrente.turnoDiGioco(comandi[0].toUpperCase(), Direzioni.SUD);
-				case "OVEST" -> this.partitaCorrente.turnoDiGioco(comandi[0].toUpperCase(), Direzioni.OVEST);
+				case "NORD" -> this.giocaTurno(azione, Direzioni.NORD);
+				case "EST" -> this.giocaTurno(azione, Direzioni.EST);
+				case "SUD" -> this.giocaTurno(azione, Direzioni.SUD);
+				case "OVEST" -> this.giocaTurno(azione, Direzioni.OVEST);
 			}
 		}
 		
@@ -162,11 +235,12 @@ public class WumpusControllerJComboBox implements ActionListener {
 		}
 		
 		if(evt.getActionCommand().equals("Salva")) {
-			this.partitaCorrente.getMappaDiGioco().salvataggio();
-			this.vistaCorrente.salvataggioCaselleScoperte();
+			this.partitaCorrente.getMappaDiGioco().salvataggioBinario(this.vistaCorrente.caselleScoperte());
 		}
 		
 		if(evt.getActionCommand().equals("Esci")) {
+			this.chiudiSalvataggioAutomatico();
+			this.salvaRegistroAzioni();
 			System.exit(0);
 		}
 		
@@ -3,8 +3,12 @@ package controller;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
 import model.gioco.Mappa;
+import model.gioco.SalvataggioAutomatico;
 import view.WumpusMenu;
 
 /**
@@ -51,7 +55,7 @@ public class WumpusMenuController implements ActionListener {
 			Mappa mappa = null;
 			
 			try {
-				mappa = Mappa.caricamento();
+				mappa = WumpusMenuController.caricamentoPiuRecente();
 			
 				boolean temporizzazioneTurno = this.menu.checkBoxPerTemporizzazioneTurno.isSelected();
 				boolean visualizzaMappaCompleta = this.menu.checkBoxPerVisualizzazioneMappaCompleta.isSelected();
@@ -76,6 +80,51 @@ public class WumpusMenuController implements ActionListener {
 		}
 	}
 	
+	/*
+	 * Carica la partita salvata piu' di recente, considerando il salvataggio automatico della cartella
+	 * predefinita.
+	 */
+	private static Mappa caricamentoPiuRecente() throws IllegalArgumentException, IOException {
+		return WumpusMenuController.caricamentoPiuRecente(Path.of(SalvataggioAutomatico.CARTELLA_PREDEFINITA));
+	}
+	
+	/**
+	 * Metodo statico che carica la partita salvata piu' di recente: quella del salvataggio automatico
+	 * contenuto nella cartella data, se dall'ultimo salvataggio manuale e' stato giocato almeno un turno
+	 * e la partita e' ancora in corso, altrimenti quella del salvataggio manuale (si veda Mappa.caricamento).
+	 * 
+	 * @param cartellaAutomatica Cartella del salvataggio automatico.
+	 * @return Mappa caricata, con le caselle scoperte se e' stata ripristinata dal salvataggio automatico.
+	 * @throws IllegalArgumentException Se il salvataggio caricato non e' valido.
+	 * @throws IOException Se non e' possibile leggere il salvataggio.
+	 */
+	public static Mappa caricamentoPiuRecente(Path cartellaAutomatica) throws IllegalArgumentException, IOException {
+		FileTime automatico = SalvataggioAutomatico.ultimoAggiornamento(cartellaAutomatica);
+		
+		// Il salvataggio automatico scrive l'istantanea iniziale non appena la partita viene avviata, quindi
+		// e' piu' recente di quello manuale gia' prima del primo turno: lo si preferisce solo se contiene
+		// almeno un turno, cioe' se l'ultimo aggiornamento e' dovuto ad un turno giocato
+		if(automatico != null && SalvataggioAutomatico.ultimoTurnoSalvato(cartellaAutomatica) > 0) {
+			boolean piuRecente = true;
+			
+			for(Path manuale : new Path[] { Path.of(Mappa.SALVATAGGIO_BINARIO), Path.of("salvataggioWumpus.txt") }) {
+				if(Files.exists(manuale) && Files.getLastModifiedTime(manuale).compareTo(automatico) > 0) {
+					piuRecente = false;
+				}
+			}
+			if(piuRecente) {
+				Mappa ripristinata = SalvataggioAutomatico.ripristina(cartellaAutomatica);
+				
+				// Il salvataggio di una partita terminata viene eliminato al termine della partita; questo
+				// controllo riguarda quelli interrotti subito prima dell'eliminazione
+				if(ripristinata.getAgente().getInGioco() && ripristinata.getWumpus().getInGioco()) {
+					return ripristinata;
+				}
+			}
+		}
+		return Mappa.caricamento();
+	}
+	
 	/*public static void main(String[] args) {
 		new WumpusMenuController();
 	}*/
@@ -1,5 +1,8 @@
 package model.elementi;
 
+import java.util.random.RandomGenerator;
+
+import model.gioco.Casella;
 import model.gioco.Direzioni;
 
 /**
@@ -24,10 +27,11 @@ public class Agente extends PersonaggioMondoDelWumpus {
 	 * Genera un nuovo Agente in una casella a caso nella mappa.
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Agente(int latoMappa) throws IllegalArgumentException {
-		this(latoMappa, Agente.DEFAULT_NOME);
+	public Agente(int latoMappa, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, Agente.DEFAULT_NOME, generatore);
 	}
 	
 	/**
@@ -36,10 +40,11 @@ public class Agente extends PersonaggioMondoDelWumpus {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param nome Nome da attribuire all'Agente.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Agente(int latoMappa, String nome) throws IllegalArgumentException {
-		super(latoMappa, nome);
+	public Agente(int latoMappa, String nome, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoMappa, nome, generatore);
 		this.numFrecce = 1;
 		this.punteggio = 0;
 	}
@@ -131,25 +136,38 @@ public class Agente extends PersonaggioMondoDelWumpus {
 	 * Metodo per il lancio di una freccia.
 	 * 
 	 * @param direzione La direzione in cui si vuole scoccare la freccia.
-	 * @return Un Bersaglio che rappresenta la casella colpita.
+	 * @return La casella colpita, codificata in un long (si veda Casella), che puo' essere esterna alla
+	 * 		mappa se la freccia e' stata scagliata contro le pareti della caverna (si veda Mappa.contiene);
+	 * 		Casella.NESSUNA se l'Agente non aveva piu' frecce.
 	 */
-	public Elemento scoccaFreccia(Direzioni direzione) throws IndexOutOfBoundsException {
+	public long scoccaFreccia(Direzioni direzione) {
+		if(!(this.scagliaFreccia(direzione))) {
+			return Casella.NESSUNA;
+		}
+		
+		// La casella colpita e' quella adiacente alla casella dell'agente nella direzione del lancio:
+		// sara' il chiamante a controllare se appartiene alla mappa.
+		return direzione.adiacente(this.getCasella());
+	}
+	
+	/**
+	 * Metodo per il lancio di una freccia che, a differenza di scoccaFreccia, non istanzia alcun Elemento
+	 * per rappresentare la casella colpita: sara' il chiamante a calcolarla a partire dalla posizione
+	 * dell'Agente e dalla direzione.
+	 * 
+	 * @param direzione La direzione in cui si vuole scoccare la freccia.
+	 * @return <em>true</em> se la freccia e' stata scagliata, <em>false</em> se l'Agente non aveva piu' frecce.
+	 */
+	public boolean scagliaFreccia(Direzioni direzione) {
 		if(this.getNumFrecce() <= 0) {
-			return null;
+			return false;
 		}
 
 		this.variaFrecce(-1);
-		this.supportoEventi.firePropertyChange("freccia", null, direzione.name());
-		
-		// Restituisce un'istanza di una classe anonima con tipo statico Elemento che rappresenta
-		// la casella in cui l'agente ha scagliato la freccia, o lancia una IndexOutOfBoundsException
-		// se le coordinate passate eccedono i limiti della mappa (il lancio dell'eccezione viene
-		// effettuato direttamente dal costruttore di Elemento).
-		// A livello superiore si potra' catturare la IndexOutOfBoundsException e gestire nel modo
-		// che si riterra' opportuno il fatto che la freccia sia stata scagliata fuori dalla mappa.
-		// Non e' necessario definire nulla in questa classe anonima, dato che viene usato semplicemente
-		// il costuttore di Elemento con firma Elemento(int, int, int).
-		return new Elemento(this.getLatoScacchiera(), this.getRiga() + direzione.getSpostamentoRiga(), this.getColonna() + direzione.getSpostamentoColonna()) {};
+		if(this.haListener("freccia")) {
+			this.supportoEventi.firePropertyChange("freccia", null, direzione.name());
+		}
+		return true;
 	}
 	
 	/**
@@ -160,7 +178,9 @@ public class Agente extends PersonaggioMondoDelWumpus {
 	protected void variaPunteggio(int variazione) {
 		int oldPunteggio = this.getPunteggio();
 		this.punteggio += variazione;
-		this.supportoEventi.firePropertyChange("punteggio", oldPunteggio, this.getPunteggio());
+		if(this.haListener("punteggio")) {
+			this.supportoEventi.firePropertyChange("punteggio", oldPunteggio, this.getPunteggio());
+		}
 	}
 	
 	/**
@@ -171,7 +191,9 @@ public class Agente extends PersonaggioMondoDelWumpus {
 	protected void variaFrecce(int variazione) {
 		int oldNumFrecce = this.getNumFrecce();
 		this.numFrecce += variazione;
-		this.supportoEventi.firePropertyChange("numFrecce", oldNumFrecce, this.getNumFrecce());
+		if(this.haListener("numFrecce")) {
+			this.supportoEventi.firePropertyChange("numFrecce", oldNumFrecce, this.getNumFrecce());
+		}
 	}
 	
 	/**
@@ -183,7 +205,9 @@ public class Agente extends PersonaggioMondoDelWumpus {
 	public boolean eliminaAgenteWumpus() {
 		boolean oldValue = this.getInGioco();
 		boolean valoreDiRitorno = this.eliminaElemento();
-		this.supportoEventi.firePropertyChange("uccisoDaWumpus", oldValue, this.getInGioco());
+		if(this.haListener("uccisoDaWumpus")) {
+			this.supportoEventi.firePropertyChange("uccisoDaWumpus", oldValue, this.getInGioco());
+		}
 		
 		return valoreDiRitorno;
 	}
@@ -197,7 +221,9 @@ public class Agente extends PersonaggioMondoDelWumpus {
 	public boolean eliminaAgenteVoragine() {
 		boolean oldValue = this.getInGioco();
 		boolean valoreDiRitorno = this.eliminaElemento();
-		this.supportoEventi.firePropertyChange("uccisoDaVoragine", oldValue, this.getInGioco());
+		if(this.haListener("uccisoDaVoragine")) {
+			this.supportoEventi.firePropertyChange("uccisoDaVoragine", oldValue, this.getInGioco());
+		}
 		
 		return valoreDiRitorno;
 	}	
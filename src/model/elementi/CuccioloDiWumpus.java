@@ -1,6 +1,6 @@
 package model.elementi;
 
-import java.util.HashSet;
+import java.util.random.RandomGenerator;
 
 import model.gioco.Direzioni;
 import model.gioco.Mappa;
@@ -18,16 +18,21 @@ import model.gioco.Mappa;
 public class CuccioloDiWumpus extends PersonaggioMondoDelWumpus {
 	
 	public static final String DEFAULT_NOME = "Goriya";
+	// Possibili esiti dell'incontro tra un CuccioloDiWumpus e l'Agente (si veda derubaAgente).
+	public static final int FURTO_NULLA = 0;
+	public static final int FURTO_FRECCIA = 1;
+	public static final int FURTO_ORO = 2;
 
 	/**
 	 * Costruttore di CuccioloDiWumpus.
 	 * Genera un nuovo CuccioloDiWumpus in una casella a caso nella mappa.
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public CuccioloDiWumpus(int latoMappa) throws IllegalArgumentException {
-		this(latoMappa, CuccioloDiWumpus.DEFAULT_NOME);
+	public CuccioloDiWumpus(int latoMappa, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, CuccioloDiWumpus.DEFAULT_NOME, generatore);
 	}
 	
 	/**
@@ -36,10 +41,11 @@ public class CuccioloDiWumpus extends PersonaggioMondoDelWumpus {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param nome Nome da attribuire al CuccioloDiWumpus.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public CuccioloDiWumpus(int latoMappa, String nome) throws IllegalArgumentException {
-		super(latoMappa, nome);
+	public CuccioloDiWumpus(int latoMappa, String nome, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoMappa, nome, generatore);
 	}
 	
 	/**
@@ -92,92 +98,110 @@ public class CuccioloDiWumpus extends PersonaggioMondoDelWumpus {
 	 * Metodo che permette di spostare il CuccioloDiWumpus nella mappa di gioco.
 	 * La mappa di gioco in cui spostare il CuccioloDiWumpus viene passata come parametro al metodo
 	 * (necessario per effettuare i controlli richiesti per la validita' dello spostamento)
-	 * Il movimento del CuccioloDiWumpus avviene in una direzione casuale.
+	 * Il movimento del CuccioloDiWumpus avviene in una direzione casuale, scelta con il generatore di
+	 * numeri casuali della mappa (si veda Mappa.getGeneratoreCasuale).
 	 * 
 	 * @param mappaDiGioco la mappa in cui il CuccioloDiWumpus deve spostarsi.
 	 * @return <em>true</em> se lo spostamento va a buon fine, <em>false</em> altrimenti.
 	 */
 	public String sposta(Mappa mappaDiGioco) {
+		return this.sposta(mappaDiGioco, mappaDiGioco.getGeneratoreCasuale());
+	}
+	
+	/**
+	 * Metodo che sposta il CuccioloDiWumpus in una casella adiacente, purche' valida e libera, in una
+	 * direzione scelta con il generatore di numeri casuali indicato.
+	 * 
+	 * @param mappaDiGioco la mappa in cui il CuccioloDiWumpus deve spostarsi.
+	 * @param generatore Generatore di numeri casuali della partita.
+	 * @return String descrizione dello spostamento.
+	 */
+	public String sposta(Mappa mappaDiGioco, RandomGenerator generatore) {
 		String res = "";
+		
+		if(this.spostaCasualmente(mappaDiGioco, generatore)) {
+			res += "Il cucciolo di Wumpus " + this.getNome() + " si sposta nella casella " + this.getRiga() + ", " + this.getColonna();
+		}
+		// Altrimenti, se sono state tentate tutte le direzioni, il cucciolo non si puo' spostare.
+		else {
+			res += "Il cucciolo di Wumpus " + this.getNome() + " non si muove.";
+		}
+		
+		return res;
+	}
+	
+	/**
+	 * Metodo che sposta il CuccioloDiWumpus in una casella adiacente, purche' valida e libera, come
+	 * sposta(Mappa, RandomGenerator), ma senza costruire la descrizione testuale dello spostamento.
+	 * 
+	 * @param mappaDiGioco la mappa in cui il CuccioloDiWumpus deve spostarsi.
+	 * @param generatore Generatore di numeri casuali della partita.
+	 * @return <em>true</em> se lo spostamento va a buon fine, <em>false</em> altrimenti.
+	 */
+	public boolean spostaCasualmente(Mappa mappaDiGioco, RandomGenerator generatore) {
 		// La direzione di spostamento e' generata casualmente
-		// (metodo statico spostamentoRandom() dell'enumerativo Direzioni)
+		// (metodo statico spostamentoRandom(RandomGenerator) dell'enumerativo Direzioni)
 		Direzioni direzione;
-		// HashSet per tenere traccia delle direzioni di spostamento gia' tentate.
-		// Si usa un HashSet per escludere automaticamente eventuali nuove generazioni
-		// di valori gia' precedentemente generati (l'HashSet non permette l'inserimento
-		// di elementi ripetuti); in questo modo se l'HashSet raggiunge la dimensione 4
-		// si ha la conferma di aver gia' tentato tutte le 4 direzioni di spostamento
-		// possibili.
-		HashSet<Direzioni> direzioniGiaTentate = new HashSet<Direzioni>();
-		// Controfigura del cucciolo per verificare se lo spostamento e' possibile
-		PersonaggioMondoDelWumpus controfigura;
-		
-		boolean spostamento = false;
+		// Maschera di bit per tenere traccia delle direzioni di spostamento gia' tentate (il bit
+		// di posizione ordinal() e' a 1 se la direzione e' gia' stata tentata): quando tutti e
+		// quattro i bit sono a 1 si ha la conferma di aver gia' tentato tutte le direzioni possibili.
+		int direzioniGiaTentate = 0;
+		// Le direzioni in cui il cucciolo puo' spostarsi vengono lette una volta sola dall'indice di
+		// occupazione della mappa: non cambiano mentre il cucciolo sceglie la direzione.
+		int direzioniLibere = mappaDiGioco.direzioniLibere(this.getCasella());
 		
 		// Ciclo do...while per spostare casualmente il cucciolo in una casella adiacente,
-		// purche' valida e libera.
-		// Il ciclo viene ripetuto finche' lo spostamento non va a buon fine (ovvero se si
-		// raggiunge una casella non valida oppure gia' occupata), purche' non si siano gia'
-		// tentate tutte le direzioni possibili; qualora si verificasse l'impossibilta' di
-		// spostare il cucciolo in nessuna delle caselle adiacenti il ciclo non verrebbe
-		// comunque ripetuto ulteriormente.
-		// La condizione di ripetizione e' data dalla valutazione dell'espressione
-		// (!(spostamento) || !(mappaDiGioco.contenutoCasella(controfigura) == null)) && direzioniGiaTentate.size() < 4
+		// purche' valida e libera; il ciclo termina appena si trova una tale casella oppure
+		// quando sono state tentate tutte le direzioni possibili.
 		do {
 			// Ciclo do...while per generare uno spostamento casuale; nel caso in cui si
-			// generi nuovamente uno spostamento gia' precedentemente tentato e ci siano
-			// ancora possibili direzioni da tentare, si genera una nuova direzione;
-			// la condizione di ripetizione e' data dalla valutazione dell'espressione
-			// direzioniGiaTentate.contains(direzione) && direzioniGiaTentate.size() < 4
+			// generi nuovamente uno spostamento gia' precedentemente tentato si genera una
+			// nuova direzione.
 			do {
-				direzione = Direzioni.spostamentoRandom();
-			} while(direzioniGiaTentate.contains(direzione) && direzioniGiaTentate.size() < 4);
-			
-			// Si aggiunge la direzione di spostamento appena generata all'HashSet delle
-			// direzioni gia' tentate
-			direzioniGiaTentate.add(direzione);
+				direzione = Direzioni.spostamentoRandom(generatore);
+			} while((direzioniGiaTentate & (1 << direzione.ordinal())) != 0);
 			
-			// Si istanzia una controfigura del cucciolo per verificare se lo spostamento e'
-			// possibile; la controfigura e' istanziata come oggetto di una classe anonima con
-			// tipo statico PersonaggioMondoDelWumpus e con valori di latoScacchiera, Riga e 
-			// Colonna identici a quelli del cucciolo che si sta tentando di spostare.
-			// Non e' necessario definire nulla in questa classe anonima, dato che viene usato
-			// semplicemente il costuttore di PersonaggioMondoDelWumpus con firma
-			// PersonaggioMondoDelWumpus(int, int, int, String).
-			// Sulla controfigura potranno venire richiamati tutti i metodi implementati fino a
-			// PersonaggioMondoDelWumpus: verra' richiamata l'implementazione che i metodi hanno
-			// a questo livello di astrazione.
-			controfigura = new PersonaggioMondoDelWumpus(this.getLatoScacchiera(), this.getRiga(), this.getColonna(), "Controfigura") {};
+			direzioniGiaTentate |= 1 << direzione.ordinal();
 			
-			// Tentativo di spostamento della controfigura nella direzione generata casualmente
-			spostamento = controfigura.sposta(direzione);
-
-		} while((!(spostamento) || !(mappaDiGioco.contenutoCasella(controfigura) == null)) && direzioniGiaTentate.size() < 4);
-
-		
-		// Se il ciclo e' terminato trovando una casella valida effettua lo spostamento effettivo
-		// del cucciolo.
-		if(spostamento && mappaDiGioco.contenutoCasella(controfigura) == null) {
-			this.sposta(direzione);
-			res += "Il cucciolo di Wumpus " + this.getNome() + " si sposta nella casella " + this.getRiga() + ", " + this.getColonna();
-		}
-		// Altrimenti, se il ciclo fosse terminato per l'esaurimento dei tentativi, il cucciolo non
-		// si puo' spostare.
-		else {
-			res += "Il cucciolo di Wumpus " + this.getNome() + " non si muove.";
-		}
+			if((direzioniLibere & (1 << direzione.ordinal())) != 0) {
+				return this.sposta(direzione);
+			}
+		} while(direzioniGiaTentate != 0b1111);
 		
-		return res;
+		return false;
 	}
 	
 	/**
-	 * Metodo per gestire la collisione del CuccioloDiWumpus con l'Agente.
+	 * Metodo per gestire la collisione del CuccioloDiWumpus con l'Agente, usando il generatore di numeri
+	 * casuali indicato per scegliere cosa rubare.
 	 * 
-	 * @param agente Agente con cui  avvenuta la collisione.
+	 * @param agente Agente con cui e' avvenuta la collisione.
+	 * @param generatore Generatore di numeri casuali della partita.
 	 * @return String stringa contenente la descrizione dell'andamento dell'incontro
 	 */
-	public String incontroConAgente(Agente agente) {
+	public String incontroConAgente(Agente agente, RandomGenerator generatore) {
 		String res = "";
+
+		switch(this.derubaAgente(agente, generatore)) {
+			case CuccioloDiWumpus.FURTO_FRECCIA -> res += this.getNome() + " ruba a " + agente.getNome() + " una freccia.";
+			case CuccioloDiWumpus.FURTO_ORO -> res += this.getNome() + " ruba a " + agente.getNome() + " 50 monete d'oro.";
+			default -> res += this.getNome() + " non trova nulla da rubare.";
+		}
+			
+		res += "\n" + this.getNome() + " scompare dalla mappa.";
+		return res;
+	}
+	
+	/**
+	 * Metodo per gestire la collisione del CuccioloDiWumpus con l'Agente come incontroConAgente, ma
+	 * senza costruire la descrizione testuale dell'incontro.
+	 * 
+	 * @param agente Agente con cui e' avvenuta la collisione.
+	 * @param generatore Generatore di numeri casuali della partita.
+	 * @return Cio' che il CuccioloDiWumpus ha rubato: FURTO_FRECCIA, FURTO_ORO o FURTO_NULLA.
+	 */
+	public int derubaAgente(Agente agente, RandomGenerator generatore) {
+		int furto;
 		boolean oldValue = this.getInGioco();
 		// Il cucciolo ruba qualcosa al giocatore (se il giocatore ha qualcosa da rubare),
 		// poi scompare.
@@ -185,35 +209,34 @@ public class CuccioloDiWumpus extends PersonaggioMondoDelWumpus {
 		// Se il giocatore ha sia oro che frecce, il cucciolo sottrae o una freccia o dell'oro
 		// con probabilita' differenti (rispettivamente 20% e 80%),
 		if(agente.getPunteggio() > 0 && agente.getNumFrecce() > 0) {
-			if(Math.random() < 0.2) {
-				res += this.getNome() + " ruba a " + agente.getNome() + " una freccia.";
-				agente.variaFrecce(-1);
-			}
-			else {
-				res += this.getNome() + " ruba a " + agente.getNome() + " 50 monete d'oro.";
-				agente.variaPunteggio(-50);
-			}
+			furto = generatore.nextDouble() < 0.2 ? CuccioloDiWumpus.FURTO_FRECCIA : CuccioloDiWumpus.FURTO_ORO;
 		}
 		// altrimenti se il giocatore ha solo frecce ma non oro, il cucciolo sottrae una freccia,
 		else if(agente.getPunteggio() == 0 && agente.getNumFrecce() > 0) {
-			res += this.getNome() + " ruba a " + agente.getNome() + " una freccia.";
-			agente.variaFrecce(-1);
+			furto = CuccioloDiWumpus.FURTO_FRECCIA;
 		}
 		// altrimenti se il giocatore ha oro ma non frecce, il cucciolo sottrae dell'oro.
 		else if(agente.getPunteggio() > 0 && agente.getNumFrecce() == 0) {
-			res += this.getNome() + " ruba a " + agente.getNome() + " 50 monete d'oro.";
-			agente.variaPunteggio(-50);
+			furto = CuccioloDiWumpus.FURTO_ORO;
 		}
 		// Se il giocatore non ha ne' frecce ne' oro il cucciolo non ruba nulla.
 		else {
-			res += this.getNome() + " non trova nulla da rubare.";
+			furto = CuccioloDiWumpus.FURTO_NULLA;
+		}
+		
+		if(furto == CuccioloDiWumpus.FURTO_FRECCIA) {
+			agente.variaFrecce(-1);
+		}
+		else if(furto == CuccioloDiWumpus.FURTO_ORO) {
+			agente.variaPunteggio(-50);
 		}
 			
 		// Dopo aver derubato il giocatore il cucciolo viene eliminato dal gioco.
-		res += "\n" + this.getNome() + " scompare dalla mappa.";
 		this.eliminaElemento();
-		this.supportoEventi.firePropertyChange("cucciolo", oldValue, this.getInGioco());
-		return res;
+		if(this.haListener("cucciolo")) {
+			this.supportoEventi.firePropertyChange("cucciolo", oldValue, this.getInGioco());
+		}
+		return furto;
 	}
 	
 	/**
@@ -223,11 +246,13 @@ public class CuccioloDiWumpus extends PersonaggioMondoDelWumpus {
 	 */
 	public boolean uccisioneCucciolo() {
 		if(this.getInGioco()) {
-			// Uso di una classe anonima per poter istanziare un oggetto di tipo Elemento, che costituisce
-			// il vecchio valore con il quale viene creato il PropertyChangeEvent
-			Elemento oldElemento = new Elemento(this.getLatoScacchiera(), this.getRiga(), this.getColonna()) {};
 			this.inGioco = false;
-			this.supportoEventi.firePropertyChange("uccisioneCucciolo", oldElemento, this);
+			this.notificaEliminazione();
+			if(this.haListener("uccisioneCucciolo")) {
+				// Il vecchio valore dell'evento e' la casella in cui si trovava l'elemento, codificata in
+				// un long (si veda Casella)
+				this.supportoEventi.firePropertyChange("uccisioneCucciolo", this.getCasella(), this);
+			}
 			return true;
 		}
 		else {
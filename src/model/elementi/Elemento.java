@@ -1,5 +1,9 @@
 package model.elementi;
 
+import java.util.random.RandomGenerator;
+
+import model.gioco.Casella;
+
 /**
  * Classe astratta per la creazione e gestione di elementi di un qualsiasi gioco che si svolga
  * su di una scacchiera quadrata.
@@ -35,16 +39,26 @@ public abstract class Elemento {
 	 * Costruttore di Elemento.
 	 * Istanzia un oggetto di tipo Elemento collocandolo in una casella a caso di una scacchiera quadrata
 	 * la cui dimensione del lato (in caselle) viene passata al costruttore come parametro.
-	 * Le coordinate casuali vengono generate attraverso l'espressione (int) (Math.random()*latoScacchiera)
-	 * che restituisce un intero compreso tra 0 e (latoScacchiera - 1).
+	 * Le coordinate casuali vengono generate dal generatore di numeri casuali ricevuto, in modo che
+	 * una partita generata a partire da un seme sia riproducibile.
 	 * La dimensione del lato della scacchiera deve essere un valore strettamente maggiore di 0.
 	 * 
 	 * @param latoScacchiera Dimensione (in caselle) del lato della scacchiera.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
 	 * @throws IllegalArgumentException Se la dimensione del lato della scacchiera non e' strettamente
-	 * 			maggiore di 0.
+	 * 			maggiore di 0, o se il generatore e' null.
 	 */
-	protected Elemento(int latoScacchiera) throws IllegalArgumentException {
-		this(latoScacchiera, (int) (Math.random()*latoScacchiera), (int) (Math.random()*latoScacchiera));
+	protected Elemento(int latoScacchiera, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoScacchiera, Elemento.coordinataCasuale(latoScacchiera, generatore), Elemento.coordinataCasuale(latoScacchiera, generatore));
+	}
+	
+	// Genera una coordinata casuale compresa tra 0 e (latoScacchiera - 1); se il lato non e' valido
+	// restituisce 0, lasciando che sia il costruttore di Elemento a lanciare l'eccezione corrispondente.
+	private static int coordinataCasuale(int latoScacchiera, RandomGenerator generatore) throws IllegalArgumentException {
+		if(generatore == null) {
+			throw new IllegalArgumentException("E' necessario indicare il generatore di numeri casuali");
+		}
+		return latoScacchiera > 0 ? generatore.nextInt(latoScacchiera) : 0;
 	}
 	
 	/*
@@ -103,6 +117,15 @@ public abstract class Elemento {
 		return this.colonna;
 	}
 
+	/**
+	 * Metodo che restituisce la casella in cui si trova l'Elemento, codificata in un long.
+	 * 
+	 * @return Casella dell'Elemento (si veda Casella).
+	 */
+	public long getCasella() {
+		return Casella.di(this.riga, this.colonna);
+	}
+
 	/**
 	 * Metodo che restituisce un booleano che indica se l'Elemento  ancora in gioco o no.
 	 * 
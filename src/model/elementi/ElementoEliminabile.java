@@ -2,6 +2,7 @@ package model.elementi;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.random.RandomGenerator;
 
 /**
  * Classe astratta per la creazione e gestione di elementi di un qualsiasi gioco che si svolga
@@ -17,9 +18,18 @@ import java.beans.PropertyChangeSupport;
 public abstract class ElementoEliminabile extends Elemento {
 	protected final String nome;
 	/*
-	 * Istanza di PropertyChangeSupport per gestire gli eventi riguardanti un personaggio
+	 * Istanza di PropertyChangeSupport per gestire gli eventi riguardanti un personaggio: viene creata
+	 * solo quando viene aggiunto il primo listener, quindi vale null finche' nessuno ascolta gli eventi
+	 * dell'elemento (la Mappa non li ascolta: aggiorna l'indice delle caselle attraverso IndicePosizioni).
+	 * Le sottoclassi lanciano un evento solo dopo aver controllato con haListener che qualcuno lo ascolti.
 	 */
-	protected PropertyChangeSupport supportoEventi;
+	protected volatile PropertyChangeSupport supportoEventi;
+	/*
+	 * Indice che tiene traccia della casella occupata dall'elemento (ad esempio quello della Mappa in cui
+	 * l'elemento e' stato collocato), oppure null: viene chiamato direttamente ad ogni spostamento e ad
+	 * ogni eliminazione, anche se nessuno ascolta gli eventi dell'elemento.
+	 */
+	private IndicePosizioni indicePosizioni;
 	
 	/*
 	 * Costruttore di ElementoEliminabile.
@@ -29,13 +39,13 @@ public abstract class ElementoEliminabile extends Elemento {
 	 * La dimensione del lato della scacchiera deve essere un valore strettamente maggiore di 0.
 	 * 
 	 * @param latoScacchiera Dimensione del lato della scacchiera.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
 	 * @throws IllegalArgumentException Se la dimensione del lato della scacchiera non e' strettamente
 	 * 			maggiore di 0.
 	 */
-	protected ElementoEliminabile(int latoScacchiera, String nome) throws IllegalArgumentException {
-		super(latoScacchiera);
+	protected ElementoEliminabile(int latoScacchiera, String nome, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoScacchiera, generatore);
 		this.nome = nome;
-		this.supportoEventi = new PropertyChangeSupport(this);
 	}
 	
 	/*
@@ -55,7 +65,6 @@ public abstract class ElementoEliminabile extends Elemento {
 	protected ElementoEliminabile(int latoScacchiera, int riga, int colonna, String nome) throws IllegalArgumentException, IndexOutOfBoundsException {
 		super(latoScacchiera, riga, colonna);
 		this.nome = nome;
-		this.supportoEventi = new PropertyChangeSupport(this);
 	}
 	
 	/**
@@ -78,11 +87,13 @@ public abstract class ElementoEliminabile extends Elemento {
 	 */
 	protected boolean eliminaElemento() {
 		if(this.getInGioco()) {
-			// Uso di una classe anonima per poter istanziare un oggetto di tipo Elemento, che costituisce
-			// il vecchio valore con il quale viene creato il PropertyChangeEvent
-			Elemento oldElemento = new Elemento(this.getLatoScacchiera(), this.getRiga(), this.getColonna()) {};
 			this.inGioco = false;
-			this.supportoEventi.firePropertyChange("eliminazione", oldElemento, this);
+			this.notificaEliminazione();
+			if(this.haListener("eliminazione")) {
+				// Il vecchio valore dell'evento e' la casella in cui si trovava l'elemento, codificata in
+				// un long (si veda Casella)
+				this.supportoEventi.firePropertyChange("eliminazione", this.getCasella(), this);
+			}
 			return true;
 		}
 		else {
@@ -90,12 +101,72 @@ public abstract class ElementoEliminabile extends Elemento {
 		}
 	}
 
+	/**
+	 * Metodo che collega l'elemento all'indice che tiene traccia della sua casella, al posto di quello a
+	 * cui era eventualmente collegato in precedenza: un elemento appartiene ad un solo indice alla volta.
+	 * 
+	 * @param indice Indice da aggiornare ad ogni spostamento o eliminazione dell'elemento, oppure null
+	 * 		per scollegarlo.
+	 */
+	public void collegaIndice(IndicePosizioni indice) {
+		this.indicePosizioni = indice;
+	}
+
+	/*
+	 * Metodo che comunica all'indice collegato lo spostamento dell'elemento dalla casella di coordinate
+	 * date a quella in cui si trova ora.
+	 */
+	protected void notificaSpostamento(int vecchiaRiga, int vecchiaColonna) {
+		if(this.indicePosizioni != null) {
+			this.indicePosizioni.spostamento(this, vecchiaRiga*this.getLatoScacchiera() + vecchiaColonna, this.getRiga()*this.getLatoScacchiera() + this.getColonna());
+		}
+	}
+
+	/*
+	 * Metodo che comunica all'indice collegato l'uscita dal gioco dell'elemento: va chiamato dalle
+	 * sottoclassi che eliminano l'elemento senza passare da eliminaElemento.
+	 */
+	protected void notificaEliminazione() {
+		if(this.indicePosizioni != null) {
+			this.indicePosizioni.eliminazione(this, this.getRiga()*this.getLatoScacchiera() + this.getColonna());
+		}
+	}
+
 	/**
 	 * Metodo che aggiunge un PropertyChangeListener di ElementoEliminabile.
 	 * 
 	 * @param listener PropertyChangeListener da aggiungere.
 	 */
 	public void aggiungiListener(PropertyChangeListener listener) {
-		this.supportoEventi.addPropertyChangeListener(listener);
+		this.creaSupportoEventi().addPropertyChangeListener(listener);
+	}
+
+	/**
+	 * Metodo che aggiunge un PropertyChangeListener di ElementoEliminabile che riceve solo gli eventi
+	 * con il nome dato.
+	 * 
+	 * @param nomeEvento Nome degli eventi da ricevere.
+	 * @param listener PropertyChangeListener da aggiungere.
+	 */
+	public void aggiungiListener(String nomeEvento, PropertyChangeListener listener) {
+		this.creaSupportoEventi().addPropertyChangeListener(nomeEvento, listener);
+	}
+
+	// Restituisce il PropertyChangeSupport dell'elemento, creandolo se non esiste ancora.
+	private synchronized PropertyChangeSupport creaSupportoEventi() {
+		if(this.supportoEventi == null) {
+			this.supportoEventi = new PropertyChangeSupport(this);
+		}
+		return this.supportoEventi;
+	}
+
+	/*
+	 * Metodo che indica se qualche listener riceve gli eventi con il nome dato: gli eventi che nessuno
+	 * ascolta non vengono lanciati, in modo da non creare l'evento e i valori che lo accompagnano ad
+	 * ogni turno di gioco.
+	 */
+	protected boolean haListener(String nomeEvento) {
+		PropertyChangeSupport supporto = this.supportoEventi;
+		return supporto != null && supporto.hasListeners(nomeEvento);
 	}
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package model.elementi;
 
+import java.util.random.RandomGenerator;
+
+import model.gioco.Casella;
+
 /**
  * Classe astratta per la creazione e gestione di elementi mobili di un qualsiasi gioco che si svolga
  * su di una scacchiera quadrata.
@@ -19,12 +23,13 @@ public abstract class ElementoMobile extends ElementoEliminabile {
 	 * 
 	 * @param latoScacchiera Dimensione del lato della scacchiera.
 	 * @param nome Nome da dare all'Elemento
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
 	 * @throws IllegalArgumentException Se la dimensione del lato della scacchiera non e' strettamente
 	 * 			maggiore di 0.
 	 * 
 	 */
-	protected ElementoMobile(int latoScacchiera, String nome) throws IllegalArgumentException {
-		super(latoScacchiera, nome);
+	protected ElementoMobile(int latoScacchiera, String nome, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoScacchiera, nome, generatore);
 	}
 	
 	/*
@@ -72,12 +77,14 @@ public abstract class ElementoMobile extends ElementoEliminabile {
 			return false;
 		}
 		
-		// Uso di una classe anonima per poter istanziare un oggetto di tipo Elemento, che costituisce
-		// il vecchio valore con il quale viene creato il PropertyChangeEvent
-		Elemento oldElemento = new Elemento(this.getLatoScacchiera(), oldRiga, oldColonna) {};
 		this.riga = newRiga;
 		this.colonna = newColonna;
-		this.supportoEventi.firePropertyChange("spostamento", oldElemento, this);
+		this.notificaSpostamento(oldRiga, oldColonna);
+		if(this.haListener("spostamento")) {
+			// Il vecchio valore dell'evento e' la casella da cui l'elemento si e' spostato, codificata
+			// in un long (si veda Casella)
+			this.supportoEventi.firePropertyChange("spostamento", Casella.di(oldRiga, oldColonna), this);
+		}
 		return true;
 	}
 }
\ No newline at end of file
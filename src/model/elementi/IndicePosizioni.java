@@ -0,0 +1,33 @@
+package model.elementi;
+
+/**
+ * Interfaccia degli indici che tengono traccia della casella occupata dagli elementi eliminabili (ad
+ * esempio l'indice delle caselle di una Mappa).
+ * Un elemento collegato ad un indice (si veda ElementoEliminabile.collegaIndice) lo chiama direttamente
+ * ogni volta che si sposta o esce dal gioco, senza passare dagli eventi: l'aggiornamento dell'indice non
+ * crea quindi alcun oggetto, anche quando qualcuno ascolta gli eventi dell'elemento.
+ * Le caselle sono codificate nella forma riga*latoScacchiera + colonna.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public interface IndicePosizioni {
+
+	/**
+	 * Metodo chiamato dopo che un elemento si e' spostato.
+	 *
+	 * @param elemento Elemento che si e' spostato.
+	 * @param vecchiaCasella Casella da cui l'elemento si e' spostato.
+	 * @param nuovaCasella Casella in cui l'elemento si trova ora.
+	 */
+	void spostamento(ElementoEliminabile elemento, int vecchiaCasella, int nuovaCasella);
+
+	/**
+	 * Metodo chiamato dopo che un elemento e' uscito dal gioco.
+	 *
+	 * @param elemento Elemento uscito dal gioco.
+	 * @param casella Casella in cui si trovava l'elemento.
+	 */
+	void eliminazione(ElementoEliminabile elemento, int casella);
+}
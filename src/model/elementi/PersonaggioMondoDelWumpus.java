@@ -1,5 +1,7 @@
 package model.elementi;
 
+import java.util.random.RandomGenerator;
+
 import model.gioco.Direzioni;
 
 /**
@@ -18,11 +20,12 @@ public abstract class PersonaggioMondoDelWumpus extends ElementoMobile {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param nome Nome da attribuire al personaggio
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
 	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente
 	 *		maggiore di 0.
 	 */
-	protected PersonaggioMondoDelWumpus(int latoMappa, String nome) throws IllegalArgumentException {
-		super(latoMappa, nome);
+	protected PersonaggioMondoDelWumpus(int latoMappa, String nome, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoMappa, nome, generatore);
 	}
 
 	/*
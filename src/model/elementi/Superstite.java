@@ -1,5 +1,7 @@
 package model.elementi;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Classe concreta che estende ElementoEliminabile, che permette la creazione e gestione
  * degli elementi Superstite in una partita del gioco del Wumpus.
@@ -13,16 +15,21 @@ public class Superstite extends ElementoEliminabile {
 	
 	public static final String DEFAULT_NOME = "Zelda";
 	public static final int DEFAULT_VALORE = 50;
+	// Possibili ricompense ottenute dall'Agente salvando un Superstite (si veda salvaSuperstite).
+	public static final int RICOMPENSA_NESSUNA = 0;
+	public static final int RICOMPENSA_FRECCIA = 1;
+	public static final int RICOMPENSA_ORO = 2;
 	
 	/**
 	 * Costruttore di Superstite.
 	 * Genera un nuovo Superstite in una casella a caso nella mappa.
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Superstite(int latoMappa) throws IllegalArgumentException {
-		this(latoMappa, Superstite.DEFAULT_NOME, Superstite.DEFAULT_VALORE);
+	public Superstite(int latoMappa, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, Superstite.DEFAULT_NOME, Superstite.DEFAULT_VALORE, generatore);
 	}
 	
 	/**
@@ -31,10 +38,11 @@ public class Superstite extends ElementoEliminabile {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param nome Nome da attribuire al Superstite.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Superstite(int latoMappa, String nome) throws IllegalArgumentException {
-		this(latoMappa, nome, Superstite.DEFAULT_VALORE);
+	public Superstite(int latoMappa, String nome, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, nome, Superstite.DEFAULT_VALORE, generatore);
 	}
 	
 	/**
@@ -43,10 +51,11 @@ public class Superstite extends ElementoEliminabile {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param valore Punteggio che si guadagna salvando il Superstite.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Superstite(int latoMappa, int valore) throws IllegalArgumentException {
-		this(latoMappa, Superstite.DEFAULT_NOME, valore);
+	public Superstite(int latoMappa, int valore, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, Superstite.DEFAULT_NOME, valore, generatore);
 	}
 	
 	/**
@@ -56,10 +65,11 @@ public class Superstite extends ElementoEliminabile {
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param nome Nome da attribuire al Superstite.
 	 * @param valore Punteggio che si guadagna salvando il Superstite.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Superstite(int latoMappa, String nome, int valore) throws IllegalArgumentException {
-		super(latoMappa, nome);
+	public Superstite(int latoMappa, String nome, int valore, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoMappa, nome, generatore);
 		this.valore = valore;
 	}
 
@@ -152,33 +162,50 @@ public class Superstite extends ElementoEliminabile {
 	}
 	
 	/**
-	 * Metodo che rimuove il Superstite dal gioco dopo essere stato salvato dall'Agente.
+	 * Metodo che rimuove il Superstite dal gioco dopo essere stato salvato dall'Agente, usando il
+	 * generatore di numeri casuali indicato per scegliere la ricompensa.
 	 * Se l'Agente non ha frecce ne ottiene una, altrimenti ottiene un numero di punti pari al campo valore del Superstite.
 	 * 
 	 * @param agente Agente che incontra il Superstite.
+	 * @param generatore Generatore di numeri casuali della partita.
 	 * @return String stringa che descrive l'andamento dell'incontro.
 	 */
-	public String eliminaSuperstite(Agente agente) {
+	public String eliminaSuperstite(Agente agente, RandomGenerator generatore) {
 		String res = "";
-		boolean esitoEliminazione = this.eliminaElemento();
 
-		if(esitoEliminazione) {
-			// Bonus freccia o tesoro (aumenta il numFrecce o il punteggio).
-			// Se il giocatore non ha frecce, il superstite d una freccia, altrimenti d una freccia o
-			// dell'oro con probabilita' differenti (20% - 80%)
-			if(agente.getNumFrecce() == 0 || Math.random() < 0.2) {
-				res += this.getNome() + " ricompensa "  + agente.getNome() + " con una freccia.";
-				agente.variaFrecce(1);
-			}
-			else {
-				res += this.getNome() + " ricompensa " + agente.getNome() + " con " + this.getValore() + " monete d'oro.";
-				agente.variaPunteggio(this.getValore());
-			}
+		switch(this.salvaSuperstite(agente, generatore)) {
+			case Superstite.RICOMPENSA_FRECCIA -> res += this.getNome() + " ricompensa "  + agente.getNome() + " con una freccia.";
+			case Superstite.RICOMPENSA_ORO -> res += this.getNome() + " ricompensa " + agente.getNome() + " con " + this.getValore() + " monete d'oro.";
 		}
 		
 		return res;
 	}
 	
+	/**
+	 * Metodo che rimuove il Superstite dal gioco dopo essere stato salvato dall'Agente, come eliminaSuperstite,
+	 * ma senza costruire la descrizione testuale dell'incontro.
+	 * 
+	 * @param agente Agente che incontra il Superstite.
+	 * @param generatore Generatore di numeri casuali della partita.
+	 * @return La ricompensa ottenuta dall'Agente: RICOMPENSA_FRECCIA, RICOMPENSA_ORO, oppure
+	 * 		RICOMPENSA_NESSUNA se il Superstite non era in gioco.
+	 */
+	public int salvaSuperstite(Agente agente, RandomGenerator generatore) {
+		if(!(this.eliminaElemento())) {
+			return Superstite.RICOMPENSA_NESSUNA;
+		}
+		
+		// Bonus freccia o tesoro (aumenta il numFrecce o il punteggio).
+		// Se il giocatore non ha frecce, il superstite d una freccia, altrimenti d una freccia o
+		// dell'oro con probabilita' differenti (20% - 80%)
+		if(agente.getNumFrecce() == 0 || generatore.nextDouble() < 0.2) {
+			agente.variaFrecce(1);
+			return Superstite.RICOMPENSA_FRECCIA;
+		}
+		agente.variaPunteggio(this.getValore());
+		return Superstite.RICOMPENSA_ORO;
+	}
+	
 	/**
 	 * Metodo che rimuove il Superstite dal gioco se colpito da una freccia dell'Agente.
 	 * 
@@ -186,11 +213,13 @@ public class Superstite extends ElementoEliminabile {
 	 */
 	public boolean uccisioneSuperstite() {
 		if(this.getInGioco()) {
-			// Uso di una classe anonima per poter istanziare un oggetto di tipo Elemento, che costituisce
-			// il vecchio valore con il quale viene creato il PropertyChangeEvent
-			Elemento oldElemento = new Elemento(this.getLatoScacchiera(), this.getRiga(), this.getColonna()) {};
 			this.inGioco = false;
-			this.supportoEventi.firePropertyChange("uccisioneSuperstite", oldElemento, this);
+			this.notificaEliminazione();
+			if(this.haListener("uccisioneSuperstite")) {
+				// Il vecchio valore dell'evento e' la casella in cui si trovava l'elemento, codificata in
+				// un long (si veda Casella)
+				this.supportoEventi.firePropertyChange("uccisioneSuperstite", this.getCasella(), this);
+			}
 			return true;
 		}
 		else {
@@ -1,5 +1,7 @@
 package model.elementi;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Classe concreta che estende ElementoEliminabile, che permette la creazione e gestione
  * degli elementi Tesoro in una partita del gioco del Wumpus.
@@ -18,10 +20,11 @@ public class Tesoro extends ElementoEliminabile {
 	 * Genera un nuovo Tesoro in una casella a caso nella mappa.
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Tesoro(int latoMappa) throws IllegalArgumentException {
-		this(latoMappa, Tesoro.DEFAULT_VALORE);
+	public Tesoro(int latoMappa, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, Tesoro.DEFAULT_VALORE, generatore);
 	}
 
 	/**
@@ -32,10 +35,11 @@ public class Tesoro extends ElementoEliminabile {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param valore Punteggio che si guadagna recuperando il Tesoro.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Tesoro(int latoMappa, int valore) throws IllegalArgumentException {
-		super(latoMappa, null);
+	public Tesoro(int latoMappa, int valore, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoMappa, null, generatore);
 		this.valore = valore;
 	}
 
@@ -106,13 +110,28 @@ public class Tesoro extends ElementoEliminabile {
 	 */
 	public String eliminaTesoro(Agente agente) {
 		String res = "";
+		
+		if(this.recuperaTesoro(agente)) {
+			res += "Il recupero del tesoro frutta a " + agente.getNome() + " " + this.getValore() + " monete d'oro.";
+		}
+
+		return res;
+	}
+	
+	/**
+	 * Metodo che rimuove il Tesoro dal gioco dopo esser stato raccolto dall'Agente, come eliminaTesoro,
+	 * ma senza costruirne la descrizione testuale.
+	 * 
+	 * @param agente Agente che raccoglie il Tesoro.
+	 * @return <em>true</em> se l'eliminazione va a buon fine, <em>false</em> altrimenti.
+	 */
+	public boolean recuperaTesoro(Agente agente) {
 		boolean esitoEliminazione = this.eliminaElemento();
 		
 		if(esitoEliminazione) {
-			res += "Il recupero del tesoro frutta a " + agente.getNome() + " " + this.getValore() + " monete d'oro.";
 			agente.variaPunteggio(this.getValore());
 		}
 
-		return res;
+		return esitoEliminazione;
 	}
 }
\ No newline at end of file
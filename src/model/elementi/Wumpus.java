@@ -1,5 +1,7 @@
 package model.elementi;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Classe concreta che estende ElementoEliminabile, che permette la creazione e gestione
  * del Wumpus in una partita del gioco del Wumpus.
@@ -19,10 +21,11 @@ public class Wumpus extends ElementoEliminabile {
 	 * Genera un nuovo Wumpus in una casella a caso nella mappa.
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Wumpus(int latoMappa) throws IllegalArgumentException {
-		this(latoMappa, Wumpus.DEFAULT_NOME, Wumpus.DEFAULT_VALORE);
+	public Wumpus(int latoMappa, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, Wumpus.DEFAULT_NOME, Wumpus.DEFAULT_VALORE, generatore);
 	}
 	
 	/**
@@ -31,10 +34,11 @@ public class Wumpus extends ElementoEliminabile {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param nome Nome da attribuire al Wumpus.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Wumpus(int latoMappa, String nome) throws IllegalArgumentException {
-		this(latoMappa, nome, Wumpus.DEFAULT_VALORE);
+	public Wumpus(int latoMappa, String nome, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, nome, Wumpus.DEFAULT_VALORE, generatore);
 	}
 	
 	/**
@@ -43,10 +47,11 @@ public class Wumpus extends ElementoEliminabile {
 	 * 
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param valore Punteggio che si guadagna uccidendo il Wumpus.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Wumpus(int latoMappa, int valore) throws IllegalArgumentException {
-		this(latoMappa, Wumpus.DEFAULT_NOME, valore);
+	public Wumpus(int latoMappa, int valore, RandomGenerator generatore) throws IllegalArgumentException {
+		this(latoMappa, Wumpus.DEFAULT_NOME, valore, generatore);
 	}
 
 	/**
@@ -56,10 +61,11 @@ public class Wumpus extends ElementoEliminabile {
 	 * @param latoMappa Dimensione del lato della mappa di gioco.
 	 * @param nome Nome da attribuire al Wumpus.
 	 * @param valore Punteggio che si guadagna uccidendo il Wumpus.
+	 * @param generatore Generatore di numeri casuali con cui scegliere la casella.
  	 * @throws IllegalArgumentException Se la dimensione del lato della mappa non e' strettamente maggiore di 0.
 	 */
-	public Wumpus(int latoMappa, String nome, int valore) throws IllegalArgumentException {
-		super(latoMappa, nome);
+	public Wumpus(int latoMappa, String nome, int valore, RandomGenerator generatore) throws IllegalArgumentException {
+		super(latoMappa, nome, generatore);
 		this.valore = valore;
 	}
 
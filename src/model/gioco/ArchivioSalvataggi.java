@@ -0,0 +1,354 @@
+package model.gioco;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Classe che permette di conservare molte partite salvate in un unico file mappato in memoria.
+ * Il file e' diviso in slot di dimensione fissa, ciascuno dei quali contiene il salvataggio binario
+ * (nel formato di Mappa.salvataggioBinario) di una partita, identificata da un id numerico; l'indice
+ * degli slot per id di partita viene ricostruito all'apertura dell'archivio.
+ * Il caricamento di una partita legge la Mappa direttamente dalla memoria mappata, senza copiare
+ * ne' interpretare alcun testo.
+ * <p>
+ * La scrittura di una partita non sovrascrive mai lo slot che contiene il salvataggio precedente:
+ * il nuovo salvataggio viene scritto in uno slot libero e reso valido scrivendone l'intestazione solo
+ * dopo che il contenuto e' stato forzato su disco; solo a quel punto lo slot precedente viene
+ * liberato. Ogni intestazione contiene un codice di controllo CRC32 dell'intestazione stessa e del
+ * contenuto, quindi uno slot scritto solo in parte a causa di un'interruzione viene riconosciuto
+ * all'apertura dell'archivio e scartato, e resta valido il salvataggio precedente.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class ArchivioSalvataggi implements Closeable {
+	/*
+	 * Intestazione del file: numero magico ("WARC" in ASCII), versione, numero di slot e dimensione
+	 * (in byte) del contenuto di ciascuno slot.
+	 */
+	private static final int NUMERO_MAGICO = 0x57415243;
+	private static final int VERSIONE = 1;
+	private static final int DIMENSIONE_INTESTAZIONE = 16;
+	/*
+	 * Intestazione di ciascuno slot: id della partita, numero di sequenza del salvataggio (cresce ad
+	 * ogni scrittura, per distinguere il salvataggio piu' recente di una partita), lunghezza del
+	 * contenuto (0 per uno slot libero) e codice di controllo.
+	 */
+	private static final int DIMENSIONE_INTESTAZIONE_SLOT = 24;
+
+	private final FileChannel canale;
+	private final MappedByteBuffer memoria;
+	private final int numeroSlot;
+	private final int dimensioneSlot;
+	// Indice degli slot occupati: id della partita -> numero dello slot.
+	private final HashMap<Long, Integer> indice;
+	private final BitSet slotLiberi;
+	private long prossimaSequenza;
+
+	private ArchivioSalvataggi(FileChannel canale, int numeroSlot, int dimensioneSlot) throws IOException {
+		this.canale = canale;
+		this.numeroSlot = numeroSlot;
+		this.dimensioneSlot = dimensioneSlot;
+		this.memoria = canale.map(FileChannel.MapMode.READ_WRITE, 0, ArchivioSalvataggi.dimensioneFile(numeroSlot, dimensioneSlot));
+		this.indice = new HashMap<Long, Integer>(numeroSlot);
+		this.slotLiberi = new BitSet(numeroSlot);
+		this.prossimaSequenza = 1;
+	}
+
+	/**
+	 * Metodo statico che crea un nuovo archivio vuoto, sovrascrivendo il file se esiste gia'.
+	 *
+	 * @param file File dell'archivio.
+	 * @param numeroSlot Numero massimo di partite che l'archivio puo' contenere.
+	 * @param dimensioneSlot Dimensione massima in byte del salvataggio di una partita.
+	 * @return Archivio creato.
+	 * @throws IllegalArgumentException Se numeroSlot o dimensioneSlot non sono positivi o se il file
+	 * risultante supera i 2 GB.
+	 * @throws IOException Se non e' possibile creare il file.
+	 */
+	public static ArchivioSalvataggi crea(Path file, int numeroSlot, int dimensioneSlot) throws IllegalArgumentException, IOException {
+		if(numeroSlot < 1 || dimensioneSlot < 1) {
+			throw new IllegalArgumentException("Il numero e la dimensione degli slot devono essere positivi");
+		}
+		if(ArchivioSalvataggi.dimensioneFile(numeroSlot, dimensioneSlot) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("L'archivio non puo' superare i 2 GB");
+		}
+
+		FileChannel canale = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ArchivioSalvataggi archivio = new ArchivioSalvataggi(canale, numeroSlot, dimensioneSlot);
+
+			archivio.memoria.putInt(0, ArchivioSalvataggi.NUMERO_MAGICO);
+			archivio.memoria.putInt(4, ArchivioSalvataggi.VERSIONE);
+			archivio.memoria.putInt(8, numeroSlot);
+			archivio.memoria.putInt(12, dimensioneSlot);
+			archivio.memoria.force();
+			archivio.slotLiberi.set(0, numeroSlot);
+			return archivio;
+		}
+		catch (IOException | RuntimeException e) {
+			canale.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Metodo statico che apre un archivio esistente e ne ricostruisce l'indice. Gli slot non validi
+	 * (scritti solo in parte) e i salvataggi superati da uno piu' recente della stessa partita vengono
+	 * liberati.
+	 *
+	 * @param file File dell'archivio.
+	 * @return Archivio aperto.
+	 * @throws IllegalArgumentException Se il file non e' un archivio valido.
+	 * @throws IOException Se non e' possibile leggere il file.
+	 */
+	public static ArchivioSalvataggi apri(Path file) throws IllegalArgumentException, IOException {
+		FileChannel canale = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer intestazione = ByteBuffer.allocate(ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE);
+			while(intestazione.hasRemaining() && canale.read(intestazione) != -1);
+
+			if(intestazione.hasRemaining() || intestazione.getInt(0) != ArchivioSalvataggi.NUMERO_MAGICO) {
+				throw new IllegalArgumentException("Formato file non valido");
+			}
+			if(intestazione.getInt(4) != ArchivioSalvataggi.VERSIONE) {
+				throw new IllegalArgumentException("Versione dell'archivio non supportata");
+			}
+
+			int numeroSlot = intestazione.getInt(8);
+			int dimensioneSlot = intestazione.getInt(12);
+			if(numeroSlot < 1 || dimensioneSlot < 1 || canale.size() != ArchivioSalvataggi.dimensioneFile(numeroSlot, dimensioneSlot)) {
+				throw new IllegalArgumentException("Formato file non valido");
+			}
+
+			ArchivioSalvataggi archivio = new ArchivioSalvataggi(canale, numeroSlot, dimensioneSlot);
+			archivio.ricostruisciIndice();
+			return archivio;
+		}
+		catch (IOException | RuntimeException e) {
+			canale.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * Metodo che scorre le intestazioni di tutti gli slot e ricostruisce l'indice delle partite e
+	 * l'insieme degli slot liberi.
+	 */
+	private void ricostruisciIndice() {
+		for(int slot = 0; slot < this.numeroSlot; slot++) {
+			int posizione = this.posizioneSlot(slot);
+			int lunghezza = this.memoria.getInt(posizione + 16);
+
+			if(lunghezza == 0) {
+				this.slotLiberi.set(slot);
+				continue;
+			}
+
+			if(lunghezza < 0 || lunghezza > this.dimensioneSlot || this.memoria.getInt(posizione + 20) != this.codiceControllo(slot, lunghezza)) {
+				// Slot scritto solo in parte: viene scartato
+				this.liberaSlot(slot);
+				continue;
+			}
+
+			long idPartita = this.memoria.getLong(posizione);
+			long sequenza = this.memoria.getLong(posizione + 8);
+			this.prossimaSequenza = Math.max(this.prossimaSequenza, sequenza + 1);
+
+			Integer precedente = this.indice.get(idPartita);
+			if(precedente == null) {
+				this.indice.put(idPartita, slot);
+			}
+			// Due slot per la stessa partita: l'interruzione e' avvenuta prima di liberare il
+			// salvataggio precedente, che viene liberato ora.
+			else if(this.memoria.getLong(this.posizioneSlot(precedente) + 8) < sequenza) {
+				this.liberaSlot(precedente);
+				this.indice.put(idPartita, slot);
+			}
+			else {
+				this.liberaSlot(slot);
+			}
+		}
+		this.memoria.force();
+	}
+
+	/**
+	 * Metodo che salva lo stato corrente di una Mappa come partita di id dato, sostituendo l'eventuale
+	 * salvataggio precedente della stessa partita.
+	 *
+	 * @param idPartita Id della partita.
+	 * @param mappa Mappa da salvare.
+	 * @param caselleScoperte Maschera di bit delle caselle gia' scoperte dal giocatore, oppure null
+	 * (si veda Mappa.salvataggioBinario).
+	 * @throws IllegalArgumentException Se il salvataggio della mappa supera la dimensione di uno slot.
+	 * @throws IllegalStateException Se l'archivio e' pieno o e' stato chiuso.
+	 */
+	public synchronized void salva(long idPartita, Mappa mappa, long[] caselleScoperte) throws IllegalArgumentException, IllegalStateException {
+		this.controllaAperto();
+
+		ByteBuffer contenuto = mappa.codificaBinaria(caselleScoperte);
+		int lunghezza = contenuto.remaining();
+		if(lunghezza > this.dimensioneSlot) {
+			throw new IllegalArgumentException("Il salvataggio occupa " + lunghezza + " byte, ma uno slot ne contiene al massimo " + this.dimensioneSlot);
+		}
+
+		int slot = this.slotLiberi.nextSetBit(0);
+		if(slot == -1) {
+			throw new IllegalStateException("L'archivio dei salvataggi e' pieno");
+		}
+
+		// Prima il contenuto, poi l'intestazione che lo rende valido
+		int posizione = this.posizioneSlot(slot);
+		this.memoria.put(posizione + ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT, contenuto, 0, lunghezza);
+		this.memoria.force(posizione + ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT, lunghezza);
+
+		this.memoria.putLong(posizione, idPartita);
+		this.memoria.putLong(posizione + 8, this.prossimaSequenza++);
+		this.memoria.putInt(posizione + 16, lunghezza);
+		this.memoria.putInt(posizione + 20, this.codiceControllo(slot, lunghezza));
+		this.memoria.force(posizione, ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT);
+		this.slotLiberi.clear(slot);
+
+		Integer precedente = this.indice.put(idPartita, slot);
+		if(precedente != null) {
+			this.liberaSlot(precedente);
+			this.memoria.force(this.posizioneSlot(precedente), ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT);
+		}
+	}
+
+	/**
+	 * Metodo che carica la Mappa salvata per la partita di id dato. La Mappa viene letta direttamente
+	 * dalla memoria mappata.
+	 *
+	 * @param idPartita Id della partita.
+	 * @return Mappa salvata, oppure null se l'archivio non contiene la partita.
+	 * @throws IllegalStateException Se l'archivio e' stato chiuso.
+	 */
+	public synchronized Mappa carica(long idPartita) throws IllegalStateException {
+		this.controllaAperto();
+
+		Integer slot = this.indice.get(idPartita);
+		if(slot == null) {
+			return null;
+		}
+
+		int posizione = this.posizioneSlot(slot);
+		return Mappa.daSalvataggioBinario(this.memoria.slice(posizione + ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT, this.memoria.getInt(posizione + 16)));
+	}
+
+	/**
+	 * Metodo che elimina dall'archivio il salvataggio della partita di id dato.
+	 *
+	 * @param idPartita Id della partita.
+	 * @return <em>true</em> se l'archivio conteneva la partita, <em>false</em> altrimenti.
+	 * @throws IllegalStateException Se l'archivio e' stato chiuso.
+	 */
+	public synchronized boolean elimina(long idPartita) throws IllegalStateException {
+		this.controllaAperto();
+
+		Integer slot = this.indice.remove(idPartita);
+		if(slot == null) {
+			return false;
+		}
+
+		this.liberaSlot(slot);
+		this.memoria.force(this.posizioneSlot(slot), ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT);
+		return true;
+	}
+
+	/**
+	 * Metodo che indica se l'archivio contiene la partita di id dato.
+	 *
+	 * @param idPartita Id della partita.
+	 * @return <em>true</em> se l'archivio contiene la partita, <em>false</em> altrimenti.
+	 */
+	public synchronized boolean contiene(long idPartita) {
+		return this.indice.containsKey(idPartita);
+	}
+
+	/**
+	 * Metodo che restituisce gli id delle partite contenute nell'archivio, in ordine crescente.
+	 *
+	 * @return Array degli id delle partite.
+	 */
+	public synchronized long[] getIdPartite() {
+		return this.indice.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+	}
+
+	/**
+	 * Metodo che restituisce il numero di partite contenute nell'archivio.
+	 *
+	 * @return Numero di partite salvate.
+	 */
+	public synchronized int getNumeroPartite() {
+		return this.indice.size();
+	}
+
+	/**
+	 * Metodo che restituisce il numero di slot dell'archivio, cioe' il numero massimo di partite che
+	 * puo' contenere.
+	 *
+	 * @return Numero di slot.
+	 */
+	public int getNumeroSlot() {
+		return this.numeroSlot;
+	}
+
+	/**
+	 * Metodo che restituisce la dimensione massima in byte del salvataggio di una partita.
+	 *
+	 * @return Dimensione di uno slot.
+	 */
+	public int getDimensioneSlot() {
+		return this.dimensioneSlot;
+	}
+
+	/**
+	 * Metodo che chiude l'archivio. Tutte le scritture sono gia' state forzate su disco.
+	 *
+	 * @throws IOException Se non e' possibile chiudere il file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		this.canale.close();
+	}
+
+	private void controllaAperto() throws IllegalStateException {
+		if(!(this.canale.isOpen())) {
+			throw new IllegalStateException("L'archivio dei salvataggi e' stato chiuso");
+		}
+	}
+
+	// Azzera la lunghezza nell'intestazione dello slot dato, rendendolo libero.
+	private void liberaSlot(int slot) {
+		this.memoria.putInt(this.posizioneSlot(slot) + 16, 0);
+		this.slotLiberi.set(slot);
+	}
+
+	// Codice di controllo dell'id, della sequenza, della lunghezza e del contenuto dello slot dato.
+	private int codiceControllo(int slot, int lunghezza) {
+		CRC32 crc = new CRC32();
+		int posizione = this.posizioneSlot(slot);
+
+		crc.update(this.memoria.slice(posizione, 20));
+		crc.update(this.memoria.slice(posizione + ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT, lunghezza));
+		return (int) crc.getValue();
+	}
+
+	private int posizioneSlot(int slot) {
+		return ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE + slot*(ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT + this.dimensioneSlot);
+	}
+
+	private static long dimensioneFile(int numeroSlot, int dimensioneSlot) {
+		return ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE + (long) numeroSlot*(ArchivioSalvataggi.DIMENSIONE_INTESTAZIONE_SLOT + dimensioneSlot);
+	}
+}
@@ -0,0 +1,144 @@
+package model.gioco;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import model.elementi.Elemento;
+import model.elementi.ElementoEliminabile;
+
+/**
+ * Classe che raccoglie gli eventi degli elementi di una partita (si veda Partita.getBusEventi) e li
+ * consegna ai suoi ascoltatori in modo asincrono: gli eventi lanciati durante un turno di gioco vengono
+ * raccolti in un unico FrameEventi immutabile, consegnato al termine del turno con l'Executor indicato
+ * da ogni ascoltatore (ad esempio SwingUtilities::invokeLater per l'interfaccia grafica). In questo modo
+ * il turno non attende mai l'aggiornamento della grafica o la riproduzione dei suoni, qualunque sia il
+ * thread che lo esegue.
+ * <p>
+ * Il bus si registra come listener degli elementi della partita solo quando viene aggiunto il primo
+ * ascoltatore: finche' nessuno ascolta, gli elementi non lanciano gli eventi e i turni non ne pagano il
+ * costo. Ogni ascoltatore riceve i frame nell'ordine in cui vengono prodotti, purche' il suo Executor
+ * esegua i compiti nell'ordine in cui li riceve.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class BusEventi {
+	// Ascoltatore con l'Executor su cui riceve i frame.
+	private static final class Iscrizione {
+		private final Consumer<FrameEventi> ascoltatore;
+		private final Executor esecutore;
+
+		private Iscrizione(Consumer<FrameEventi> ascoltatore, Executor esecutore) {
+			this.ascoltatore = ascoltatore;
+			this.esecutore = esecutore;
+		}
+	}
+
+	private final Partita partita;
+	private final List<Iscrizione> iscrizioni;
+	private final PropertyChangeListener raccoltaEventi;
+	// Eventi del turno in corso, raccolti finche' il turno non termina.
+	private final List<PropertyChangeEvent> eventiTurno;
+	private boolean registrato;
+	private boolean turnoInCorso;
+	private long numeroFrame;
+
+	BusEventi(Partita partita) {
+		this.partita = partita;
+		this.iscrizioni = new CopyOnWriteArrayList<Iscrizione>();
+		this.raccoltaEventi = this::raccogli;
+		this.eventiTurno = new ArrayList<PropertyChangeEvent>();
+	}
+
+	/**
+	 * Metodo che aggiunge un ascoltatore dei frame della partita.
+	 *
+	 * @param ascoltatore Ascoltatore che riceve i frame.
+	 * @param esecutore Executor con cui vengono consegnati i frame all'ascoltatore.
+	 * @throws NullPointerException Se ascoltatore o esecutore sono null.
+	 */
+	public synchronized void aggiungiAscoltatore(Consumer<FrameEventi> ascoltatore, Executor esecutore) throws NullPointerException {
+		if(ascoltatore == null || esecutore == null) {
+			throw new NullPointerException("Ascoltatore ed esecutore non possono essere null");
+		}
+
+		this.iscrizioni.add(new Iscrizione(ascoltatore, esecutore));
+		if(!(this.registrato)) {
+			this.registrato = true;
+			Mappa mappa = this.partita.getMappaDiGioco();
+
+			this.partita.getAgente().aggiungiListener(this.raccoltaEventi);
+			this.partita.getWumpus().aggiungiListener(this.raccoltaEventi);
+			this.registra(mappa.getCuccioli());
+			this.registra(mappa.getTesori());
+			this.registra(mappa.getSuperstiti());
+		}
+	}
+
+	/**
+	 * Metodo che rimuove un ascoltatore aggiunto con aggiungiAscoltatore; i frame gia' affidati al suo
+	 * Executor gli vengono comunque consegnati.
+	 *
+	 * @param ascoltatore Ascoltatore da rimuovere.
+	 */
+	public void rimuoviAscoltatore(Consumer<FrameEventi> ascoltatore) {
+		this.iscrizioni.removeIf(iscrizione -> iscrizione.ascoltatore == ascoltatore);
+	}
+
+	private void registra(ElementoEliminabile[] elementi) {
+		for(ElementoEliminabile elemento : elementi) {
+			elemento.aggiungiListener(this.raccoltaEventi);
+		}
+	}
+
+	// Chiamato dalla partita, che ne detiene il lock, all'inizio di un turno di gioco.
+	synchronized void inizioTurno() {
+		this.turnoInCorso = true;
+	}
+
+	// Chiamato dalla partita, che ne detiene il lock, al termine di un turno di gioco: consegna il frame
+	// con gli eventi del turno, se ce ne sono stati.
+	synchronized void fineTurno() {
+		this.turnoInCorso = false;
+		if(!(this.eventiTurno.isEmpty())) {
+			this.consegna();
+		}
+	}
+
+	// Raccoglie un evento lanciato da un elemento, sostituendo il nuovo valore, se e' l'elemento stesso,
+	// con la casella in cui si trova (si veda Casella); fuori dai turni l'evento viene consegnato subito,
+	// in un frame a se'.
+	private synchronized void raccogli(PropertyChangeEvent evt) {
+		Object nuovoValore = evt.getNewValue();
+
+		if(nuovoValore == evt.getSource() && nuovoValore instanceof Elemento elemento) {
+			nuovoValore = elemento.getCasella();
+		}
+		this.eventiTurno.add(new PropertyChangeEvent(evt.getSource(), evt.getPropertyName(), evt.getOldValue(), nuovoValore));
+
+		if(!(this.turnoInCorso)) {
+			this.consegna();
+		}
+	}
+
+	private void consegna() {
+		FrameEventi frame = new FrameEventi(++this.numeroFrame, this.eventiTurno);
+
+		this.eventiTurno.clear();
+		for(Iscrizione iscrizione : this.iscrizioni) {
+			try {
+				iscrizione.esecutore.execute(() -> iscrizione.ascoltatore.accept(frame));
+			}
+			catch (RejectedExecutionException e) {
+				System.err.println("Consegna degli eventi della partita non riuscita: " + e);
+			}
+		}
+	}
+}
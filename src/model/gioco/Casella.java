@@ -0,0 +1,64 @@
+package model.gioco;
+
+/**
+ * Classe di utilita' per rappresentare le coordinate di una casella in un unico long, senza istanziare
+ * un Elemento (con il controllo dei limiti, il flag inGioco e gli eventi) solo per indicare una casella:
+ * la riga occupa i 32 bit alti e la colonna i 32 bit bassi. Le coordinate possono anche essere esterne
+ * alla mappa (ad esempio la casella adiacente ad una casella del bordo, si veda Direzioni.adiacente):
+ * e' la Mappa a controllare se una casella le appartiene (si veda Mappa.contiene).
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class Casella {
+	/**
+	 * Valore che non indica alcuna casella: non viene mai restituito da Casella.di per coordinate che
+	 * distano al piu' una casella da una mappa.
+	 */
+	public static final long NESSUNA = Long.MIN_VALUE;
+
+	private Casella() {
+	}
+
+	/**
+	 * Metodo statico che restituisce la casella di coordinate date.
+	 *
+	 * @param riga Indice di riga della casella.
+	 * @param colonna Indice di colonna della casella.
+	 * @return Casella codificata.
+	 */
+	public static long di(int riga, int colonna) {
+		return ((long) riga << 32) | (colonna & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Metodo statico che restituisce l'indice di riga di una casella.
+	 *
+	 * @param casella Casella codificata.
+	 * @return Indice di riga.
+	 */
+	public static int riga(long casella) {
+		return (int) (casella >> 32);
+	}
+
+	/**
+	 * Metodo statico che restituisce l'indice di colonna di una casella.
+	 *
+	 * @param casella Casella codificata.
+	 * @return Indice di colonna.
+	 */
+	public static int colonna(long casella) {
+		return (int) casella;
+	}
+
+	/**
+	 * Metodo statico che restituisce una descrizione testuale di una casella.
+	 *
+	 * @param casella Casella codificata.
+	 * @return Stringa nella forma "riga, colonna".
+	 */
+	public static String toString(long casella) {
+		return Casella.riga(casella) + ", " + Casella.colonna(casella);
+	}
+}
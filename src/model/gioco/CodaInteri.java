@@ -0,0 +1,62 @@
+package model.gioco;
+
+/*
+ * Coda circolare di interi, usata per le visite in ampiezza della mappa (gli interi sono gli indici
+ * delle caselle).
+ * La capacita' cresce solo quando la coda e' piena: dato che durante una visita in ampiezza la coda
+ * contiene solo il fronte della visita, la memoria occupata resta proporzionale al fronte e non al
+ * numero di caselle della mappa.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+final class CodaInteri {
+	private int[] elementi;
+	private int testa;
+	private int dimensione;
+	
+	/*
+	 * Costruttore di CodaInteri.
+	 * 
+	 * @param capacitaIniziale Numero di interi che la coda puo' contenere prima di venire ingrandita.
+	 */
+	CodaInteri(int capacitaIniziale) {
+		this.elementi = new int[Math.max(16, capacitaIniziale)];
+	}
+	
+	void accoda(int valore) {
+		if(this.dimensione == this.elementi.length) {
+			int[] nuoviElementi = new int[this.elementi.length*2];
+			int primaParte = this.elementi.length - this.testa;
+			
+			System.arraycopy(this.elementi, this.testa, nuoviElementi, 0, primaParte);
+			System.arraycopy(this.elementi, 0, nuoviElementi, primaParte, this.testa);
+			this.elementi = nuoviElementi;
+			this.testa = 0;
+		}
+		
+		int fondo = this.testa + this.dimensione;
+		
+		if(fondo >= this.elementi.length) {
+			fondo -= this.elementi.length;
+		}
+		this.elementi[fondo] = valore;
+		this.dimensione++;
+	}
+	
+	int estrai() {
+		int valore = this.elementi[this.testa];
+		
+		this.testa++;
+		if(this.testa == this.elementi.length) {
+			this.testa = 0;
+		}
+		this.dimensione--;
+		return valore;
+	}
+	
+	boolean vuota() {
+		return this.dimensione == 0;
+	}
+}
@@ -1,5 +1,7 @@
 package model.gioco;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Enumerativo dei possibili spostamenti dei personaggi sulla mappa di gioco.
  * Indica la variazione di coordinate da applicare al personaggio.
@@ -42,14 +44,26 @@ public enum Direzioni {
 	}
 	
 	/**
-	 * Metodo statico che sceglie casualmente una direzione di spostamento.
-	 * Usato per gestire gli spostamenti dei cuccioli di Wumpus.
+	 * Metodo che restituisce la casella adiacente a quella data in questa direzione, che puo' essere
+	 * esterna alla mappa.
+	 * 
+	 * @param casella Casella di partenza, codificata con Casella.di.
+	 * @return Casella adiacente, codificata con Casella.di.
+	 */
+	public long adiacente(long casella) {
+		return Casella.di(Casella.riga(casella) + this.spostamentoRiga, Casella.colonna(casella) + this.spostamentoColonna);
+	}
+	
+	/**
+	 * Metodo statico che sceglie casualmente una direzione di spostamento usando il generatore
+	 * di numeri casuali indicato (ad esempio quello della partita in corso, per poterla riprodurre).
 	 * 
+	 * @param generatore Generatore di numeri casuali da usare per la scelta.
 	 * @return Direzione casuale di spostamento.
 	 */
-	public static Direzioni spostamentoRandom() {
+	public static Direzioni spostamentoRandom(RandomGenerator generatore) {
 		Direzioni spostamento = null;
-		int selettore = (int) (Math.random()*4);
+		int selettore = generatore.nextInt(4);
 
 		switch (selettore) {
 			case 0 -> spostamento = Direzioni.NORD;
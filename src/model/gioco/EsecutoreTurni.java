@@ -0,0 +1,120 @@
+package model.gioco;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Casella dei comandi di una partita (modello ad attore): i turni chiesti dal giocatore (si veda
+ * Partita.inviaTurno) e quelli avviati dal temporizzatore condiviso vengono accodati ed eseguiti uno
+ * alla volta, nell'ordine di arrivo, da un unico thread alla volta del gruppo di thread condiviso da
+ * tutte le partite. Le partite diverse vengono quindi giocate in parallelo su piu' core, mentre i turni
+ * di una stessa partita non si sovrappongono mai.
+ * <p>
+ * Chi invia un comando non attende che venga eseguito: il thread dell'interfaccia grafica e quello del
+ * temporizzatore non restano bloccati da un turno in corso.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+final class EsecutoreTurni implements Runnable {
+	// Numero massimo di comandi eseguiti prima di cedere il thread alle altre partite.
+	private static final int COMANDI_PER_ESECUZIONE = 32;
+
+	// Gruppo di thread demoni condiviso da tutte le partite, uno per core.
+	private static final Executor THREAD_TURNI = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+		private final AtomicInteger numeroThread = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable esecuzione) {
+			Thread thread = new Thread(esecuzione, "turni-partite-" + this.numeroThread.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	// Comando accodato: un turno del giocatore oppure, se scadenza non e' null, un turno del temporizzatore.
+	private static final class Comando {
+		private final TipoAzione azione;
+		private final Direzioni direzione;
+		private final Temporizzatore.Scadenza scadenza;
+		private final CompletableFuture<Integer> esito;
+
+		private Comando(TipoAzione azione, Direzioni direzione, Temporizzatore.Scadenza scadenza, CompletableFuture<Integer> esito) {
+			this.azione = azione;
+			this.direzione = direzione;
+			this.scadenza = scadenza;
+			this.esito = esito;
+		}
+	}
+
+	private final Partita partita;
+	private final ConcurrentLinkedQueue<Comando> comandi;
+	// Vale true mentre l'esecuzione della casella e' affidata ad un thread (in coda o in corso).
+	private final AtomicBoolean inEsecuzione;
+
+	EsecutoreTurni(Partita partita) {
+		this.partita = partita;
+		this.comandi = new ConcurrentLinkedQueue<Comando>();
+		this.inEsecuzione = new AtomicBoolean(false);
+	}
+
+	// Accoda un turno del giocatore; l'esito viene completato quando il turno e' stato giocato.
+	CompletableFuture<Integer> invia(TipoAzione azione, Direzioni direzione) {
+		CompletableFuture<Integer> esito = new CompletableFuture<Integer>();
+
+		this.comandi.add(new Comando(azione, direzione, null, esito));
+		this.pianifica();
+		return esito;
+	}
+
+	// Accoda il turno automatico di una scadenza trascorsa.
+	void inviaScadenza(Temporizzatore.Scadenza scadenza) {
+		this.comandi.add(new Comando(null, null, scadenza, null));
+		this.pianifica();
+	}
+
+	// Affida la casella ad un thread, se non lo e' gia'.
+	private void pianifica() {
+		if(this.inEsecuzione.compareAndSet(false, true)) {
+			EsecutoreTurni.THREAD_TURNI.execute(this);
+		}
+	}
+
+	@Override
+	public void run() {
+		Comando comando;
+
+		for(int i = 0; i < EsecutoreTurni.COMANDI_PER_ESECUZIONE && (comando = this.comandi.poll()) != null; i++) {
+			try {
+				if(comando.scadenza != null) {
+					this.partita.turnoScaduto(comando.scadenza);
+				}
+				else {
+					comando.esito.complete(this.partita.eseguiTurno(comando.azione, comando.direzione));
+				}
+			}
+			catch (RuntimeException e) {
+				// Un errore in un turno non deve fermare l'esecuzione dei turni successivi
+				if(comando.esito != null) {
+					comando.esito.completeExceptionally(e);
+				}
+				else {
+					System.err.println("Turno automatico non riuscito: " + e);
+				}
+			}
+		}
+
+		// Un comando accodato dopo l'ultimo poll trova inEsecuzione ancora true e non pianifica la
+		// casella: va quindi ricontrollata la coda dopo aver liberato la casella.
+		this.inEsecuzione.set(false);
+		if(!(this.comandi.isEmpty())) {
+			this.pianifica();
+		}
+	}
+}
@@ -0,0 +1,322 @@
+package model.gioco;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import model.elementi.Agente;
+import model.elementi.Elemento;
+import model.elementi.ElementoEliminabile;
+import model.elementi.Superstite;
+import model.elementi.Tesoro;
+import model.elementi.Wumpus;
+
+/**
+ * Classe che raccoglie in forma compatta gli eventi di un turno di gioco eseguito con Partita.eseguiTurno.
+ * Ogni evento e' rappresentato da un codice intero, dall'elemento coinvolto, dalla direzione dell'azione
+ * e dalla casella (riga*latoMappa + colonna) in cui e' avvenuto, quando questi hanno senso per l'evento.
+ * Ogni Partita riutilizza sempre la stessa istanza di EsitoTurno, quindi la registrazione degli eventi non
+ * alloca memoria ad ogni turno; la descrizione testuale del turno viene costruita solo quando viene
+ * richiesta (si veda getDescrizione). Gli eventi registrati restano validi fino al turno successivo.
+ * I codici degli eventi sono potenze di due: l'esito di un turno restituito da Partita.eseguiTurno e'
+ * l'OR dei codici degli eventi avvenuti, e si puo' interrogare con il metodo statico contiene.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class EsitoTurno {
+	/**
+	 * L'azione richiesta all'Agente non e' valida: l'Agente resta fermo.
+	 */
+	public static final int AZIONE_NON_VALIDA = 1;
+	/**
+	 * L'Agente si e' spostato nella direzione e nella casella indicate dall'evento.
+	 */
+	public static final int AGENTE_SPOSTATO = 1 << 1;
+	/**
+	 * Le pareti della caverna hanno impedito all'Agente di spostarsi.
+	 */
+	public static final int AGENTE_BLOCCATO = 1 << 2;
+	/**
+	 * L'Agente ha scagliato una freccia.
+	 */
+	public static final int FRECCIA_SCAGLIATA = 1 << 3;
+	/**
+	 * La freccia e' stata scagliata fuori dalla mappa.
+	 */
+	public static final int FRECCIA_CONTRO_PARETE = 1 << 4;
+	/**
+	 * L'Agente ha cercato di scagliare una freccia, ma le ha terminate.
+	 */
+	public static final int FRECCE_ESAURITE = 1 << 5;
+	/**
+	 * La freccia non ha colpito nulla.
+	 */
+	public static final int FRECCIA_A_VUOTO = 1 << 6;
+	/**
+	 * La freccia ha ucciso il Wumpus.
+	 */
+	public static final int WUMPUS_UCCISO = 1 << 7;
+	/**
+	 * La freccia ha ucciso un Superstite.
+	 */
+	public static final int SUPERSTITE_UCCISO = 1 << 8;
+	/**
+	 * La freccia ha ucciso un CuccioloDiWumpus.
+	 */
+	public static final int CUCCIOLO_UCCISO = 1 << 9;
+	/**
+	 * L'Agente e' stato ucciso dal Wumpus.
+	 */
+	public static final int UCCISO_DA_WUMPUS = 1 << 10;
+	/**
+	 * L'Agente e' caduto in una voragine.
+	 */
+	public static final int CADUTO_IN_VORAGINE = 1 << 11;
+	/**
+	 * L'Agente ha raccolto un Tesoro.
+	 */
+	public static final int TESORO_RACCOLTO = 1 << 12;
+	/**
+	 * L'Agente ha salvato un Superstite, che lo ha ricompensato con una freccia.
+	 */
+	public static final int SUPERSTITE_SALVATO_FRECCIA = 1 << 13;
+	/**
+	 * L'Agente ha salvato un Superstite, che lo ha ricompensato con dell'oro.
+	 */
+	public static final int SUPERSTITE_SALVATO_ORO = 1 << 14;
+	/**
+	 * Un CuccioloDiWumpus ha incontrato l'Agente e gli ha rubato una freccia.
+	 */
+	public static final int CUCCIOLO_RUBA_FRECCIA = 1 << 15;
+	/**
+	 * Un CuccioloDiWumpus ha incontrato l'Agente e gli ha rubato dell'oro.
+	 */
+	public static final int CUCCIOLO_RUBA_ORO = 1 << 16;
+	/**
+	 * Un CuccioloDiWumpus ha incontrato l'Agente, ma non ha trovato nulla da rubare.
+	 */
+	public static final int CUCCIOLO_NULLA_DA_RUBARE = 1 << 17;
+	/**
+	 * Nella casella dell'Agente non c'e' nulla con cui interagire.
+	 */
+	public static final int NESSUN_INCONTRO = 1 << 18;
+	/**
+	 * Un CuccioloDiWumpus si e' spostato nella casella indicata dall'evento.
+	 */
+	public static final int CUCCIOLO_SPOSTATO = 1 << 19;
+	/**
+	 * Un CuccioloDiWumpus non ha potuto spostarsi.
+	 */
+	public static final int CUCCIOLO_FERMO = 1 << 20;
+	/**
+	 * Al termine del turno l'Agente o il Wumpus non sono piu' in gioco. Non corrisponde ad alcun
+	 * evento: compare solo nell'esito del turno.
+	 */
+	public static final int PARTITA_TERMINATA = 1 << 21;
+
+	private static final int CAPACITA_INIZIALE = 16;
+
+	private final Agente agente;
+	private int[] codici;
+	private Elemento[] soggetti;
+	private Direzioni[] direzioni;
+	private int[] caselle;
+	private int numEventi;
+	private int esito;
+
+	/*
+	 * Costruttore di EsitoTurno: ogni Partita crea la propria istanza, che riutilizza per tutti i turni.
+	 *
+	 * @param agente Agente della partita, protagonista degli eventi.
+	 */
+	EsitoTurno(Agente agente) {
+		this.agente = agente;
+		this.codici = new int[EsitoTurno.CAPACITA_INIZIALE];
+		this.soggetti = new Elemento[EsitoTurno.CAPACITA_INIZIALE];
+		this.direzioni = new Direzioni[EsitoTurno.CAPACITA_INIZIALE];
+		this.caselle = new int[EsitoTurno.CAPACITA_INIZIALE];
+	}
+
+	// Elimina gli eventi del turno precedente, rilasciando i riferimenti agli elementi coinvolti.
+	void azzera() {
+		Arrays.fill(this.soggetti, 0, this.numEventi, null);
+		Arrays.fill(this.direzioni, 0, this.numEventi, null);
+		this.numEventi = 0;
+		this.esito = 0;
+	}
+
+	// Registra un evento del turno; gli array vengono ingranditi solo quando gli eventi di un turno
+	// superano quelli di tutti i turni precedenti.
+	void registra(int codice, Elemento soggetto, Direzioni direzione, int casella) {
+		if(this.numEventi == this.codici.length) {
+			int nuovaCapacita = 2*this.codici.length;
+
+			this.codici = Arrays.copyOf(this.codici, nuovaCapacita);
+			this.soggetti = Arrays.copyOf(this.soggetti, nuovaCapacita);
+			this.direzioni = Arrays.copyOf(this.direzioni, nuovaCapacita);
+			this.caselle = Arrays.copyOf(this.caselle, nuovaCapacita);
+		}
+
+		this.codici[this.numEventi] = codice;
+		this.soggetti[this.numEventi] = soggetto;
+		this.direzioni[this.numEventi] = direzione;
+		this.caselle[this.numEventi] = casella;
+		this.numEventi++;
+		this.esito |= codice;
+	}
+
+	// Aggiunge all'esito del turno un codice che non corrisponde ad alcun evento.
+	void segnala(int codice) {
+		this.esito |= codice;
+	}
+
+	/**
+	 * Metodo statico che indica se un esito restituito da Partita.eseguiTurno contiene un dato codice.
+	 *
+	 * @param esito Esito di un turno di gioco.
+	 * @param codice Codice dell'evento da cercare (una delle costanti di EsitoTurno).
+	 * @return <em>true</em> se l'esito contiene il codice, <em>false</em> altrimenti.
+	 */
+	public static boolean contiene(int esito, int codice) {
+		return (esito & codice) != 0;
+	}
+
+	/**
+	 * Metodo che restituisce l'esito del turno, ovvero l'OR dei codici degli eventi avvenuti
+	 * (<em>0</em> se il turno non e' stato giocato perche' la partita era gia' terminata).
+	 *
+	 * @return Esito del turno.
+	 */
+	public int getEsito() {
+		return this.esito;
+	}
+
+	/**
+	 * Metodo che restituisce il numero di eventi registrati nel turno.
+	 *
+	 * @return Numero di eventi del turno.
+	 */
+	public int getNumEventi() {
+		return this.numEventi;
+	}
+
+	/**
+	 * Metodo che restituisce il codice di un evento del turno.
+	 *
+	 * @param evento Indice dell'evento, in ordine cronologico.
+	 * @return Codice dell'evento (una delle costanti di EsitoTurno).
+	 * @throws IndexOutOfBoundsException Se l'indice non corrisponde ad un evento del turno.
+	 */
+	public int getCodiceEvento(int evento) throws IndexOutOfBoundsException {
+		return this.codici[Objects.checkIndex(evento, this.numEventi)];
+	}
+
+	/**
+	 * Metodo che restituisce l'elemento coinvolto in un evento del turno (l'Agente per le sue azioni,
+	 * il bersaglio della freccia, il contenuto della casella dell'Agente o il CuccioloDiWumpus che si sposta).
+	 *
+	 * @param evento Indice dell'evento, in ordine cronologico.
+	 * @return Elemento coinvolto nell'evento, o null se l'evento non riguarda alcun elemento.
+	 * @throws IndexOutOfBoundsException Se l'indice non corrisponde ad un evento del turno.
+	 */
+	public Elemento getSoggettoEvento(int evento) throws IndexOutOfBoundsException {
+		return this.soggetti[Objects.checkIndex(evento, this.numEventi)];
+	}
+
+	/**
+	 * Metodo che restituisce la direzione dell'azione dell'Agente a cui si riferisce un evento del turno.
+	 *
+	 * @param evento Indice dell'evento, in ordine cronologico.
+	 * @return Direzione dell'azione, o null se l'evento non riguarda un'azione dell'Agente.
+	 * @throws IndexOutOfBoundsException Se l'indice non corrisponde ad un evento del turno.
+	 */
+	public Direzioni getDirezioneEvento(int evento) throws IndexOutOfBoundsException {
+		return this.direzioni[Objects.checkIndex(evento, this.numEventi)];
+	}
+
+	/**
+	 * Metodo che restituisce la casella di arrivo di uno spostamento (AGENTE_SPOSTATO o CUCCIOLO_SPOSTATO),
+	 * nella forma riga*latoMappa + colonna.
+	 *
+	 * @param evento Indice dell'evento, in ordine cronologico.
+	 * @return Casella di arrivo dello spostamento, o <em>-1</em> se l'evento non e' uno spostamento.
+	 * @throws IndexOutOfBoundsException Se l'indice non corrisponde ad un evento del turno.
+	 */
+	public int getCasellaEvento(int evento) throws IndexOutOfBoundsException {
+		return this.caselle[Objects.checkIndex(evento, this.numEventi)];
+	}
+
+	/**
+	 * Metodo che costruisce la descrizione testuale delle azioni compiute durante il turno di gioco
+	 * e del loro esito, una riga per ogni evento (la stessa restituita da Partita.turnoDiGioco).
+	 *
+	 * @return String descrizione testuale del turno, vuota se il turno non e' stato giocato.
+	 */
+	public String getDescrizione() {
+		StringBuilder descrizione = new StringBuilder();
+
+		for(int i = 0; i < this.numEventi; i++) {
+			if(i > 0) {
+				descrizione.append("\n");
+			}
+			this.descriviEvento(descrizione, i);
+		}
+		return descrizione.toString();
+	}
+
+	// Aggiunge alla descrizione il testo corrispondente ad un evento del turno (un evento puo'
+	// occupare piu' righe, oppure nessuna, come NESSUN_INCONTRO).
+	private void descriviEvento(StringBuilder descrizione, int evento) {
+		String nomeAgente = this.agente.getNome();
+		Elemento soggetto = this.soggetti[evento];
+		Direzioni direzione = this.direzioni[evento];
+		int casella = this.caselle[evento];
+
+		switch(this.codici[evento]) {
+			case EsitoTurno.AGENTE_SPOSTATO -> descrizione.append(nomeAgente).append(" prova a spostarsi a ").append(direzione.name().toLowerCase()).append(".")
+					.append("\n").append(nomeAgente).append(" si sposta nella casella ").append(casella / soggetto.getLatoScacchiera()).append(", ").append(casella % soggetto.getLatoScacchiera()).append(".");
+			case EsitoTurno.AGENTE_BLOCCATO -> descrizione.append(nomeAgente).append(" prova a spostarsi a ").append(direzione.name().toLowerCase()).append(".")
+					.append("\nLe pareti della caverna impediscono a ").append(nomeAgente).append(" di spostarsi a ").append(direzione.name().toLowerCase()).append(".");
+			case EsitoTurno.FRECCIA_SCAGLIATA -> descrizione.append(nomeAgente).append(" scaglia una freccia a ").append(direzione.name().toLowerCase()).append(".");
+			case EsitoTurno.FRECCIA_CONTRO_PARETE -> descrizione.append("La freccia colpisce le pareti della caverna.");
+			case EsitoTurno.FRECCE_ESAURITE -> descrizione.append(nomeAgente).append(" vorrebbe scagliare una freccia a ").append(direzione.name().toLowerCase()).append(", ma le ha terminate.");
+			case EsitoTurno.FRECCIA_A_VUOTO -> descrizione.append(nomeAgente).append(" non ha colpito nulla.");
+			case EsitoTurno.WUMPUS_UCCISO -> descrizione.append(nomeAgente).append(" ha ucciso il Wumpus! L'uccisione di ").append(EsitoTurno.nome(soggetto)).append(" frutta a ").append(nomeAgente)
+					.append(" una ricompensa di ").append(((Wumpus) soggetto).getValore()).append(" monete d'oro.");
+			case EsitoTurno.SUPERSTITE_UCCISO -> descrizione.append(nomeAgente).append(" ha ucciso il superstite ").append(EsitoTurno.nome(soggetto)).append(".");
+			case EsitoTurno.CUCCIOLO_UCCISO -> descrizione.append(nomeAgente).append(" ha ucciso il cucciolo di Wumpus ").append(EsitoTurno.nome(soggetto)).append(".");
+			case EsitoTurno.UCCISO_DA_WUMPUS -> descrizione.append(nomeAgente).append(" e' stato ucciso dal Wumpus ").append(EsitoTurno.nome(soggetto)).append(".");
+			case EsitoTurno.CADUTO_IN_VORAGINE -> descrizione.append(nomeAgente).append(" e' caduto in una voragine.");
+			case EsitoTurno.TESORO_RACCOLTO -> descrizione.append(nomeAgente).append(" ha trovato un tesoro.")
+					.append("\nIl recupero del tesoro frutta a ").append(nomeAgente).append(" ").append(((Tesoro) soggetto).getValore()).append(" monete d'oro.");
+			case EsitoTurno.SUPERSTITE_SALVATO_FRECCIA -> descrizione.append(nomeAgente).append(" ha salvato il superstite ").append(EsitoTurno.nome(soggetto)).append(".")
+					.append("\n").append(EsitoTurno.nome(soggetto)).append(" ricompensa ").append(nomeAgente).append(" con una freccia.");
+			case EsitoTurno.SUPERSTITE_SALVATO_ORO -> descrizione.append(nomeAgente).append(" ha salvato il superstite ").append(EsitoTurno.nome(soggetto)).append(".")
+					.append("\n").append(EsitoTurno.nome(soggetto)).append(" ricompensa ").append(nomeAgente).append(" con ").append(((Superstite) soggetto).getValore()).append(" monete d'oro.");
+			case EsitoTurno.CUCCIOLO_RUBA_FRECCIA, EsitoTurno.CUCCIOLO_RUBA_ORO, EsitoTurno.CUCCIOLO_NULLA_DA_RUBARE -> {
+				descrizione.append(nomeAgente).append(" incontra il cucciolo di Wumpus ").append(EsitoTurno.nome(soggetto)).append(".\n").append(EsitoTurno.nome(soggetto));
+
+				if(this.codici[evento] == EsitoTurno.CUCCIOLO_RUBA_FRECCIA) {
+					descrizione.append(" ruba a ").append(nomeAgente).append(" una freccia.");
+				}
+				else if(this.codici[evento] == EsitoTurno.CUCCIOLO_RUBA_ORO) {
+					descrizione.append(" ruba a ").append(nomeAgente).append(" 50 monete d'oro.");
+				}
+				else {
+					descrizione.append(" non trova nulla da rubare.");
+				}
+				descrizione.append("\n").append(EsitoTurno.nome(soggetto)).append(" scompare dalla mappa.");
+			}
+			case EsitoTurno.CUCCIOLO_SPOSTATO -> descrizione.append("Il cucciolo di Wumpus ").append(EsitoTurno.nome(soggetto)).append(" si sposta nella casella ")
+					.append(casella / soggetto.getLatoScacchiera()).append(", ").append(casella % soggetto.getLatoScacchiera());
+			case EsitoTurno.CUCCIOLO_FERMO -> descrizione.append("Il cucciolo di Wumpus ").append(EsitoTurno.nome(soggetto)).append(" non si muove.");
+			// AZIONE_NON_VALIDA e NESSUN_INCONTRO non aggiungono testo.
+			default -> { }
+		}
+	}
+
+	private static String nome(Elemento soggetto) {
+		return ((ElementoEliminabile) soggetto).getNome();
+	}
+}
@@ -0,0 +1,46 @@
+package model.gioco;
+
+import java.beans.PropertyChangeEvent;
+import java.util.List;
+
+/**
+ * Classe immutabile che raccoglie gli eventi lanciati dagli elementi di una partita durante un turno di
+ * gioco (o, fuori dai turni, un singolo evento), nell'ordine in cui sono stati lanciati: e' l'unita' con
+ * cui BusEventi consegna gli eventi ai suoi ascoltatori.
+ * Gli elementi che negli eventi originali indicavano la nuova posizione di un elemento (ad esempio il
+ * nuovo valore degli eventi "spostamento") sono sostituiti dalla loro casella, codificata in un long (si
+ * veda Casella), in modo che l'evento descriva lo stato al momento del turno anche se viene letto dopo che
+ * la partita e' andata avanti; il vecchio valore degli eventi degli elementi e' gia' una casella.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class FrameEventi {
+	private final long numero;
+	private final List<PropertyChangeEvent> eventi;
+
+	FrameEventi(long numero, List<PropertyChangeEvent> eventi) {
+		this.numero = numero;
+		this.eventi = List.copyOf(eventi);
+	}
+
+	/**
+	 * Metodo che restituisce il numero progressivo del frame: i frame di una partita vengono numerati a
+	 * partire da 1 nell'ordine in cui vengono prodotti.
+	 *
+	 * @return Numero del frame.
+	 */
+	public long getNumero() {
+		return this.numero;
+	}
+
+	/**
+	 * Metodo che restituisce gli eventi del frame.
+	 *
+	 * @return Lista non modificabile degli eventi, nell'ordine in cui sono stati lanciati.
+	 */
+	public List<PropertyChangeEvent> getEventi() {
+		return this.eventi;
+	}
+}
@@ -0,0 +1,220 @@
+package model.gioco;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/*
+ * Lettore in un solo passaggio del formato testuale di salvataggio di Mappa, usato dal costruttore
+ * di Mappa che carica una mappa da file.
+ * Il contenuto del file viene scorso byte per byte direttamente dal buffer: le intestazioni e le
+ * etichette vengono confrontate senza estrarre la linea e i numeri vengono letti senza creare
+ * sottostringhe; vengono create stringhe solo per i nomi degli elementi.
+ * In caso di errore l'eccezione indica la posizione (in byte dall'inizio del file) della linea
+ * non valida.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+final class LettoreTesto {
+	private final ByteBuffer contenuto;
+	private final String nomeFile;
+	// Posizione del prossimo byte da leggere e limite del contenuto.
+	private int posizione;
+	private final int limite;
+	// Posizione di inizio e di fine (escluso il terminatore) della linea corrente.
+	private int inizioLinea;
+	private int fineLinea;
+
+	/*
+	 * Costruttore di LettoreTesto.
+	 *
+	 * @param contenuto Contenuto del file, dalla posizione corrente fino al limite del buffer.
+	 * @param nomeFile Nome del file, riportato nei messaggi di errore.
+	 */
+	LettoreTesto(ByteBuffer contenuto, String nomeFile) {
+		this.contenuto = contenuto;
+		this.nomeFile = nomeFile;
+		this.posizione = contenuto.position();
+		this.limite = contenuto.limit();
+	}
+
+	/*
+	 * Passa alla linea successiva, individuandone l'inizio e la fine. Come BufferedReader.readLine, una
+	 * linea puo' terminare con "\n", "\r" oppure "\r\n".
+	 *
+	 * @throws IllegalArgumentException Se il file e' terminato.
+	 */
+	private void prossimaLinea() throws IllegalArgumentException {
+		if(this.posizione >= this.limite) {
+			this.inizioLinea = this.posizione;
+			throw this.errore("il file termina prima del previsto");
+		}
+
+		this.inizioLinea = this.posizione;
+		int i = this.posizione;
+		while(i < this.limite && this.contenuto.get(i) != '\n' && this.contenuto.get(i) != '\r') {
+			i++;
+		}
+		this.fineLinea = i;
+
+		if(i < this.limite && this.contenuto.get(i) == '\r') {
+			i++;
+		}
+		if(i < this.limite && this.contenuto.get(i) == '\n' && (i == this.fineLinea || this.contenuto.get(i - 1) == '\r')) {
+			i++;
+		}
+		this.posizione = i;
+	}
+
+	/*
+	 * Salta la linea successiva, qualunque sia il suo contenuto (ad esempio le sottolineature dei
+	 * titoli e le linee vuote tra i blocchi).
+	 */
+	void saltaLinea() throws IllegalArgumentException {
+		this.prossimaLinea();
+	}
+
+	/*
+	 * Legge la linea successiva, che deve essere uguale al testo dato.
+	 */
+	void attendiLinea(String testo) throws IllegalArgumentException {
+		this.prossimaLinea();
+
+		if(this.fineLinea - this.inizioLinea != testo.length() || !(this.iniziaCon(this.inizioLinea, testo))) {
+			throw this.errore("attesa la linea \"" + testo + "\"");
+		}
+	}
+
+	/*
+	 * Legge la linea successiva, nel formato "etichetta: intero".
+	 */
+	int leggiIntero(String etichetta) throws IllegalArgumentException {
+		int i = this.inizioValore(etichetta);
+		int fine = this.fineValore(i);
+
+		while(i < fine && (this.contenuto.get(i) & 0xFF) <= ' ') {
+			i++;
+		}
+
+		boolean negativo = false;
+		if(i < fine && (this.contenuto.get(i) == '-' || this.contenuto.get(i) == '+')) {
+			negativo = this.contenuto.get(i) == '-';
+			i++;
+		}
+		if(i == fine) {
+			throw this.errore("atteso un numero intero dopo \"" + etichetta + ":\"");
+		}
+
+		// Il valore viene accumulato in negativo, come in Integer.parseInt, per poter rappresentare
+		// anche Integer.MIN_VALUE.
+		int valore = 0;
+		for(; i < fine; i++) {
+			int cifra = this.contenuto.get(i) - '0';
+
+			if(cifra < 0 || cifra > 9) {
+				throw this.errore("atteso un numero intero dopo \"" + etichetta + ":\"");
+			}
+			if(valore < (Integer.MIN_VALUE + cifra)/10) {
+				throw this.errore("il numero dopo \"" + etichetta + ":\" e' troppo grande");
+			}
+			valore = valore*10 - cifra;
+		}
+
+		if(!negativo) {
+			if(valore == Integer.MIN_VALUE) {
+				throw this.errore("il numero dopo \"" + etichetta + ":\" e' troppo grande");
+			}
+			valore = -valore;
+		}
+		return valore;
+	}
+
+	/*
+	 * Legge la linea successiva, nel formato "etichetta: booleano". Come Boolean.parseBoolean, il
+	 * valore e' true solo se il testo e' "true", senza distinzione tra maiuscole e minuscole.
+	 */
+	boolean leggiBooleano(String etichetta) throws IllegalArgumentException {
+		int i = this.inizioValore(etichetta);
+		int fine = this.fineValore(i);
+
+		while(i < fine && (this.contenuto.get(i) & 0xFF) <= ' ') {
+			i++;
+		}
+		if(fine - i != 4) {
+			return false;
+		}
+		for(int j = 0; j < 4; j++) {
+			if(Character.toLowerCase(this.contenuto.get(i + j)) != "true".charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Legge la linea successiva, nel formato "etichetta: testo", e restituisce il testo senza gli
+	 * spazi iniziali e finali. Il testo viene decodificato con la codifica predefinita, la stessa
+	 * usata dal metodo salvataggio di Mappa.
+	 */
+	String leggiTesto(String etichetta) throws IllegalArgumentException {
+		int i = this.inizioValore(etichetta);
+		int fine = this.fineValore(i);
+
+		while(i < fine && (this.contenuto.get(i) & 0xFF) <= ' ') {
+			i++;
+		}
+		byte[] testo = new byte[fine - i];
+		this.contenuto.get(i, testo);
+		return new String(testo, Charset.defaultCharset());
+	}
+
+	/*
+	 * Legge la linea successiva e controlla che inizi con l'etichetta data seguita da ':', e che
+	 * dopo i due punti non ce ne siano altri (come richiedeva il formato letto con split(":")).
+	 * Restituisce la posizione del primo byte dopo i due punti.
+	 */
+	private int inizioValore(String etichetta) throws IllegalArgumentException {
+		this.prossimaLinea();
+
+		int inizio = this.inizioLinea + etichetta.length();
+		if(inizio >= this.fineLinea || this.contenuto.get(inizio) != ':' || !(this.iniziaCon(this.inizioLinea, etichetta))) {
+			throw this.errore("attesa l'etichetta \"" + etichetta + ":\"");
+		}
+
+		for(int i = inizio + 1; i < this.fineLinea; i++) {
+			if(this.contenuto.get(i) == ':') {
+				throw this.errore("la linea contiene piu' di un valore");
+			}
+		}
+		return inizio + 1;
+	}
+
+	// Restituisce la fine del valore che inizia in posizione inizio, esclusi gli spazi finali.
+	private int fineValore(int inizio) {
+		int fine = this.fineLinea;
+
+		while(fine > inizio && (this.contenuto.get(fine - 1) & 0xFF) <= ' ') {
+			fine--;
+		}
+		return fine;
+	}
+
+	// Confronta i byte a partire dalla posizione data con il testo dato (composto da caratteri ASCII).
+	private boolean iniziaCon(int posizione, String testo) {
+		if(posizione + testo.length() > this.fineLinea) {
+			return false;
+		}
+		for(int j = 0; j < testo.length(); j++) {
+			if(this.contenuto.get(posizione + j) != testo.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Eccezione per un errore di formato nella linea corrente.
+	private IllegalArgumentException errore(String dettaglio) {
+		return new IllegalArgumentException("Formato file non valido: " + dettaglio + " (file " + this.nomeFile + ", posizione " + this.inizioLinea + ")");
+	}
+}
@@ -1,18 +1,39 @@
 package model.gioco;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
 
 import model.elementi.Agente;
 import model.elementi.CuccioloDiWumpus;
 import model.elementi.Elemento;
-import model.elementi.PersonaggioMondoDelWumpus;
+import model.elementi.ElementoEliminabile;
+import model.elementi.IndicePosizioni;
 import model.elementi.Superstite;
 import model.elementi.Tesoro;
 import model.elementi.Wumpus;
@@ -26,8 +47,73 @@ import model.elementi.Wumpus;
  */
 public class Mappa {
 	private final int latoMappa;
+	/*
+	 * Elementi della mappa diversi dalle voragini, nell'ordine in cui sono stati inseriti.
+	 */
 	private Vector<Elemento> elencoElementiMappa;
+	/*
+	 * Maschera di bit delle voragini: la casella di coordinate (riga, colonna) corrisponde al
+	 * bit riga*latoMappa + colonna, che vale 1 se la casella contiene una voragine. Le voragini
+	 * non vengono istanziate come oggetti finche' non servono (si veda voragineInCasella), in
+	 * modo che una mappa molto grande occupi un solo bit per casella.
+	 */
+	private long[] voragini;
+	/*
+	 * Indice delle caselle della mappa: associa la posizione riga*latoMappa + colonna all'Elemento
+	 * in gioco che la occupa. Contiene solo le caselle occupate, quindi la sua dimensione dipende
+	 * dal numero di elementi e non da quello delle caselle; viene mantenuto allineato con
+	 * elencoElementiMappa e permette di rispondere a contenutoCasella e aggiungiAllaMappa in
+	 * tempo costante.
+	 */
+	private TabellaCaselle caselle;
+	/*
+	 * Indice di occupazione: maschera di bit, con la stessa disposizione della maschera delle voragini,
+	 * delle caselle occupate da un elemento presente nell'indice delle caselle. Viene aggiornato insieme
+	 * all'indice delle caselle (per gli elementi mobili ad ogni spostamento, con due sole
+	 * operazioni sui bit) e permette di sapere in quali direzioni puo' spostarsi un elemento mobile
+	 * senza accedere alla tabella hash ne' confrontare Elementi (si veda direzioniLibere).
+	 */
+	private long[] occupate;
+	/*
+	 * Maschere di bit delle percezioni, con la stessa disposizione della maschera delle voragini:
+	 * brezza marca le caselle adiacenti ad una voragine, puzza quelle adiacenti ad un Wumpus in
+	 * gioco. La brezza viene calcolata una volta sola, al termine della generazione o del caricamento
+	 * della mappa (le voragini non cambiano durante la partita), mentre la puzza viene aggiornata
+	 * ogni volta che un Wumpus viene aggiunto alla mappa o esce dal gioco.
+	 */
+	private long[] brezza;
+	private long[] puzza;
+	/*
+	 * Maschera di bit delle caselle gia' scoperte dal giocatore, con la stessa disposizione della
+	 * maschera delle voragini. E' presente solo nelle mappe caricate da un salvataggio binario che la
+	 * contiene; altrimenti vale null.
+	 */
+	private long[] caselleScoperte;
+	/*
+	 * Indice collegato agli elementi eliminabili della mappa, che lo chiamano direttamente quando si
+	 * spostano o escono dal gioco per mantenere aggiornato l'indice delle caselle: a differenza di un
+	 * PropertyChangeListener, non richiede la creazione dell'evento e del supporto agli eventi
+	 * dell'elemento, quindi un turno di gioco non crea alcun oggetto per aggiornare l'indice.
+	 */
+	private final IndicePosizioni aggiornamentoCaselle = new IndicePosizioni() {
+		@Override
+		public void spostamento(ElementoEliminabile elemento, int vecchiaCasella, int nuovaCasella) {
+			Mappa.this.spostamentoElemento(elemento, vecchiaCasella, nuovaCasella);
+		}
+
+		@Override
+		public void eliminazione(ElementoEliminabile elemento, int casella) {
+			Mappa.this.uscitaElemento(elemento, casella);
+		}
+	};
 	private final Agente agente;
+	/*
+	 * Generatore di numeri casuali della mappa: viene usato per generarla e, durante la partita, per tutte
+	 * le scelte casuali (spostamenti dei cuccioli, ricompense dei superstiti...). Ogni mappa ha il proprio
+	 * generatore, quindi partite giocate in parallelo non si contendono un generatore comune, e una mappa
+	 * generata a partire da un generatore con un seme noto puo' venire riprodotta esattamente.
+	 */
+	private final RandomGenerator generatoreCasuale;
 	private Wumpus wumpus;
 	private Tesoro[] tesori;
 	private Superstite[] superstiti;
@@ -42,6 +128,42 @@ public class Mappa {
 	public static final int DEFAULT_NUM_TESORI = 3;
 	public static final int DEFAULT_NUM_SUPERSTITI = 2;
 	public static final int DEFAULT_NUM_CUCCIOLI = 2;
+	public static final ModalitaGenerazione DEFAULT_MODALITA_GENERAZIONE = ModalitaGenerazione.RIGETTO;
+	
+	/**
+	 * Dimensione massima (in caselle) del lato di una mappa estesa.
+	 */
+	public static final int MAX_LATO_MAPPA_ESTESA = 10000;
+	
+	/**
+	 * Densita' massima (frazione delle caselle della mappa) di ciascun tipo di elemento di una mappa estesa.
+	 */
+	public static final double MAX_DENSITA_ELEMENTI = 0.05;
+	
+	/**
+	 * Nome predefinito del file di salvataggio nel formato binario.
+	 */
+	public static final String SALVATAGGIO_BINARIO = "salvataggioWumpus.bin";
+	
+	/*
+	 * Costanti del formato binario di salvataggio. Il file inizia con un'intestazione di dimensione
+	 * fissa: il numero magico ("WUMP" in ASCII), la versione del formato, le opzioni (un bit per ogni
+	 * sezione facoltativa), il lato della mappa e il numero di tesori, superstiti e cuccioli.
+	 * Seguono, nell'ordine: l'Agente, il Wumpus, la maschera di bit delle voragini, i tesori, i
+	 * superstiti, i cuccioli e, se presente, la maschera di bit delle caselle scoperte.
+	 * La posizione di ogni elemento e' salvata come indice di casella (riga*latoMappa + colonna) e
+	 * ogni nome come lunghezza in byte (-1 per un nome assente) seguita dalla codifica UTF-8.
+	 */
+	private static final int NUMERO_MAGICO = 0x57554D50;
+	private static final short VERSIONE_FORMATO_BINARIO = 1;
+	private static final short OPZIONE_CASELLE_SCOPERTE = 1;
+	private static final int DIMENSIONE_INTESTAZIONE = 24;
+	
+	/*
+	 * Copia dei valori dell'enumerativo Direzioni, per evitare che ogni chiamata a
+	 * Direzioni.values() allochi un nuovo array.
+	 */
+	private static final Direzioni[] DIREZIONI = Direzioni.values();
     
 	/*
 	 * Classe per la creazione e di Elementi di tipo Voragine per la Mappa del gioco del Wumpus.
@@ -124,6 +246,58 @@ public class Mappa {
 	 * se numCuccioli e' minore di 1 o maggiore di 5;
 	 */
 	public Mappa(int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli) throws IllegalArgumentException {
+		this(latoMappa, probabilitaVoragine, numTesori, numSuperstiti, numCuccioli, Mappa.DEFAULT_MODALITA_GENERAZIONE);
+	}
+	
+	/**
+	 * Costruttore per Mappa.
+	 * Genera una nuova Mappa di gioco di dimensione latoMappa x latoMappa in cui
+	 * ogni casella ha una probabilita' del probabilitaVoragine% di contenere una Voragine,
+	 * con numTesori elementi Tesoro, numSuperstiti elementi Superstite e numCuccioli elementi
+	 * CuccioloDiWumpus, utilizzando la modalita' di generazione indicata.
+	 * 
+	 * @param latoMappa Dimensione in caselle dei lati della Mappa.
+	 * @param probabilitaVoragine Probabilita' che una casella contenga una Voragine.
+	 * @param numTesori Numero di elementi Tesoro presenti sulla Mappa.
+	 * @param numSuperstiti Numero di elementi Superstite presenti sulla Mappa.
+	 * @param numCuccioli Numero di elementi CuccioloDiWumpus presenti sulla Mappa.
+	 * @param modalitaGenerazione Modalita' con cui generare la Mappa.
+	 * @throws IllegalArgumentException Se latoMappa e' minore di 5 o maggiore di 15 caselle;
+	 * se probabilitaVoragine e' minore di 10 o maggiore di 40;
+	 * se numTesori e' minore di 1 o maggiore di 5;
+	 * se numSuperstiti e' minore di 1 o maggiore di 5;
+	 * se numCuccioli e' minore di 1 o maggiore di 5;
+	 */
+	public Mappa(int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli, ModalitaGenerazione modalitaGenerazione) throws IllegalArgumentException {
+		this(latoMappa, probabilitaVoragine, numTesori, numSuperstiti, numCuccioli, modalitaGenerazione, new SplittableRandom());
+	}
+	
+	/**
+	 * Costruttore per Mappa.
+	 * Genera una nuova Mappa di gioco come il costruttore precedente, usando per tutte le scelte casuali
+	 * (sia durante la generazione sia durante la partita) il generatore di numeri casuali indicato: due
+	 * mappe create con generatori inizializzati con lo stesso seme sono identiche.
+	 * Il generatore non deve essere condiviso con altre mappe usate contemporaneamente da thread diversi.
+	 * 
+	 * @param latoMappa Dimensione in caselle dei lati della Mappa.
+	 * @param probabilitaVoragine Probabilita' che una casella contenga una Voragine.
+	 * @param numTesori Numero di elementi Tesoro presenti sulla Mappa.
+	 * @param numSuperstiti Numero di elementi Superstite presenti sulla Mappa.
+	 * @param numCuccioli Numero di elementi CuccioloDiWumpus presenti sulla Mappa.
+	 * @param modalitaGenerazione Modalita' con cui generare la Mappa.
+	 * @param generatoreCasuale Generatore di numeri casuali della Mappa.
+	 * @throws IllegalArgumentException Se latoMappa e' minore di 5 o maggiore di 15 caselle;
+	 * se probabilitaVoragine e' minore di 10 o maggiore di 40;
+	 * se numTesori e' minore di 1 o maggiore di 5;
+	 * se numSuperstiti e' minore di 1 o maggiore di 5;
+	 * se numCuccioli e' minore di 1 o maggiore di 5;
+	 * se generatoreCasuale e' null.
+	 */
+	public Mappa(int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli, ModalitaGenerazione modalitaGenerazione, RandomGenerator generatoreCasuale) throws IllegalArgumentException {
+		if(generatoreCasuale == null) {
+			throw new IllegalArgumentException("E' necessario indicare il generatore di numeri casuali della mappa");
+		}
+		
 		if(latoMappa < 5 || latoMappa > 15) {
 			throw new IllegalArgumentException("La dimensione del lato mappa deve essere compresa tra 5 e 15 caselle");
 		}
@@ -146,24 +320,136 @@ public class Mappa {
 		
 		this.latoMappa = latoMappa;
 		this.agente = new Agente(latoMappa, 0, 0);
+		this.generatoreCasuale = generatoreCasuale;
+		
+		switch (modalitaGenerazione) {
+			case RIGETTO -> this.generazionePerRigetto(probabilitaVoragine, numTesori, numSuperstiti, numCuccioli);
+			case COSTRUTTIVA -> this.generazioneCostruttiva(probabilitaVoragine, numTesori, numSuperstiti, numCuccioli);
+		}
+	}
+	
+	/*
+	 * Costruttore per le mappe estese, usato dal metodo generaMappaEstesa.
+	 * Il numero di tesori, superstiti e cuccioli e' proporzionale al numero di caselle della mappa
+	 * (con un minimo di 1 per ciascun tipo di elemento); la mappa viene sempre generata in modo
+	 * costruttivo.
+	 */
+	private Mappa(int latoMappa, int probabilitaVoragine, double densitaTesori, double densitaSuperstiti, double densitaCuccioli, RandomGenerator generatoreCasuale) throws IllegalArgumentException {
+		if(generatoreCasuale == null) {
+			throw new IllegalArgumentException("E' necessario indicare il generatore di numeri casuali della mappa");
+		}
+		
+		if(latoMappa < 5 || latoMappa > Mappa.MAX_LATO_MAPPA_ESTESA) {
+			throw new IllegalArgumentException("La dimensione del lato di una mappa estesa deve essere compresa tra 5 e " + Mappa.MAX_LATO_MAPPA_ESTESA + " caselle");
+		}
+		
+		if(probabilitaVoragine < 10 || probabilitaVoragine > 40) {
+			throw new IllegalArgumentException("La probabilita' che ciascuna casella sia una voragine deve essere compresa tra 10% e 40%");
+		}
+		
+		// La negazione del confronto scarta anche i valori NaN.
+		if(!(densitaTesori >= 0 && densitaTesori <= Mappa.MAX_DENSITA_ELEMENTI)) {
+			throw new IllegalArgumentException("La densita' dei tesori deve essere compresa tra 0 e " + Mappa.MAX_DENSITA_ELEMENTI);
+		}
+		
+		if(!(densitaSuperstiti >= 0 && densitaSuperstiti <= Mappa.MAX_DENSITA_ELEMENTI)) {
+			throw new IllegalArgumentException("La densita' dei superstiti deve essere compresa tra 0 e " + Mappa.MAX_DENSITA_ELEMENTI);
+		}
+		
+		if(!(densitaCuccioli >= 0 && densitaCuccioli <= Mappa.MAX_DENSITA_ELEMENTI)) {
+			throw new IllegalArgumentException("La densita' dei cuccioli deve essere compresa tra 0 e " + Mappa.MAX_DENSITA_ELEMENTI);
+		}
+		
+		this.latoMappa = latoMappa;
+		this.agente = new Agente(latoMappa, 0, 0);
+		this.generatoreCasuale = generatoreCasuale;
+		
+		int numCaselle = latoMappa*latoMappa;
+		
+		this.generazioneCostruttiva(probabilitaVoragine, Mappa.numeroDaDensita(densitaTesori, numCaselle),
+				Mappa.numeroDaDensita(densitaSuperstiti, numCaselle), Mappa.numeroDaDensita(densitaCuccioli, numCaselle));
+	}
+	
+	/**
+	 * Metodo statico che genera una mappa estesa, pensata per le simulazioni su mappe di grandi dimensioni
+	 * (fino a MAX_LATO_MAPPA_ESTESA x MAX_LATO_MAPPA_ESTESA caselle).
+	 * Il numero di tesori, superstiti e cuccioli non e' fissato ma dipende dalla densita' richiesta:
+	 * ad esempio, con densitaTesori pari a 0.001 una mappa di 1000 x 1000 caselle contiene 1000 tesori.
+	 * Ogni tipo di elemento e' comunque presente almeno una volta; la mappa viene generata in modo
+	 * costruttivo ed e' quindi sempre giocabile.
+	 * 
+	 * @param latoMappa Dimensione in caselle dei lati della Mappa.
+	 * @param probabilitaVoragine Probabilita' che una casella contenga una Voragine.
+	 * @param densitaTesori Frazione delle caselle della Mappa che contengono un Tesoro.
+	 * @param densitaSuperstiti Frazione delle caselle della Mappa che contengono un Superstite.
+	 * @param densitaCuccioli Frazione delle caselle della Mappa che contengono un CuccioloDiWumpus.
+	 * @return Mappa generata.
+	 * @throws IllegalArgumentException Se latoMappa e' minore di 5 o maggiore di MAX_LATO_MAPPA_ESTESA caselle;
+	 * se probabilitaVoragine e' minore di 10 o maggiore di 40;
+	 * se una delle densita' e' minore di 0 o maggiore di MAX_DENSITA_ELEMENTI.
+	 */
+	public static Mappa generaMappaEstesa(int latoMappa, int probabilitaVoragine, double densitaTesori, double densitaSuperstiti, double densitaCuccioli) throws IllegalArgumentException {
+		return new Mappa(latoMappa, probabilitaVoragine, densitaTesori, densitaSuperstiti, densitaCuccioli, new SplittableRandom());
+	}
+	
+	/**
+	 * Metodo statico che genera una mappa estesa come il metodo precedente, usando per tutte le scelte
+	 * casuali il generatore di numeri casuali indicato.
+	 * 
+	 * @param latoMappa Dimensione in caselle dei lati della Mappa.
+	 * @param probabilitaVoragine Probabilita' che una casella contenga una Voragine.
+	 * @param densitaTesori Frazione delle caselle della Mappa che contengono un Tesoro.
+	 * @param densitaSuperstiti Frazione delle caselle della Mappa che contengono un Superstite.
+	 * @param densitaCuccioli Frazione delle caselle della Mappa che contengono un CuccioloDiWumpus.
+	 * @param generatoreCasuale Generatore di numeri casuali della Mappa.
+	 * @return Mappa generata.
+	 * @throws IllegalArgumentException Se i parametri non sono validi per una mappa estesa o se
+	 * generatoreCasuale e' null.
+	 */
+	public static Mappa generaMappaEstesa(int latoMappa, int probabilitaVoragine, double densitaTesori, double densitaSuperstiti, double densitaCuccioli, RandomGenerator generatoreCasuale) throws IllegalArgumentException {
+		return new Mappa(latoMappa, probabilitaVoragine, densitaTesori, densitaSuperstiti, densitaCuccioli, generatoreCasuale);
+	}
+	
+	// Numero di elementi corrispondente ad una densita' su di una mappa di numCaselle caselle (almeno 1).
+	private static int numeroDaDensita(double densita, int numCaselle) {
+		return Math.max(1, (int) Math.round(densita*numCaselle));
+	}
+	
+	// Inizializza le strutture che descrivono il contenuto delle caselle per una mappa vuota;
+	// numElementiPrevisti serve solo a dimensionare l'indice delle caselle.
+	private void inizializzaCaselle(int numElementiPrevisti) {
+		int latoMappa = this.getLatoMappa();
+		
+		this.elencoElementiMappa = new Vector<Elemento>(numElementiPrevisti);
+		this.voragini = new long[(latoMappa*latoMappa + 63) >>> 6];
+		this.brezza = new long[this.voragini.length];
+		this.puzza = new long[this.voragini.length];
+		this.occupate = new long[this.voragini.length];
+		this.caselle = new TabellaCaselle(numElementiPrevisti);
+	}
+	
+	/*
+	 * Metodo che genera la mappa per rigetto: colloca casualmente Voragini, Wumpus, tesori, superstiti
+	 * e cuccioli e ripete la generazione finche' non si ottiene una mappa giocabile.
+	 */
+	private void generazionePerRigetto(int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli) {
+		int latoMappa = this.getLatoMappa();
 		
 		// Ciclo do-while per la collocazione casuale di Voragini, Wumpus, tesori e superstiti
 		// nella mappa.
 		do {
-			this.elencoElementiMappa = new Vector<Elemento>();
+			this.inizializzaCaselle(2 + numTesori + numSuperstiti + numCuccioli);
 			this.tesori = new Tesoro[numTesori];
 			this.superstiti = new Superstite[numSuperstiti];
 			this.cuccioli = new CuccioloDiWumpus[numCuccioli];
 
 			// Collocazione di un segnaposto per l'Agente per evitare che nella sua casella
 			// possano venire posizionati altri elementi.
-			// In questo caso non si controlla il valore di ritorno di aggiungiAllaMappa, dato
-			// che l'agente e' il primo elemento a venire inserito, dunque l'inserimento andra'
-			// necessariamente a buon fine.
-			// L'agente verra' rimosso dalla mappa al termine della creazione della stessa, dato
-			// che, per come viene impostata l'implementazione e la gestione delle collisioni,
+			// L'agente occupa solo la sua casella nell'indice delle caselle (non viene inserito
+			// in elencoElementiMappa) e verra' rimosso al termine della creazione della mappa,
+			// dato che, per come viene impostata l'implementazione e la gestione delle collisioni,
 			// non deve venire considerato un elemento della mappa.
-			this.aggiungiAllaMappa(this.agente);
+			this.occupaCasella(this.indiceCasella(this.getAgente().getRiga(), this.getAgente().getColonna()), this.getAgente());
 			
 			// Collocazione delle voragini.
 			this.collocaVoragini(probabilitaVoragine);
@@ -173,7 +459,7 @@ public class Mappa {
 				// Istanzia un oggetto di tipo Wumpus collocandolo in una casella a caso e
 				// attribuendogli un valore (ovvero il numero di punti che puo' dare al
 				// giocatore quando lo salva) casuale tra 300, 350, 400, 450 o 500...
-				this.wumpus = new Wumpus(latoMappa, 300 + ((int) (Math.random()*5))*50);
+				this.wumpus = new Wumpus(latoMappa, this.coordinataCasuale(), this.coordinataCasuale(), 300 + this.generatoreCasuale.nextInt(5)*50);
 			} while (!(this.aggiungiAllaMappa(this.getWumpus())));
 			// ... e lo inserisce nella mappa, ma se la casella e' gia' occupata (cioe' se
 			// il metodo aggiungiAllaMappa restituisce false) ripete il ciclo.
@@ -185,7 +471,7 @@ public class Mappa {
 			for(int i = 0; i < numTesori; i++) {
 				do {
 					// Istanzia un oggetto di tipo Tesoro collocandolo in una casella a caso...
-					this.tesori[i] = new Tesoro(latoMappa, 100 + i*50);
+					this.tesori[i] = new Tesoro(latoMappa, this.coordinataCasuale(), this.coordinataCasuale(), 100 + i*50);
 				} while (!(this.aggiungiAllaMappa(this.getTesori()[i])));
 				// ... e lo inserisce nella mappa, ma se la casella e' gia' occupata (cioe' se
 				// il metodo aggiungiAllaMappa restituisce false) ripete il ciclo.
@@ -199,7 +485,7 @@ public class Mappa {
 					// Istanzia un oggetto di Superstite collocandolo in una casella a caso e
 					// attribuendogli un valore (ovvero il numero di punti che puo' dare al
 					// giocatore quando lo salva) casuale tra 50, 100, 150, 200, 250 o 300...
-					this.superstiti[i] = new Superstite(latoMappa, "superstite n. " + (i + 1), 50 + ((int) (Math.random()*6))*50);
+					this.superstiti[i] = new Superstite(latoMappa, this.coordinataCasuale(), this.coordinataCasuale(), "superstite n. " + (i + 1), 50 + this.generatoreCasuale.nextInt(6)*50);
 				} while (!(this.aggiungiAllaMappa(this.getSuperstiti()[i])));
 				// ... e lo inserisce nella mappa, ma se la casella e' gia' occupata (cioe' se
 				// il metodo aggiungiAllaMappa restituisce false) ripete il ciclo.
@@ -211,7 +497,7 @@ public class Mappa {
 			for(int i = 0; i < numCuccioli; i++) {
 				do {
 					// Istanzia un oggetto di CuccioloDiWumpus collocandolo in una casella a caso...
-					this.cuccioli[i] = new CuccioloDiWumpus(latoMappa, "cucciolo n. " + (i + 1));
+					this.cuccioli[i] = new CuccioloDiWumpus(latoMappa, this.coordinataCasuale(), this.coordinataCasuale(), "cucciolo n. " + (i + 1));
 				} while (!(this.aggiungiAllaMappa(this.getCuccioli()[i])));
 				// ... e lo inserisce nella mappa, ma se la casella e' gia' occupata (cioe' se
 				// il metodo aggiungiAllaMappa restituisce false) ripete il ciclo.
@@ -220,15 +506,11 @@ public class Mappa {
 			// Rimuove l'agente dalla mappa (l'agente non e' un elemento della mappa: lo si
 			// posiziona nella mappa in fase di costruzione solo per evitare che altri elementi
 			// possano venire messi nella casella iniziale dell'agente).
-			// Se l'agente venisse lasciato nel Vector<Elementi> che rappresenta la mappa, non
-			// funzionerebbe la rilevazione delle collisioni con gli altri elementi (dato che
-			// l'agente e' il primo elemento a venire inserito nel Vector<Elementi> in fase di
-			// creazione e dunque il primo elemento presente nel Vector<Elementi> che rappresenta
-			// la mappa, se non si rimuove l'agente dal Vector<Elementi> ogni volta che si chiedera'
-			// di restituire il contenuto della casella in cui si trova l'agente il primo Elemento
-			// a venire trovato nel Vector<Elementi> equals all'agente sarebbe proprio l'agente
-			// stesso).
-			this.elencoElementiMappa.remove(this.getAgente());
+			// Se l'agente venisse lasciato nell'indice delle caselle non funzionerebbe la
+			// rilevazione delle collisioni con gli altri elementi: ogni volta che si chiedera'
+			// di restituire il contenuto della casella in cui si trova l'agente verrebbe
+			// restituito l'agente stesso.
+			this.liberaCasella(this.indiceCasella(this.getAgente().getRiga(), this.getAgente().getColonna()), this.getAgente());
 		
 		/*
 		} while(!(this.controlloCammino(this.getWumpus())) ||
@@ -242,6 +524,186 @@ public class Mappa {
 		// ovvero una mappa in cui non esistesse un cammino dalla casella si partenza dell'Agente
 		// ai vari elementi da raggiungere per poter svolgere la partita (Wumpus, tesori, superstiti
 		// e cuccioli di Wumpus) la mappa viene generata nuovamente.
+		
+		this.calcolaBrezza();
+	}
+	
+	/*
+	 * Metodo che genera la mappa in modo costruttivo, senza mai doverla rigenerare:
+	 * - le voragini vengono collocate casualmente nella maschera di bit delle voragini;
+	 * - con una visita in ampiezza a partire dalla casella dell'Agente si determina la regione
+	 *	di caselle raggiungibili; se la regione non contiene abbastanza caselle libere per tutti
+	 *	gli elementi la si amplia eliminando una voragine a caso tra quelle al suo confine (e
+	 *	proseguendo la visita a partire da essa), finche' le caselle non sono sufficienti;
+	 * - Wumpus, tesori, superstiti e cuccioli vengono collocati in caselle distinte scelte a caso
+	 *	all'interno della regione raggiungibile, quindi la mappa e' giocabile per costruzione.
+	 * Il tempo di generazione e' proporzionale al numero di caselle della mappa, mentre la memoria
+	 * aggiuntiva e' di un bit per casella (le caselle raggiunte) piu' il fronte della visita.
+	 */
+	private void generazioneCostruttiva(int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli) {
+		int latoMappa = this.getLatoMappa();
+		int numElementi = 1 + numTesori + numSuperstiti + numCuccioli;
+		int partenza = this.indiceCasella(this.getAgente().getRiga(), this.getAgente().getColonna());
+		
+		this.inizializzaCaselle(numElementi);
+		this.tesori = new Tesoro[numTesori];
+		this.superstiti = new Superstite[numSuperstiti];
+		this.cuccioli = new CuccioloDiWumpus[numCuccioli];
+		
+		// Collocazione delle voragini (esclusa la casella dell'Agente).
+		this.collocaVoragini(probabilitaVoragine);
+		
+		// Visita in ampiezza della regione raggiungibile: caselleBloccate marca le caselle gia'
+		// raggiunte e, fin dall'inizio, quelle con una voragine, in modo che per ogni casella
+		// adiacente basti controllare un solo bit per sapere se va visitata (sulle mappe estese la
+		// visita e' limitata dagli accessi alla memoria piu' che dai calcoli). confine contiene le
+		// voragini adiacenti alla regione che possono venire eliminate per ampliarla: serve solo
+		// finche' la regione e' troppo piccola per contenere tutti gli elementi, quindi smette di
+		// venire aggiornato non appena le caselle bastano (sulle mappe estese conterrebbe
+		// altrimenti buona parte delle voragini).
+		long[] caselleBloccate = this.voragini.clone();
+		CodaInteri coda = new CodaInteri(4*latoMappa);
+		int[] confine = new int[16];
+		int numRaggiunte = 0;
+		int numConfine = 0;
+		
+		caselleBloccate[partenza >>> 6] |= 1L << partenza;
+		numRaggiunte++;
+		coda.accoda(partenza);
+		
+		while(true) {
+			while(!(coda.vuota())) {
+				int corrente = coda.estrai();
+				int riga = corrente / latoMappa;
+				int colonna = corrente - riga*latoMappa;
+				
+				for(Direzioni direzione : Mappa.DIREZIONI) {
+					int nuovaRiga = riga + direzione.getSpostamentoRiga();
+					int nuovaColonna = colonna + direzione.getSpostamentoColonna();
+					
+					if(nuovaRiga < 0 || nuovaRiga >= latoMappa || nuovaColonna < 0 || nuovaColonna >= latoMappa) {
+						continue;
+					}
+					
+					int adiacente = nuovaRiga*latoMappa + nuovaColonna;
+					
+					if((caselleBloccate[adiacente >>> 6] & (1L << adiacente)) == 0) {
+						caselleBloccate[adiacente >>> 6] |= 1L << adiacente;
+						numRaggiunte++;
+						coda.accoda(adiacente);
+					}
+					else if(numRaggiunte - 1 < numElementi && this.voragineInIndice(adiacente)) {
+						if(numConfine == confine.length) {
+							confine = Arrays.copyOf(confine, confine.length*2);
+						}
+						confine[numConfine++] = adiacente;
+					}
+				}
+			}
+			
+			// La casella dell'Agente non puo' ospitare altri elementi.
+			if(numRaggiunte - 1 >= numElementi) {
+				break;
+			}
+			
+			// Eliminazione di una voragine a caso tra quelle al confine della regione; una stessa
+			// voragine puo' comparire piu' volte nel confine, quindi si scartano quelle gia' eliminate.
+			// La casella della voragine eliminata e' gia' marcata in caselleBloccate, quindi basta
+			// accodarla per proseguire la visita.
+			int scelta = this.generatoreCasuale.nextInt(numConfine);
+			int scavata = confine[scelta];
+			confine[scelta] = confine[--numConfine];
+			
+			if(this.voragineInIndice(scavata)) {
+				this.voragini[scavata >>> 6] &= ~(1L << scavata);
+				numRaggiunte++;
+				coda.accoda(scavata);
+			}
+		}
+		
+		// Da qui in avanti caselleDisponibili marca le caselle raggiunte ancora disponibili per
+		// gli elementi, ovvero quelle bloccate che non contengono una voragine, esclusa la casella
+		// dell'Agente.
+		long[] caselleDisponibili = caselleBloccate;
+		for(int i = 0; i < caselleDisponibili.length; i++) {
+			caselleDisponibili[i] &= ~(this.voragini[i]);
+		}
+		caselleDisponibili[partenza >>> 6] &= ~(1L << partenza);
+		
+		// Collocazione del Wumpus, dei tesori, dei superstiti e dei cuccioli in caselle distinte
+		// scelte a caso tra quelle disponibili; i valori vengono attribuiti come nella generazione
+		// per rigetto.
+		int scelta = Mappa.estraiCasella(caselleDisponibili, this.generatoreCasuale);
+		this.wumpus = new Wumpus(latoMappa, scelta / latoMappa, scelta % latoMappa, 300 + this.generatoreCasuale.nextInt(5)*50);
+		this.aggiungiAllaMappa(this.getWumpus());
+		
+		for(int i = 0; i < numTesori; i++) {
+			scelta = Mappa.estraiCasella(caselleDisponibili, this.generatoreCasuale);
+			this.tesori[i] = new Tesoro(latoMappa, scelta / latoMappa, scelta % latoMappa, 100 + i*50);
+			this.aggiungiAllaMappa(this.getTesori()[i]);
+		}
+		
+		for(int i = 0; i < numSuperstiti; i++) {
+			scelta = Mappa.estraiCasella(caselleDisponibili, this.generatoreCasuale);
+			this.superstiti[i] = new Superstite(latoMappa, scelta / latoMappa, scelta % latoMappa, "superstite n. " + (i + 1), 50 + this.generatoreCasuale.nextInt(6)*50);
+			this.aggiungiAllaMappa(this.getSuperstiti()[i]);
+		}
+		
+		for(int i = 0; i < numCuccioli; i++) {
+			scelta = Mappa.estraiCasella(caselleDisponibili, this.generatoreCasuale);
+			this.cuccioli[i] = new CuccioloDiWumpus(latoMappa, scelta / latoMappa, scelta % latoMappa, "cucciolo n. " + (i + 1));
+			this.aggiungiAllaMappa(this.getCuccioli()[i]);
+		}
+		
+		this.calcolaBrezza();
+	}
+	
+	/*
+	 * Metodo che sceglie a caso una casella tra quelle marcate nella maschera di bit disponibili,
+	 * togliendola dalla maschera; la maschera deve contenere almeno una casella.
+	 * Si provano alcune caselle a caso (nel caso comune la regione disponibile copre buona parte
+	 * della mappa e il primo tentativo va a segno); se nessuna e' disponibile si estrae a caso la
+	 * posizione della casella tra quelle disponibili e la si cerca nella maschera, scorrendola una
+	 * parola alla volta. In entrambi i casi ogni casella disponibile ha la stessa probabilita' di
+	 * essere scelta.
+	 */
+	private static int estraiCasella(long[] disponibili, RandomGenerator generatore) {
+		int numCaselle = disponibili.length << 6;
+		int casella = 0;
+		
+		for(int tentativo = 0; tentativo < 32; tentativo++) {
+			casella = generatore.nextInt(numCaselle);
+			
+			if((disponibili[casella >>> 6] & (1L << casella)) != 0) {
+				disponibili[casella >>> 6] &= ~(1L << casella);
+				return casella;
+			}
+		}
+		
+		int numDisponibili = 0;
+		for(long bit : disponibili) {
+			numDisponibili += Long.bitCount(bit);
+		}
+		
+		// Ricerca della posizione-esima casella disponibile: si saltano le parole che contengono
+		// meno caselle di quelle ancora da saltare, poi si eliminano le caselle precedenti
+		// all'interno della parola trovata
+		int posizione = generatore.nextInt(numDisponibili);
+		int parola = 0;
+		
+		while(Long.bitCount(disponibili[parola]) <= posizione) {
+			posizione -= Long.bitCount(disponibili[parola]);
+			parola++;
+		}
+		
+		long bit = disponibili[parola];
+		for(; posizione > 0; posizione--) {
+			bit &= bit - 1;
+		}
+		
+		casella = (parola << 6) + Long.numberOfTrailingZeros(bit);
+		disponibili[parola] &= ~(1L << casella);
+		return casella;
 	}
 	
 	/*
@@ -250,382 +712,384 @@ public class Mappa {
 	 * in caso di problemi nella lettura del file, lancia una IOException, mentre nel caso in cui il
 	 * file non sia nel formato corretto, lancia una IllegalArgumentException.
 	 * E' il costruttore che viene utilizzato nel metodo caricamento.
+	 * Il file puo' essere sia nel formato testuale scritto dal metodo salvataggio sia nel formato
+	 * binario scritto dal metodo salvataggioBinario: il formato viene riconosciuto dal numero magico
+	 * con cui iniziano i file binari.
 	 * 
 	 * @param f il file da cui leggere i dati per la mappa
 	 */
 	protected Mappa (File f) throws IllegalArgumentException, IOException {
-		try (BufferedReader bufferedReaderPerCaricamento = new BufferedReader(new FileReader(f))) {
-			String prossimaLinea;
-			String[] contenutoLinea;
-			
-			this.elencoElementiMappa = new Vector<Elemento>();
-
-			// Lettura del blocco dati "Caratteristiche della mappa"
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			if(!(prossimaLinea.equals("Caratteristiche della mappa"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-
-			// Consuma la sottolineatura del titolo del blocco
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			// Lettura della dimensione del lato della mappa
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Dimensione del lato della mappa"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int latoCaricato = Integer.parseInt(contenutoLinea[1].trim());
-			if(latoCaricato < 5 || latoCaricato > 15) {
-				throw new IllegalArgumentException("La dimensione del lato mappa deve essere compresa tra 5 e 15 caselle");
-			}
-			this.latoMappa = latoCaricato;
-
-			// Lettura del numero delle voragini
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Numero delle voragini"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int numeroVoragini = Integer.parseInt(contenutoLinea[1].trim());
-			
-			// Lettura del numeo dei tesori
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Numero dei tesori"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int numeroTesori = Integer.parseInt(contenutoLinea[1].trim());
-			if(numeroTesori < 1 || numeroTesori > 5) {
-				throw new IllegalArgumentException("Il numero dei tesori deve essere compreso tra 1 e 5");
-			}
-			
-			// Lettura del numero dei superstiti
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Numero dei superstiti"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int numeroSuperstiti = Integer.parseInt(contenutoLinea[1].trim());
-			if(numeroSuperstiti < 1 || numeroSuperstiti > 5) {
-				throw new IllegalArgumentException("Il numero dei superstiti deve essere compreso tra 1 e 5");
-			}
-
-			// Lettura del numero dei cuccioli di Wumpus
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Numero dei cuccioli"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int numeroCuccioli = Integer.parseInt(contenutoLinea[1].trim());
-			if(numeroCuccioli < 1 || numeroCuccioli > 5) {
-				throw new IllegalArgumentException("Il numero dei cuccioli deve essere compreso tra 1 e 5");
-			}
-			
-			this.tesori = new Tesoro[numeroTesori];
-			this.superstiti = new Superstite[numeroSuperstiti];
-			this.cuccioli = new CuccioloDiWumpus[numeroCuccioli];
-
-			// Consuma la linea vuota dopo il blocco appena letto
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-			// Lettura del blocco dati "Valori dell'agente"
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			if(!(prossimaLinea.equals("Valori dell'agente"))) {
-				throw new IllegalArgumentException("Formato file non valido");
+		this(Mappa.leggiFile(f), f.getName(), new SplittableRandom());
+	}
+	
+	/*
+	 * Metodo statico che legge una mappa dal contenuto di un salvataggio binario, dalla posizione
+	 * corrente fino al limite del buffer; il buffer viene letto direttamente, senza copiarne il
+	 * contenuto (puo' essere ad esempio una porzione di un file mappato in memoria).
+	 * E' il metodo che viene utilizzato da ArchivioSalvataggi.
+	 * 
+	 * @param contenutoBinario il contenuto del salvataggio binario.
+	 * @throws IllegalArgumentException Se il contenuto non e' un salvataggio binario valido.
+	 */
+	static Mappa daSalvataggioBinario(ByteBuffer contenutoBinario) throws IllegalArgumentException {
+		return Mappa.daSalvataggioBinario(contenutoBinario, new SplittableRandom());
+	}
+	
+	/*
+	 * Metodo statico che legge una mappa da un salvataggio binario come il precedente, usando per la
+	 * partita il generatore di numeri casuali dato (ad esempio la copia del generatore di una partita
+	 * in corso, per riprenderla esattamente dallo stesso punto). E' usato da RiproduttorePartita.
+	 * 
+	 * @throws IllegalArgumentException Se il contenuto non e' un salvataggio binario valido.
+	 */
+	static Mappa daSalvataggioBinario(ByteBuffer contenutoBinario, RandomGenerator generatoreCasuale) throws IllegalArgumentException {
+		if(!(Mappa.formatoBinario(contenutoBinario))) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+		return new Mappa(contenutoBinario, null, generatoreCasuale);
+	}
+	
+	/*
+	 * Costruttore usato dal costruttore che carica una mappa da file e da daSalvataggioBinario: legge la
+	 * mappa dal contenuto di un salvataggio, binario o testuale, dalla posizione corrente fino al limite
+	 * del buffer.
+	 * Il formato binario viene riconosciuto dal numero magico iniziale; il formato testuale viene
+	 * letto in un solo passaggio da un LettoreTesto.
+	 */
+	private Mappa(ByteBuffer contenuto, String nomeFile, RandomGenerator generatoreCasuale) throws IllegalArgumentException {
+		this.generatoreCasuale = generatoreCasuale;
+		
+		if(Mappa.formatoBinario(contenuto)) {
+			try {
+				// Il numero magico e' gia' stato controllato da formatoBinario
+				contenuto.getInt();
+				if(contenuto.getShort() != Mappa.VERSIONE_FORMATO_BINARIO) {
+					throw new IllegalArgumentException("Versione del formato di salvataggio non supportata");
+				}
+				short opzioni = contenuto.getShort();
+				
+				int latoCaricato = contenuto.getInt();
+				if(latoCaricato < 5 || latoCaricato > Mappa.MAX_LATO_MAPPA_ESTESA) {
+					throw new IllegalArgumentException("La dimensione del lato mappa deve essere compresa tra 5 e " + Mappa.MAX_LATO_MAPPA_ESTESA + " caselle");
+				}
+				this.latoMappa = latoCaricato;
+				int maxElementi = Mappa.numeroMassimoElementi(latoCaricato);
+				
+				int numeroTesori = contenuto.getInt();
+				if(numeroTesori < 1 || numeroTesori > maxElementi) {
+					throw new IllegalArgumentException("Il numero dei tesori deve essere compreso tra 1 e " + maxElementi);
+				}
+				int numeroSuperstiti = contenuto.getInt();
+				if(numeroSuperstiti < 1 || numeroSuperstiti > maxElementi) {
+					throw new IllegalArgumentException("Il numero dei superstiti deve essere compreso tra 1 e " + maxElementi);
+				}
+				int numeroCuccioli = contenuto.getInt();
+				if(numeroCuccioli < 1 || numeroCuccioli > maxElementi) {
+					throw new IllegalArgumentException("Il numero dei cuccioli deve essere compreso tra 1 e " + maxElementi);
+				}
+				
+				this.inizializzaCaselle(1 + numeroTesori + numeroSuperstiti + numeroCuccioli);
+				this.tesori = new Tesoro[numeroTesori];
+				this.superstiti = new Superstite[numeroSuperstiti];
+				this.cuccioli = new CuccioloDiWumpus[numeroCuccioli];
+				
+				int casellaAgente = contenuto.getInt();
+				boolean statoAgente = contenuto.get() != 0;
+				int numFrecceAgente = contenuto.getInt();
+				int punteggioAgente = contenuto.getInt();
+				String nomeAgente = Mappa.leggiNome(contenuto);
+				this.agente = new Agente(latoCaricato, Math.floorDiv(casellaAgente, latoCaricato), Math.floorMod(casellaAgente, latoCaricato), nomeAgente, statoAgente, numFrecceAgente, punteggioAgente);
+				
+				this.caricamentoBinario(contenuto, (opzioni & Mappa.OPZIONE_CASELLE_SCOPERTE) != 0);
 			}
-			
-			// Consuma la sottolineatura del titolo del blocco
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di riga dell'agente"))) {
+			catch (BufferUnderflowException e) {
 				throw new IllegalArgumentException("Formato file non valido");
 			}
-			int indRigaAgente = Integer.parseInt(contenutoLinea[1].trim());
+			return;
+		}
+		
+		LettoreTesto lettore = new LettoreTesto(contenuto, nomeFile);
+		
+		// Lettura del blocco dati "Caratteristiche della mappa" (la linea successiva al titolo di ogni
+		// blocco e' la sottolineatura del titolo)
+		lettore.attendiLinea("Caratteristiche della mappa");
+		lettore.saltaLinea();
+		
+		int latoCaricato = lettore.leggiIntero("Dimensione del lato della mappa");
+		// Il file puo' descrivere anche una mappa estesa.
+		if(latoCaricato < 5 || latoCaricato > Mappa.MAX_LATO_MAPPA_ESTESA) {
+			throw new IllegalArgumentException("La dimensione del lato mappa deve essere compresa tra 5 e " + Mappa.MAX_LATO_MAPPA_ESTESA + " caselle");
+		}
+		this.latoMappa = latoCaricato;
+		int maxElementi = Mappa.numeroMassimoElementi(latoCaricato);
+		
+		int numeroVoragini = lettore.leggiIntero("Numero delle voragini");
+		
+		int numeroTesori = lettore.leggiIntero("Numero dei tesori");
+		if(numeroTesori < 1 || numeroTesori > maxElementi) {
+			throw new IllegalArgumentException("Il numero dei tesori deve essere compreso tra 1 e " + maxElementi);
+		}
+		
+		int numeroSuperstiti = lettore.leggiIntero("Numero dei superstiti");
+		if(numeroSuperstiti < 1 || numeroSuperstiti > maxElementi) {
+			throw new IllegalArgumentException("Il numero dei superstiti deve essere compreso tra 1 e " + maxElementi);
+		}
+		
+		int numeroCuccioli = lettore.leggiIntero("Numero dei cuccioli");
+		if(numeroCuccioli < 1 || numeroCuccioli > maxElementi) {
+			throw new IllegalArgumentException("Il numero dei cuccioli deve essere compreso tra 1 e " + maxElementi);
+		}
+		
+		this.inizializzaCaselle(1 + numeroTesori + numeroSuperstiti + numeroCuccioli);
+		this.tesori = new Tesoro[numeroTesori];
+		this.superstiti = new Superstite[numeroSuperstiti];
+		this.cuccioli = new CuccioloDiWumpus[numeroCuccioli];
+		
+		// Lettura del blocco dati "Valori dell'agente", preceduto da una linea vuota
+		lettore.saltaLinea();
+		lettore.attendiLinea("Valori dell'agente");
+		lettore.saltaLinea();
+		
+		int indRigaAgente = lettore.leggiIntero("Indice di riga dell'agente");
+		int indColonnaAgente = lettore.leggiIntero("Indice di colonna dell'agente");
+		String nomeAgente = lettore.leggiTesto("Nome dell'agente");
+		boolean statoAgente = lettore.leggiBooleano("Stato in gioco dell'agente");
+		int numFrecceAgente = lettore.leggiIntero("Numero di frecce dell'agente");
+		int punteggioAgente = lettore.leggiIntero("Punteggio dell'agente");
+		
+		this.agente = new Agente(latoCaricato, indRigaAgente, indColonnaAgente, nomeAgente, statoAgente, numFrecceAgente, punteggioAgente);
+		
+		// Lettura del blocco dati "Valori del Wumpus"
+		lettore.saltaLinea();
+		lettore.attendiLinea("Valori del Wumpus");
+		lettore.saltaLinea();
+		
+		int indRigaWumpus = lettore.leggiIntero("Indice di riga del Wumpus");
+		int indColonnaWumpus = lettore.leggiIntero("Indice di colonna del Wumpus");
+		String nomeWumpus = lettore.leggiTesto("Nome del Wumpus");
+		int valoreWumpus = lettore.leggiIntero("Valore del Wumpus");
+		boolean statoWumpus = lettore.leggiBooleano("Stato in gioco del Wumpus");
+		
+		this.wumpus = new Wumpus(latoCaricato, indRigaWumpus, indColonnaWumpus, nomeWumpus, valoreWumpus, statoWumpus);
+		this.aggiungiAllaMappa(this.getWumpus());
+		
+		// Lettura del blocco dati "Elenco delle voragini"; ogni elemento dei blocchi seguenti e'
+		// preceduto da una linea con il suo numero
+		lettore.saltaLinea();
+		lettore.attendiLinea("Elenco delle voragini");
+		lettore.saltaLinea();
+		
+		for(int i = 0; i < numeroVoragini; i++) {
+			lettore.saltaLinea();
+			int indRigaVoragine = lettore.leggiIntero("Indice di riga");
+			int indColonnaVoragine = lettore.leggiIntero("Indice di colonna");
 			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di colonna dell'agente"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int indColonnaAgente = Integer.parseInt(contenutoLinea[1].trim());
+			this.collocaVoragine(indRigaVoragine, indColonnaVoragine);
+		}
+		
+		// Lettura del blocco dati "Elenco dei tesori"
+		lettore.saltaLinea();
+		lettore.attendiLinea("Elenco dei tesori");
+		lettore.saltaLinea();
+		
+		for(int i = 0; i < numeroTesori; i++) {
+			lettore.saltaLinea();
+			int indRigaTesoro = lettore.leggiIntero("Indice di riga");
+			int indColonnaTesoro = lettore.leggiIntero("Indice di colonna");
+			int valoreTesoro = lettore.leggiIntero("Valore");
+			boolean statoTesoro = lettore.leggiBooleano("Stato in gioco");
 			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Nome dell'agente"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			String nomeAgente = contenutoLinea[1].trim();
+			this.tesori[i] = new Tesoro(latoCaricato, indRigaTesoro, indColonnaTesoro, valoreTesoro, statoTesoro);
+			this.aggiungiAllaMappa(this.tesori[i]);
+		}
+		
+		// Lettura del blocco dati "Elenco dei superstiti"
+		lettore.saltaLinea();
+		lettore.attendiLinea("Elenco dei superstiti");
+		lettore.saltaLinea();
+		
+		for(int i = 0; i < numeroSuperstiti; i++) {
+			lettore.saltaLinea();
+			int indRigaSuperstite = lettore.leggiIntero("Indice di riga");
+			int indColonnaSuperstite = lettore.leggiIntero("Indice di colonna");
+			String nomeSuperstite = lettore.leggiTesto("Nome");
+			int valoreSuperstite = lettore.leggiIntero("Valore");
+			boolean statoSuperstite = lettore.leggiBooleano("Stato in gioco");
 			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Stato in gioco dell'agente"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			boolean statoAgente = Boolean.parseBoolean(contenutoLinea[1].trim());
+			this.superstiti[i] = new Superstite(latoCaricato, indRigaSuperstite, indColonnaSuperstite, nomeSuperstite, valoreSuperstite, statoSuperstite);
+			this.aggiungiAllaMappa(this.superstiti[i]);
+		}
+		
+		// Lettura del blocco dati "Elenco dei cuccioli di Wumpus"
+		lettore.saltaLinea();
+		lettore.attendiLinea("Elenco dei cuccioli di Wumpus");
+		lettore.saltaLinea();
+		
+		for(int i = 0; i < numeroCuccioli; i++) {
+			lettore.saltaLinea();
+			int indRigaCucciolo = lettore.leggiIntero("Indice di riga");
+			int indColonnaCucciolo = lettore.leggiIntero("Indice di colonna");
+			String nomeCucciolo = lettore.leggiTesto("Nome");
+			boolean statoCucciolo = lettore.leggiBooleano("Stato in gioco");
 			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Numero di frecce dell'agente"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int numFrecceAgente = Integer.parseInt(contenutoLinea[1].trim());
-			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Punteggio dell'agente"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int punteggioAgente = Integer.parseInt(contenutoLinea[1].trim());
-			
-			this.agente = new Agente(latoCaricato, indRigaAgente, indColonnaAgente, nomeAgente, statoAgente, numFrecceAgente, punteggioAgente);
-
-			// Consuma la linea vuota dopo il blocco appena letto
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-			// Lettura del blocco dati "Valori del Wumpus"
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			if(!(prossimaLinea.equals("Valori del Wumpus"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			
-			// Consuma la sottolineatura del titolo del blocco			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di riga del Wumpus"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int indRigaWumpus = Integer.parseInt(contenutoLinea[1].trim());
-			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di colonna del Wumpus"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int indColonnaWumpus = Integer.parseInt(contenutoLinea[1].trim());
-			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Nome del Wumpus"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			String nomeWumpus = contenutoLinea[1].trim();
-			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Valore del Wumpus"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			int valoreWumpus = Integer.parseInt(contenutoLinea[1].trim());
-			
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			contenutoLinea = prossimaLinea.split(":");
-			if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Stato in gioco del Wumpus"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			boolean statoWumpus = Boolean.parseBoolean(contenutoLinea[1].trim());
-			
-			this.wumpus = new Wumpus(latoCaricato, indRigaWumpus, indColonnaWumpus, nomeWumpus, valoreWumpus, statoWumpus);
-			this.aggiungiAllaMappa(this.getWumpus());
-			
-			// Consuma la linea vuota dopo il blocco appena letto
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			// Lettura del blocco dati "Elenco delle voragini"
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			if(!(prossimaLinea.equals("Elenco delle voragini"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			
-			// Consuma la sottolineatura del titolo del blocco
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			for(int i = 0; i < numeroVoragini; i++) {
-				// Consuma la linea relativa al numero dell'elemento
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di riga"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indRigaVoragine = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di colonna"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indColonnaVoragine = Integer.parseInt(contenutoLinea[1].trim());
-				
-				this.aggiungiAllaMappa(this.new Voragine(latoCaricato, indRigaVoragine, indColonnaVoragine));
-			}
-			
-			// Consuma la linea vuota dopo il blocco appena letto
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			// Lettura del blocco dati "Elenco dei tesori"
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			if(!(prossimaLinea.equals("Elenco dei tesori"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			
-			// Consuma la sottolineatura del titolo del blocco
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			for(int i = 0; i < numeroTesori; i++) {
-				// Consuma la linea relativa al numero dell'elemento
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di riga"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indRigaTesoro = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di colonna"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indColonnaTesoro = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Valore"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int valoreTesoro = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Stato in gioco"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				boolean statoTesoro = Boolean.parseBoolean(contenutoLinea[1].trim());
-
-				this.tesori[i] = new Tesoro(latoCaricato, indRigaTesoro, indColonnaTesoro, valoreTesoro, statoTesoro);
-				this.aggiungiAllaMappa(this.tesori[i]);
-			}
-			
-			// Consuma la linea vuota dopo il blocco appena letto
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			// Lettura del blocco dati "Elenco dei superstiti"
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			if(!(prossimaLinea.equals("Elenco dei superstiti"))) {
-				throw new IllegalArgumentException("Formato file non valido");
-			}
-			
-			// Consuma la sottolineatura del titolo del blocco
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			for(int i = 0; i < numeroSuperstiti; i++) {
-				// Consuma la linea relativa al numero dell'elemento
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di riga"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indRigaSuperstite = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di colonna"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indColonnaSuperstite = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Nome"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				String nomeSuperstite = contenutoLinea[1].trim();
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Valore"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int valoreSuperstite = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Stato in gioco"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				boolean statoSuperstite = Boolean.parseBoolean(contenutoLinea[1].trim());
-
-				this.superstiti[i] = new Superstite(latoCaricato, indRigaSuperstite, indColonnaSuperstite, nomeSuperstite, valoreSuperstite, statoSuperstite);
-				this.aggiungiAllaMappa(this.superstiti[i]);
-			}
-			
-			// Consuma la linea vuota dopo il blocco appena letto
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
+			this.cuccioli[i] = new CuccioloDiWumpus(latoCaricato, indRigaCucciolo, indColonnaCucciolo, nomeCucciolo, statoCucciolo);
+			this.aggiungiAllaMappa(this.cuccioli[i]);
+		}
+		
+		this.calcolaBrezza();
+	}
+	
+	/*
+	 * Metodo che legge da un salvataggio binario gli elementi successivi all'Agente, nello stesso ordine
+	 * usato dal caricamento testuale: il Wumpus viene aggiunto alla mappa prima delle voragini e gli
+	 * altri elementi dopo, quindi un elemento che cade in una casella gia' occupata viene scartato allo
+	 * stesso modo.
+	 */
+	private void caricamentoBinario(ByteBuffer contenuto, boolean conCaselleScoperte) throws IllegalArgumentException, IndexOutOfBoundsException {
+		int latoCaricato = this.getLatoMappa();
+		int casella;
+		
+		casella = contenuto.getInt();
+		boolean statoWumpus = contenuto.get() != 0;
+		int valoreWumpus = contenuto.getInt();
+		String nomeWumpus = Mappa.leggiNome(contenuto);
+		this.wumpus = new Wumpus(latoCaricato, Math.floorDiv(casella, latoCaricato), Math.floorMod(casella, latoCaricato), nomeWumpus, valoreWumpus, statoWumpus);
+		this.aggiungiAllaMappa(this.getWumpus());
+		
+		// La maschera delle voragini viene copiata in blocco: l'unica casella gia' occupata e' quella
+		// del Wumpus, che non puo' contenere anche una voragine.
+		contenuto.asLongBuffer().get(this.voragini);
+		contenuto.position(contenuto.position() + 8*this.voragini.length);
+		Mappa.controllaBitInEccesso(this.voragini, latoCaricato);
+		if(this.indicizzabile(this.getWumpus())) {
+			casella = this.indiceCasella(this.getWumpus().getRiga(), this.getWumpus().getColonna());
+			this.voragini[casella >>> 6] &= ~(1L << casella);
+		}
+		
+		for(int i = 0; i < this.tesori.length; i++) {
+			casella = contenuto.getInt();
+			boolean statoTesoro = contenuto.get() != 0;
+			int valoreTesoro = contenuto.getInt();
+			this.tesori[i] = new Tesoro(latoCaricato, Math.floorDiv(casella, latoCaricato), Math.floorMod(casella, latoCaricato), valoreTesoro, statoTesoro);
+			this.aggiungiAllaMappa(this.tesori[i]);
+		}
+		
+		for(int i = 0; i < this.superstiti.length; i++) {
+			casella = contenuto.getInt();
+			boolean statoSuperstite = contenuto.get() != 0;
+			int valoreSuperstite = contenuto.getInt();
+			String nomeSuperstite = Mappa.leggiNome(contenuto);
+			this.superstiti[i] = new Superstite(latoCaricato, Math.floorDiv(casella, latoCaricato), Math.floorMod(casella, latoCaricato), nomeSuperstite, valoreSuperstite, statoSuperstite);
+			this.aggiungiAllaMappa(this.superstiti[i]);
+		}
+		
+		for(int i = 0; i < this.cuccioli.length; i++) {
+			casella = contenuto.getInt();
+			boolean statoCucciolo = contenuto.get() != 0;
+			String nomeCucciolo = Mappa.leggiNome(contenuto);
+			this.cuccioli[i] = new CuccioloDiWumpus(latoCaricato, Math.floorDiv(casella, latoCaricato), Math.floorMod(casella, latoCaricato), nomeCucciolo, statoCucciolo);
+			this.aggiungiAllaMappa(this.cuccioli[i]);
+		}
+		
+		if(conCaselleScoperte) {
+			this.caselleScoperte = new long[this.voragini.length];
+			contenuto.asLongBuffer().get(this.caselleScoperte);
+			contenuto.position(contenuto.position() + 8*this.caselleScoperte.length);
+			Mappa.controllaBitInEccesso(this.caselleScoperte, latoCaricato);
+		}
+		
+		if(contenuto.hasRemaining()) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+		
+		this.calcolaBrezza();
+	}
+	
+	// Controlla che i bit di una maschera letta da file oltre l'ultima casella della mappa siano nulli.
+	private static void controllaBitInEccesso(long[] maschera, int latoMappa) throws IllegalArgumentException {
+		int bitUltimaParola = (latoMappa*latoMappa) & 63;
+		
+		if(bitUltimaParola != 0 && (maschera[maschera.length - 1] >>> bitUltimaParola) != 0) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+	}
+	
+	/*
+	 * Metodo che restituisce l'intero contenuto del file dato, letto attraverso un FileChannel.
+	 * Le eccezioni di lettura vengono rilanciate al chiamante conservandone la causa.
+	 */
+	private static ByteBuffer leggiFile(File f) throws IllegalArgumentException, IOException {
+		try (FileChannel canale = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			long dimensione = canale.size();
 			
-			// Lettura del blocco dati "Elenco dei cuccioli di Wumpus"
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			if(!(prossimaLinea.equals("Elenco dei cuccioli di Wumpus"))) {
-				throw new IllegalArgumentException("Formato file non valido");
+			if(dimensione > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Il file " + f.getName() + " e' troppo grande");
 			}
 			
-			// Consuma la sottolineatura del titolo del blocco
-			prossimaLinea = bufferedReaderPerCaricamento.readLine();
-			
-			for(int i = 0; i < numeroCuccioli; i++) {
-				// Consuma la linea relativa al numero dell'elemento
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di riga"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indRigaCucciolo = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Indice di colonna"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				int indColonnaCucciolo = Integer.parseInt(contenutoLinea[1].trim());
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Nome"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				String nomeCucciolo = contenutoLinea[1].trim();
-				
-				prossimaLinea = bufferedReaderPerCaricamento.readLine();
-				contenutoLinea = prossimaLinea.split(":");
-				if(contenutoLinea.length != 2 || !(contenutoLinea[0].equals("Stato in gioco"))) {
-					throw new IllegalArgumentException("Formato file non valido");
-				}
-				boolean statoCucciolo = Boolean.parseBoolean(contenutoLinea[1].trim());
-
-				this.cuccioli[i] = new CuccioloDiWumpus(latoCaricato, indRigaCucciolo, indColonnaCucciolo, nomeCucciolo, statoCucciolo);
-				this.aggiungiAllaMappa(this.cuccioli[i]);
-			}
-
+			ByteBuffer contenuto = ByteBuffer.allocate((int) dimensione);
+			while(contenuto.hasRemaining() && canale.read(contenuto) != -1);
+			return contenuto.flip();
 		}
-		catch (FileNotFoundException e) {
+		catch (NoSuchFileException e) {
 			// La cattura dell'eccezione rilancia l'eccezione al chiamante
-			throw new FileNotFoundException("Il file " + f.getName() + " non esiste.");
+			FileNotFoundException nonTrovato = new FileNotFoundException("Il file " + f.getName() + " non esiste.");
+			nonTrovato.initCause(e);
+			throw nonTrovato;
 		}
-
 		catch (IOException e) {
 			// La cattura dell'eccezione rilancia l'eccezione al chiamante
-			throw new IOException("Caricamento non riuscito.");
+			throw new IOException("Caricamento non riuscito.", e);
+		}
+	}
+	
+	// Indica se il contenuto dato, a partire dalla posizione corrente, e' un salvataggio binario.
+	private static boolean formatoBinario(ByteBuffer contenuto) {
+		return contenuto.remaining() >= Mappa.DIMENSIONE_INTESTAZIONE && contenuto.getInt(contenuto.position()) == Mappa.NUMERO_MAGICO;
+	}
+	
+	// Legge un nome scritto da scriviNome.
+	private static String leggiNome(ByteBuffer contenuto) throws IllegalArgumentException {
+		short lunghezza = contenuto.getShort();
+		
+		if(lunghezza == -1) {
+			return null;
+		}
+		if(lunghezza < 0) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+		
+		byte[] nome = new byte[lunghezza];
+		contenuto.get(nome);
+		return new String(nome, StandardCharsets.UTF_8);
+	}
+	
+	// Codifica un nome per il salvataggio binario (null per un nome assente).
+	private static byte[] codificaNome(String nome) throws IllegalArgumentException {
+		if(nome == null) {
+			return null;
+		}
+		
+		byte[] codifica = nome.getBytes(StandardCharsets.UTF_8);
+		if(codifica.length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Il nome " + nome + " e' troppo lungo per il salvataggio");
+		}
+		return codifica;
+	}
+	
+	// Scrive un nome codificato da codificaNome, preceduto dalla sua lunghezza in byte.
+	private static void scriviNome(ByteBuffer contenuto, byte[] nome) {
+		if(nome == null) {
+			contenuto.putShort((short) -1);
 		}
+		else {
+			contenuto.putShort((short) nome.length);
+			contenuto.put(nome);
+		}
+	}
+	
+	// Numero di byte occupati da un nome codificato da codificaNome.
+	private static int dimensioneNome(byte[] nome) {
+		return Short.BYTES + (nome == null ? 0 : nome.length);
 	}
 	
 	/*
@@ -639,30 +1103,66 @@ public class Mappa {
 			throw new IllegalArgumentException("La probabilita' richiesta non e' un valore valido"); 
 		}
 
-		// Cicli annidati che scorrono la mappa riga per riga...
-		for(int i = 0; i < this.getLatoMappa(); i++) {
-			// ... e ogni riga casella per casella.
-			for(int j = 0; j < this.getLatoMappa(); j++) {
-				
-				// Esclusione della casella in cui e' posizionato l'agente ad inizio partita. 
-				if(i == this.getAgente().getRiga() && j == this.getAgente().getColonna()) {
-					continue;
-				}
-				
-				// Ogni casella puo' essere una voragine con una probabilita' pari alla
-				// percentuale probabilitaVoragine passata come parametro. Se Math.random()
-				// genera un valore casuale inferiore a (double) probabilitaVoragine/100...
-				// (il cast esplicito di probabilitaVoragine a double e' necessario dato che,
-				// in caso contrario, la divisione tra l'intero probabilitaVoragine, che e'
-				// necessariamente minore  di 100, e l'intero 100 darebbe sempre 0)
-				else if(Math.random() < ((double) probabilitaVoragine/100)) {
-					// ... si colloca la voragine nella casella corrente.
-					this.aggiungiAllaMappa(new Voragine(Mappa.this.getLatoMappa(), i, j));
-				}
+		if(probabilitaVoragine == 0) {
+			return;
+		}
+		
+		int numCaselle = this.getLatoMappa()*this.getLatoMappa();
+		int partenza = this.indiceCasella(this.getAgente().getRiga(), this.getAgente().getColonna());
+		// (il cast esplicito di probabilitaVoragine a double e' necessario dato che,
+		// in caso contrario, la divisione tra l'intero probabilitaVoragine, che e'
+		// minore di 100, e l'intero 100 darebbe sempre 0)
+		double logNonVoragine = Math.log(1 - (double) probabilitaVoragine/100);
+		
+		// Ogni casella puo' essere una voragine con una probabilita' pari alla percentuale
+		// probabilitaVoragine passata come parametro. Invece di estrarre un valore casuale per
+		// ogni casella, si estrae direttamente il numero di caselle (scorrendo la mappa riga per
+		// riga) che separano una voragine dalla successiva: tale numero ha distribuzione geometrica,
+		// quindi la collocazione risulta identica ma richiede un'estrazione per voragine anziche'
+		// una per casella, cosa che conta sulle mappe estese.
+		for(long i = -1; ; ) {
+			// Con probabilitaVoragine pari a 100 logNonVoragine vale -infinito e il salto e' sempre 0.
+			i += 1 + (long) (Math.log(1 - this.generatoreCasuale.nextDouble())/logNonVoragine);
+			
+			if(i >= numCaselle) {
+				break;
+			}
+			
+			// Esclusione della casella in cui e' posizionato l'agente ad inizio partita; dato che le
+			// voragini vengono collocate per prime, le altre caselle sono libere e basta marcarle.
+			if(i != partenza) {
+				this.voragini[(int) (i >>> 6)] |= 1L << i;
 			}
 		}
 	}
 
+	/*
+	 * Metodo che colloca una voragine nella casella di coordinate date, purche' la casella sia libera.
+	 * La voragine viene solo marcata nella maschera di bit delle voragini.
+	 * 
+	 * @return true se la voragine viene collocata, false se la casella era gia' occupata.
+	 * @throws IndexOutOfBoundsException Se le coordinate eccedono i limiti della mappa.
+	 */
+	private boolean collocaVoragine(int riga, int colonna) throws IndexOutOfBoundsException {
+		if(riga < 0 || riga >= this.getLatoMappa() || colonna < 0 || colonna >= this.getLatoMappa()) {
+			throw new IndexOutOfBoundsException("Non e' possibile collocare l'elemento al di fuori della scacchiera");
+		}
+		
+		int indice = this.indiceCasella(riga, colonna);
+		
+		if(this.voragineInIndice(indice) || this.caselle.get(indice) != null) {
+			return false;
+		}
+		this.voragini[indice >>> 6] |= 1L << indice;
+		return true;
+	}
+	
+	// Numero massimo di elementi di un tipo che puo' contenere una mappa del lato dato: tutte le
+	// caselle tranne quella iniziale dell'Agente.
+	private static int numeroMassimoElementi(int latoMappa) {
+		return latoMappa*latoMappa - 1;
+	}
+
 	/**
 	 * Metodo che restituisce la dimensione in caselle dei lati della Mappa.
 	 * 
@@ -682,12 +1182,41 @@ public class Mappa {
 	}
 	
 	/**
-	 * Metodo che restituisce il Vector<Elemento> che contiene tutti gli elementi sulla Mappa.
+	 * Metodo che restituisce il generatore di numeri casuali della Mappa, da usare per tutte le scelte
+	 * casuali della partita che si svolge sulla Mappa.
+	 * 
+	 * @return Generatore di numeri casuali della Mappa.
+	 */
+	public RandomGenerator getGeneratoreCasuale() {
+		return this.generatoreCasuale;
+	}
+	
+	// Indice di riga o di colonna casuale, per la generazione per rigetto.
+	private int coordinataCasuale() {
+		return this.generatoreCasuale.nextInt(this.getLatoMappa());
+	}
+	
+	/**
+	 * Metodo che restituisce un Vector<Elemento> che contiene tutti gli elementi sulla Mappa:
+	 * prima le voragini, riga per riga, poi gli altri elementi nell'ordine in cui sono stati inseriti.
+	 * Il Vector non e' una vista della Mappa ma una copia, creata ad ogni invocazione in tempo
+	 * proporzionale al numero di voragini e di elementi (e su di una mappa estesa istanzia tutte le
+	 * voragini): modificarlo non modifica la Mappa, e gli elementi aggiunti in seguito non vi compaiono.
+	 * Va quindi usato solo quando serve l'elenco completo, richiedendolo una sola volta: le interrogazioni
+	 * sul contenuto delle caselle vanno fatte con contenutoCasella e gli inserimenti con aggiungiAllaMappa.
 	 * 
 	 * @return ElencoElementiMappa della Mappa.
 	 */
 	public Vector<Elemento> getElencoElementiMappa(){
-		return this.elencoElementiMappa;
+		Vector<Elemento> elenco = new Vector<Elemento>(this.contaVoragini() + this.elencoElementiMappa.size());
+		
+		for(int parola = 0; parola < this.voragini.length; parola++) {
+			for(long bit = this.voragini[parola]; bit != 0; bit &= bit - 1) {
+				elenco.add(this.voragineInCasella((parola << 6) + Long.numberOfTrailingZeros(bit)));
+			}
+		}
+		elenco.addAll(this.elencoElementiMappa);
+		return elenco;
 	}
 
 	/**
@@ -735,19 +1264,41 @@ public class Mappa {
 	 * 		e l'inserimento va a buon fine, <em>false</em> altrimenti.
 	 */
 	public boolean aggiungiAllaMappa(Elemento daAggiungere) {
-		/* La Mappa e' rappresentata attravero un Vector<Elemento>; per controllare se una casella e' libera
-		 * e' sufficiente verificare che nel Vector non ci sia gia' un Elemento uguale a quello che si sta
-		 * chiedendo di inserire (la equals di Elemento considera uguali due oggetti di tipo Elemento se i
-		 * loro campi latoScacchiera, riga, colonna e inGioco sono uguali, indipendentemente dalla sottoclasse
-		 * di Elemento a cui appartengono).
+		/* La Mappa e' rappresentata attravero una maschera di bit delle voragini e un Vector<Elemento> degli
+		 * altri elementi, affiancato da un indice delle caselle; per controllare se una casella e' libera e'
+		 * sufficiente verificare che non contenga una voragine e che nell'indice non ci sia gia' un Elemento
+		 * in gioco nella stessa casella (la equals di Elemento considera uguali due oggetti di
+		 * tipo Elemento se i loro campi latoScacchiera, riga, colonna e inGioco sono uguali, indipendentemente
+		 * dalla sottoclasse di Elemento a cui appartengono).
+		 * Gli elementi non piu' in gioco (o appartenenti ad una scacchiera di dimensione diversa) non
+		 * occupano alcuna casella dell'indice: per essi il controllo viene fatto sul Vector.
 		 */
-		if(!(this.elencoElementiMappa.contains(daAggiungere))) {
-			this.elencoElementiMappa.add(daAggiungere);
-			return true;
+		if(!(this.indicizzabile(daAggiungere))) {
+			if(this.elencoElementiMappa.contains(daAggiungere)) {
+				return false;
+			}
 		}
 		else {
-			return false;
+			int indice = this.indiceCasella(daAggiungere.getRiga(), daAggiungere.getColonna());
+			
+			if(this.voragineInIndice(indice) || !(this.occupaCasella(indice, daAggiungere))) {
+				return false;
+			}
+			
+			if(daAggiungere instanceof Wumpus) {
+				this.marcaAdiacenti(this.puzza, indice);
+			}
+		}
+		
+		this.elencoElementiMappa.add(daAggiungere);
+		
+		// Gli elementi eliminabili possono spostarsi o uscire dal gioco: vengono collegati all'indice
+		// delle caselle della Mappa, che aggiornano direttamente (gli eventi degli elementi vengono
+		// lanciati solo se li ascolta l'interfaccia grafica).
+		if(daAggiungere instanceof ElementoEliminabile eliminabile) {
+			eliminabile.collegaIndice(this.aggiornamentoCaselle);
 		}
+		return true;
 	}
 
 	/**
@@ -758,119 +1309,451 @@ public class Mappa {
 	 * @return Elemento contenuto nella casella, o null se la casella e' vuota.
 	 */
 	public Elemento contenutoCasella(Elemento casellaDaControllare) {
-		Elemento risultato = null;
-		// Verifica se nel Vector<Elemento> che rappresenta il contenuto della mappa e' presente
-		// un Elemento equals a quello passato come parametro; perche' l'Elemento sia considerato
-		// equals devono coincidere i valori di latoScacchiera, riga, colonna e inGioco dei due
-		// oggetti di tipo Elemento (si veda il codice della equals di Elemento). Se tale Elemento
-		// � presente la indexOf ne restituisce l'indice, altrimenti restituisce -1.
+		// Perche' un Elemento della mappa sia considerato equals a quello passato come parametro devono
+		// coincidere i valori di latoScacchiera, riga, colonna e inGioco dei due oggetti di tipo Elemento
+		// (si veda il codice della equals di Elemento). Nel caso comune (Elemento in gioco sulla mappa
+		// corrente) e' sufficiente un accesso diretto all'indice delle caselle...
+		if(this.indicizzabile(casellaDaControllare)) {
+			return this.contenutoCasella(casellaDaControllare.getRiga(), casellaDaControllare.getColonna());
+		}
+		
+		// ... altrimenti si cerca nel Vector<Elemento> un Elemento equals a quello passato come parametro:
+		// se tale Elemento e' presente la indexOf ne restituisce l'indice, altrimenti restituisce -1.
 		int indice = this.elencoElementiMappa.indexOf(casellaDaControllare);
 		
-		// Se l'indice restituito e' diverso da -1 significa che nel Vector<Elementi> e' presente un
-		// Elemento equals a quello passato come parametro, quindi lo si fa riferire dalla variabile
-		// che rappresenta il valore di ritorno del metodo; in caso contrario non cambia il valore null 
-		// con cui "risultato" e' stato inizializzato e quindi in questo caso il metodo restituisce null.
-		if(indice != -1) {
-			risultato = this.elencoElementiMappa.get(indice);
+		return indice != -1 ? this.elencoElementiMappa.get(indice) : null;
+	}
+	
+	/**
+	 * Metodo che restituisce il contenuto della casella della mappa di coordinate date, senza bisogno
+	 * di istanziare un Elemento che la rappresenti.
+	 * 
+	 * @param riga Indice di riga della casella.
+	 * @param colonna Indice di colonna della casella.
+	 * @return Elemento in gioco contenuto nella casella, o null se la casella e' vuota.
+	 * @throws IndexOutOfBoundsException Se le coordinate eccedono i limiti della mappa.
+	 */
+	public Elemento contenutoCasella(int riga, int colonna) throws IndexOutOfBoundsException {
+		if(riga < 0 || riga >= this.getLatoMappa() || colonna < 0 || colonna >= this.getLatoMappa()) {
+			throw new IndexOutOfBoundsException("La casella indicata e' al di fuori della mappa");
+		}
+		
+		int indice = this.indiceCasella(riga, colonna);
+		
+		return this.voragineInIndice(indice) ? this.voragineInCasella(indice) : this.caselle.get(indice);
+	}
+	
+	/**
+	 * Metodo che restituisce il contenuto di una casella della mappa, codificata con Casella.di.
+	 * 
+	 * @param casella Casella da controllare.
+	 * @return Elemento in gioco contenuto nella casella, o null se la casella e' vuota.
+	 * @throws IndexOutOfBoundsException Se la casella e' al di fuori della mappa.
+	 */
+	public Elemento contenutoCasella(long casella) throws IndexOutOfBoundsException {
+		return this.contenutoCasella(Casella.riga(casella), Casella.colonna(casella));
+	}
+	
+	/**
+	 * Metodo che indica se una casella, codificata con Casella.di, appartiene alla mappa.
+	 * 
+	 * @param casella Casella da controllare.
+	 * @return <em>true</em> se le coordinate della casella sono all'interno della mappa, <em>false</em>
+	 * 		altrimenti.
+	 */
+	public boolean contiene(long casella) {
+		int riga = Casella.riga(casella);
+		int colonna = Casella.colonna(casella);
+		
+		return riga >= 0 && riga < this.getLatoMappa() && colonna >= 0 && colonna < this.getLatoMappa();
+	}
+	
+	/**
+	 * Metodo che indica in quali direzioni puo' spostarsi un elemento mobile che si trova nella casella
+	 * data: la casella adiacente in una direzione e' libera se appartiene alla mappa, non contiene una
+	 * voragine e non e' occupata da un elemento in gioco (l'agente non occupa alcuna casella).
+	 * Il controllo usa solo le maschere di bit della mappa, quindi non dipende dalla equals di Elemento.
+	 * 
+	 * @param casella Casella di partenza, codificata con Casella.di.
+	 * @return Maschera delle direzioni libere: il bit di posizione ordinal() di una direzione e' a 1 se
+	 * 		la casella adiacente in quella direzione e' libera.
+	 * @throws IndexOutOfBoundsException Se la casella e' al di fuori della mappa.
+	 */
+	public int direzioniLibere(long casella) throws IndexOutOfBoundsException {
+		if(!(this.contiene(casella))) {
+			throw new IndexOutOfBoundsException("La casella indicata e' al di fuori della mappa");
+		}
+		return this.direzioniLibere(Casella.riga(casella), Casella.colonna(casella));
+	}
+	
+	/**
+	 * Metodo che calcola in un solo passaggio le direzioni libere (si veda direzioniLibere(long)) di
+	 * tutti i cuccioli indicati, ad esempio per decidere gli spostamenti di un intero turno rispetto
+	 * alla situazione della mappa all'inizio della fase dei cuccioli.
+	 * 
+	 * @param cuccioli Cuccioli di cui calcolare le direzioni libere.
+	 * @param maschere Array in cui viene scritta, nella stessa posizione di ciascun cucciolo, la maschera
+	 * 		delle sue direzioni libere; per i cuccioli non in gioco o al di fuori della mappa viene scritto 0.
+	 * @throws IllegalArgumentException Se l'array delle maschere e' piu' corto di quello dei cuccioli.
+	 */
+	public void direzioniLibere(CuccioloDiWumpus[] cuccioli, byte[] maschere) throws IllegalArgumentException {
+		if(maschere.length < cuccioli.length) {
+			throw new IllegalArgumentException("L'array delle maschere deve contenere almeno una posizione per ogni cucciolo");
+		}
+		
+		for(int i = 0; i < cuccioli.length; i++) {
+			CuccioloDiWumpus cucciolo = cuccioli[i];
+			
+			if(cucciolo.getInGioco() && this.contiene(cucciolo.getCasella())) {
+				maschere[i] = (byte) this.direzioniLibere(cucciolo.getRiga(), cucciolo.getColonna());
+			}
+			else {
+				maschere[i] = 0;
+			}
+		}
+	}
+	
+	/**
+	 * Metodo che sceglie, per ciascun cucciolo indicato, la direzione in cui tenta di spostarsi nel turno:
+	 * la direzione viene estratta in modo uniforme tra le direzioni libere (si veda direzioniLibere) nella
+	 * situazione attuale della mappa, che non viene modificata. La scelta di ogni cucciolo dipende solo
+	 * dal seme, dalla sua posizione nell'array e dalle sue direzioni libere, quindi i gruppi di cuccioli
+	 * possono venire elaborati in parallelo (con il ForkJoinPool comune) ottenendo sempre lo stesso
+	 * risultato della scelta in sequenza.
+	 * 
+	 * @param cuccioli Cuccioli per cui scegliere la direzione.
+	 * @param seme Seme delle scelte casuali del turno.
+	 * @param scelte Array in cui viene scritto, nella stessa posizione di ciascun cucciolo, l'ordinal()
+	 * 		della direzione scelta, oppure -1 se il cucciolo non e' in gioco o non ha direzioni libere.
+	 * @param granularita Numero massimo di cuccioli elaborati da un singolo compito: se non e' minore del
+	 * 		numero di cuccioli la scelta avviene in sequenza nel thread chiamante.
+	 * @throws IllegalArgumentException Se l'array delle scelte e' piu' corto di quello dei cuccioli o se la
+	 * 		granularita' non e' strettamente maggiore di 0.
+	 */
+	public void scegliSpostamenti(CuccioloDiWumpus[] cuccioli, long seme, byte[] scelte, int granularita) throws IllegalArgumentException {
+		if(scelte.length < cuccioli.length) {
+			throw new IllegalArgumentException("L'array delle scelte deve contenere almeno una posizione per ogni cucciolo");
+		}
+		if(granularita <= 0) {
+			throw new IllegalArgumentException("La granularita' deve essere strettamente maggiore di 0");
+		}
+		
+		if(cuccioli.length <= granularita) {
+			this.scegliSpostamenti(cuccioli, seme, scelte, 0, cuccioli.length);
+		}
+		else {
+			ForkJoinPool.commonPool().invoke(new SceltaSpostamenti(cuccioli, seme, scelte, granularita, 0, cuccioli.length));
+		}
+	}
+	
+	/*
+	 * Compito che sceglie le direzioni dei cuccioli di un intervallo dell'array, dividendolo a meta'
+	 * finche' non contiene al piu' granularita cuccioli.
+	 */
+	private final class SceltaSpostamenti extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final CuccioloDiWumpus[] cuccioli;
+		private final long seme;
+		private final byte[] scelte;
+		private final int granularita;
+		private final int inizio;
+		private final int fine;
+		
+		private SceltaSpostamenti(CuccioloDiWumpus[] cuccioli, long seme, byte[] scelte, int granularita, int inizio, int fine) {
+			this.cuccioli = cuccioli;
+			this.seme = seme;
+			this.scelte = scelte;
+			this.granularita = granularita;
+			this.inizio = inizio;
+			this.fine = fine;
+		}
+		
+		@Override
+		protected void compute() {
+			if(this.fine - this.inizio <= this.granularita) {
+				Mappa.this.scegliSpostamenti(this.cuccioli, this.seme, this.scelte, this.inizio, this.fine);
+			}
+			else {
+				int meta = (this.inizio + this.fine) >>> 1;
+				
+				RecursiveAction.invokeAll(new SceltaSpostamenti(this.cuccioli, this.seme, this.scelte, this.granularita, this.inizio, meta),
+						new SceltaSpostamenti(this.cuccioli, this.seme, this.scelte, this.granularita, meta, this.fine));
+			}
+		}
+	}
+	
+	// Sceglie le direzioni dei cuccioli di posizione compresa tra inizio (incluso) e fine (escluso).
+	private void scegliSpostamenti(CuccioloDiWumpus[] cuccioli, long seme, byte[] scelte, int inizio, int fine) {
+		for(int i = inizio; i < fine; i++) {
+			CuccioloDiWumpus cucciolo = cuccioli[i];
+			int libere = 0;
+			
+			if(cucciolo.getInGioco() && this.contiene(cucciolo.getCasella())) {
+				libere = this.direzioniLibere(cucciolo.getRiga(), cucciolo.getColonna());
+			}
+			
+			if(libere == 0) {
+				scelte[i] = -1;
+			}
+			else {
+				// Numero pseudocasuale ricavato da seme e posizione del cucciolo con la funzione di
+				// mescolamento di SplittableRandom, senza stato condiviso tra i cuccioli.
+				long z = seme + (i + 1)*0x9E3779B97F4A7C15L;
+				z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+				z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+				z ^= z >>> 31;
+				
+				// Si sceglie la k-esima direzione libera, con k uniforme tra 0 e il numero di direzioni
+				// libere escluso, azzerando i k bit meno significativi a 1 della maschera.
+				for(int k = (int) (((z >>> 32)*Integer.bitCount(libere)) >>> 32); k > 0; k--) {
+					libere &= libere - 1;
+				}
+				scelte[i] = (byte) Integer.numberOfTrailingZeros(libere);
+			}
+		}
+	}
+	
+	// Calcola la maschera delle direzioni libere a partire da una casella della mappa.
+	private int direzioniLibere(int riga, int colonna) {
+		int libere = 0;
+		
+		for(Direzioni direzione : Mappa.DIREZIONI) {
+			int rigaAdiacente = riga + direzione.getSpostamentoRiga();
+			int colonnaAdiacente = colonna + direzione.getSpostamentoColonna();
+			
+			if(rigaAdiacente >= 0 && rigaAdiacente < this.getLatoMappa() && colonnaAdiacente >= 0 && colonnaAdiacente < this.getLatoMappa()) {
+				int adiacente = this.indiceCasella(rigaAdiacente, colonnaAdiacente);
+				
+				if(((this.voragini[adiacente >>> 6] | this.occupate[adiacente >>> 6]) & (1L << adiacente)) == 0) {
+					libere |= 1 << direzione.ordinal();
+				}
+			}
+		}
+		return libere;
+	}
+	
+	// Colloca un Elemento nell'indice delle caselle, marcando la casella nell'indice di occupazione
+	// se l'inserimento va a buon fine.
+	private boolean occupaCasella(int indice, Elemento el) {
+		if(!(this.caselle.inserisci(indice, el))) {
+			return false;
+		}
+		this.occupate[indice >>> 6] |= 1L << indice;
+		return true;
+	}
+	
+	// Libera la casella di indice dato, se e' occupata proprio dall'Elemento indicato, sia nell'indice
+	// delle caselle sia nell'indice di occupazione.
+	private boolean liberaCasella(int indice, Elemento el) {
+		if(!(this.caselle.rimuovi(indice, el))) {
+			return false;
+		}
+		this.occupate[indice >>> 6] &= ~(1L << indice);
+		return true;
+	}
+	
+	// Restituisce la posizione nell'indice delle caselle corrispondente alle coordinate date.
+	private int indiceCasella(int riga, int colonna) {
+		return riga*this.getLatoMappa() + colonna;
+	}
+	
+	// Indica se la casella di indice dato contiene una voragine.
+	private boolean voragineInIndice(int indice) {
+		return (this.voragini[indice >>> 6] & (1L << indice)) != 0;
+	}
+	
+	// Restituisce la Voragine che si trova nella casella di indice dato, istanziandola la prima volta
+	// che viene richiesta e registrandola nell'indice delle caselle, in modo che richieste successive
+	// restituiscano sempre lo stesso oggetto.
+	private Voragine voragineInCasella(int indice) {
+		if(this.caselle.get(indice) instanceof Voragine voragine) {
+			return voragine;
+		}
+		
+		Voragine voragine = new Voragine(this.getLatoMappa(), indice / this.getLatoMappa(), indice % this.getLatoMappa());
+		this.occupaCasella(indice, voragine);
+		return voragine;
+	}
+	
+	// Un Elemento compare nell'indice delle caselle solo se e' in gioco e se appartiene ad una
+	// scacchiera con lo stesso lato della mappa.
+	private boolean indicizzabile(Elemento el) {
+		return el.getInGioco() && el.getLatoScacchiera() == this.getLatoMappa();
+	}
+	
+	// Aggiorna l'indice delle caselle in seguito allo spostamento di un elemento della mappa dalla
+	// casella di indice vecchiaCasella a quella di indice nuovaCasella. La vecchia casella viene liberata
+	// solo se contiene proprio l'elemento che si e' spostato.
+	void spostamentoElemento(Elemento el, int vecchiaCasella, int nuovaCasella) {
+		if(el.getLatoScacchiera() != this.getLatoMappa()) {
+			return;
+		}
+		
+		this.liberaCasella(vecchiaCasella, el);
+		// L'elemento viene collocato nella nuova casella solo se questa e' libera, in modo da
+		// non sovrascrivere un altro elemento in gioco.
+		if(el.getInGioco() && !(this.voragineInIndice(nuovaCasella))) {
+			this.occupaCasella(nuovaCasella, el);
+		}
+	}
+	
+	// Aggiorna l'indice delle caselle in seguito all'uscita dal gioco di un elemento della mappa che si
+	// trova nella casella di indice dato, liberandola se contiene proprio quell'elemento.
+	void uscitaElemento(Elemento el, int casella) {
+		if(el.getLatoScacchiera() != this.getLatoMappa()) {
+			return;
+		}
+		
+		// Se esce dal gioco un Wumpus si aggiorna la puzza delle caselle che lo circondano.
+		if(this.liberaCasella(casella, el) && el instanceof Wumpus) {
+			this.aggiornaPuzza(casella);
+		}
+	}
+	
+	// Restituisce l'indice della casella adiacente a quella di indice dato nella direzione indicata,
+	// oppure -1 se tale casella uscirebbe dalla mappa.
+	private int indiceAdiacente(int indice, Direzioni direzione) {
+		int riga = indice / this.getLatoMappa() + direzione.getSpostamentoRiga();
+		int colonna = indice % this.getLatoMappa() + direzione.getSpostamentoColonna();
+		
+		if(riga < 0 || riga >= this.getLatoMappa() || colonna < 0 || colonna >= this.getLatoMappa()) {
+			return -1;
+		}
+		return this.indiceCasella(riga, colonna);
+	}
+	
+	// Marca nella maschera data le caselle adiacenti a quella di indice dato.
+	private void marcaAdiacenti(long[] maschera, int indice) {
+		for(Direzioni direzione : Mappa.DIREZIONI) {
+			int adiacente = this.indiceAdiacente(indice, direzione);
+			
+			if(adiacente != -1) {
+				maschera[adiacente >>> 6] |= 1L << adiacente;
+			}
+		}
+	}
+	
+	// Calcola la maschera della brezza a partire da quella delle voragini: per ogni voragine si
+	// marcano le quattro caselle adiacenti.
+	private void calcolaBrezza() {
+		Arrays.fill(this.brezza, 0L);
+		
+		for(int parola = 0; parola < this.voragini.length; parola++) {
+			for(long bit = this.voragini[parola]; bit != 0; bit &= bit - 1) {
+				this.marcaAdiacenti(this.brezza, (parola << 6) + Long.numberOfTrailingZeros(bit));
+			}
+		}
+	}
+	
+	// Ricalcola la puzza delle caselle adiacenti a quella di indice dato, da cui e' appena uscito un
+	// Wumpus: una casella continua a puzzare solo se e' adiacente ad un altro Wumpus ancora in gioco.
+	private void aggiornaPuzza(int indice) {
+		for(Direzioni direzione : Mappa.DIREZIONI) {
+			int adiacente = this.indiceAdiacente(indice, direzione);
+			
+			if(adiacente == -1) {
+				continue;
+			}
+			
+			this.puzza[adiacente >>> 6] &= ~(1L << adiacente);
+			for(Direzioni altraDirezione : Mappa.DIREZIONI) {
+				int vicina = this.indiceAdiacente(adiacente, altraDirezione);
+				
+				if(vicina != -1 && this.caselle.get(vicina) instanceof Wumpus) {
+					this.puzza[adiacente >>> 6] |= 1L << adiacente;
+				}
+			}
+		}
+	}
+	
+	// Indica se la casella data, che deve appartenere alla mappa corrente, e' marcata nella maschera data.
+	private boolean casellaMarcata(long[] maschera, Elemento casella) {
+		if(casella.getLatoScacchiera() != this.getLatoMappa()) {
+			return false;
 		}
 		
-		return risultato;
+		return this.casellaMarcata(maschera, casella.getCasella());
 	}
 	
-	// Il metodo privato controlloValiditaMappa permette di verificare se esista un
+	// Indica se il bit della casella data e' a 1 nella maschera; false per le caselle esterne alla mappa.
+	private boolean casellaMarcata(long[] maschera, long casella) {
+		if(!(this.contiene(casella))) {
+			return false;
+		}
+		
+		int indice = this.indiceCasella(Casella.riga(casella), Casella.colonna(casella));
+		
+		return (maschera[indice >>> 6] & (1L << indice)) != 0;
+	}
+	
+	// Il metodo controlloValiditaMappa permette di verificare se esista un
 	// cammino che colleghi la casella di partenza dell'Agente con ognuno dei vari
 	// elementi della mappa (ad eccezione delle voragini); viene usato per verificare
 	// se la mappa generata casualmente sia giocabile, ovvero se esista un percorso
 	// che colleghi la casella di partenza dell'agente a quella del Wumpus, a quelle
 	// dei superstiti, a quelle dei tesori e a quelle dei cuccioli di Wumpus.
-	// Il metodo genera:
-	// - un PersonaggioMondoDelWumpus, che e' una copia dell'Agente; viene usato per
-	//	effettuare gli spostamenti necessari a verificare i vari cammini;
-	// - un Vector<Elemento> per memorizzare tutti gli elementi raggiunti durante la
-	//	visita della mappa;
-	// - un Vector<Elemento>, per tenere traccia delle caselle da cui gia' e' partita
-	//	una chiamata ricorsiva verso le quattro caselle adiacenti;
-	// quindi chiama il metodo ricorsivo che si occupa di effettuare il controllo vero
-	// e proprio.
-	// Al termine, si verifica se tutti gli Elementi presenti nel Vector<Elemento>
-	// elencoElementiMappa (tranne le voragini) sono contenuti nel Vector<Elemento>
-	// trovati: se si', significa che tutti gli elementi presenti sulla mappa sono
-	// stati raggiunti durante la visita e il metodo restituisce true, altrimenti, al
-	// primo elemento che non viene trovato nel Vector  trovati il metodo restituisce
-	// false.
-	private boolean controlloValiditaMappa() {
-		// Viene creato un PersonaggioMondoDelWumpus "controfigura" copia dell'Agente di
-		// gioco per testare i percorsi (si usa una classe anonima).
-		PersonaggioMondoDelWumpus controfigura = new PersonaggioMondoDelWumpus(this.getAgente().getLatoScacchiera(), this.getAgente().getRiga(), this.getAgente().getColonna(), "Controfigura") {};
-		// Vector in cui verranno collocati i vari elementi raggiunti durante i cammini.
-		Vector<Elemento> trovati = new Vector<Elemento>();
-		
-		// Prima chiamata del metodo ricorsivo vero e proprio; al termine di tutte le
-		// chiamate ricorsive il Vector trovati conterra' tutti gli elementi della mappa
-		// raggiunti percorrendo tutti i possibili cammini che originano dalla casella
-		// in cui si trova inizialmente l'agente.
-		controlloCammini(controfigura, new Vector<Elemento>(), trovati);
-		
-		// Verifica che tutti gli elementi della mappa diversi dalle voragini siano contenuti
-		// nel Vector trovati, ovvero che tutti gli elementi della mappa diversi dalle voragini
-		// siano raggiungibili a partire dalla casella iniziale dell'Agente
-		for(Elemento el : this.getElencoElementiMappa()) {
-			if (!(el instanceof Voragine) && !(trovati.contains(el))) {
-				return false;
+	// La visita della mappa e' una visita in ampiezza iterativa:
+	// - le caselle gia' raggiunte sono marcate in una maschera di bit (un bit per
+	//	casella, nell'ordine dell'indice delle caselle);
+	// - le caselle da cui proseguire la visita sono memorizzate in una coda di interi
+	//	(gli indici delle caselle), che contiene solo il fronte della visita.
+	// In questo modo il controllo richiede tempo proporzionale al numero di caselle,
+	// non crea oggetti durante la visita e non dipende dalla profondita' dello stack.
+	// Al termine, si verifica se la casella di ognuno degli Elementi in gioco presenti
+	// nel Vector<Elemento> elencoElementiMappa (che non contiene le voragini) e' stata raggiunta:
+	// se si', il metodo restituisce true, altrimenti, al primo elemento la cui casella
+	// non e' stata raggiunta, il metodo restituisce false.
+	// Il metodo e' protected per poterlo misurare nei benchmark tramite una sottoclasse di Mappa.
+	protected boolean controlloValiditaMappa() {
+		int lato = this.getLatoMappa();
+		long[] caselleRaggiunte = new long[this.voragini.length];
+		CodaInteri coda = new CodaInteri(4*lato);
+		
+		// La visita parte dalla casella iniziale dell'Agente.
+		int partenza = this.indiceCasella(this.getAgente().getRiga(), this.getAgente().getColonna());
+		caselleRaggiunte[partenza >>> 6] |= 1L << partenza;
+		coda.accoda(partenza);
+		
+		while(!(coda.vuota())) {
+			int corrente = coda.estrai();
+			int riga = corrente / lato;
+			int colonna = corrente % lato;
+			
+			// Si accodano le caselle adiacenti a quella corrente, ma solo se:
+			//	* le coordinate della casella adiacente sono valide, ovvero non escono dal tabellone;
+			//	* la casella adiacente non e' gia' stata raggiunta;
+			//	* la casella adiacente non contiene una voragine che impedisce di accedervi.
+			for(Direzioni direzione : Mappa.DIREZIONI) {
+				int nuovaRiga = riga + direzione.getSpostamentoRiga();
+				int nuovaColonna = colonna + direzione.getSpostamentoColonna();
+				
+				if(nuovaRiga < 0 || nuovaRiga >= lato || nuovaColonna < 0 || nuovaColonna >= lato) {
+					continue;
+				}
+				
+				int adiacente = nuovaRiga*lato + nuovaColonna;
+				
+				if((caselleRaggiunte[adiacente >>> 6] & (1L << adiacente)) == 0 && !(this.voragineInIndice(adiacente))) {
+					caselleRaggiunte[adiacente >>> 6] |= 1L << adiacente;
+					coda.accoda(adiacente);
+				}
 			}
 		}
-		// Se il ciclo e' terminato, ovvero se tutti gli elementi presenti sulla mappa (eccetto
-		// le voragini) sono presenti anche nel Vector trovati, si restituisce true.
-		return true;
-	}
-	
-	// Metodo privato ricorsivo che effettua il controllo dei cammini vero e proprio.
-	private void controlloCammini(PersonaggioMondoDelWumpus controfigura, Vector<Elemento> caselleGiaRaggiunte, Vector<Elemento> elementiTrovati) {
-		// Si aggiunge la casella corrente corrente al Vector delle caselle gia' raggiunte da una
-		// chiamata ricorsiva per indicare che non si dovranno avviare da essa nuove chiamate
-		// ricorsive quando verra' raggiunta in successivi percorsi.
-		caselleGiaRaggiunte.add(controfigura);
 		
-		Elemento el = this.contenutoCasella(controfigura);
-
-		// Se la casella corrente contiene un elemento lo si aggiunge al Vector degli elementi raggiunti.
-		// A questo livello non si controlla che l'elemento non sia una voragine dato che, per come si
-		// imposta l'algoritmo di visita delle caselle adiacenti, le caselle contenenti una voragine non
-		// possono venire raggiunte (dato che sono bloccanti per il movimento dell'agente)
-		if (el != null) {
-			elementiTrovati.add(el);
-		}
-		
-		// Poi si effettuano quattro chiamate ricorsive indicando per ciascuna come casella di
-		// partenza una delle quattro caselle adiacenti a quella corrente, ma solo se:
-		//	* le coordinate della casella adiacente sono valide, ovvero non escono dal tabellone; si
-		//		ricorda che la sposta(Direzioni) di ElementoMobile, se la casella di destinazione e'
-		//		valida, effettua lo spostamento e restituisce true, mentre in caso contrario non lo
-		//		effettua e restituisce false; e' il risultato della valutazione dell'espressione:
-		//		nuovaPosizione.sposta(direzione)
-		//		se lo spostamento e' lecito, dopo questa chiamata nuovaPosizione contiene il riferimento
-		//		alla cella adiacente da cui fare eventualmente partire la chiamata ricorsiva
-		//	* la casella adiacente non e' gia' stata raggiunta in una precedente chiamata ricorsiva, 
-		//		in modo da evitare loop infiniti; e' il risultato della valutazione dell'espressione:
-		//		!(caselleGiaRaggiunte.contains(nuovaPosizione))
-		//	* la casella adiacente e' libera o, se occupata, non contiene una voragine che impedisce
-		//		 di accedervi; e' il risultato della valutazione dell'espressione:
-		//		(this.contenutoCasella(nuovaPosizione) == null) || !(this.contenutoCasella(nuovaPosizione) instanceof Voragine)
-		//		Si fa prima il controllo di null in modo da evitare di richiedere la classe di un valore
-		//		nullo
-		//
-		// Costrutto for-each per effettuare le chiamate ricorsive nelle quattro direzioni.
-		for(Direzioni direzione : Direzioni.values()) {
-			// Si crea una copia della controfigura: dato che ogni chiamata ricorsiva dovra' venire
-			// effettuata su una delle caselle adiacenti rispetto alla controfigura ricevuta dall'istanza
-			// non si puo' "spostare" direttamente la controfigura, ma bisogna lavorare su di una sua
-			// copia creata prima di ogni chiamata ricorsiva.
-			PersonaggioMondoDelWumpus nuovaPosizione = new PersonaggioMondoDelWumpus(controfigura.getLatoScacchiera(), controfigura.getRiga(), controfigura.getColonna(), "Controfigura") {};
+		// Verifica che le caselle di tutti gli elementi in gioco della mappa diversi dalle voragini
+		// siano state raggiunte, ovvero che tutti questi elementi siano raggiungibili a partire dalla
+		// casella iniziale dell'Agente.
+		for(Elemento el : this.elencoElementiMappa) {
+			int indice = this.indiceCasella(el.getRiga(), el.getColonna());
 			
-			if(nuovaPosizione.sposta(direzione) && !(caselleGiaRaggiunte.contains(nuovaPosizione)) && ((this.contenutoCasella(nuovaPosizione) == null) || !(this.contenutoCasella(nuovaPosizione) instanceof Voragine))) {
-				controlloCammini(nuovaPosizione, caselleGiaRaggiunte, elementiTrovati);
+			if(el.getInGioco() && (caselleRaggiunte[indice >>> 6] & (1L << indice)) == 0) {
+				return false;
 			}
 		}
+		// Se il ciclo e' terminato, ovvero se sono state raggiunte le caselle di tutti gli elementi
+		// presenti sulla mappa (eccetto le voragini), si restituisce true.
+		return true;
 	}
 	
 	
@@ -882,13 +1765,20 @@ public class Mappa {
 	 * @throws NullPointerException
 	 */
 	public boolean controllaBrezza(Elemento casella) throws NullPointerException {
-		for(Direzioni direzione : Direzioni.values()) {
-			PersonaggioMondoDelWumpus controfigura = new PersonaggioMondoDelWumpus(casella.getLatoScacchiera(), casella.getRiga(), casella.getColonna(), "Controfigura") {};
-			if((controfigura.sposta(direzione)) && (this.contenutoCasella(controfigura) instanceof Voragine)) {
-				return true;
-			}
-		}
-		return false;
+		// La brezza e' precalcolata: basta leggere il bit della casella.
+		return this.casellaMarcata(this.brezza, casella);
+	}
+	
+	/**
+	 * Metodo che controlla se su una casella, codificata con Casella.di, si avverte la brezza generata
+	 * da una voragine.
+	 * 
+	 * @param casella Casella che si vuole controllare.
+	 * @return <em>true</em> se la casella appartiene alla mappa ed e' adiacente ad una Voragine,
+	 * 		<em>false</em> altrimenti.
+	 */
+	public boolean controllaBrezza(long casella) {
+		return this.casellaMarcata(this.brezza, casella);
 	}
 	
 	/**
@@ -899,13 +1789,19 @@ public class Mappa {
 	 * @throws NullPointerException
 	 */
 	public boolean controllaPuzza(Elemento casella) throws NullPointerException {
-		for(Direzioni direzione : Direzioni.values()) {
-			PersonaggioMondoDelWumpus controfigura = new PersonaggioMondoDelWumpus(casella.getLatoScacchiera(), casella.getRiga(), casella.getColonna(), "Controfigura") {};
-			if((controfigura.sposta(direzione)) && (this.contenutoCasella(controfigura) instanceof Wumpus)) {
-				return true;
-			}
-		}
-		return false;
+		// La puzza e' precalcolata: basta leggere il bit della casella.
+		return this.casellaMarcata(this.puzza, casella);
+	}
+	
+	/**
+	 * Metodo che controlla se su una casella, codificata con Casella.di, si sente la puzza del Wumpus.
+	 * 
+	 * @param casella Casella che si vuole controllare.
+	 * @return <em>true</em> se la casella appartiene alla mappa ed e' adiacente al Wumpus, <em>false</em>
+	 * 		altrimenti.
+	 */
+	public boolean controllaPuzza(long casella) {
+		return this.casellaMarcata(this.puzza, casella);
 	}
 	
 	/**
@@ -951,11 +1847,13 @@ public class Mappa {
 			salvataggio.write("\nElenco delle voragini\n");
 			salvataggio.write("=====================\n");
 			contatore = 0;
-			for(Elemento el : this.elencoElementiMappa) {
-				if(el instanceof Mappa.Voragine) {
+			for(int parola = 0; parola < this.voragini.length; parola++) {
+				for(long bit = this.voragini[parola]; bit != 0; bit &= bit - 1) {
+					int indice = (parola << 6) + Long.numberOfTrailingZeros(bit);
+					
 					salvataggio.write("Voragine n. " + contatore + "\n");
-					salvataggio.write("Indice di riga: " + el.getRiga() + "\n");
-					salvataggio.write("Indice di colonna: " + el.getColonna() + "\n");
+					salvataggio.write("Indice di riga: " + indice / this.getLatoMappa() + "\n");
+					salvataggio.write("Indice di colonna: " + indice % this.getLatoMappa() + "\n");
 					contatore++;
 				}
 			}
@@ -1003,22 +1901,342 @@ public class Mappa {
 	}
 	
 	/**
-	 * Metodo che permette il caricamento da file di una Mappa salvata.
+	 * Metodo che consente il salvataggio su file dello stato corrente della Mappa nel formato binario,
+	 * con nome predefinito SALVATAGGIO_BINARIO.
+	 * 
+	 * @param caselleScoperte Maschera di bit delle caselle gia' scoperte dal giocatore (la casella di
+	 * coordinate (riga, colonna) corrisponde al bit riga*latoMappa + colonna), oppure null.
+	 * @throws IllegalArgumentException Se la maschera non ha un bit per ogni casella della Mappa.
+	 */
+	public void salvataggioBinario(long[] caselleScoperte) throws IllegalArgumentException {
+		this.salvataggioBinario(Mappa.SALVATAGGIO_BINARIO, caselleScoperte);
+	}
+	
+	/**
+	 * Metodo che consente il salvataggio su file dello stato corrente della Mappa nel formato binario,
+	 * con nome del file personalizzato. Il formato binario contiene le stesse informazioni del formato
+	 * testuale del metodo salvataggio, piu' le caselle scoperte, ma le voragini occupano un bit per
+	 * casella e gli altri elementi pochi byte ciascuno; il file viene scritto con un'unica operazione
+	 * attraverso un FileChannel.
+	 * 
+	 * @param nomeSalvataggio stringa col nome che si vuole dare al file di salvataggio partita.
+	 * @param caselleScoperte Maschera di bit delle caselle gia' scoperte dal giocatore (la casella di
+	 * coordinate (riga, colonna) corrisponde al bit riga*latoMappa + colonna), oppure null.
+	 * @throws IllegalArgumentException Se la maschera non ha un bit per ogni casella della Mappa.
+	 */
+	public void salvataggioBinario(String nomeSalvataggio, long[] caselleScoperte) throws IllegalArgumentException {
+		ByteBuffer contenuto = this.codificaBinaria(caselleScoperte);
+		
+		try (FileChannel canale = FileChannel.open(new File(nomeSalvataggio).toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while(contenuto.hasRemaining()) {
+				canale.write(contenuto);
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Salvataggio non riuscito");
+		}
+	}
+	
+	/*
+	 * Metodo che restituisce il salvataggio binario dello stato corrente della Mappa, pronto per essere
+	 * letto (dalla posizione 0 fino al limite del buffer). E' usato da salvataggioBinario e da
+	 * ArchivioSalvataggi.
+	 * 
+	 * @throws IllegalArgumentException Se la maschera non ha un bit per ogni casella della Mappa.
+	 */
+	ByteBuffer codificaBinaria(long[] caselleScoperte) throws IllegalArgumentException {
+		int latoMappa = this.getLatoMappa();
+		
+		if(caselleScoperte != null && caselleScoperte.length != this.voragini.length) {
+			throw new IllegalArgumentException("La maschera delle caselle scoperte deve avere un bit per ogni casella della mappa");
+		}
+		
+		byte[] nomeAgente = Mappa.codificaNome(this.getAgente().getNome());
+		byte[] nomeWumpus = Mappa.codificaNome(this.getWumpus().getNome());
+		byte[][] nomiSuperstiti = new byte[this.getSuperstiti().length][];
+		byte[][] nomiCuccioli = new byte[this.getCuccioli().length][];
+		
+		long dimensione = Mappa.DIMENSIONE_INTESTAZIONE
+				+ 13 + Mappa.dimensioneNome(nomeAgente)
+				+ 9 + Mappa.dimensioneNome(nomeWumpus)
+				+ 8L*this.voragini.length
+				+ 9L*this.getTesori().length
+				+ (caselleScoperte == null ? 0 : 8L*caselleScoperte.length);
+		for(int i = 0; i < nomiSuperstiti.length; i++) {
+			nomiSuperstiti[i] = Mappa.codificaNome(this.getSuperstiti()[i].getNome());
+			dimensione += 9 + Mappa.dimensioneNome(nomiSuperstiti[i]);
+		}
+		for(int i = 0; i < nomiCuccioli.length; i++) {
+			nomiCuccioli[i] = Mappa.codificaNome(this.getCuccioli()[i].getNome());
+			dimensione += 5 + Mappa.dimensioneNome(nomiCuccioli[i]);
+		}
+		
+		ByteBuffer contenuto = ByteBuffer.allocate(Math.toIntExact(dimensione));
+		
+		contenuto.putInt(Mappa.NUMERO_MAGICO);
+		contenuto.putShort(Mappa.VERSIONE_FORMATO_BINARIO);
+		contenuto.putShort(caselleScoperte == null ? 0 : Mappa.OPZIONE_CASELLE_SCOPERTE);
+		contenuto.putInt(latoMappa);
+		contenuto.putInt(this.getTesori().length);
+		contenuto.putInt(this.getSuperstiti().length);
+		contenuto.putInt(this.getCuccioli().length);
+		
+		contenuto.putInt(this.getAgente().getRiga()*latoMappa + this.getAgente().getColonna());
+		contenuto.put((byte) (this.getAgente().getInGioco() ? 1 : 0));
+		contenuto.putInt(this.getAgente().getNumFrecce());
+		contenuto.putInt(this.getAgente().getPunteggio());
+		Mappa.scriviNome(contenuto, nomeAgente);
+		
+		contenuto.putInt(this.getWumpus().getRiga()*latoMappa + this.getWumpus().getColonna());
+		contenuto.put((byte) (this.getWumpus().getInGioco() ? 1 : 0));
+		contenuto.putInt(this.getWumpus().getValore());
+		Mappa.scriviNome(contenuto, nomeWumpus);
+		
+		contenuto.asLongBuffer().put(this.voragini);
+		contenuto.position(contenuto.position() + 8*this.voragini.length);
+		
+		for(Tesoro corrente : this.getTesori()) {
+			contenuto.putInt(corrente.getRiga()*latoMappa + corrente.getColonna());
+			contenuto.put((byte) (corrente.getInGioco() ? 1 : 0));
+			contenuto.putInt(corrente.getValore());
+		}
+		
+		for(int i = 0; i < nomiSuperstiti.length; i++) {
+			Superstite corrente = this.getSuperstiti()[i];
+			contenuto.putInt(corrente.getRiga()*latoMappa + corrente.getColonna());
+			contenuto.put((byte) (corrente.getInGioco() ? 1 : 0));
+			contenuto.putInt(corrente.getValore());
+			Mappa.scriviNome(contenuto, nomiSuperstiti[i]);
+		}
+		
+		for(int i = 0; i < nomiCuccioli.length; i++) {
+			CuccioloDiWumpus corrente = this.getCuccioli()[i];
+			contenuto.putInt(corrente.getRiga()*latoMappa + corrente.getColonna());
+			contenuto.put((byte) (corrente.getInGioco() ? 1 : 0));
+			Mappa.scriviNome(contenuto, nomiCuccioli[i]);
+		}
+		
+		if(caselleScoperte != null) {
+			contenuto.asLongBuffer().put(caselleScoperte);
+			contenuto.position(contenuto.position() + 8*caselleScoperte.length);
+		}
+		
+		return contenuto.flip();
+	}
+	
+	/*
+	 * Metodo che restituisce la posizione nel buffer (a partire dalla posizione corrente) del record di
+	 * ogni elemento di un salvataggio binario, nell'ordine in cui sono scritti: Agente, Wumpus, tesori,
+	 * superstiti e cuccioli. Il record di ogni elemento inizia con l'indice della sua casella (int) e il
+	 * suo stato in gioco (byte); quello dell'Agente prosegue con il numero di frecce e il punteggio (int).
+	 * E' usato da SalvataggioAutomatico per applicare al salvataggio le variazioni dei turni successivi
+	 * senza interpretarlo interamente.
+	 * 
+	 * @throws IllegalArgumentException Se il contenuto non e' un salvataggio binario valido.
+	 */
+	static int[] posizioniElementi(ByteBuffer contenutoBinario) throws IllegalArgumentException {
+		if(!(Mappa.formatoBinario(contenutoBinario))) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+		
+		ByteBuffer contenuto = contenutoBinario.duplicate();
+		int inizio = contenuto.position();
+		
+		try {
+			int latoCaricato = contenuto.getInt(inizio + 8);
+			int numeroTesori = contenuto.getInt(inizio + 12);
+			int numeroSuperstiti = contenuto.getInt(inizio + 16);
+			int numeroCuccioli = contenuto.getInt(inizio + 20);
+			if(latoCaricato < 5 || latoCaricato > Mappa.MAX_LATO_MAPPA_ESTESA || numeroTesori < 0 || numeroSuperstiti < 0 || numeroCuccioli < 0
+					|| (long) numeroTesori + numeroSuperstiti + numeroCuccioli > Mappa.numeroMassimoElementi(latoCaricato)) {
+				throw new IllegalArgumentException("Formato file non valido");
+			}
+			
+			int[] posizioni = new int[2 + numeroTesori + numeroSuperstiti + numeroCuccioli];
+			int elemento = 0;
+			contenuto.position(inizio + Mappa.DIMENSIONE_INTESTAZIONE);
+			
+			posizioni[elemento++] = contenuto.position();
+			contenuto.position(contenuto.position() + 13);
+			Mappa.leggiNome(contenuto);
+			
+			posizioni[elemento++] = contenuto.position();
+			contenuto.position(contenuto.position() + 9);
+			Mappa.leggiNome(contenuto);
+			
+			contenuto.position(contenuto.position() + 8*((latoCaricato*latoCaricato + 63) >>> 6));
+			
+			for(int i = 0; i < numeroTesori; i++) {
+				posizioni[elemento++] = contenuto.position();
+				contenuto.position(contenuto.position() + 9);
+			}
+			for(int i = 0; i < numeroSuperstiti; i++) {
+				posizioni[elemento++] = contenuto.position();
+				contenuto.position(contenuto.position() + 9);
+				Mappa.leggiNome(contenuto);
+			}
+			for(int i = 0; i < numeroCuccioli; i++) {
+				posizioni[elemento++] = contenuto.position();
+				contenuto.position(contenuto.position() + 5);
+				Mappa.leggiNome(contenuto);
+			}
+			return posizioni;
+		}
+		// Anche uno spostamento oltre il limite del buffer (IllegalArgumentException di Buffer.position)
+		// indica un salvataggio troncato
+		catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+	}
+	
+	/*
+	 * Metodo che restituisce un salvataggio binario che contiene la maschera delle caselle scoperte, con
+	 * la posizione 0 all'inizio del salvataggio: se il salvataggio dato (a partire dalla posizione
+	 * corrente) la contiene ne restituisce una copia, altrimenti una copia a cui viene aggiunta una maschera
+	 * in cui e' scoperta solo la casella dell'Agente. La maschera occupa sempre la parte finale del
+	 * salvataggio. E' usato da SalvataggioAutomatico per marcare come scoperte le caselle raggiunte
+	 * dall'Agente nei turni del giornale.
+	 * 
+	 * @throws IllegalArgumentException Se il contenuto non e' un salvataggio binario valido.
+	 */
+	static ByteBuffer conCaselleScoperte(ByteBuffer contenutoBinario) throws IllegalArgumentException {
+		int[] posizioni = Mappa.posizioniElementi(contenutoBinario);
+		ByteBuffer contenuto = contenutoBinario.slice();
+		int latoCaricato = contenuto.getInt(8);
+		int numParole = (latoCaricato*latoCaricato + 63) >>> 6;
+		
+		if((contenuto.getShort(6) & Mappa.OPZIONE_CASELLE_SCOPERTE) != 0) {
+			return ByteBuffer.allocate(contenuto.remaining()).put(contenuto).flip();
+		}
+		
+		ByteBuffer completo = ByteBuffer.allocate(contenuto.remaining() + 8*numParole);
+		completo.put(contenuto).clear();
+		completo.putShort(6, (short) (contenuto.getShort(6) | Mappa.OPZIONE_CASELLE_SCOPERTE));
+		Mappa.scopriCasella(completo, latoCaricato, completo.getInt(posizioni[0] - contenutoBinario.position()));
+		return completo;
+	}
+	
+	/*
+	 * Metodo che marca come scoperta una casella nella maschera delle caselle scoperte di un salvataggio
+	 * binario che la contiene (si veda conCaselleScoperte), con la posizione 0 all'inizio del salvataggio.
+	 * 
+	 * @throws IllegalArgumentException Se la casella e' al di fuori della mappa.
+	 */
+	static void scopriCasella(ByteBuffer contenuto, int latoMappa, int casella) throws IllegalArgumentException {
+		if(casella < 0 || casella >= latoMappa*latoMappa) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+		
+		int parola = contenuto.limit() - 8*((latoMappa*latoMappa + 63) >>> 6) + 8*(casella >>> 6);
+		contenuto.putLong(parola, contenuto.getLong(parola) | (1L << casella));
+	}
+	
+	/**
+	 * Metodo che restituisce la maschera di bit delle caselle gia' scoperte dal giocatore, letta da un
+	 * salvataggio binario (la casella di coordinate (riga, colonna) corrisponde al bit
+	 * riga*latoMappa + colonna).
+	 * 
+	 * @return Copia della maschera delle caselle scoperte, oppure null se la Mappa non e' stata
+	 * 		caricata da un salvataggio binario che le contiene.
+	 */
+	public long[] getCaselleScoperte() {
+		return this.caselleScoperte == null ? null : this.caselleScoperte.clone();
+	}
+	
+	/**
+	 * Metodo che permette il caricamento da file di una Mappa salvata: viene caricato il piu' recente tra
+	 * il salvataggio nel formato binario (SALVATAGGIO_BINARIO) e quello testuale "salvataggioWumpus.txt"
+	 * (si veda caricamento(File, File)).
 	 * 
 	 * @return Mappa descritta dal file di salvataggio.
 	 * @throws IllegalArgumentException
 	 * @throws IOException
 	 */
 	public static Mappa caricamento() throws IllegalArgumentException, IOException {
-		return new Mappa(new File("salvataggioWumpus.txt"));
+		return Mappa.caricamento(new File(Mappa.SALVATAGGIO_BINARIO), new File("salvataggioWumpus.txt"));
+	}
+	
+	/**
+	 * Metodo che carica il piu' recente, secondo la data di ultima modifica, tra un salvataggio binario e
+	 * uno testuale della stessa partita: un salvataggio testuale scritto dopo quello binario non viene
+	 * quindi ignorato. Se esiste uno solo dei due file viene caricato quello; a parita' di data viene
+	 * preferito il salvataggio binario.
+	 * 
+	 * @param salvataggioBinario File del salvataggio nel formato binario.
+	 * @param salvataggioTestuale File del salvataggio nel formato testuale.
+	 * @return Mappa descritta dal salvataggio piu' recente.
+	 * @throws IllegalArgumentException
+	 * @throws IOException
+	 */
+	public static Mappa caricamento(File salvataggioBinario, File salvataggioTestuale) throws IllegalArgumentException, IOException {
+		if(salvataggioBinario.exists() && (!salvataggioTestuale.exists() || salvataggioBinario.lastModified() >= salvataggioTestuale.lastModified())) {
+			return new Mappa(salvataggioBinario);
+		}
+		return new Mappa(salvataggioTestuale);
+	}
+	
+	/**
+	 * Metodo che carica in parallelo tutti i file di salvataggio (testuali o binari) contenuti in una
+	 * cartella, ad esempio per analizzare un archivio di partite. Vengono letti tutti i file regolari
+	 * della cartella, senza scendere nelle sottocartelle.
+	 * 
+	 * @param cartella Cartella che contiene i salvataggi.
+	 * @param numThread Numero di thread su cui distribuire i caricamenti.
+	 * @return Mappe caricate, associate al percorso del file da cui sono state lette, in ordine di percorso.
+	 * @throws IllegalArgumentException Se numThread non e' strettamente positivo o se uno dei file non e'
+	 * 		un salvataggio valido (il messaggio indica il file e la posizione dell'errore).
+	 * @throws IOException Se non e' possibile leggere la cartella o uno dei file.
+	 * @throws InterruptedException Se il thread chiamante viene interrotto durante il caricamento.
+	 */
+	public static Map<Path, Mappa> caricamentoCartella(Path cartella, int numThread) throws IllegalArgumentException, IOException, InterruptedException {
+		if(numThread < 1) {
+			throw new IllegalArgumentException("Il numero di thread deve essere strettamente positivo");
+		}
+		
+		List<Path> elencoFile;
+		try (Stream<Path> contenutoCartella = Files.list(cartella)) {
+			elencoFile = contenutoCartella.filter(Files::isRegularFile).sorted().toList();
+		}
+		
+		ExecutorService esecutore = Executors.newFixedThreadPool(numThread, compito -> {
+			Thread thread = new Thread(compito, "caricamento-wumpus");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		try {
+			List<Future<Mappa>> caricamenti = new ArrayList<Future<Mappa>>(elencoFile.size());
+			
+			for(Path file : elencoFile) {
+				caricamenti.add(esecutore.submit(() -> new Mappa(file.toFile())));
+			}
+			
+			Map<Path, Mappa> mappe = new LinkedHashMap<Path, Mappa>();
+			
+			for(int i = 0; i < elencoFile.size(); i++) {
+				mappe.put(elencoFile.get(i), caricamenti.get(i).get());
+			}
+			return mappe;
+		}
+		catch (ExecutionException e) {
+			// La cattura dell'eccezione rilancia al chiamante l'eccezione del caricamento non riuscito
+			if(e.getCause() instanceof IOException erroreLettura) {
+				throw erroreLettura;
+			}
+			if(e.getCause() instanceof RuntimeException erroreFormato) {
+				throw erroreFormato;
+			}
+			throw new IllegalStateException("Caricamento non riuscito: " + e.getCause(), e.getCause());
+		}
+		finally {
+			esecutore.shutdownNow();
+		}
 	}
 	
 	private int contaVoragini() {
 		int numVoragini = 0;
-		for(Elemento el : this.elencoElementiMappa) {
-			if(el instanceof Mappa.Voragine) {
-				numVoragini++;
-			}
+		for(long parola : this.voragini) {
+			numVoragini += Long.bitCount(parola);
 		}
 		return numVoragini; 
 	}
@@ -0,0 +1,24 @@
+package model.gioco;
+
+/**
+ * Enumerativo delle possibili modalita' di generazione casuale di una Mappa.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public enum ModalitaGenerazione {
+	/**
+	 * Gli elementi vengono collocati in caselle casuali e, se la mappa ottenuta non e' giocabile
+	 * (cioe' se qualche elemento non e' raggiungibile dalla casella di partenza dell'Agente),
+	 * la mappa viene generata nuovamente da capo.
+	 */
+	RIGETTO,
+	/**
+	 * Dopo la collocazione delle voragini si determina la regione di caselle raggiungibili dalla
+	 * casella di partenza dell'Agente, ampliandola se necessario eliminando voragini al suo confine,
+	 * e gli elementi vengono collocati solo all'interno di tale regione: la mappa ottenuta e'
+	 * giocabile per costruzione e non viene mai rigenerata.
+	 */
+	COSTRUTTIVA
+}
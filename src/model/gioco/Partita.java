@@ -1,5 +1,13 @@
 package model.gioco;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
 import model.elementi.Agente;
 import model.elementi.CuccioloDiWumpus;
 import model.elementi.Elemento;
@@ -11,31 +19,76 @@ import model.elementi.Wumpus;
 
 /**
  * Classe per la creazione e gestione di una partita del mondo del Wumpus.
+ * <p>
+ * I turni di una partita non si sovrappongono mai: i metodi che li eseguono sono sincronizzati sulla
+ * partita, e i turni inviati con inviaTurno e quelli avviati dal temporizzatore passano dalla casella dei
+ * comandi della partita, che li esegue uno alla volta su un gruppo di thread condiviso da tutte le
+ * partite. Gli eventi degli elementi di un turno possono essere ricevuti insieme, al termine del turno e
+ * sul thread scelto da chi li ascolta, attraverso il bus degli eventi della partita (si veda getBusEventi).
  * 
  * @author Marcello_Mora_8808920
  * @author Filiberto_Melis_20035059
  * @author Simone_Garau_20005068
  */
 public class Partita {
+	/**
+	 * Durata predefinita del turno delle partite temporizzate, in millisecondi.
+	 */
+	public static final long DEFAULT_TEMPO_PER_TURNO = 8000;
 	
 	private final Mappa mappaDiGioco;
 	private final Agente agente;
 	private final Wumpus wumpus;
 	private final CuccioloDiWumpus[] cuccioli;
-	private final Thread tempoPerTurno;
+	/*
+	 * Direzioni scelte dai cuccioli nella prima fase del loro spostamento (si veda spostaCuccioli):
+	 * l'array viene riutilizzato ad ogni turno.
+	 */
+	private final byte[] scelteCuccioli;
+	/*
+	 * Numero massimo di cuccioli di cui un singolo compito sceglie lo spostamento: le partite con piu'
+	 * cuccioli scelgono gli spostamenti in parallelo.
+	 */
+	private static final int GRANULARITA_CUCCIOLI = 512;
+	private static final Direzioni[] DIREZIONI = Direzioni.values();
+	/*
+	 * Generatore di numeri casuali della partita (quello della sua Mappa), usato per tutte le scelte
+	 * casuali compiute durante i turni di gioco.
+	 */
+	private final RandomGenerator generatoreCasuale;
+	/*
+	 * Eventi dell'ultimo turno di gioco: l'istanza viene riutilizzata ad ogni turno.
+	 */
+	private final EsitoTurno ultimoTurno;
+	/*
+	 * Salvataggio automatico della partita, se attivato (si veda attivaSalvataggioAutomatico).
+	 */
+	private SalvataggioAutomatico salvataggioAutomatico;
+	/*
+	 * Registro delle azioni della partita, presente solo nelle partite avviate con avviaPartitaRegistrata.
+	 */
+	private RegistroAzioni registroAzioni;
+	/*
+	 * Scadenza del turno nel temporizzatore condiviso, presente solo se la partita e' temporizzata
+	 * (si veda avviaTemporizzazione).
+	 */
+	private Temporizzatore.Scadenza scadenzaTurno;
+	/*
+	 * Casella dei comandi della partita: esegue in sequenza i turni inviati dagli altri thread.
+	 */
+	private final EsecutoreTurni esecutoreTurni;
+	/*
+	 * Bus degli eventi degli elementi della partita, creato alla prima richiesta (si veda getBusEventi).
+	 */
+	private BusEventi busEventi;
 	   
 	
 	/**
 	 * Costruttore per la creazione di una nuova istanza di Partita; genera una nuova partita
 	 * istanziando una mappa di gioco e collocandovi gli elementi necessari
 	 */
-	private Partita(int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli) {
-		this.mappaDiGioco = new Mappa(latoMappa, probabilitaVoragine, numTesori, numSuperstiti, numCuccioli);
-		this.agente = this.getMappaDiGioco().getAgente();
-		this.wumpus = this.getMappaDiGioco().getWumpus();
-		this.cuccioli = this.getMappaDiGioco().getCuccioli();
-		this.tempoPerTurno = new Thread(new Temporizzatore());
-		this.tempoPerTurno.setDaemon(true);
+	private Partita(RandomGenerator generatoreCasuale, int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli) {
+		this(new Mappa(latoMappa, probabilitaVoragine, numTesori, numSuperstiti, numCuccioli, Mappa.DEFAULT_MODALITA_GENERAZIONE, generatoreCasuale));
 	}
 	
 	private Partita(Mappa mappaDiGioco) {
@@ -43,38 +96,12 @@ public class Partita {
 		this.agente = this.getMappaDiGioco().getAgente();
 		this.wumpus = this.getMappaDiGioco().getWumpus();
 		this.cuccioli = this.getMappaDiGioco().getCuccioli();
-		this.tempoPerTurno = new Thread(new Temporizzatore());
-		this.tempoPerTurno.setDaemon(true);
+		this.scelteCuccioli = new byte[this.cuccioli.length];
+		this.generatoreCasuale = this.getMappaDiGioco().getGeneratoreCasuale();
+		this.ultimoTurno = new EsitoTurno(this.agente);
+		this.esecutoreTurni = new EsecutoreTurni(this);
 	}
 	
-	private class Temporizzatore implements Runnable {
-
-		@Override
-		public void run() {
-			// Ciclo infinito: il temporizzatore deve venire creato come thread demone
-			while(true) {
-				try {
-					// Il thread si mette in sleep per 8 secondi
-					Thread.sleep(8000);
-				}
-				catch (InterruptedException e){
-					// Il metodo che gestisce il movimento dell'agente lancia un interrupt
-					// verso il temporizzatore.
-					// Se la sleep viene interrotta da un interrupt, ricomincia il ciclo
-					// ovvero ricomincia da capo la sleep di 8 secondi...
-					continue;
-				}
-				
-				// ...altrimenti, se arriva a questo punto del codice, significa che la sleep
-				// non e' stata interrotta da nessun interrupt e quindi sono trascorsi pi� 
-				// di 8 secondi dall'ultimo movimento dell'agente, quindi muove l'agente 
-				// in una direzione casuale.
-				Partita.this.turnoDiGioco("VAI", Direzioni.spostamentoRandom());
-			}
-		}
-	}
-
-	
 	/**
 	 * Metodo che restituisce la Mappa di gioco associata ad una Partita.
 	 * 
@@ -111,6 +138,71 @@ public class Partita {
 		return this.cuccioli;
 	}
 	
+	/**
+	 * Metodo che restituisce gli eventi dell'ultimo turno di gioco eseguito. L'oggetto restituito e'
+	 * sempre lo stesso e viene aggiornato ad ogni turno.
+	 * 
+	 * @return EsitoTurno con gli eventi dell'ultimo turno.
+	 */
+	public EsitoTurno getUltimoTurno() {
+		return this.ultimoTurno;
+	}
+	
+	/**
+	 * Metodo che attiva il salvataggio automatico della partita nella cartella data: da questo momento
+	 * la variazione dello stato della partita dovuta ad ogni turno viene salvata in un giornale su un
+	 * thread dedicato, e ogni intervalloCompattazione turni il giornale viene compattato in un salvataggio
+	 * completo (si veda SalvataggioAutomatico). La partita salvata si ricostruisce con
+	 * SalvataggioAutomatico.ripristina.
+	 * 
+	 * @param cartella Cartella del salvataggio automatico; l'eventuale salvataggio precedente viene sostituito.
+	 * @param intervalloCompattazione Numero di turni tra due compattazioni del giornale.
+	 * @return SalvataggioAutomatico attivato, da chiudere al termine della partita.
+	 * @throws IllegalArgumentException Se intervalloCompattazione non e' strettamente positivo.
+	 * @throws IllegalStateException Se il salvataggio automatico e' gia' stato attivato.
+	 * @throws IOException Se non e' possibile scrivere nella cartella.
+	 */
+	public synchronized SalvataggioAutomatico attivaSalvataggioAutomatico(Path cartella, int intervalloCompattazione) throws IllegalArgumentException, IllegalStateException, IOException {
+		if(this.salvataggioAutomatico != null) {
+			throw new IllegalStateException("Il salvataggio automatico e' gia' stato attivato");
+		}
+		
+		this.salvataggioAutomatico = new SalvataggioAutomatico(this.getMappaDiGioco(), cartella, intervalloCompattazione);
+		return this.salvataggioAutomatico;
+	}
+	
+	/**
+	 * Metodo che restituisce il salvataggio automatico della partita.
+	 * 
+	 * @return SalvataggioAutomatico della partita, oppure null se non e' stato attivato.
+	 */
+	public synchronized SalvataggioAutomatico getSalvataggioAutomatico() {
+		return this.salvataggioAutomatico;
+	}
+	
+	/**
+	 * Metodo che restituisce il bus degli eventi della partita, con cui l'interfaccia grafica riceve gli
+	 * eventi degli elementi raccolti turno per turno, senza rallentare i turni di gioco.
+	 * 
+	 * @return BusEventi della partita.
+	 */
+	public synchronized BusEventi getBusEventi() {
+		if(this.busEventi == null) {
+			this.busEventi = new BusEventi(this);
+		}
+		return this.busEventi;
+	}
+	
+	/**
+	 * Metodo che restituisce il registro delle azioni della partita, che viene aggiornato ad ogni turno.
+	 * 
+	 * @return RegistroAzioni della partita, oppure null se la partita non e' stata avviata con
+	 * 		avviaPartitaRegistrata.
+	 */
+	public RegistroAzioni getRegistroAzioni() {
+		return this.registroAzioni;
+	}
+	
 	/**
 	 * Metodo statico per avviare una nuova partita senza temporizzazione per i movimenti
 	 * dell'agente e con valori di default per la mappa.
@@ -132,34 +224,86 @@ public class Partita {
 	 * @return Partita istanziata.
 	 */
 	public static Partita avviaPartita(boolean temporizzazioneTurno, int...parametri) {
+		return Partita.avviaPartita(temporizzazioneTurno, new SplittableRandom(), parametri);
+	}
+	
+	/**
+	 * Metodo statico per avviare una nuova partita con parametri opzionali, usando per tutte le scelte
+	 * casuali (generazione della mappa e turni di gioco) il generatore di numeri casuali indicato: a parita'
+	 * di seme del generatore e di azioni dell'Agente, la partita si svolge sempre nello stesso modo.
+	 * Istanzia un oggetto di tipo Partita e restituisce l'oggetto di tipo Partita istanziato.
+	 *  
+	 * @param temporizzazioneTurno <em>true</em> se si vuole che l'Agente agista autonomamente
+	 * dopo un certo lasso di tempo, <em>false</em> altrimenti.
+	 * @param generatoreCasuale Generatore di numeri casuali della partita.
+	 * @param parametri Parametri opzionali: latoMappa, probabilitaVoragine, numTesori, numSuperstiti e numCuccioli.
+	 * @return Partita istanziata.
+	 */
+	public static Partita avviaPartita(boolean temporizzazioneTurno, RandomGenerator generatoreCasuale, int...parametri) {
 		Partita nuovaPartita;
 		
 		if(parametri.length >= 5) {
-			nuovaPartita = new Partita(parametri[0], parametri[1], parametri[2], parametri[3], parametri[4]);
+			nuovaPartita = new Partita(generatoreCasuale, parametri[0], parametri[1], parametri[2], parametri[3], parametri[4]);
 		}
 		else if(parametri.length == 4) {
-			nuovaPartita = new Partita(parametri[0], parametri[1], parametri[2], parametri[3], Mappa.DEFAULT_NUM_CUCCIOLI);
+			nuovaPartita = new Partita(generatoreCasuale, parametri[0], parametri[1], parametri[2], parametri[3], Mappa.DEFAULT_NUM_CUCCIOLI);
 		}
 		else if(parametri.length == 3) {
-			nuovaPartita = new Partita(parametri[0], parametri[1], parametri[2], Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
+			nuovaPartita = new Partita(generatoreCasuale, parametri[0], parametri[1], parametri[2], Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
 		}
 		else if(parametri.length == 2) {
-			nuovaPartita = new Partita(parametri[0], parametri[1], Mappa.DEFAULT_NUM_TESORI, Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
+			nuovaPartita = new Partita(generatoreCasuale, parametri[0], parametri[1], Mappa.DEFAULT_NUM_TESORI, Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
 		}
 		else if(parametri.length == 1) {
-			nuovaPartita = new Partita(parametri[0], Mappa.DEFAULT_PROBABILITA_VORAGINE, Mappa.DEFAULT_NUM_TESORI, Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
+			nuovaPartita = new Partita(generatoreCasuale, parametri[0], Mappa.DEFAULT_PROBABILITA_VORAGINE, Mappa.DEFAULT_NUM_TESORI, Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
 		}
 		else {
-			nuovaPartita = new Partita(Mappa.DEFAULT_LATO_MAPPA, Mappa.DEFAULT_PROBABILITA_VORAGINE, Mappa.DEFAULT_NUM_TESORI, Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
+			nuovaPartita = new Partita(generatoreCasuale, Mappa.DEFAULT_LATO_MAPPA, Mappa.DEFAULT_PROBABILITA_VORAGINE, Mappa.DEFAULT_NUM_TESORI, Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI);
 		}
 
 		if(temporizzazioneTurno) {
-			nuovaPartita.tempoPerTurno.start();
+			nuovaPartita.avviaTemporizzazione(Partita.DEFAULT_TEMPO_PER_TURNO);
 		}
 		
 		return nuovaPartita;
 	}
 	
+	/**
+	 * Metodo statico per avviare una nuova partita con parametri opzionali, registrandone le azioni in un
+	 * RegistroAzioni (si veda getRegistroAzioni) che permette di riprodurla esattamente con un
+	 * RiproduttorePartita. La mappa e tutte le scelte casuali della partita dipendono solo dal seme dato.
+	 *  
+	 * @param temporizzazioneTurno <em>true</em> se si vuole che l'Agente agista autonomamente
+	 * dopo un certo lasso di tempo, <em>false</em> altrimenti.
+	 * @param seme Seme del generatore di numeri casuali della partita.
+	 * @param parametri Parametri opzionali: latoMappa, probabilitaVoragine, numTesori, numSuperstiti e numCuccioli.
+	 * @return Partita istanziata.
+	 */
+	public static Partita avviaPartitaRegistrata(boolean temporizzazioneTurno, long seme, int...parametri) {
+		int[] parametriMappa = { Mappa.DEFAULT_LATO_MAPPA, Mappa.DEFAULT_PROBABILITA_VORAGINE, Mappa.DEFAULT_NUM_TESORI, Mappa.DEFAULT_NUM_SUPERSTITI, Mappa.DEFAULT_NUM_CUCCIOLI };
+		System.arraycopy(parametri, 0, parametriMappa, 0, Math.min(parametri.length, parametriMappa.length));
+		
+		RegistroAzioni registro = new RegistroAzioni(seme, parametriMappa);
+		Partita nuovaPartita = Partita.avviaRiproduzione(registro);
+		nuovaPartita.registroAzioni = registro;
+		
+		if(temporizzazioneTurno) {
+			nuovaPartita.avviaTemporizzazione(Partita.DEFAULT_TEMPO_PER_TURNO);
+		}
+		
+		return nuovaPartita;
+	}
+	
+	/*
+	 * Metodo statico che avvia, senza temporizzazione e senza registrarla, la partita descritta da un
+	 * RegistroAzioni, nel suo stato iniziale. E' usato da avviaPartitaRegistrata e da RiproduttorePartita.
+	 */
+	static Partita avviaRiproduzione(RegistroAzioni registro) {
+		int[] parametriMappa = registro.getParametriMappa();
+		
+		return new Partita(registro.creaGeneratore(), parametriMappa[0], parametriMappa[1], parametriMappa[2], parametriMappa[3], parametriMappa[4]);
+	}
+	
 	/**
 	 * Metodo statico per avviare una nuova partita su una Mappa data.
 	 * Istanzia un oggetto di tipo Partita e restituisce l'oggetto di tipo Partita istanziato.
@@ -173,174 +317,417 @@ public class Partita {
 		Partita nuovaPartita = new Partita(mappa);
 		
 		if(temporizzazioneTurno) {
-			nuovaPartita.tempoPerTurno.start();
+			nuovaPartita.avviaTemporizzazione(Partita.DEFAULT_TEMPO_PER_TURNO);
 		}
 		
 		return nuovaPartita;
 	}
+	
+	/**
+	 * Metodo statico per avviare una nuova partita su una mappa estesa (si veda Mappa.generaMappaEstesa),
+	 * in cui il numero di tesori, superstiti e cuccioli e' dato come densita' rispetto al numero di caselle.
+	 * Istanzia un oggetto di tipo Partita e restituisce l'oggetto di tipo Partita istanziato.
+	 *  
+	 * @param temporizzazioneTurno <em>true</em> se si vuole che l'Agente agista autonomamente
+	 * dopo un certo lasso di tempo, <em>false</em> altrimenti.
+	 * @param latoMappa Dimensione in caselle dei lati della Mappa.
+	 * @param probabilitaVoragine Probabilita' che una casella contenga una Voragine.
+	 * @param densitaTesori Frazione delle caselle della Mappa che contengono un Tesoro.
+	 * @param densitaSuperstiti Frazione delle caselle della Mappa che contengono un Superstite.
+	 * @param densitaCuccioli Frazione delle caselle della Mappa che contengono un CuccioloDiWumpus.
+	 * @return Partita istanziata.
+	 * @throws IllegalArgumentException Se i parametri non sono validi per una mappa estesa.
+	 */
+	public static Partita avviaPartitaEstesa(boolean temporizzazioneTurno, int latoMappa, int probabilitaVoragine, double densitaTesori, double densitaSuperstiti, double densitaCuccioli) throws IllegalArgumentException {
+		return Partita.avviaPartita(temporizzazioneTurno, Mappa.generaMappaEstesa(latoMappa, probabilitaVoragine, densitaTesori, densitaSuperstiti, densitaCuccioli));
+	}
+	
+	/**
+	 * Metodo statico per avviare una nuova partita su una mappa estesa come il metodo precedente, usando per
+	 * tutte le scelte casuali il generatore di numeri casuali indicato.
+	 *  
+	 * @param temporizzazioneTurno <em>true</em> se si vuole che l'Agente agista autonomamente
+	 * dopo un certo lasso di tempo, <em>false</em> altrimenti.
+	 * @param latoMappa Dimensione in caselle dei lati della Mappa.
+	 * @param probabilitaVoragine Probabilita' che una casella contenga una Voragine.
+	 * @param densitaTesori Frazione delle caselle della Mappa che contengono un Tesoro.
+	 * @param densitaSuperstiti Frazione delle caselle della Mappa che contengono un Superstite.
+	 * @param densitaCuccioli Frazione delle caselle della Mappa che contengono un CuccioloDiWumpus.
+	 * @param generatoreCasuale Generatore di numeri casuali della partita.
+	 * @return Partita istanziata.
+	 * @throws IllegalArgumentException Se i parametri non sono validi per una mappa estesa.
+	 */
+	public static Partita avviaPartitaEstesa(boolean temporizzazioneTurno, int latoMappa, int probabilitaVoragine, double densitaTesori, double densitaSuperstiti, double densitaCuccioli, RandomGenerator generatoreCasuale) throws IllegalArgumentException {
+		return Partita.avviaPartita(temporizzazioneTurno, Mappa.generaMappaEstesa(latoMappa, probabilitaVoragine, densitaTesori, densitaSuperstiti, densitaCuccioli, generatoreCasuale));
+	}
 		
 	/**
 	 * Metodo che esegue un turno di gioco, purche' Agente e Wumpus siano ancora in gioco;
 	 * ogni turno comprende un'azione da parte dell'Agente e lo spostamento casuale degli elementi 
-	 * CuccioloDiWumpus ancora in gioco in una casella adiacente, purche' valida e libera (se per lo
-	 * spostamento di un CuccioloDiWumpus viene selezionata una casella non valida o occupata da un
-	 * elemento non mobile per quel turno il CuccioloDiWumpus resta fermo).
+	 * CuccioloDiWumpus ancora in gioco in una casella adiacente, purche' valida e libera (ogni
+	 * CuccioloDiWumpus sceglie una casella libera all'inizio della fase dei cuccioli; se la casella
+	 * scelta viene occupata prima da un altro CuccioloDiWumpus, per quel turno resta fermo).
 	 * 
 	 * @param azione Tipo di azione che si vuol far compiere all'Agente (vai o scaglia).
 	 * @param direzione Direzione in cui avviene l'azione compiuta dall'Agente.
 	 * @return String descrizione testuale delle azioni compiute dall'agente durante il turno di
 	 * 		gioco ed eventuale loro esito.
 	 */
-	public String turnoDiGioco(String azione, Direzioni direzione) {
-		StringBuilder res = new StringBuilder();
+	public synchronized String turnoDiGioco(String azione, Direzioni direzione) {
+		TipoAzione tipoAzione = null;
 		
-		if(this.getAgente().getInGioco() && this.getWumpus().getInGioco()) {
-			
-			this.tempoPerTurno.interrupt();
+		if(azione.equals("VAI")) {
+			tipoAzione = TipoAzione.VAI;
+		}
+		else if(azione.equals("FRECCIA")) {
+			tipoAzione = TipoAzione.FRECCIA;
+		}
+		
+		this.eseguiTurno(tipoAzione, direzione);
+		return this.getUltimoTurno().getDescrizione();
+	}
+	
+	/**
+	 * Metodo che esegue un turno di gioco come turnoDiGioco, senza costruirne la descrizione testuale:
+	 * gli eventi del turno vengono registrati in forma compatta nell'EsitoTurno della partita (si veda
+	 * getUltimoTurno), che li descrive solo se richiesto. Il metodo non alloca memoria per registrare
+	 * gli eventi del turno, quindi e' adatto a simulazioni che giocano moltissimi turni.
+	 * 
+	 * @param azione Tipo di azione che si vuol far compiere all'Agente; se null l'Agente resta fermo
+	 * 		(evento AZIONE_NON_VALIDA), ma i cuccioli si spostano comunque.
+	 * @param direzione Direzione in cui avviene l'azione compiuta dall'Agente.
+	 * @return Esito del turno: l'OR dei codici di EsitoTurno degli eventi avvenuti, piu' PARTITA_TERMINATA
+	 * 		se al termine del turno Agente o Wumpus non sono piu' in gioco; <em>0</em> se la partita era
+	 * 		gia' terminata e il turno non e' stato giocato.
+	 */
+	public synchronized int eseguiTurno(TipoAzione azione, Direzioni direzione) {
+		return this.eseguiTurno(azione, direzione, false);
+	}
+	
+	/**
+	 * Metodo che esegue in sequenza piu' turni di gioco, con un'unica acquisizione del lock della partita,
+	 * fermandosi quando la partita termina: e' pensato per i bot e gli strumenti di riproduzione che
+	 * inviano lunghe sequenze di azioni. Le azioni sono codificate con RegistroAzioni.codifica; un'azione
+	 * con il bit dei turni avviati dal temporizzatore (come quelle restituite da RegistroAzioni.getTurni)
+	 * viene giocata con turnoAutomatico.
+	 * 
+	 * @param azioni Azioni codificate.
+	 * @param inizio Indice della prima azione da eseguire.
+	 * @param numero Numero di azioni da eseguire.
+	 * @param esiti Array in cui viene scritto, a partire dall'indice 0, l'esito di ogni turno giocato
+	 * 		(come per eseguiTurno).
+	 * @return Numero di turni giocati: minore di numero se la partita e' terminata prima (o era gia'
+	 * 		terminata).
+	 * @throws IndexOutOfBoundsException Se inizio e numero non individuano un intervallo di azioni, oppure
+	 * 		se esiti contiene meno di numero elementi.
+	 */
+	public synchronized int eseguiTurni(byte[] azioni, int inizio, int numero, int[] esiti) throws IndexOutOfBoundsException {
+		Objects.checkFromIndexSize(inizio, numero, azioni.length);
+		Objects.checkFromIndexSize(0, numero, esiti.length);
+		
+		int giocati = 0;
+		while(giocati < numero && this.getAgente().getInGioco() && this.getWumpus().getInGioco()) {
+			int codice = azioni[inizio + giocati];
 			
-			res = new StringBuilder(this.azioneAgente(azione, direzione));
+			if(RegistroAzioni.automatico(codice)) {
+				esiti[giocati++] = this.turnoAutomatico();
+			}
+			else {
+				esiti[giocati++] = this.eseguiTurno(RegistroAzioni.azione(codice), RegistroAzioni.direzione(codice), false);
+			}
+		}
+		return giocati;
+	}
+	
+	/**
+	 * Metodo che esegue in sequenza piu' turni di gioco, fermandosi quando la partita termina, come
+	 * eseguiTurni(azioni, 0, azioni.length, esiti).
+	 * 
+	 * @param azioni Azioni codificate con RegistroAzioni.codifica.
+	 * @return Esiti dei turni giocati, uno per turno.
+	 */
+	public int[] eseguiTurni(byte[] azioni) {
+		int[] esiti = new int[azioni.length];
+		int giocati = this.eseguiTurni(azioni, 0, azioni.length, esiti);
+		
+		return giocati == esiti.length ? esiti : Arrays.copyOf(esiti, giocati);
+	}
+	
+	/**
+	 * Metodo che accoda un turno di gioco nella casella dei comandi della partita, senza attendere che
+	 * venga giocato: i turni inviati vengono eseguiti con eseguiTurno uno alla volta, nell'ordine di invio,
+	 * insieme a quelli avviati dal temporizzatore. E' il metodo da usare dal thread dell'interfaccia grafica.
+	 * 
+	 * @param azione Tipo di azione che si vuol far compiere all'Agente, come per eseguiTurno.
+	 * @param direzione Direzione in cui avviene l'azione compiuta dall'Agente.
+	 * @return Esito del turno, come per eseguiTurno, disponibile quando il turno e' stato giocato.
+	 */
+	public CompletableFuture<Integer> inviaTurno(TipoAzione azione, Direzioni direzione) {
+		return this.esecutoreTurni.invia(azione, direzione);
+	}
+	
+	/**
+	 * Metodo che rende temporizzata la partita: se il giocatore non agisce entro il tempo dato, l'Agente
+	 * si sposta in una direzione casuale (si veda turnoAutomatico). Le scadenze dei turni di tutte le
+	 * partite sono gestite da un unico temporizzatore condiviso; se la partita era gia' temporizzata
+	 * viene usata la nuova durata del turno, a partire da adesso.
+	 * 
+	 * @param millisecondi Durata del turno in millisecondi.
+	 * @throws IllegalArgumentException Se la durata del turno non e' strettamente positiva.
+	 */
+	public synchronized void avviaTemporizzazione(long millisecondi) throws IllegalArgumentException {
+		if(millisecondi <= 0) {
+			throw new IllegalArgumentException("La durata del turno deve essere strettamente positiva");
+		}
+		
+		this.fermaTemporizzazione();
+		if(this.getAgente().getInGioco() && this.getWumpus().getInGioco()) {
+			this.scadenzaTurno = Temporizzatore.programma(this, millisecondi);
+		}
+	}
+	
+	/**
+	 * Metodo che ferma la temporizzazione della partita; la temporizzazione si ferma anche quando la
+	 * partita termina.
+	 */
+	public synchronized void fermaTemporizzazione() {
+		if(this.scadenzaTurno != null) {
+			this.scadenzaTurno.annulla();
+			this.scadenzaTurno = null;
+		}
+	}
+	
+	/**
+	 * Metodo che restituisce la durata del turno della partita.
+	 * 
+	 * @return Durata del turno in millisecondi, oppure <em>0</em> se la partita non e' temporizzata.
+	 */
+	public synchronized long getTempoPerTurno() {
+		return this.scadenzaTurno == null ? 0 : this.scadenzaTurno.getDurata();
+	}
+	
+	/*
+	 * Metodo chiamato dal temporizzatore condiviso quando la scadenza data e' trascorsa: accoda il turno
+	 * automatico nella casella dei comandi, in modo che il temporizzatore non attenda il turno in corso.
+	 */
+	void scadenzaTrascorsa(Temporizzatore.Scadenza scadenza) {
+		this.esecutoreTurni.inviaScadenza(scadenza);
+	}
+	
+	/*
+	 * Turno automatico di una scadenza trascorsa, eseguito dalla casella dei comandi: viene giocato solo
+	 * se la scadenza e' ancora quella della partita e nel frattempo il giocatore non ha agito (il turno
+	 * del giocatore rinvia la scadenza mentre detiene il lock della partita).
+	 */
+	synchronized void turnoScaduto(Temporizzatore.Scadenza scadenza) {
+		scadenza.turnoEseguito();
+		if(scadenza != this.scadenzaTurno) {
+			scadenza.annulla();
+		}
+		else if(scadenza.isScaduta()) {
+			this.turnoAutomatico();
+		}
+	}
+	
+	/**
+	 * Metodo che esegue il turno che il temporizzatore avvia quando il giocatore non agisce in tempo:
+	 * l'Agente si sposta in una direzione scelta con il generatore di numeri casuali della partita.
+	 * 
+	 * @return Esito del turno, come per eseguiTurno.
+	 */
+	public synchronized int turnoAutomatico() {
+		return this.eseguiTurno(TipoAzione.VAI, Direzioni.spostamentoRandom(this.generatoreCasuale), true);
+	}
+	
+	// Esegue un turno di gioco, registrandolo se la partita e' registrata; automatico indica se il turno
+	// e' stato avviato dal temporizzatore.
+	private int eseguiTurno(TipoAzione azione, Direzioni direzione, boolean automatico) {
+		this.ultimoTurno.azzera();
+		
+		if(this.getAgente().getInGioco() && this.getWumpus().getInGioco()) {
+			// Gli eventi degli elementi lanciati durante il turno vengono consegnati insieme al termine
+			if(this.busEventi != null) {
+				this.busEventi.inizioTurno();
+				try {
+					this.giocaTurno(azione, direzione, automatico);
+				}
+				finally {
+					this.busEventi.fineTurno();
+				}
+			}
+			else {
+				this.giocaTurno(azione, direzione, automatico);
+			}
+		}
+		return this.ultimoTurno.getEsito();
+	}
+	
+	// Gioca un turno di una partita in corso.
+	private void giocaTurno(TipoAzione azione, Direzioni direzione, boolean automatico) {
+		// Il turno rinvia la scadenza del turno successivo
+		if(this.scadenzaTurno != null) {
+			this.scadenzaTurno.rinvia();
+		}
+		
+		this.azioneAgente(azione, direzione);
 
-			// Ulteriore controllo che il Wumpus sia ancora vivo prima di spostare i cuccioli,
-			// per evitare il caso in cui un cucciolo possa capitare nella casella dell'agente 
-			// e lo derubi subito dopo l'uccisione del Wumpus (quando cioe' la partita gia'
-			// deve essere terminata)
-			if(this.getWumpus().getInGioco()) {
-				for(CuccioloDiWumpus corrente : this.getCuccioli()) {
-					if(corrente.getInGioco()) {
-						res.append("\n").append(corrente.sposta(this.getMappaDiGioco()));
-						res.append("\n").append(this.controlloCasellaAgente());
-					}
+		// Ulteriore controllo che il Wumpus sia ancora vivo prima di spostare i cuccioli,
+		// per evitare il caso in cui un cucciolo possa capitare nella casella dell'agente 
+		// e lo derubi subito dopo l'uccisione del Wumpus (quando cioe' la partita gia'
+		// deve essere terminata)
+		if(this.getWumpus().getInGioco() && this.getCuccioli().length > 0) {
+			this.spostaCuccioli();
+		}
+		
+		if(!(this.getAgente().getInGioco()) || !(this.getWumpus().getInGioco())) {
+			this.ultimoTurno.segnala(EsitoTurno.PARTITA_TERMINATA);
+			this.fermaTemporizzazione();
+		}
+		
+		if(this.salvataggioAutomatico != null) {
+			this.salvataggioAutomatico.registraTurno(this.ultimoTurno);
+		}
+		if(this.registroAzioni != null) {
+			this.registroAzioni.registra(azione, direzione, automatico);
+		}
+	}
+	
+	// Sposta i cuccioli in gioco in due fasi. Nella prima ogni cucciolo sceglie una direzione tra quelle
+	// libere all'inizio della fase, senza modificare la mappa (in parallelo se i cuccioli sono molti, si
+	// veda Mappa.scegliSpostamenti). Nella seconda gli spostamenti vengono applicati in sequenza,
+	// nell'ordine dei cuccioli: un cucciolo la cui casella di destinazione e' stata occupata da un
+	// cucciolo precedente resta fermo. Il risultato e' quindi lo stesso qualunque sia il numero di thread.
+	private void spostaCuccioli() {
+		this.getMappaDiGioco().scegliSpostamenti(this.getCuccioli(), this.generatoreCasuale.nextLong(), this.scelteCuccioli, Partita.GRANULARITA_CUCCIOLI);
+		
+		for(int i = 0; i < this.getCuccioli().length; i++) {
+			CuccioloDiWumpus corrente = this.getCuccioli()[i];
+			int scelta = this.scelteCuccioli[i];
+			
+			if(corrente.getInGioco()) {
+				if(scelta >= 0 && (this.getMappaDiGioco().direzioniLibere(corrente.getCasella()) & (1 << scelta)) != 0
+						&& corrente.sposta(Partita.DIREZIONI[scelta])) {
+					this.ultimoTurno.registra(EsitoTurno.CUCCIOLO_SPOSTATO, corrente, null, Partita.casella(corrente));
 				}
+				else {
+					this.ultimoTurno.registra(EsitoTurno.CUCCIOLO_FERMO, corrente, null, -1);
+				}
+				this.controlloCasellaAgente();
 			}
 		}
-		return res.toString();
 	}
 	
+	// Restituisce la casella in cui si trova un elemento, nella forma riga*latoMappa + colonna.
+	private static int casella(Elemento elemento) {
+		return elemento.getRiga()*elemento.getLatoScacchiera() + elemento.getColonna();
+	}
 
 	// Metodo per far compiere un'azione all'agente (spostamento o lancio freccia)
-	private String azioneAgente(String azione, Direzioni direzione) {
-		String descrizioneAzione = "";
-
-		if(azione.equals("VAI")) {
-			descrizioneAzione += this.getAgente().getNome() + " prova a spostarsi a " + direzione.name().toLowerCase() + ".";
-			boolean esitoSpostamento = this.getAgente().sposta(direzione);
-			
-			if(!esitoSpostamento) {
-				descrizioneAzione += "\nLe pareti della caverna impediscono a " + this.getAgente().getNome() + " di spostarsi a " + direzione.name().toLowerCase() + ".";
+	private void azioneAgente(TipoAzione azione, Direzioni direzione) {
+		if(azione == TipoAzione.VAI) {
+			if(this.getAgente().sposta(direzione)) {
+				this.ultimoTurno.registra(EsitoTurno.AGENTE_SPOSTATO, this.getAgente(), direzione, Partita.casella(this.getAgente()));
 			}
 			else {
-				descrizioneAzione += "\n" + this.getAgente().getNome() + " si sposta nella casella " + this.getAgente().getRiga() + ", " + this.getAgente().getColonna() + ".";
+				this.ultimoTurno.registra(EsitoTurno.AGENTE_BLOCCATO, this.getAgente(), direzione, -1);
 			}
 			
-			descrizioneAzione += "\n" + this.controlloCasellaAgente();
+			this.controlloCasellaAgente();
 		}
 		
-		else if(azione.equals("FRECCIA")) {
-			descrizioneAzione += this.getAgente().getNome() + " scaglia una freccia a " + direzione.name().toLowerCase() + ".";
-			Elemento bersaglio = null;
-
-			try {
-				bersaglio = this.getAgente().scoccaFreccia(direzione);
-			}
-			catch (IndexOutOfBoundsException e) {
-				// Il metodo scoccaFreccia di Agente restituisce un oggetto di tipo Elemento
-				// (definito tramite classe anonima) per indicare la casella colpita dalla
-				// freccia, null se l'agente non aveva piu' frecce, oppure puo' anche rilanciare 
-				// la IndexOutOfBoundsException del costruttore di Elemento se viene chiamato
-				// con indici di riga o di colonna che eccedono i limiti della mappa.
-				// Se viene lanciata l'eccezione significa percio' che la freccia e' stata
-				// scagliata al di fuori della mappa: quindi si cattura l'eccezione e si mette
-				// in descrizioneAzione il messaggio corrispondente.
-				descrizioneAzione += "\nLa freccia colpisce le pareti della caverna.";
+		else if(azione == TipoAzione.FRECCIA) {
+			if(!(this.getAgente().scagliaFreccia(direzione))) {
+				this.ultimoTurno.registra(EsitoTurno.FRECCE_ESAURITE, this.getAgente(), direzione, -1);
+				return;
 			}
 			
-			// Se invece la freccia ha colpito una casella, si passa l'Elemento che la rappresenta
-			// al metodo controllaBersaglio.
-			if(bersaglio != null) {
-				descrizioneAzione += "\n" + this.controllaBersaglio(bersaglio);
+			this.ultimoTurno.registra(EsitoTurno.FRECCIA_SCAGLIATA, this.getAgente(), direzione, -1);
+			
+			// La casella colpita dalla freccia viene calcolata direttamente: se esce dalla mappa
+			// la freccia colpisce le pareti della caverna, altrimenti se ne controlla il contenuto.
+			long bersaglio = direzione.adiacente(this.getAgente().getCasella());
+			
+			if(!(this.getMappaDiGioco().contiene(bersaglio))) {
+				this.ultimoTurno.registra(EsitoTurno.FRECCIA_CONTRO_PARETE, null, null, -1);
 			}
 			else {
-				// A questo punto, bersaglio puo' contenere null sia se la freccia e' stata scagliata
-				// fuori dalla mappa, sia se l'agente ha cercato di scagliare una freccia non avendone
-				// piu' a disposizione. Verificando se in descrizioneAzione e' contenuta la stringa
-				// che vi viene messa in caso di freccia scagliata fuori dalla mappa si e' in grado
-				// di discriminare tra le due situazioni ed eventualmente modificare di conseguenza
-				// la stringa da restituire.
-				if (!(descrizioneAzione.contains("La freccia colpisce le pareti della caverna."))) {
-					descrizioneAzione = this.getAgente().getNome() + " vorrebbe scagliare una freccia a " + direzione.name().toLowerCase() + ", ma le ha terminate.";
-				}
+				this.controllaBersaglio(bersaglio);
 			}
 		}
 		
-		return descrizioneAzione;
+		else {
+			this.ultimoTurno.registra(EsitoTurno.AZIONE_NON_VALIDA, null, null, -1);
+		}
 	}
 	
 
-	// Metodo che controlla il contenuto della casella in cui l'agente e' arrivato
-	// e lancia gli eventi corrispondenti alle varie eventualita', oltre a restituire
-	// una stringa che rappresenta la descrizione testuale dell'incontro e del suo esito.
-	private String controlloCasellaAgente() {
-		String res = "";
+	// Metodo che controlla il contenuto della casella in cui l'agente e' arrivato,
+	// lancia gli eventi corrispondenti alle varie eventualita' e registra l'esito
+	// dell'incontro tra gli eventi del turno.
+	private void controlloCasellaAgente() {
 		Elemento contenutoCasellaCorrente = this.getMappaDiGioco().contenutoCasella(this.getAgente());
+		int evento = EsitoTurno.NESSUN_INCONTRO;
 		
-		if(contenutoCasellaCorrente != null) {
-			if(contenutoCasellaCorrente instanceof Wumpus) {
-				res += this.getAgente().getNome() + " e' stato ucciso dal Wumpus " + this.getWumpus().getNome() + ".";
-				this.getAgente().eliminaAgenteWumpus();
-			}
-			else if(contenutoCasellaCorrente instanceof Mappa.Voragine) {
-				res += this.getAgente().getNome() + " e' caduto in una voragine.";
-				this.getAgente().eliminaAgenteVoragine();
-			}
-			else if(contenutoCasellaCorrente instanceof Tesoro) {
-				res += this.getAgente().getNome() + " ha trovato un tesoro.";
-				res += "\n" + ((Tesoro) contenutoCasellaCorrente).eliminaTesoro(this.getAgente());
+		if(contenutoCasellaCorrente instanceof Wumpus) {
+			evento = EsitoTurno.UCCISO_DA_WUMPUS;
+			this.getAgente().eliminaAgenteWumpus();
+		}
+		else if(contenutoCasellaCorrente instanceof Mappa.Voragine) {
+			evento = EsitoTurno.CADUTO_IN_VORAGINE;
+			this.getAgente().eliminaAgenteVoragine();
+		}
+		else if(contenutoCasellaCorrente instanceof Tesoro tesoro) {
+			if(tesoro.recuperaTesoro(this.getAgente())) {
+				evento = EsitoTurno.TESORO_RACCOLTO;
 			}
-			else if(contenutoCasellaCorrente instanceof Superstite) {
-				res += this.getAgente().getNome() + " ha salvato il superstite " + ((Superstite) contenutoCasellaCorrente).getNome() + ".";
-				res += "\n" + ((Superstite) contenutoCasellaCorrente).eliminaSuperstite(this.getAgente());
+		}
+		else if(contenutoCasellaCorrente instanceof Superstite superstite) {
+			switch(superstite.salvaSuperstite(this.getAgente(), this.generatoreCasuale)) {
+				case Superstite.RICOMPENSA_FRECCIA -> evento = EsitoTurno.SUPERSTITE_SALVATO_FRECCIA;
+				case Superstite.RICOMPENSA_ORO -> evento = EsitoTurno.SUPERSTITE_SALVATO_ORO;
 			}
-			else if(contenutoCasellaCorrente instanceof CuccioloDiWumpus) {
-				res += this.getAgente().getNome() + " incontra il cucciolo di Wumpus " + ((CuccioloDiWumpus) contenutoCasellaCorrente).getNome() + ".";
-				res += "\n" + ((CuccioloDiWumpus) contenutoCasellaCorrente).incontroConAgente(this.getAgente());
+		}
+		else if(contenutoCasellaCorrente instanceof CuccioloDiWumpus cucciolo) {
+			switch(cucciolo.derubaAgente(this.getAgente(), this.generatoreCasuale)) {
+				case CuccioloDiWumpus.FURTO_FRECCIA -> evento = EsitoTurno.CUCCIOLO_RUBA_FRECCIA;
+				case CuccioloDiWumpus.FURTO_ORO -> evento = EsitoTurno.CUCCIOLO_RUBA_ORO;
+				default -> evento = EsitoTurno.CUCCIOLO_NULLA_DA_RUBARE;
 			}
 		}
-		return res;
+		
+		this.ultimoTurno.registra(evento, evento == EsitoTurno.NESSUN_INCONTRO ? null : contenutoCasellaCorrente, null, -1);
 	}
 
 	// Metodo che controlla il contenuto della casella in cui e' stata lanciata la freccia
 	// e gestisce le varie possibilita'. Il metodo e' private e viene richiamato solo dopo
-	// il controllo che il parametro bersaglio non sia null; restituisce una stringa che
-	// rappresenta una descrizione testuale dell'esito del lancio dell freccia.
-	private String controllaBersaglio(Elemento bersaglio) {
-		String res = "";
+	// il controllo che la casella sia all'interno della mappa; registra l'esito del lancio
+	// della freccia tra gli eventi del turno.
+	private void controllaBersaglio(long bersaglio) {
 		Elemento contenutoDelBersaglio = this.getMappaDiGioco().contenutoCasella(bersaglio);
 			
-		// Caso in cui il contenuto della casella in cui e' stata lanciata la freccia
-		// sia null (cioe' la casella non contiene alcun elemento), un'istanza di
-		// Voragine, oppure un'istanza di Tesoro.
-		if(contenutoDelBersaglio == null || contenutoDelBersaglio instanceof Mappa.Voragine || contenutoDelBersaglio instanceof Tesoro) {
-			res += this.getAgente().getNome() + " non ha colpito nulla.";
-		}
 		// Caso in cui il contenuto della casella in cui e' stata lanciata la freccia
 		// sia un'istanza di Wumpus.
-		else if(contenutoDelBersaglio instanceof Wumpus) {
-			res += this.getAgente().getNome() + " ha ucciso il Wumpus! L'uccisione di " + ((Wumpus) contenutoDelBersaglio).getNome() + " frutta a " + this.getAgente().getNome() + " una ricompensa di " + ((Wumpus) contenutoDelBersaglio).getValore() + " monete d'oro.";
-			((Wumpus) contenutoDelBersaglio).eliminaWumpus(this.getAgente());
+		if(contenutoDelBersaglio instanceof Wumpus wumpus) {
+			this.ultimoTurno.registra(EsitoTurno.WUMPUS_UCCISO, wumpus, null, -1);
+			wumpus.eliminaWumpus(this.getAgente());
 		}
 		// Caso in cui il contenuto della casella in cui e' stata lanciata la freccia
 		// sia un'istanza di Superstite.
-		else if(contenutoDelBersaglio instanceof Superstite) {
-			res += this.getAgente().getNome() + " ha ucciso il superstite " + ((Superstite) contenutoDelBersaglio).getNome() + ".";
-			((Superstite) contenutoDelBersaglio).uccisioneSuperstite();
+		else if(contenutoDelBersaglio instanceof Superstite superstite) {
+			this.ultimoTurno.registra(EsitoTurno.SUPERSTITE_UCCISO, superstite, null, -1);
+			superstite.uccisioneSuperstite();
 		}
 		// Caso in cui il contenuto della casella in cui e' stata lanciata la freccia
 		// sia un'istanza di CuccioloDiWumpus.
-		else if(contenutoDelBersaglio instanceof CuccioloDiWumpus) {
-			res += this.getAgente().getNome() + " ha ucciso il cucciolo di Wumpus " + ((CuccioloDiWumpus) contenutoDelBersaglio).getNome() + ".";
-			((CuccioloDiWumpus) contenutoDelBersaglio).uccisioneCucciolo();
+		else if(contenutoDelBersaglio instanceof CuccioloDiWumpus cucciolo) {
+			this.ultimoTurno.registra(EsitoTurno.CUCCIOLO_UCCISO, cucciolo, null, -1);
+			cucciolo.uccisioneCucciolo();
+		}
+		// Altrimenti la casella e' vuota, oppure contiene una Voragine o un Tesoro: la freccia
+		// non colpisce nulla.
+		else {
+			this.ultimoTurno.registra(EsitoTurno.FRECCIA_A_VUOTO, this.getAgente(), null, -1);
 		}
-		return res;
 	}
 	
 	/**
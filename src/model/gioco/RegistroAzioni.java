@@ -0,0 +1,287 @@
+package model.gioco;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Classe che registra in forma compatta le azioni di una partita avviata con Partita.avviaPartitaRegistrata,
+ * in modo da poterla riprodurre esattamente con un RiproduttorePartita (ad esempio per ricostruire una
+ * partita in cui si e' verificato un errore).
+ * Il registro contiene il seme del generatore di numeri casuali della partita e i parametri della sua
+ * mappa, che bastano a rigenerare la mappa iniziale, e un byte per ogni turno giocato: il tipo di azione,
+ * la direzione e se il turno e' stato avviato dal temporizzatore (si veda Partita.turnoAutomatico).
+ * <p>
+ * Le partite registrate usano il generatore Xoshiro256PlusPlus, il cui stato puo' essere copiato: il
+ * RiproduttorePartita lo usa per riprendere la riproduzione da un turno intermedio.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class RegistroAzioni {
+	/**
+	 * Nome predefinito del file del registro delle azioni.
+	 */
+	public static final String REGISTRO_PREDEFINITO = "registroWumpus.bin";
+
+	/*
+	 * Algoritmo del generatore di numeri casuali delle partite registrate: deve permettere di copiarne
+	 * lo stato (RandomGenerator.JumpableGenerator.copy).
+	 */
+	static final String ALGORITMO_GENERATORE = "Xoshiro256PlusPlus";
+
+	/*
+	 * Formato del file: numero magico ("WRPL" in ASCII), versione, seme, i cinque parametri della mappa
+	 * (lato, probabilita' delle voragini, numero di tesori, superstiti e cuccioli), numero dei turni e un
+	 * byte per turno. Nel byte di un turno i bit 0-1 indicano l'azione (TipoAzione.ordinal(), oppure
+	 * NESSUNA_AZIONE), i bit 2-4 la direzione (Direzioni.ordinal(), oppure NESSUNA_DIREZIONE) e il bit 5
+	 * vale 1 se il turno e' stato avviato dal temporizzatore.
+	 * La versione 2 corrisponde allo spostamento dei cuccioli in due fasi (si veda Partita.spostaCuccioli):
+	 * i registri della versione 1 non verrebbero riprodotti fedelmente, quindi non vengono caricati.
+	 */
+	private static final int NUMERO_MAGICO = 0x5752504C;
+	private static final int VERSIONE = 2;
+	private static final int DIMENSIONE_INTESTAZIONE = 40;
+	private static final int NUMERO_PARAMETRI = 5;
+	private static final int NESSUNA_AZIONE = 3;
+	private static final int NESSUNA_DIREZIONE = 7;
+	private static final int TURNO_AUTOMATICO = 1 << 5;
+
+	private static final TipoAzione[] AZIONI = TipoAzione.values();
+	private static final Direzioni[] DIREZIONI = Direzioni.values();
+
+	private final long seme;
+	private final int[] parametriMappa;
+	private byte[] turni;
+	private int numTurni;
+
+	/*
+	 * Costruttore di RegistroAzioni, per una partita la cui mappa viene generata con i parametri dati
+	 * (tutti e cinque) a partire dal generatore ottenuto dal seme dato.
+	 */
+	RegistroAzioni(long seme, int[] parametriMappa) {
+		this(seme, parametriMappa, new byte[64], 0);
+	}
+
+	private RegistroAzioni(long seme, int[] parametriMappa, byte[] turni, int numTurni) {
+		this.seme = seme;
+		this.parametriMappa = parametriMappa;
+		this.turni = turni;
+		this.numTurni = numTurni;
+	}
+
+	/*
+	 * Metodo che restituisce un nuovo generatore di numeri casuali per la partita registrata, sempre nello
+	 * stesso stato iniziale.
+	 */
+	RandomGenerator creaGeneratore() {
+		return RandomGeneratorFactory.of(RegistroAzioni.ALGORITMO_GENERATORE).create(this.seme);
+	}
+
+	// Registra un turno giocato; l'array dei turni viene raddoppiato quando e' pieno.
+	synchronized void registra(TipoAzione azione, Direzioni direzione, boolean automatico) {
+		if(this.numTurni == this.turni.length) {
+			this.turni = Arrays.copyOf(this.turni, 2*this.turni.length);
+		}
+
+		int codice = RegistroAzioni.codifica(azione, direzione);
+		if(automatico) {
+			codice |= RegistroAzioni.TURNO_AUTOMATICO;
+		}
+		this.turni[this.numTurni++] = (byte) codice;
+	}
+
+	/**
+	 * Metodo statico che codifica un'azione dell'Agente in un byte, nel formato dei turni del registro:
+	 * e' la codifica delle azioni accettata da Partita.eseguiTurni.
+	 *
+	 * @param azione Tipo di azione; null per un'azione non valida (l'Agente resta fermo).
+	 * @param direzione Direzione dell'azione; null se non indicata.
+	 * @return Azione codificata.
+	 */
+	public static byte codifica(TipoAzione azione, Direzioni direzione) {
+		int codice = azione == null ? RegistroAzioni.NESSUNA_AZIONE : azione.ordinal();
+		codice |= (direzione == null ? RegistroAzioni.NESSUNA_DIREZIONE : direzione.ordinal()) << 2;
+		return (byte) codice;
+	}
+
+	// Tipo di azione di un turno codificato; null se l'azione non era valida.
+	static TipoAzione azione(int codice) {
+		int azione = codice & 3;
+		return azione < RegistroAzioni.AZIONI.length ? RegistroAzioni.AZIONI[azione] : null;
+	}
+
+	// Direzione di un turno codificato; null se non era indicata.
+	static Direzioni direzione(int codice) {
+		int direzione = (codice >>> 2) & 7;
+		return direzione < RegistroAzioni.DIREZIONI.length ? RegistroAzioni.DIREZIONI[direzione] : null;
+	}
+
+	// Indica se un turno codificato e' stato avviato dal temporizzatore.
+	static boolean automatico(int codice) {
+		return (codice & RegistroAzioni.TURNO_AUTOMATICO) != 0;
+	}
+
+	/**
+	 * Metodo che restituisce il seme del generatore di numeri casuali della partita.
+	 *
+	 * @return Seme della partita.
+	 */
+	public long getSeme() {
+		return this.seme;
+	}
+
+	/**
+	 * Metodo che restituisce i parametri della mappa della partita.
+	 *
+	 * @return Array con latoMappa, probabilitaVoragine, numTesori, numSuperstiti e numCuccioli.
+	 */
+	public int[] getParametriMappa() {
+		return this.parametriMappa.clone();
+	}
+
+	/**
+	 * Metodo che restituisce il numero di turni registrati.
+	 *
+	 * @return Numero di turni giocati nella partita.
+	 */
+	public synchronized int getNumeroTurni() {
+		return this.numTurni;
+	}
+
+	/**
+	 * Metodo che restituisce l'azione dell'Agente in un turno registrato.
+	 *
+	 * @param turno Indice del turno, a partire da 0.
+	 * @return Tipo dell'azione, oppure null se l'azione non era valida.
+	 * @throws IndexOutOfBoundsException Se il turno non e' stato registrato.
+	 */
+	public synchronized TipoAzione getAzione(int turno) throws IndexOutOfBoundsException {
+		return RegistroAzioni.azione(this.turni[Objects.checkIndex(turno, this.numTurni)]);
+	}
+
+	/**
+	 * Metodo che restituisce la direzione dell'azione dell'Agente in un turno registrato.
+	 *
+	 * @param turno Indice del turno, a partire da 0.
+	 * @return Direzione dell'azione, oppure null se non era indicata.
+	 * @throws IndexOutOfBoundsException Se il turno non e' stato registrato.
+	 */
+	public synchronized Direzioni getDirezione(int turno) throws IndexOutOfBoundsException {
+		return RegistroAzioni.direzione(this.turni[Objects.checkIndex(turno, this.numTurni)]);
+	}
+
+	/**
+	 * Metodo che indica se un turno registrato e' stato avviato dal temporizzatore, perche' il giocatore
+	 * non ha agito in tempo (si veda Partita.turnoAutomatico).
+	 *
+	 * @param turno Indice del turno, a partire da 0.
+	 * @return <em>true</em> se il turno e' stato avviato dal temporizzatore, <em>false</em> altrimenti.
+	 * @throws IndexOutOfBoundsException Se il turno non e' stato registrato.
+	 */
+	public synchronized boolean isAutomatico(int turno) throws IndexOutOfBoundsException {
+		return RegistroAzioni.automatico(this.turni[Objects.checkIndex(turno, this.numTurni)]);
+	}
+
+	/**
+	 * Metodo che restituisce i turni registrati, un byte per turno nella codifica di codifica (con il bit
+	 * dei turni avviati dal temporizzatore): possono essere rigiocati con Partita.eseguiTurni.
+	 *
+	 * @return Copia dei turni registrati.
+	 */
+	public synchronized byte[] getTurni() {
+		return Arrays.copyOf(this.turni, this.numTurni);
+	}
+
+	/**
+	 * Metodo che salva il registro su file.
+	 *
+	 * @param file File in cui salvare il registro; se esiste gia' viene sovrascritto.
+	 * @throws IOException Se non e' possibile scrivere il file.
+	 */
+	public synchronized void salva(Path file) throws IOException {
+		ByteBuffer contenuto = ByteBuffer.allocate(RegistroAzioni.DIMENSIONE_INTESTAZIONE + this.numTurni);
+
+		contenuto.putInt(RegistroAzioni.NUMERO_MAGICO);
+		contenuto.putInt(RegistroAzioni.VERSIONE);
+		contenuto.putLong(this.seme);
+		for(int parametro : this.parametriMappa) {
+			contenuto.putInt(parametro);
+		}
+		contenuto.putInt(this.numTurni);
+		contenuto.put(this.turni, 0, this.numTurni);
+		contenuto.flip();
+
+		try (FileChannel canale = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while(contenuto.hasRemaining()) {
+				canale.write(contenuto);
+			}
+		}
+	}
+
+	/**
+	 * Metodo statico che carica un registro salvato con il metodo salva.
+	 *
+	 * @param file File del registro.
+	 * @return Registro caricato.
+	 * @throws IllegalArgumentException Se il file non contiene un registro valido.
+	 * @throws IOException Se non e' possibile leggere il file.
+	 */
+	public static RegistroAzioni carica(Path file) throws IllegalArgumentException, IOException {
+		ByteBuffer contenuto;
+
+		try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(canale.size() < RegistroAzioni.DIMENSIONE_INTESTAZIONE || canale.size() > RegistroAzioni.DIMENSIONE_INTESTAZIONE + (long) Integer.MAX_VALUE/2) {
+				throw new IllegalArgumentException("Formato file non valido");
+			}
+
+			contenuto = ByteBuffer.allocate((int) canale.size());
+			while(contenuto.hasRemaining() && canale.read(contenuto) != -1);
+			contenuto.flip();
+		}
+		catch (NoSuchFileException e) {
+			// La cattura dell'eccezione rilancia l'eccezione al chiamante
+			FileNotFoundException nonTrovato = new FileNotFoundException("Il file " + file.getFileName() + " non esiste.");
+			nonTrovato.initCause(e);
+			throw nonTrovato;
+		}
+
+		if(contenuto.getInt() != RegistroAzioni.NUMERO_MAGICO) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+		if(contenuto.getInt() != RegistroAzioni.VERSIONE) {
+			throw new IllegalArgumentException("Versione del registro non supportata");
+		}
+
+		long seme = contenuto.getLong();
+		int[] parametriMappa = new int[RegistroAzioni.NUMERO_PARAMETRI];
+		for(int i = 0; i < parametriMappa.length; i++) {
+			parametriMappa[i] = contenuto.getInt();
+		}
+
+		int numTurni = contenuto.getInt();
+		if(numTurni != contenuto.remaining()) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+
+		byte[] turni = new byte[Math.max(numTurni, 64)];
+		contenuto.get(turni, 0, numTurni);
+		for(int i = 0; i < numTurni; i++) {
+			int direzione = (turni[i] >>> 2) & 7;
+			
+			if((turni[i] & ~63) != 0 || (direzione >= RegistroAzioni.DIREZIONI.length && direzione != RegistroAzioni.NESSUNA_DIREZIONE)) {
+				throw new IllegalArgumentException("Formato file non valido: turno " + i);
+			}
+		}
+		return new RegistroAzioni(seme, parametriMappa, turni, numTurni);
+	}
+}
@@ -0,0 +1,190 @@
+package model.gioco;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * Classe che riproduce una partita registrata in un RegistroAzioni (si veda Partita.avviaPartitaRegistrata),
+ * senza interfaccia grafica e senza temporizzazione: i turni vengono rieseguiti con Partita.eseguiTurno,
+ * quindi senza costruirne la descrizione testuale, e si ottiene la stessa partita giocata dal giocatore.
+ * <p>
+ * Durante la riproduzione viene salvato un punto di ripristino ogni intervalloRipristino turni (il
+ * salvataggio binario della Mappa e una copia dello stato del generatore di numeri casuali): per tornare
+ * ad un turno gia' riprodotto, la riproduzione riparte dal punto di ripristino piu' vicino che lo precede
+ * invece che dall'inizio della partita.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class RiproduttorePartita {
+	/**
+	 * Numero predefinito di turni tra due punti di ripristino.
+	 */
+	public static final int DEFAULT_INTERVALLO_RIPRISTINO = 100;
+
+	private static final class PuntoRipristino {
+		private final int turno;
+		private final ByteBuffer mappa;
+		private final RandomGenerator.JumpableGenerator generatore;
+
+		private PuntoRipristino(int turno, Partita partita) {
+			this.turno = turno;
+			this.mappa = partita.getMappaDiGioco().codificaBinaria(null);
+			this.generatore = ((RandomGenerator.JumpableGenerator) partita.getMappaDiGioco().getGeneratoreCasuale()).copy();
+		}
+
+		// Partita nello stato del punto di ripristino; il punto di ripristino resta riutilizzabile.
+		private Partita ripristina() {
+			return Partita.avviaPartita(false, Mappa.daSalvataggioBinario(this.mappa.duplicate(), this.generatore.copy()));
+		}
+	}
+
+	private final RegistroAzioni registro;
+	private final int intervalloRipristino;
+	// Punti di ripristino in ordine di turno: il primo e' lo stato iniziale della partita.
+	private final List<PuntoRipristino> puntiRipristino;
+	private Partita partita;
+	private int turnoCorrente;
+
+	/**
+	 * Costruttore di RiproduttorePartita: prepara la partita registrata nel suo stato iniziale (turno 0).
+	 *
+	 * @param registro Registro delle azioni della partita da riprodurre.
+	 * @param intervalloRipristino Numero di turni tra due punti di ripristino.
+	 * @throws IllegalArgumentException Se intervalloRipristino non e' strettamente positivo o se i
+	 * 		parametri della mappa del registro non sono validi.
+	 */
+	public RiproduttorePartita(RegistroAzioni registro, int intervalloRipristino) throws IllegalArgumentException {
+		if(intervalloRipristino < 1) {
+			throw new IllegalArgumentException("L'intervallo tra i punti di ripristino deve essere strettamente positivo");
+		}
+
+		this.registro = Objects.requireNonNull(registro);
+		this.intervalloRipristino = intervalloRipristino;
+		this.puntiRipristino = new ArrayList<PuntoRipristino>();
+		this.partita = Partita.avviaRiproduzione(registro);
+		this.turnoCorrente = 0;
+		this.puntiRipristino.add(new PuntoRipristino(0, this.partita));
+	}
+
+	/**
+	 * Costruttore di RiproduttorePartita con l'intervallo predefinito tra i punti di ripristino.
+	 *
+	 * @param registro Registro delle azioni della partita da riprodurre.
+	 * @throws IllegalArgumentException Se i parametri della mappa del registro non sono validi.
+	 */
+	public RiproduttorePartita(RegistroAzioni registro) throws IllegalArgumentException {
+		this(registro, RiproduttorePartita.DEFAULT_INTERVALLO_RIPRISTINO);
+	}
+
+	/**
+	 * Metodo che restituisce la partita riprodotta, nello stato del turno corrente. La partita restituita
+	 * cambia ogni volta che la riproduzione torna ad un turno precedente.
+	 *
+	 * @return Partita riprodotta.
+	 */
+	public Partita getPartita() {
+		return this.partita;
+	}
+
+	/**
+	 * Metodo che restituisce il numero di turni riprodotti.
+	 *
+	 * @return Turno corrente della riproduzione (0 per lo stato iniziale).
+	 */
+	public int getTurnoCorrente() {
+		return this.turnoCorrente;
+	}
+
+	/**
+	 * Metodo che restituisce il numero di punti di ripristino salvati finora (compreso quello dello stato
+	 * iniziale).
+	 *
+	 * @return Numero di punti di ripristino.
+	 */
+	public int getNumeroPuntiRipristino() {
+		return this.puntiRipristino.size();
+	}
+
+	/**
+	 * Metodo che riproduce il turno successivo.
+	 *
+	 * @return <em>true</em> se e' stato riprodotto un turno, <em>false</em> se la riproduzione aveva gia'
+	 * 		raggiunto l'ultimo turno registrato.
+	 * @throws IllegalStateException Se la partita riprodotta non corrisponde al registro (ad esempio perche'
+	 * 		il registro e' stato prodotto da una versione diversa del gioco).
+	 */
+	public boolean avanza() throws IllegalStateException {
+		if(this.turnoCorrente >= this.registro.getNumeroTurni()) {
+			return false;
+		}
+
+		int turno = this.turnoCorrente;
+		TipoAzione azione = this.registro.getAzione(turno);
+		Direzioni direzione = this.registro.getDirezione(turno);
+		int esito;
+
+		if(this.registro.isAutomatico(turno)) {
+			// Il turno automatico sceglie di nuovo la direzione con il generatore della partita, che deve
+			// coincidere con quella registrata.
+			esito = this.partita.turnoAutomatico();
+			if(esito != 0 && this.partita.getUltimoTurno().getDirezioneEvento(0) != direzione) {
+				throw new IllegalStateException("La partita riprodotta non corrisponde al registro (turno " + (turno + 1) + ")");
+			}
+		}
+		else {
+			esito = this.partita.eseguiTurno(azione, direzione);
+		}
+
+		if(esito == 0) {
+			throw new IllegalStateException("La partita riprodotta e' terminata prima del turno " + (turno + 1) + " del registro");
+		}
+
+		this.turnoCorrente++;
+		if(this.turnoCorrente % this.intervalloRipristino == 0 && this.turnoCorrente / this.intervalloRipristino == this.puntiRipristino.size()) {
+			this.puntiRipristino.add(new PuntoRipristino(this.turnoCorrente, this.partita));
+		}
+		return true;
+	}
+
+	/**
+	 * Metodo che porta la riproduzione al turno dato, in avanti o all'indietro, e restituisce la partita
+	 * nello stato di quel turno.
+	 *
+	 * @param turno Turno da raggiungere: 0 per lo stato iniziale, getNumeroTurni() del registro per lo
+	 * 		stato finale.
+	 * @return Partita riprodotta nello stato del turno dato.
+	 * @throws IndexOutOfBoundsException Se il turno non e' compreso tra 0 e il numero di turni registrati.
+	 * @throws IllegalStateException Se la partita riprodotta non corrisponde al registro.
+	 */
+	public Partita vaiAlTurno(int turno) throws IndexOutOfBoundsException, IllegalStateException {
+		Objects.checkIndex(turno, this.registro.getNumeroTurni() + 1);
+
+		// Si riparte dal punto di ripristino piu' vicino che precede il turno, se si deve tornare indietro
+		// o se il punto di ripristino e' piu' avanti del turno corrente.
+		PuntoRipristino punto = this.puntiRipristino.get(Math.min(turno / this.intervalloRipristino, this.puntiRipristino.size() - 1));
+		if(turno < this.turnoCorrente || punto.turno > this.turnoCorrente) {
+			this.partita = punto.ripristina();
+			this.turnoCorrente = punto.turno;
+		}
+
+		while(this.turnoCorrente < turno) {
+			this.avanza();
+		}
+		return this.partita;
+	}
+
+	/**
+	 * Metodo che riproduce tutti i turni registrati e restituisce la partita nello stato finale.
+	 *
+	 * @return Partita riprodotta nello stato finale.
+	 * @throws IllegalStateException Se la partita riprodotta non corrisponde al registro.
+	 */
+	public Partita riproduciTutto() throws IllegalStateException {
+		return this.vaiAlTurno(this.registro.getNumeroTurni());
+	}
+}
@@ -0,0 +1,610 @@
+package model.gioco;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+import model.elementi.Agente;
+import model.elementi.CuccioloDiWumpus;
+import model.elementi.Elemento;
+import model.elementi.Superstite;
+import model.elementi.Tesoro;
+
+/**
+ * Classe che salva automaticamente una Partita ad ogni turno, senza rallentare il thread che gioca i turni.
+ * Il salvataggio e' composto da due file in una cartella: un'istantanea, cioe' il salvataggio binario
+ * completo della Mappa (nel formato di Mappa.salvataggioBinario) ad un dato turno, e un giornale a cui
+ * viene accodata, per ogni turno successivo, solo la variazione dello stato della partita: la casella,
+ * lo stato in gioco, le frecce e il punteggio dell'Agente e la casella e lo stato in gioco degli elementi
+ * coinvolti negli eventi del turno (spostamenti dei cuccioli, elementi eliminati...).
+ * L'istantanea contiene anche le caselle scoperte dal giocatore, cioe' quelle raggiunte dall'Agente;
+ * quelle raggiunte nei turni del giornale vengono ricavate dalla casella dell'Agente di ogni variazione.
+ * <p>
+ * Il thread di gioco si limita a codificare la variazione del turno in pochi byte e ad accodarla; la
+ * scrittura su disco avviene su un thread dedicato, che scrive in blocco tutte le variazioni accumulate
+ * e le forza su disco con un'unica operazione. Ogni intervalloCompattazione turni il giornale viene
+ * compattato: l'istantanea viene sostituita da quella del turno corrente e il giornale viene svuotato.
+ * <p>
+ * Ogni variazione del giornale contiene il numero del turno e un codice di controllo CRC32, quindi una
+ * variazione scritta solo in parte a causa di un'interruzione viene riconosciuta e scartata dal metodo
+ * ripristina, che ricostruisce la partita fino all'ultimo turno salvato per intero. L'istantanea viene
+ * prima scritta in un file temporaneo e poi sostituita con un'unica operazione, quindi e' sempre valida.
+ * <p>
+ * Quando la partita termina il salvataggio automatico viene eliminato, perche' non c'e' piu' nulla da
+ * riprendere.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class SalvataggioAutomatico implements Closeable {
+	/**
+	 * Cartella predefinita del salvataggio automatico.
+	 */
+	public static final String CARTELLA_PREDEFINITA = "salvataggioAutomatico";
+
+	/**
+	 * Numero predefinito di turni tra due compattazioni del giornale.
+	 */
+	public static final int DEFAULT_INTERVALLO_COMPATTAZIONE = 50;
+
+	private static final String FILE_ISTANTANEA = "istantanea.bin";
+	private static final String FILE_ISTANTANEA_TEMPORANEA = "istantanea.tmp";
+	private static final String FILE_GIORNALE = "giornale.bin";
+	/*
+	 * Intestazione dell'istantanea: numero magico ("WAUT" in ASCII) e numero del turno a cui si riferisce;
+	 * segue il salvataggio binario della Mappa.
+	 */
+	private static final int NUMERO_MAGICO = 0x57415554;
+	private static final int DIMENSIONE_INTESTAZIONE = 12;
+	/*
+	 * Ogni variazione del giornale e' composta da: lunghezza del corpo (int), corpo e codice di controllo
+	 * del corpo (int). Il corpo contiene il numero del turno (long), le frecce e il punteggio dell'Agente
+	 * (int), il numero di elementi variati (int) e, per ciascuno, la posizione dell'elemento nel salvataggio
+	 * (int, si veda Mappa.posizioniElementi), la sua casella (int) e il suo stato in gioco (byte).
+	 * L'Agente e' sempre il primo elemento variato.
+	 */
+	private static final int DIMENSIONE_CORPO = 20;
+	private static final int DIMENSIONE_ELEMENTO = 9;
+
+	// Tipi delle richieste accodate al thread di scrittura.
+	private static final int VARIAZIONE = 0;
+	private static final int ISTANTANEA = 1;
+	private static final int ELIMINAZIONE = 2;
+	private static final int SINCRONIZZAZIONE = 3;
+	private static final int TERMINAZIONE = 4;
+
+	private static final class Richiesta {
+		private final int tipo;
+		private final long turno;
+		private final ByteBuffer contenuto;
+		private final CountDownLatch completamento;
+
+		private Richiesta(int tipo, long turno, ByteBuffer contenuto) {
+			this.tipo = tipo;
+			this.turno = turno;
+			this.contenuto = contenuto;
+			this.completamento = tipo >= SalvataggioAutomatico.SINCRONIZZAZIONE ? new CountDownLatch(1) : null;
+		}
+	}
+
+	private final Mappa mappa;
+	private final Path cartella;
+	private final int intervalloCompattazione;
+	// Posizione di ogni elemento della Mappa tra quelli del salvataggio binario.
+	private final IdentityHashMap<Elemento, Integer> indiceElementi;
+	// Caselle raggiunte dall'Agente, scritte in ogni istantanea (si veda Mappa.getCaselleScoperte).
+	private final long[] caselleScoperte;
+	private final LinkedBlockingQueue<Richiesta> coda;
+	private final FileChannel giornale;
+	private final Thread scrittore;
+	private long turno;
+	private boolean chiuso;
+	// Indica se la partita e' terminata, e quindi se il salvataggio e' stato eliminato.
+	private boolean partitaTerminata;
+	/*
+	 * Primo errore di scrittura: dopo un errore il thread di scrittura scarta le richieste successive, e
+	 * l'errore viene rilanciato da sincronizza e close.
+	 */
+	private volatile IOException errore;
+
+	/*
+	 * Costruttore di SalvataggioAutomatico: scrive l'istantanea iniziale della Mappa (turno 0), svuota il
+	 * giornale e avvia il thread di scrittura. E' usato da Partita.attivaSalvataggioAutomatico.
+	 *
+	 * @throws IllegalArgumentException Se intervalloCompattazione non e' strettamente positivo.
+	 * @throws IOException Se non e' possibile creare la cartella o scrivere i file del salvataggio.
+	 */
+	SalvataggioAutomatico(Mappa mappa, Path cartella, int intervalloCompattazione) throws IllegalArgumentException, IOException {
+		if(intervalloCompattazione < 1) {
+			throw new IllegalArgumentException("L'intervallo di compattazione deve essere strettamente positivo");
+		}
+
+		this.mappa = mappa;
+		this.cartella = cartella;
+		this.intervalloCompattazione = intervalloCompattazione;
+		this.indiceElementi = new IdentityHashMap<Elemento, Integer>();
+		this.coda = new LinkedBlockingQueue<Richiesta>();
+
+		// Gli elementi sono numerati nello stesso ordine del salvataggio binario
+		int posizione = 0;
+		this.indiceElementi.put(mappa.getAgente(), posizione++);
+		this.indiceElementi.put(mappa.getWumpus(), posizione++);
+		for(Tesoro corrente : mappa.getTesori()) {
+			this.indiceElementi.put(corrente, posizione++);
+		}
+		for(Superstite corrente : mappa.getSuperstiti()) {
+			this.indiceElementi.put(corrente, posizione++);
+		}
+		for(CuccioloDiWumpus corrente : mappa.getCuccioli()) {
+			this.indiceElementi.put(corrente, posizione++);
+		}
+
+		// Le caselle scoperte partono da quelle di una mappa caricata da un salvataggio che le contiene
+		long[] scoperte = mappa.getCaselleScoperte();
+		this.caselleScoperte = scoperte != null ? scoperte : new long[(mappa.getLatoMappa()*mappa.getLatoMappa() + 63) >>> 6];
+		this.scopriCasellaAgente();
+
+		Files.createDirectories(cartella);
+		this.scriviIstantanea(0, mappa.codificaBinaria(this.caselleScoperte));
+		this.giornale = FileChannel.open(cartella.resolve(SalvataggioAutomatico.FILE_GIORNALE), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		this.scrittore = new Thread(this::scrivi, "salvataggio-automatico");
+		this.scrittore.setDaemon(true);
+		this.scrittore.start();
+	}
+
+	/*
+	 * Metodo che registra la variazione dello stato della partita dovuta all'ultimo turno giocato; viene
+	 * chiamato da Partita.eseguiTurno al termine di ogni turno. Ogni intervalloCompattazione turni, al posto
+	 * della variazione, accoda l'istantanea della Mappa, codificata qui per fotografare lo stato del turno
+	 * appena concluso. Se il turno ha terminato la partita, accoda invece l'eliminazione del salvataggio.
+	 * Le variazioni registrate dopo la chiusura o dopo il termine della partita vengono ignorate.
+	 */
+	synchronized void registraTurno(EsitoTurno esito) {
+		if(this.chiuso || this.partitaTerminata) {
+			return;
+		}
+
+		this.turno++;
+		this.scopriCasellaAgente();
+
+		// Una partita terminata non si puo' riprendere: eliminandone il salvataggio automatico, il menu
+		// carica il salvataggio manuale (si veda WumpusMenuController.caricamentoPiuRecente)
+		if(EsitoTurno.contiene(esito.getEsito(), EsitoTurno.PARTITA_TERMINATA)) {
+			this.partitaTerminata = true;
+			this.coda.add(new Richiesta(SalvataggioAutomatico.ELIMINAZIONE, this.turno, null));
+			return;
+		}
+
+		if(this.turno % this.intervalloCompattazione == 0) {
+			this.coda.add(new Richiesta(SalvataggioAutomatico.ISTANTANEA, this.turno, this.mappa.codificaBinaria(this.caselleScoperte)));
+			return;
+		}
+
+		// Gli elementi variati sono quelli coinvolti negli eventi del turno (l'Agente viene scritto
+		// comunque per primo); un elemento coinvolto in piu' eventi viene scritto piu' volte, sempre
+		// con il suo stato al termine del turno.
+		Agente agente = this.mappa.getAgente();
+		int numElementi = 1;
+		for(int i = 0; i < esito.getNumEventi(); i++) {
+			Elemento soggetto = esito.getSoggettoEvento(i);
+			if(soggetto != null && soggetto != agente && this.indiceElementi.containsKey(soggetto)) {
+				numElementi++;
+			}
+		}
+
+		int dimensioneCorpo = SalvataggioAutomatico.DIMENSIONE_CORPO + numElementi*SalvataggioAutomatico.DIMENSIONE_ELEMENTO;
+		ByteBuffer variazione = ByteBuffer.allocate(4 + dimensioneCorpo + 4);
+
+		variazione.putInt(dimensioneCorpo);
+		variazione.putLong(this.turno);
+		variazione.putInt(agente.getNumFrecce());
+		variazione.putInt(agente.getPunteggio());
+		variazione.putInt(numElementi);
+		this.scriviElemento(variazione, 0, agente);
+		for(int i = 0; i < esito.getNumEventi(); i++) {
+			Elemento soggetto = esito.getSoggettoEvento(i);
+			if(soggetto != null && soggetto != agente) {
+				Integer posizione = this.indiceElementi.get(soggetto);
+				if(posizione != null) {
+					this.scriviElemento(variazione, posizione, soggetto);
+				}
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(variazione.array(), 4, dimensioneCorpo);
+		variazione.putInt((int) crc.getValue());
+
+		this.coda.add(new Richiesta(SalvataggioAutomatico.VARIAZIONE, this.turno, variazione.flip()));
+	}
+
+	// Marca come scoperta la casella in cui si trova l'Agente.
+	private void scopriCasellaAgente() {
+		int casella = this.mappa.getAgente().getRiga()*this.mappa.getLatoMappa() + this.mappa.getAgente().getColonna();
+		this.caselleScoperte[casella >>> 6] |= 1L << casella;
+	}
+
+	private void scriviElemento(ByteBuffer variazione, int posizione, Elemento elemento) {
+		variazione.putInt(posizione);
+		variazione.putInt(elemento.getRiga()*this.mappa.getLatoMappa() + elemento.getColonna());
+		variazione.put((byte) (elemento.getInGioco() ? 1 : 0));
+	}
+
+	/*
+	 * Ciclo del thread di scrittura: preleva tutte le richieste accodate, le esegue in ordine e forza il
+	 * giornale su disco una sola volta per ogni gruppo di variazioni.
+	 */
+	private void scrivi() {
+		List<Richiesta> richieste = new ArrayList<Richiesta>();
+		boolean terminato = false;
+
+		while(!terminato) {
+			try {
+				richieste.add(this.coda.take());
+			}
+			catch (InterruptedException e) {
+				return;
+			}
+			this.coda.drainTo(richieste);
+
+			boolean daForzare = false;
+			for(Richiesta corrente : richieste) {
+				try {
+					if(this.errore == null) {
+						switch(corrente.tipo) {
+							case SalvataggioAutomatico.VARIAZIONE -> {
+								while(corrente.contenuto.hasRemaining()) {
+									this.giornale.write(corrente.contenuto);
+								}
+								daForzare = true;
+							}
+							case SalvataggioAutomatico.ISTANTANEA -> {
+								// Le variazioni precedenti sono comprese nell'istantanea: il giornale
+								// viene svuotato solo dopo che l'istantanea e' stata sostituita.
+								this.scriviIstantanea(corrente.turno, corrente.contenuto);
+								this.giornale.truncate(0);
+								daForzare = false;
+							}
+							case SalvataggioAutomatico.ELIMINAZIONE -> {
+								// L'istantanea viene eliminata per prima: senza di essa la cartella non
+								// contiene piu' un salvataggio automatico (si veda esiste)
+								Files.deleteIfExists(this.cartella.resolve(SalvataggioAutomatico.FILE_ISTANTANEA));
+								this.giornale.truncate(0);
+								Files.deleteIfExists(this.cartella.resolve(SalvataggioAutomatico.FILE_GIORNALE));
+								daForzare = false;
+							}
+							default -> {
+								if(daForzare) {
+									this.giornale.force(false);
+									daForzare = false;
+								}
+							}
+						}
+					}
+				}
+				catch (IOException e) {
+					this.errore = e;
+					System.err.println("Salvataggio automatico non riuscito");
+				}
+
+				if(corrente.tipo == SalvataggioAutomatico.TERMINAZIONE) {
+					terminato = true;
+				}
+				if(corrente.completamento != null) {
+					corrente.completamento.countDown();
+				}
+			}
+
+			try {
+				if(daForzare && this.errore == null) {
+					this.giornale.force(false);
+				}
+			}
+			catch (IOException e) {
+				this.errore = e;
+				System.err.println("Salvataggio automatico non riuscito");
+			}
+			richieste.clear();
+		}
+	}
+
+	// Sostituisce l'istantanea con quella data, passando per un file temporaneo.
+	private void scriviIstantanea(long turnoIstantanea, ByteBuffer contenuto) throws IOException {
+		Path temporanea = this.cartella.resolve(SalvataggioAutomatico.FILE_ISTANTANEA_TEMPORANEA);
+		ByteBuffer intestazione = ByteBuffer.allocate(SalvataggioAutomatico.DIMENSIONE_INTESTAZIONE);
+
+		intestazione.putInt(SalvataggioAutomatico.NUMERO_MAGICO);
+		intestazione.putLong(turnoIstantanea);
+		intestazione.flip();
+
+		try (FileChannel canale = FileChannel.open(temporanea, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer[] daScrivere = { intestazione, contenuto };
+			while(contenuto.hasRemaining()) {
+				canale.write(daScrivere);
+			}
+			canale.force(false);
+		}
+		Files.move(temporanea, this.cartella.resolve(SalvataggioAutomatico.FILE_ISTANTANEA), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Metodo che attende che tutti i turni registrati finora siano stati scritti e forzati su disco.
+	 *
+	 * @throws IOException Se una scrittura del salvataggio automatico non e' riuscita.
+	 * @throws InterruptedException Se il thread chiamante viene interrotto durante l'attesa.
+	 */
+	public void sincronizza() throws IOException, InterruptedException {
+		Richiesta sincronizzazione = new Richiesta(SalvataggioAutomatico.SINCRONIZZAZIONE, -1, null);
+
+		synchronized(this) {
+			if(!(this.chiuso)) {
+				this.coda.add(sincronizzazione);
+			}
+			else {
+				sincronizzazione.completamento.countDown();
+			}
+		}
+		sincronizzazione.completamento.await();
+
+		if(this.errore != null) {
+			throw this.errore;
+		}
+	}
+
+	/**
+	 * Metodo che restituisce il numero di turni registrati dall'attivazione del salvataggio automatico.
+	 *
+	 * @return Numero di turni registrati.
+	 */
+	public synchronized long getTurniRegistrati() {
+		return this.turno;
+	}
+
+	/**
+	 * Metodo che restituisce il numero di turni tra due compattazioni del giornale.
+	 *
+	 * @return Intervallo di compattazione.
+	 */
+	public int getIntervalloCompattazione() {
+		return this.intervalloCompattazione;
+	}
+
+	/**
+	 * Metodo che chiude il salvataggio automatico: attende che tutti i turni registrati siano stati
+	 * scritti su disco e termina il thread di scrittura. I turni giocati in seguito non vengono salvati.
+	 *
+	 * @throws IOException Se una scrittura del salvataggio automatico non e' riuscita o se non e'
+	 * 		possibile chiudere il giornale.
+	 */
+	@Override
+	public void close() throws IOException {
+		Richiesta terminazione = new Richiesta(SalvataggioAutomatico.TERMINAZIONE, -1, null);
+
+		synchronized(this) {
+			if(this.chiuso) {
+				return;
+			}
+			this.chiuso = true;
+			this.coda.add(terminazione);
+		}
+
+		try {
+			terminazione.completamento.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			this.giornale.close();
+		}
+
+		if(this.errore != null) {
+			throw this.errore;
+		}
+	}
+
+	/**
+	 * Metodo statico che indica se una cartella contiene un salvataggio automatico.
+	 *
+	 * @param cartella Cartella del salvataggio automatico.
+	 * @return <em>true</em> se la cartella contiene un salvataggio automatico, <em>false</em> altrimenti.
+	 */
+	public static boolean esiste(Path cartella) {
+		return Files.isRegularFile(cartella.resolve(SalvataggioAutomatico.FILE_ISTANTANEA));
+	}
+
+	/**
+	 * Metodo statico che restituisce l'istante dell'ultima scrittura del salvataggio automatico contenuto
+	 * in una cartella, ad esempio per confrontarlo con quello di un salvataggio manuale.
+	 *
+	 * @param cartella Cartella del salvataggio automatico.
+	 * @return Istante dell'ultima scrittura dell'istantanea o del giornale, oppure null se la cartella
+	 * 		non contiene un salvataggio automatico.
+	 * @throws IOException Se non e' possibile leggere gli attributi dei file.
+	 */
+	public static FileTime ultimoAggiornamento(Path cartella) throws IOException {
+		if(!(SalvataggioAutomatico.esiste(cartella))) {
+			return null;
+		}
+
+		FileTime ultimo = Files.getLastModifiedTime(cartella.resolve(SalvataggioAutomatico.FILE_ISTANTANEA));
+		Path giornale = cartella.resolve(SalvataggioAutomatico.FILE_GIORNALE);
+		if(Files.exists(giornale) && Files.getLastModifiedTime(giornale).compareTo(ultimo) > 0) {
+			ultimo = Files.getLastModifiedTime(giornale);
+		}
+		return ultimo;
+	}
+
+	/**
+	 * Metodo statico che ricostruisce la Mappa di una partita salvata automaticamente, all'ultimo turno
+	 * scritto per intero: all'istantanea vengono applicate, in ordine, le variazioni dei turni successivi
+	 * registrate nel giornale, fino alla prima variazione scritta solo in parte. Le caselle raggiunte
+	 * dall'Agente nei turni applicati vengono marcate come scoperte (si veda Mappa.getCaselleScoperte);
+	 * un'istantanea senza caselle scoperte viene ripristinata con la sola casella dell'Agente scoperta.
+	 *
+	 * @param cartella Cartella del salvataggio automatico.
+	 * @return Mappa ricostruita.
+	 * @throws IllegalArgumentException Se l'istantanea non e' valida.
+	 * @throws IOException Se non e' possibile leggere i file del salvataggio.
+	 */
+	public static Mappa ripristina(Path cartella) throws IllegalArgumentException, IOException {
+		ByteBuffer istantanea = SalvataggioAutomatico.leggiIstantanea(cartella);
+		long turnoIstantanea = istantanea.getLong();
+		ByteBuffer salvataggio = Mappa.conCaselleScoperte(istantanea);
+
+		SalvataggioAutomatico.scorriGiornale(cartella, turnoIstantanea, salvataggio, Mappa.posizioniElementi(salvataggio));
+		try {
+			return Mappa.daSalvataggioBinario(salvataggio);
+		}
+		catch (IndexOutOfBoundsException e) {
+			// Casella di un elemento esterna alla mappa
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+	}
+
+	/**
+	 * Metodo statico che restituisce il numero dell'ultimo turno scritto per intero nel salvataggio
+	 * automatico contenuto in una cartella, cioe' il turno a cui ripristina riporterebbe la partita; i
+	 * turni sono contati dall'attivazione del salvataggio, quindi 0 indica che dall'attivazione non e'
+	 * stato salvato alcun turno.
+	 *
+	 * @param cartella Cartella del salvataggio automatico.
+	 * @return Numero dell'ultimo turno salvato per intero.
+	 * @throws IllegalArgumentException Se l'istantanea non e' valida.
+	 * @throws IOException Se non e' possibile leggere i file del salvataggio.
+	 */
+	public static long ultimoTurnoSalvato(Path cartella) throws IllegalArgumentException, IOException {
+		return SalvataggioAutomatico.scorriGiornale(cartella, SalvataggioAutomatico.leggiIstantanea(cartella).getLong(), null, null);
+	}
+
+	// Legge l'istantanea contenuta nella cartella e ne controlla il numero magico; il contenuto
+	// restituito e' posizionato sul numero del turno.
+	private static ByteBuffer leggiIstantanea(Path cartella) throws IllegalArgumentException, IOException {
+		ByteBuffer istantanea = SalvataggioAutomatico.leggiFile(cartella.resolve(SalvataggioAutomatico.FILE_ISTANTANEA));
+
+		if(istantanea.remaining() < SalvataggioAutomatico.DIMENSIONE_INTESTAZIONE || istantanea.getInt() != SalvataggioAutomatico.NUMERO_MAGICO) {
+			throw new IllegalArgumentException("Formato file non valido");
+		}
+		return istantanea;
+	}
+
+	// Scorre in ordine le variazioni del giornale successive all'istantanea, fino alla prima scritta solo
+	// in parte, applicandole al salvataggio binario se questo non e' null; restituisce il numero
+	// dell'ultimo turno salvato per intero.
+	private static long scorriGiornale(Path cartella, long turnoIstantanea, ByteBuffer salvataggio, int[] posizioni) throws IllegalArgumentException, IOException {
+		ByteBuffer giornale;
+		try {
+			giornale = SalvataggioAutomatico.leggiFile(cartella.resolve(SalvataggioAutomatico.FILE_GIORNALE));
+		}
+		catch (FileNotFoundException e) {
+			giornale = ByteBuffer.allocate(0);
+		}
+
+		long turnoAtteso = turnoIstantanea + 1;
+		while(giornale.remaining() >= 4) {
+			int inizio = giornale.position();
+			int dimensioneCorpo = giornale.getInt();
+
+			if(dimensioneCorpo < SalvataggioAutomatico.DIMENSIONE_CORPO || dimensioneCorpo > giornale.remaining() - 4) {
+				break;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(giornale.array(), giornale.arrayOffset() + inizio + 4, dimensioneCorpo);
+			if(giornale.getInt(inizio + 4 + dimensioneCorpo) != (int) crc.getValue()) {
+				break;
+			}
+
+			long turnoVariazione = giornale.getLong();
+			// Variazioni gia' comprese nell'istantanea: l'interruzione e' avvenuta dopo aver sostituito
+			// l'istantanea ma prima di aver svuotato il giornale.
+			if(turnoVariazione < turnoAtteso) {
+				giornale.position(inizio + 4 + dimensioneCorpo + 4);
+				continue;
+			}
+			if(turnoVariazione != turnoAtteso) {
+				break;
+			}
+
+			if(salvataggio != null) {
+				try {
+					SalvataggioAutomatico.applicaVariazione(giornale, salvataggio, posizioni);
+				}
+				catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+					throw new IllegalArgumentException("Formato file non valido");
+				}
+			}
+			giornale.position(inizio + 4 + dimensioneCorpo + 4);
+			turnoAtteso++;
+		}
+		return turnoAtteso - 1;
+	}
+
+	// Applica al salvataggio binario la variazione che inizia dalla posizione corrente del giornale
+	// (subito dopo il numero del turno).
+	private static void applicaVariazione(ByteBuffer giornale, ByteBuffer salvataggio, int[] posizioni) throws IllegalArgumentException {
+		int numFrecce = giornale.getInt();
+		int punteggio = giornale.getInt();
+		int numElementi = giornale.getInt();
+		int latoMappa = salvataggio.getInt(8);
+
+		for(int i = 0; i < numElementi; i++) {
+			int elemento = giornale.getInt();
+			int casella = giornale.getInt();
+			byte inGioco = giornale.get();
+
+			if(elemento < 0 || elemento >= posizioni.length) {
+				throw new IllegalArgumentException("Formato file non valido");
+			}
+			salvataggio.putInt(posizioni[elemento], casella);
+			salvataggio.put(posizioni[elemento] + 4, inGioco);
+			// La casella raggiunta dall'Agente diventa scoperta
+			if(elemento == 0) {
+				Mappa.scopriCasella(salvataggio, latoMappa, casella);
+			}
+		}
+
+		// Le frecce e il punteggio seguono lo stato in gioco nel record dell'Agente
+		salvataggio.putInt(posizioni[0] + 5, numFrecce);
+		salvataggio.putInt(posizioni[0] + 9, punteggio);
+	}
+
+	/*
+	 * Metodo che restituisce l'intero contenuto di un file, letto attraverso un FileChannel.
+	 */
+	private static ByteBuffer leggiFile(Path file) throws IllegalArgumentException, IOException {
+		try (FileChannel canale = FileChannel.open(file, StandardOpenOption.READ)) {
+			long dimensione = canale.size();
+
+			if(dimensione > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Il file " + file.getFileName() + " e' troppo grande");
+			}
+
+			ByteBuffer contenuto = ByteBuffer.allocate((int) dimensione);
+			while(contenuto.hasRemaining() && canale.read(contenuto) != -1);
+			return contenuto.flip();
+		}
+		catch (NoSuchFileException e) {
+			// La cattura dell'eccezione rilancia l'eccezione al chiamante
+			FileNotFoundException nonTrovato = new FileNotFoundException("Il file " + file.getFileName() + " non esiste.");
+			nonTrovato.initCause(e);
+			throw nonTrovato;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package model.gioco;
+
+import model.elementi.Elemento;
+
+/*
+ * Tabella che associa l'indice di una casella della mappa (riga*latoMappa + colonna) all'Elemento
+ * in gioco che la occupa.
+ * E' una tabella hash ad indirizzamento aperto con scansione lineare: la memoria occupata e'
+ * proporzionale al numero di elementi presenti e non al numero di caselle della mappa, quindi
+ * puo' venire usata anche per mappe molto grandi; inserimento, ricerca e rimozione richiedono
+ * tempo costante (in media) e non allocano oggetti, salvo quando la tabella deve venire ingrandita.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+final class TabellaCaselle {
+	private int[] chiavi;
+	private Elemento[] valori;
+	private int dimensione;
+	
+	/*
+	 * Costruttore di TabellaCaselle.
+	 * 
+	 * @param numElementiPrevisti Numero di elementi che si prevede di inserire nella tabella.
+	 */
+	TabellaCaselle(int numElementiPrevisti) {
+		// La capacita' e' una potenza di 2 almeno doppia rispetto al numero di elementi previsti,
+		// in modo da mantenere il fattore di carico al di sotto di 0,5.
+		int capacita = Integer.highestOneBit(Math.max(8, numElementiPrevisti*2 - 1)) << 1;
+		this.chiavi = new int[capacita];
+		this.valori = new Elemento[capacita];
+	}
+	
+	/*
+	 * Metodo che restituisce l'Elemento che occupa la casella data, o null se la casella e' libera.
+	 */
+	Elemento get(int casella) {
+		int maschera = this.valori.length - 1;
+		
+		for(int i = TabellaCaselle.hash(casella) & maschera; this.valori[i] != null; i = (i + 1) & maschera) {
+			if(this.chiavi[i] == casella) {
+				return this.valori[i];
+			}
+		}
+		return null;
+	}
+	
+	/*
+	 * Metodo che colloca un Elemento nella casella data, purche' la casella sia libera.
+	 * Restituisce true se l'inserimento va a buon fine, false se la casella era gia' occupata.
+	 */
+	boolean inserisci(int casella, Elemento el) {
+		int maschera = this.valori.length - 1;
+		int i = TabellaCaselle.hash(casella) & maschera;
+		
+		for(; this.valori[i] != null; i = (i + 1) & maschera) {
+			if(this.chiavi[i] == casella) {
+				return false;
+			}
+		}
+		
+		this.chiavi[i] = casella;
+		this.valori[i] = el;
+		this.dimensione++;
+		
+		if(this.dimensione*2 > this.valori.length) {
+			this.ingrandisci();
+		}
+		return true;
+	}
+	
+	/*
+	 * Metodo che libera la casella data, ma solo se e' occupata proprio dall'Elemento indicato.
+	 * Restituisce true se la casella e' stata liberata, false altrimenti.
+	 */
+	boolean rimuovi(int casella, Elemento el) {
+		int maschera = this.valori.length - 1;
+		int i = TabellaCaselle.hash(casella) & maschera;
+		
+		while(this.valori[i] != null && this.chiavi[i] != casella) {
+			i = (i + 1) & maschera;
+		}
+		
+		if(this.valori[i] != el || el == null) {
+			return false;
+		}
+		
+		// Rimozione con spostamento all'indietro: le voci successive della stessa sequenza di
+		// scansione vengono spostate per riempire il buco, in modo che le ricerche successive
+		// non si interrompano prima del dovuto.
+		int buco = i;
+		
+		for(int j = (buco + 1) & maschera; this.valori[j] != null; j = (j + 1) & maschera) {
+			int ideale = TabellaCaselle.hash(this.chiavi[j]) & maschera;
+			
+			// La voce j puo' riempire il buco solo se la sua posizione ideale non si trova
+			// (circolarmente) tra il buco e j stessa.
+			if(((j - ideale) & maschera) >= ((j - buco) & maschera)) {
+				this.chiavi[buco] = this.chiavi[j];
+				this.valori[buco] = this.valori[j];
+				buco = j;
+			}
+		}
+		
+		this.valori[buco] = null;
+		this.dimensione--;
+		return true;
+	}
+	
+	/*
+	 * Metodo che restituisce il numero di caselle occupate.
+	 */
+	int dimensione() {
+		return this.dimensione;
+	}
+	
+	// Raddoppia la capacita' della tabella reinserendo tutte le voci.
+	private void ingrandisci() {
+		int[] vecchieChiavi = this.chiavi;
+		Elemento[] vecchiValori = this.valori;
+		
+		this.chiavi = new int[vecchieChiavi.length*2];
+		this.valori = new Elemento[vecchiValori.length*2];
+		this.dimensione = 0;
+		
+		for(int i = 0; i < vecchiValori.length; i++) {
+			if(vecchiValori[i] != null) {
+				this.inserisci(vecchieChiavi[i], vecchiValori[i]);
+			}
+		}
+	}
+	
+	// Dispersione degli indici di casella: caselle vicine finirebbero altrimenti in posizioni
+	// contigue della tabella, allungando le sequenze di scansione.
+	private static int hash(int casella) {
+		int h = casella * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,163 @@
+package model.gioco;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Temporizzatore condiviso da tutte le partite temporizzate (si veda Partita.avviaTemporizzazione):
+ * un unico thread demone gestisce le scadenze dei turni di tutte le partite con una ruota di
+ * temporizzazione (hashed timer wheel), che ad ogni tick esamina solo le scadenze della sua casella.
+ * I turni automatici delle scadenze trascorse vengono accodati nella casella dei comandi della partita
+ * (si veda EsecutoreTurni), quindi il temporizzatore non attende mai un turno in corso.
+ * <p>
+ * Rinviare una scadenza, cosa che avviene ad ogni turno di gioco, costa solo la scrittura di un campo
+ * volatile: la scadenza resta nella casella in cui si trova e, quando il tick la raggiunge e non e'
+ * ancora scaduta, viene spostata nella casella del nuovo istante. Le scadenze piu' lontane di un giro
+ * della ruota vengono spostate allo stesso modo ad ogni giro.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+final class Temporizzatore implements Runnable {
+	// Durata di un tick in nanosecondi: le scadenze vengono rispettate con questa precisione.
+	static final long DURATA_TICK = TimeUnit.MILLISECONDS.toNanos(20);
+	// Numero di caselle della ruota (potenza di 2): un giro della ruota dura poco piu' di 10 secondi.
+	private static final int NUMERO_CASELLE = 512;
+
+	/*
+	 * Scadenza del turno di una partita. Il thread della partita la rinvia ad ogni turno; il thread del
+	 * temporizzatore la tiene nella casella della ruota del suo istante.
+	 */
+	static final class Scadenza {
+		private final Partita partita;
+		private final long durata;
+		private volatile long istante;
+		private volatile boolean attiva;
+		// Vale true dal momento in cui il turno automatico viene accodato a quando viene eseguito.
+		private volatile boolean turnoAccodato;
+
+		private Scadenza(Partita partita, long durata) {
+			this.partita = partita;
+			this.durata = durata;
+			this.attiva = true;
+			this.rinvia();
+		}
+
+		// Sposta la scadenza ad un intervallo di durata da adesso.
+		void rinvia() {
+			this.istante = System.nanoTime() + this.durata;
+		}
+
+		// Annulla la scadenza: il temporizzatore la scarta al prossimo esame.
+		void annulla() {
+			this.attiva = false;
+		}
+
+		// Segnala che il turno automatico accodato e' stato eseguito (o scartato).
+		void turnoEseguito() {
+			this.turnoAccodato = false;
+		}
+
+		boolean isScaduta() {
+			return this.attiva && System.nanoTime() - this.istante >= 0;
+		}
+
+		// Durata del turno in millisecondi.
+		long getDurata() {
+			return TimeUnit.NANOSECONDS.toMillis(this.durata);
+		}
+	}
+
+	// Istanza condivisa, creata (e il suo thread avviato) al primo utilizzo.
+	private static final class Condiviso {
+		private static final Temporizzatore ISTANZA = new Temporizzatore("temporizzatore-turni");
+	}
+
+	// Scadenze aggiunte dagli altri thread, in attesa di essere inserite nella ruota.
+	private final ConcurrentLinkedQueue<Scadenza> nuoveScadenze;
+	// Caselle della ruota, usate solo dal thread del temporizzatore.
+	private final List<List<Scadenza>> caselle;
+	// Casella vuota che sostituisce quella esaminata ad ogni tick.
+	private List<Scadenza> casellaVuota;
+	private final long inizio;
+	private long tickCorrente;
+
+	private Temporizzatore(String nomeThread) {
+		this.nuoveScadenze = new ConcurrentLinkedQueue<Scadenza>();
+		this.caselle = new ArrayList<List<Scadenza>>(Temporizzatore.NUMERO_CASELLE);
+		for(int i = 0; i < Temporizzatore.NUMERO_CASELLE; i++) {
+			this.caselle.add(new ArrayList<Scadenza>());
+		}
+		this.casellaVuota = new ArrayList<Scadenza>();
+		this.inizio = System.nanoTime();
+		this.tickCorrente = 0;
+
+		Thread thread = new Thread(this, nomeThread);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/*
+	 * Metodo statico che crea la scadenza del turno di una partita, con la durata data in millisecondi,
+	 * e la affida al temporizzatore condiviso.
+	 */
+	static Scadenza programma(Partita partita, long millisecondi) {
+		Scadenza scadenza = new Scadenza(partita, TimeUnit.MILLISECONDS.toNanos(millisecondi));
+
+		Temporizzatore.Condiviso.ISTANZA.nuoveScadenze.add(scadenza);
+		return scadenza;
+	}
+
+	@Override
+	public void run() {
+		// Ciclo infinito: il temporizzatore viene creato come thread demone
+		while(true) {
+			long prossimoTick = this.inizio + (this.tickCorrente + 1)*Temporizzatore.DURATA_TICK;
+			long attesa;
+			while((attesa = prossimoTick - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(attesa);
+			}
+			this.tickCorrente++;
+
+			Scadenza nuova;
+			while((nuova = this.nuoveScadenze.poll()) != null) {
+				this.inserisci(nuova);
+			}
+
+			int indice = (int) (this.tickCorrente & (Temporizzatore.NUMERO_CASELLE - 1));
+			List<Scadenza> casella = this.caselle.get(indice);
+			if(casella.isEmpty()) {
+				continue;
+			}
+
+			// La casella viene sostituita prima dell'esame, perche' le scadenze rinviate di un giro
+			// esatto della ruota tornano nella stessa casella.
+			this.caselle.set(indice, this.casellaVuota);
+			for(Scadenza scadenza : casella) {
+				// Il turno automatico viene accodato nella casella dei comandi della partita, una sola volta
+				// finche' non e' stato eseguito
+				if(!(scadenza.turnoAccodato) && scadenza.isScaduta()) {
+					scadenza.turnoAccodato = true;
+					scadenza.partita.scadenzaTrascorsa(scadenza);
+				}
+				if(scadenza.attiva) {
+					this.inserisci(scadenza);
+				}
+			}
+			casella.clear();
+			this.casellaVuota = casella;
+		}
+	}
+
+	// Inserisce una scadenza nella casella del suo istante, o in quella del prossimo tick se l'istante
+	// e' gia' passato.
+	private void inserisci(Scadenza scadenza) {
+		long tick = Math.max(this.tickCorrente + 1, Math.floorDiv(scadenza.istante - this.inizio + Temporizzatore.DURATA_TICK - 1, Temporizzatore.DURATA_TICK));
+
+		this.caselle.get((int) (tick & (Temporizzatore.NUMERO_CASELLE - 1))).add(scadenza);
+	}
+}
@@ -0,0 +1,19 @@
+package model.gioco;
+
+/**
+ * Enumerativo dei tipi di azione che l'Agente puo' compiere durante un turno di gioco.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public enum TipoAzione {
+	/**
+	 * L'Agente si sposta in una casella adiacente.
+	 */
+	VAI,
+	/**
+	 * L'Agente scaglia una freccia verso una casella adiacente.
+	 */
+	FRECCIA
+}
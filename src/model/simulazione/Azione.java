@@ -0,0 +1,79 @@
+package model.simulazione;
+
+import model.gioco.Direzioni;
+import model.gioco.TipoAzione;
+
+/**
+ * Classe che rappresenta un'azione dell'Agente durante un turno di gioco: uno spostamento (TipoAzione.VAI)
+ * o il lancio di una freccia (TipoAzione.FRECCIA) in una delle direzioni dell'enumerativo Direzioni.
+ * Le azioni possibili sono solo otto, quindi vengono create una volta sola e condivise: per ottenerle si
+ * usano i metodi statici vai e freccia.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class Azione {
+	private final TipoAzione tipo;
+	private final Direzioni direzione;
+	
+	private static final Azione[] SPOSTAMENTI = Azione.creaAzioni(TipoAzione.VAI);
+	private static final Azione[] FRECCE = Azione.creaAzioni(TipoAzione.FRECCIA);
+	
+	private Azione(TipoAzione tipo, Direzioni direzione) {
+		this.tipo = tipo;
+		this.direzione = direzione;
+	}
+	
+	private static Azione[] creaAzioni(TipoAzione tipo) {
+		Azione[] azioni = new Azione[Direzioni.values().length];
+		
+		for(Direzioni direzione : Direzioni.values()) {
+			azioni[direzione.ordinal()] = new Azione(tipo, direzione);
+		}
+		return azioni;
+	}
+	
+	/**
+	 * Metodo statico che restituisce l'azione di spostamento dell'Agente nella direzione data.
+	 * 
+	 * @param direzione Direzione dello spostamento.
+	 * @return Azione di spostamento.
+	 */
+	public static Azione vai(Direzioni direzione) {
+		return Azione.SPOSTAMENTI[direzione.ordinal()];
+	}
+	
+	/**
+	 * Metodo statico che restituisce l'azione di lancio di una freccia nella direzione data.
+	 * 
+	 * @param direzione Direzione in cui scagliare la freccia.
+	 * @return Azione di lancio di una freccia.
+	 */
+	public static Azione freccia(Direzioni direzione) {
+		return Azione.FRECCE[direzione.ordinal()];
+	}
+	
+	/**
+	 * Metodo che restituisce il tipo di azione, nella forma accettata da Partita.eseguiTurno.
+	 * 
+	 * @return TipoAzione.VAI o TipoAzione.FRECCIA.
+	 */
+	public TipoAzione getTipo() {
+		return this.tipo;
+	}
+	
+	/**
+	 * Metodo che restituisce la direzione in cui avviene l'azione.
+	 * 
+	 * @return Direzione dell'azione.
+	 */
+	public Direzioni getDirezione() {
+		return this.direzione;
+	}
+	
+	@Override
+	public String toString() {
+		return this.getTipo().name() + " " + this.getDirezione().name();
+	}
+}
@@ -0,0 +1,23 @@
+package model.simulazione;
+
+/**
+ * Enumerativo dei possibili esiti di una partita giocata dal Simulatore.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public enum EsitoPartita {
+	/**
+	 * L'Agente ha ucciso il Wumpus.
+	 */
+	VITTORIA,
+	/**
+	 * L'Agente e' stato ucciso dal Wumpus o e' caduto in una voragine.
+	 */
+	SCONFITTA,
+	/**
+	 * La partita e' stata interrotta perche' ha raggiunto il numero massimo di turni.
+	 */
+	INTERROTTA
+}
@@ -0,0 +1,31 @@
+package model.simulazione;
+
+import java.util.SplittableRandom;
+
+import model.gioco.Partita;
+
+/**
+ * Interfaccia che rappresenta una strategia di gioco per l'Agente, usata dal Simulatore per giocare le
+ * partite senza un giocatore umano.
+ * Il Simulatore crea una nuova istanza della politica per ogni partita, quindi un'implementazione puo'
+ * conservare nei propri campi informazioni sulla partita in corso (ad esempio le caselle gia' visitate)
+ * senza preoccuparsi di altre partite giocate in parallelo.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public interface PoliticaAgente {
+	
+	/**
+	 * Metodo che sceglie l'azione che l'Agente deve compiere nel turno corrente.
+	 * La politica puo' osservare la partita (posizione dell'Agente, percezioni della sua casella, frecce
+	 * rimaste...) ma non deve modificarla: sara' il Simulatore ad eseguire il turno con l'azione scelta.
+	 * 
+	 * @param partita Partita in corso.
+	 * @param generatore Generatore di numeri casuali riservato alla partita in corso, da usare per le
+	 * 		scelte casuali in modo che siano riproducibili a partire dal seme della simulazione.
+	 * @return Azione da compiere.
+	 */
+	Azione scegliAzione(Partita partita, SplittableRandom generatore);
+}
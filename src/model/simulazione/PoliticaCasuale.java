@@ -0,0 +1,29 @@
+package model.simulazione;
+
+import java.util.SplittableRandom;
+
+import model.gioco.Direzioni;
+import model.gioco.Partita;
+
+/**
+ * Politica di gioco elementare: l'Agente si sposta in una direzione scelta a caso, ma se nella sua
+ * casella si sente la puzza del Wumpus e ha ancora frecce ne scaglia una in una direzione scelta a caso.
+ * Serve come termine di paragone per politiche piu' elaborate.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public class PoliticaCasuale implements PoliticaAgente {
+	private static final Direzioni[] DIREZIONI = Direzioni.values();
+
+	@Override
+	public Azione scegliAzione(Partita partita, SplittableRandom generatore) {
+		Direzioni direzione = PoliticaCasuale.DIREZIONI[generatore.nextInt(PoliticaCasuale.DIREZIONI.length)];
+		
+		if(partita.getAgente().getNumFrecce() > 0 && partita.getMappaDiGioco().controllaPuzza(partita.getAgente())) {
+			return Azione.freccia(direzione);
+		}
+		return Azione.vai(direzione);
+	}
+}
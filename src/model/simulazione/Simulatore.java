@@ -0,0 +1,198 @@
+package model.simulazione;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import model.gioco.Partita;
+
+/**
+ * Classe che gioca automaticamente un gran numero di partite complete, senza interfaccia grafica, facendo
+ * scegliere le azioni dell'Agente ad una PoliticaAgente, e ne raccoglie le statistiche.
+ * Le partite vengono distribuite a blocchi su di un pool di thread (di default uno per ogni processore
+ * disponibile); ogni partita e' indipendente dalle altre: ha la propria Mappa, la propria istanza della
+ * politica e il proprio generatore di numeri casuali, ricavato dal seme della simulazione e dal numero
+ * della partita, e non ha alcun temporizzatore o listener grafico collegato. A parita' di seme e di
+ * politica la simulazione produce quindi sempre le stesse statistiche, qualunque sia il numero di thread.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public class Simulatore {
+	private final long numPartite;
+	private final long seme;
+	private final Supplier<? extends PoliticaAgente> fabbricaPolitiche;
+	private final int maxTurni;
+	private final int numThread;
+	private final int[] parametriMappa;
+	
+	/**
+	 * Numero massimo di turni di default per una partita simulata.
+	 */
+	public static final int DEFAULT_MAX_TURNI = 1000;
+	
+	/*
+	 * Numero di partite assegnate ad un thread in un colpo solo: abbastanza grande da rendere trascurabile
+	 * il costo della distribuzione del lavoro, abbastanza piccolo da bilanciare il carico tra i thread.
+	 */
+	private static final int DIMENSIONE_BLOCCO = 256;
+	
+	/**
+	 * Costruttore per Simulatore.
+	 * 
+	 * @param numPartite Numero di partite da giocare.
+	 * @param seme Seme da cui ricavare i generatori di numeri casuali delle partite.
+	 * @param fabbricaPolitiche Fornisce una nuova istanza della politica dell'Agente per ogni partita.
+	 * @param maxTurni Numero massimo di turni dopo il quale una partita viene interrotta (ad esempio
+	 * 		DEFAULT_MAX_TURNI).
+	 * @param numThread Numero di thread su cui distribuire le partite (ad esempio il numero di processori
+	 * 		disponibili).
+	 * @param parametriMappa Parametri opzionali per le mappe, come per Partita.avviaPartita: latoMappa,
+	 * 		probabilitaVoragine, numTesori, numSuperstiti e numCuccioli.
+	 * @throws IllegalArgumentException Se numPartite e' negativo, se fabbricaPolitiche e' null, se maxTurni
+	 * 		o numThread non sono strettamente positivi.
+	 */
+	public Simulatore(long numPartite, long seme, Supplier<? extends PoliticaAgente> fabbricaPolitiche, int maxTurni, int numThread, int... parametriMappa) throws IllegalArgumentException {
+		if(numPartite < 0) {
+			throw new IllegalArgumentException("Il numero di partite non puo' essere negativo");
+		}
+		
+		if(fabbricaPolitiche == null) {
+			throw new IllegalArgumentException("E' necessario indicare la politica dell'agente");
+		}
+		
+		if(maxTurni < 1) {
+			throw new IllegalArgumentException("Il numero massimo di turni deve essere un valore positivo");
+		}
+		
+		if(numThread < 1) {
+			throw new IllegalArgumentException("Il numero di thread deve essere un valore positivo");
+		}
+		
+		this.numPartite = numPartite;
+		this.seme = seme;
+		this.fabbricaPolitiche = fabbricaPolitiche;
+		this.maxTurni = maxTurni;
+		this.numThread = numThread;
+		this.parametriMappa = parametriMappa.clone();
+	}
+	
+	/**
+	 * Metodo che gioca tutte le partite della simulazione e ne restituisce le statistiche.
+	 * 
+	 * @return Statistiche della simulazione.
+	 * @throws InterruptedException Se il thread chiamante viene interrotto durante la simulazione.
+	 * @throws IllegalStateException Se una partita non puo' essere giocata (ad esempio perche' i parametri
+	 * 		della mappa non sono validi o perche' la politica dell'Agente lancia un'eccezione).
+	 */
+	public StatisticheSimulazione esegui() throws InterruptedException, IllegalStateException {
+		ExecutorService esecutore = Executors.newFixedThreadPool(this.numThread, compito -> {
+			Thread thread = new Thread(compito, "simulatore-wumpus");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long inizio = System.nanoTime();
+		
+		try {
+			List<Future<StatisticheSimulazione>> blocchi = new ArrayList<Future<StatisticheSimulazione>>();
+			
+			for(long primaPartita = 0; primaPartita < this.numPartite; primaPartita += Simulatore.DIMENSIONE_BLOCCO) {
+				long inizioBlocco = primaPartita;
+				long fineBlocco = Math.min(this.numPartite, primaPartita + Simulatore.DIMENSIONE_BLOCCO);
+				
+				blocchi.add(esecutore.submit(() -> this.giocaBlocco(inizioBlocco, fineBlocco)));
+			}
+			
+			StatisticheSimulazione statistiche = new StatisticheSimulazione();
+			
+			for(Future<StatisticheSimulazione> blocco : blocchi) {
+				statistiche.unisci(blocco.get());
+			}
+			statistiche.setDurataNanosecondi(System.nanoTime() - inizio);
+			return statistiche;
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Simulazione non riuscita: " + e.getCause(), e.getCause());
+		}
+		finally {
+			esecutore.shutdownNow();
+		}
+	}
+	
+	// Gioca le partite con numero compreso tra inizio (incluso) e fine (escluso), accumulandone
+	// le statistiche in un oggetto riservato al blocco.
+	private StatisticheSimulazione giocaBlocco(long inizio, long fine) {
+		StatisticheSimulazione statistiche = new StatisticheSimulazione();
+		
+		for(long i = inizio; i < fine; i++) {
+			this.giocaPartita(i, statistiche);
+		}
+		return statistiche;
+	}
+	
+	// Gioca una partita completa (o fino al numero massimo di turni) e ne registra l'esito.
+	private void giocaPartita(long numeroPartita, StatisticheSimulazione statistiche) {
+		SplittableRandom generatore = new SplittableRandom(Simulatore.semePartita(this.seme, numeroPartita));
+		// La Mappa e i turni usano un generatore ricavato da quello della politica, in modo che l'intera
+		// partita dipenda solo dal suo seme.
+		Partita partita = Partita.avviaPartita(false, generatore.split(), this.parametriMappa);
+		PoliticaAgente politica = this.fabbricaPolitiche.get();
+		int turni = 0;
+		
+		while(partita.getAgente().getInGioco() && partita.getWumpus().getInGioco() && turni < this.maxTurni) {
+			Azione azione = politica.scegliAzione(partita, generatore);
+			// Il turno viene eseguito senza costruirne la descrizione testuale, che nessuno leggerebbe.
+			partita.eseguiTurno(azione.getTipo(), azione.getDirezione());
+			turni++;
+		}
+		
+		EsitoPartita esito;
+		
+		if(!(partita.getWumpus().getInGioco())) {
+			esito = EsitoPartita.VITTORIA;
+		}
+		else if(!(partita.getAgente().getInGioco())) {
+			esito = EsitoPartita.SCONFITTA;
+		}
+		else {
+			esito = EsitoPartita.INTERROTTA;
+		}
+		statistiche.registra(esito, partita.getAgente().getPunteggio(), turni);
+	}
+	
+	/*
+	 * Ricava il seme di una partita dal seme della simulazione e dal numero della partita, in modo che
+	 * ogni partita abbia la propria sequenza di numeri casuali indipendentemente dal thread che la gioca
+	 * e dall'ordine in cui le partite vengono giocate (funzione di rimescolamento di SplitMix64).
+	 */
+	static long semePartita(long seme, long numeroPartita) {
+		long z = seme + (numeroPartita + 1)*0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Metodo main che avvia una simulazione con la PoliticaCasuale e mappe di default e ne stampa le
+	 * statistiche.
+	 * Argomenti opzionali: numero di partite (default 10000), seme (default 0), numero di thread (default
+	 * uno per processore).
+	 * 
+	 * @param args Argomenti della riga di comando.
+	 * @throws InterruptedException Se la simulazione viene interrotta.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		long numPartite = args.length > 0 ? Long.parseLong(args[0]) : 10000;
+		long seme = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		int numThread = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		
+		Simulatore simulatore = new Simulatore(numPartite, seme, PoliticaCasuale::new, Simulatore.DEFAULT_MAX_TURNI, numThread);
+		System.out.println(simulatore.esegui());
+	}
+}
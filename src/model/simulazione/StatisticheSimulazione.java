@@ -0,0 +1,223 @@
+package model.simulazione;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Classe che raccoglie le statistiche di una simulazione: numero di partite giocate e loro esito,
+ * distribuzione dei punteggi finali dell'Agente, numero di turni giocati e durata della simulazione.
+ * Durante la simulazione ogni thread del Simulatore accumula le proprie statistiche in un oggetto
+ * separato, e gli oggetti vengono uniti al termine: i metodi che modificano le statistiche non sono
+ * quindi sincronizzati e non sono pubblici.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public class StatisticheSimulazione {
+	private long numPartite;
+	private long numVittorie;
+	private long numSconfitte;
+	private long numInterrotte;
+	private long numTurni;
+	private long sommaPunteggi;
+	private int punteggioMinimo = Integer.MAX_VALUE;
+	private int punteggioMassimo = Integer.MIN_VALUE;
+	// Numero di partite terminate con ciascun punteggio: i punteggi possibili sono pochi
+	// (multipli di 50 nella maggior parte dei casi), quindi la distribuzione resta piccola.
+	private final TreeMap<Integer, Long> distribuzionePunteggi = new TreeMap<Integer, Long>();
+	private long durataNanosecondi;
+	
+	/*
+	 * Registra l'esito di una partita.
+	 */
+	void registra(EsitoPartita esito, int punteggio, int turni) {
+		this.numPartite++;
+		switch (esito) {
+			case VITTORIA -> this.numVittorie++;
+			case SCONFITTA -> this.numSconfitte++;
+			case INTERROTTA -> this.numInterrotte++;
+		}
+		this.numTurni += turni;
+		this.sommaPunteggi += punteggio;
+		this.punteggioMinimo = Math.min(this.punteggioMinimo, punteggio);
+		this.punteggioMassimo = Math.max(this.punteggioMassimo, punteggio);
+		this.distribuzionePunteggi.merge(punteggio, 1L, Long::sum);
+	}
+	
+	/*
+	 * Aggiunge a queste statistiche quelle raccolte in un altro oggetto.
+	 */
+	void unisci(StatisticheSimulazione altre) {
+		this.numPartite += altre.numPartite;
+		this.numVittorie += altre.numVittorie;
+		this.numSconfitte += altre.numSconfitte;
+		this.numInterrotte += altre.numInterrotte;
+		this.numTurni += altre.numTurni;
+		this.sommaPunteggi += altre.sommaPunteggi;
+		this.punteggioMinimo = Math.min(this.punteggioMinimo, altre.punteggioMinimo);
+		this.punteggioMassimo = Math.max(this.punteggioMassimo, altre.punteggioMassimo);
+		for(Map.Entry<Integer, Long> voce : altre.distribuzionePunteggi.entrySet()) {
+			this.distribuzionePunteggi.merge(voce.getKey(), voce.getValue(), Long::sum);
+		}
+	}
+	
+	void setDurataNanosecondi(long durataNanosecondi) {
+		this.durataNanosecondi = durataNanosecondi;
+	}
+	
+	/**
+	 * Metodo che restituisce il numero di partite giocate.
+	 * 
+	 * @return Numero di partite giocate.
+	 */
+	public long getNumPartite() {
+		return this.numPartite;
+	}
+	
+	/**
+	 * Metodo che restituisce il numero di partite in cui l'Agente ha ucciso il Wumpus.
+	 * 
+	 * @return Numero di partite vinte.
+	 */
+	public long getNumVittorie() {
+		return this.numVittorie;
+	}
+	
+	/**
+	 * Metodo che restituisce il numero di partite in cui l'Agente e' stato eliminato.
+	 * 
+	 * @return Numero di partite perse.
+	 */
+	public long getNumSconfitte() {
+		return this.numSconfitte;
+	}
+	
+	/**
+	 * Metodo che restituisce il numero di partite interrotte per aver raggiunto il numero massimo di turni.
+	 * 
+	 * @return Numero di partite interrotte.
+	 */
+	public long getNumInterrotte() {
+		return this.numInterrotte;
+	}
+	
+	/**
+	 * Metodo che restituisce il numero complessivo di turni giocati in tutte le partite.
+	 * 
+	 * @return Numero di turni giocati.
+	 */
+	public long getNumTurni() {
+		return this.numTurni;
+	}
+	
+	/**
+	 * Metodo che restituisce la frazione di partite vinte.
+	 * 
+	 * @return Frazione (tra 0 e 1) di partite vinte, 0 se non e' stata giocata alcuna partita.
+	 */
+	public double getPercentualeVittorie() {
+		return this.numPartite == 0 ? 0 : (double) this.numVittorie/this.numPartite;
+	}
+	
+	/**
+	 * Metodo che restituisce il punteggio medio ottenuto dall'Agente.
+	 * 
+	 * @return Punteggio medio, 0 se non e' stata giocata alcuna partita.
+	 */
+	public double getPunteggioMedio() {
+		return this.numPartite == 0 ? 0 : (double) this.sommaPunteggi/this.numPartite;
+	}
+	
+	/**
+	 * Metodo che restituisce il punteggio minimo ottenuto dall'Agente.
+	 * 
+	 * @return Punteggio minimo, 0 se non e' stata giocata alcuna partita.
+	 */
+	public int getPunteggioMinimo() {
+		return this.numPartite == 0 ? 0 : this.punteggioMinimo;
+	}
+	
+	/**
+	 * Metodo che restituisce il punteggio massimo ottenuto dall'Agente.
+	 * 
+	 * @return Punteggio massimo, 0 se non e' stata giocata alcuna partita.
+	 */
+	public int getPunteggioMassimo() {
+		return this.numPartite == 0 ? 0 : this.punteggioMassimo;
+	}
+	
+	/**
+	 * Metodo che restituisce il punteggio al di sotto del quale (estremo compreso) si trova la frazione
+	 * richiesta delle partite; ad esempio getPercentilePunteggio(0.5) restituisce il punteggio mediano.
+	 * 
+	 * @param frazione Frazione di partite, tra 0 e 1.
+	 * @return Percentile richiesto, 0 se non e' stata giocata alcuna partita.
+	 * @throws IllegalArgumentException Se la frazione non e' compresa tra 0 e 1.
+	 */
+	public int getPercentilePunteggio(double frazione) throws IllegalArgumentException {
+		if(!(frazione >= 0 && frazione <= 1)) {
+			throw new IllegalArgumentException("La frazione deve essere compresa tra 0 e 1");
+		}
+		
+		long soglia = (long) Math.ceil(frazione*this.numPartite);
+		long cumulato = 0;
+		
+		for(Map.Entry<Integer, Long> voce : this.distribuzionePunteggi.entrySet()) {
+			cumulato += voce.getValue();
+			if(cumulato >= soglia) {
+				return voce.getKey();
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Metodo che restituisce la distribuzione dei punteggi: a ogni punteggio ottenuto e' associato il
+	 * numero di partite terminate con quel punteggio.
+	 * 
+	 * @return Distribuzione dei punteggi, in sola lettura e ordinata per punteggio.
+	 */
+	public SortedMap<Integer, Long> getDistribuzionePunteggi() {
+		return Collections.unmodifiableSortedMap(this.distribuzionePunteggi);
+	}
+	
+	/**
+	 * Metodo che restituisce la durata della simulazione.
+	 * 
+	 * @return Durata della simulazione in nanosecondi.
+	 */
+	public long getDurataNanosecondi() {
+		return this.durataNanosecondi;
+	}
+	
+	/**
+	 * Metodo che restituisce il numero di partite giocate al secondo.
+	 * 
+	 * @return Partite al secondo, 0 se la durata non e' nota.
+	 */
+	public double getPartiteAlSecondo() {
+		return this.durataNanosecondi == 0 ? 0 : this.numPartite*1e9/this.durataNanosecondi;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder();
+		
+		res.append("Partite giocate: ").append(this.getNumPartite());
+		res.append(String.format("%nPartite al secondo: %.1f", this.getPartiteAlSecondo()));
+		res.append(String.format("%nVittorie: %d (%.2f%%)", this.getNumVittorie(), 100*this.getPercentualeVittorie()));
+		res.append("\nSconfitte: ").append(this.getNumSconfitte());
+		res.append("\nPartite interrotte: ").append(this.getNumInterrotte());
+		res.append(String.format("%nTurni per partita: %.1f", this.numPartite == 0 ? 0 : (double) this.numTurni/this.numPartite));
+		res.append(String.format("%nPunteggio medio: %.1f", this.getPunteggioMedio()));
+		res.append("\nPunteggio minimo: ").append(this.getPunteggioMinimo());
+		res.append("\nPunteggio mediano: ").append(this.getPercentilePunteggio(0.5));
+		res.append("\nPunteggio al 90mo percentile: ").append(this.getPercentilePunteggio(0.9));
+		res.append("\nPunteggio al 99mo percentile: ").append(this.getPercentilePunteggio(0.99));
+		res.append("\nPunteggio massimo: ").append(this.getPunteggioMassimo());
+		return res.toString();
+	}
+}
@@ -0,0 +1,9 @@
+/**
+ * Pacchetto che contiene le classi per la simulazione automatica (senza interfaccia grafica) di un gran
+ * numero di partite del gioco del Wumpus, usata per valutare le strategie di gioco dell'Agente.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+package model.simulazione;
@@ -0,0 +1,245 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.gioco.Direzioni;
+import model.gioco.EsitoTurno;
+
+/**
+ * Classe che genera carico su di un ServerPartite o di un ServerNio: apre il numero di sessioni dato,
+ * tutte insieme, e in ognuna gioca il numero di turni dato (avviando una nuova partita quando la precedente termina),
+ * misurando il tempo tra l'invio di ogni comando e la ricezione della risposta.
+ * I turni vengono misurati solo quando tutte le sessioni sono aperte, in modo che le latenze
+ * si riferiscano al numero di sessioni contemporanee richiesto.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public class ClienteCarico {
+	private final int porta;
+	private final int numSessioni;
+	private final int turniPerSessione;
+	private final long seme;
+
+	/**
+	 * Classe che raccoglie i risultati di una prova di carico.
+	 */
+	public static final class Risultato {
+		private final int numSessioni;
+		private final long[] latenze;
+		private final long durata;
+
+		private Risultato(int numSessioni, long[] latenze, long durata) {
+			this.numSessioni = numSessioni;
+			this.latenze = latenze;
+			this.durata = durata;
+		}
+
+		/**
+		 * Metodo che restituisce il numero di turni giocati.
+		 *
+		 * @return Numero di turni giocati in tutte le sessioni.
+		 */
+		public int getNumeroTurni() {
+			return this.latenze.length;
+		}
+
+		/**
+		 * Metodo che restituisce un percentile della latenza di un turno.
+		 *
+		 * @param percentile Percentile, tra 0 e 100.
+		 * @return Latenza in nanosecondi.
+		 * @throws IllegalArgumentException Se il percentile non e' compreso tra 0 e 100.
+		 * @throws IllegalStateException Se non e' stato giocato nessun turno.
+		 */
+		public long getPercentile(double percentile) throws IllegalArgumentException, IllegalStateException {
+			if(percentile < 0 || percentile > 100) {
+				throw new IllegalArgumentException("Il percentile deve essere compreso tra 0 e 100");
+			}
+
+			if(this.latenze.length == 0) {
+				throw new IllegalStateException("Nessun turno giocato");
+			}
+
+			int indice = (int) Math.ceil(percentile/100*this.latenze.length) - 1;
+			return this.latenze[Math.max(indice, 0)];
+		}
+
+		/**
+		 * Metodo che restituisce il numero di turni giocati al secondo, in tutte le sessioni.
+		 *
+		 * @return Turni al secondo.
+		 */
+		public double getTurniAlSecondo() {
+			return this.durata == 0 ? 0 : this.latenze.length*1e9/this.durata;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Sessioni: %d, turni: %d, turni al secondo: %.0f, latenza p50: %d us, p99: %d us",
+					this.numSessioni, this.latenze.length, this.getTurniAlSecondo(), this.getPercentile(50)/1000, this.getPercentile(99)/1000);
+		}
+	}
+
+	/**
+	 * Costruttore di ClienteCarico.
+	 *
+	 * @param porta Porta del server sull'indirizzo locale.
+	 * @param numSessioni Numero di sessioni contemporanee.
+	 * @param turniPerSessione Numero di turni da giocare in ogni sessione.
+	 * @param seme Seme del generatore delle azioni delle sessioni.
+	 * @throws IllegalArgumentException Se numSessioni o turniPerSessione non sono strettamente positivi.
+	 */
+	public ClienteCarico(int porta, int numSessioni, int turniPerSessione, long seme) throws IllegalArgumentException {
+		if(numSessioni < 1) {
+			throw new IllegalArgumentException("Il numero di sessioni deve essere un valore positivo");
+		}
+
+		if(turniPerSessione < 1) {
+			throw new IllegalArgumentException("Il numero di turni deve essere un valore positivo");
+		}
+
+		this.porta = porta;
+		this.numSessioni = numSessioni;
+		this.turniPerSessione = turniPerSessione;
+		this.seme = seme;
+	}
+
+	/**
+	 * Metodo che esegue la prova di carico e ne restituisce i risultati.
+	 *
+	 * @return Risultati della prova.
+	 * @throws IOException Se una sessione non riesce a comunicare con il server.
+	 * @throws InterruptedException Se il thread chiamante viene interrotto durante la prova.
+	 */
+	public Risultato esegui() throws IOException, InterruptedException {
+		ExecutorService esecutore = Executors.newFixedThreadPool(this.numSessioni, compito -> {
+			Thread thread = new Thread(compito, "cliente-carico");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CountDownLatch sessioniAperte = new CountDownLatch(this.numSessioni);
+		CountDownLatch partenza = new CountDownLatch(1);
+
+		try {
+			List<Future<long[]>> sessioni = new ArrayList<Future<long[]>>();
+			for(int i = 0; i < this.numSessioni; i++) {
+				SplittableRandom generatore = new SplittableRandom(this.seme + i);
+
+				sessioni.add(esecutore.submit(() -> this.giocaSessione(generatore, sessioniAperte, partenza)));
+			}
+
+			sessioniAperte.await();
+			long inizio = System.nanoTime();
+			partenza.countDown();
+
+			long[] latenze = new long[this.numSessioni*this.turniPerSessione];
+			int numLatenze = 0;
+			for(Future<long[]> sessione : sessioni) {
+				long[] latenzeSessione = sessione.get();
+
+				System.arraycopy(latenzeSessione, 0, latenze, numLatenze, latenzeSessione.length);
+				numLatenze += latenzeSessione.length;
+			}
+			long durata = System.nanoTime() - inizio;
+
+			Arrays.sort(latenze);
+			return new Risultato(this.numSessioni, latenze, durata);
+		}
+		catch (ExecutionException e) {
+			throw new IOException("Prova di carico non riuscita: " + e.getCause(), e.getCause());
+		}
+		finally {
+			esecutore.shutdownNow();
+		}
+	}
+
+	// Apre una sessione, attende che tutte le altre siano aperte e gioca i turni, restituendone le latenze.
+	private long[] giocaSessione(SplittableRandom generatore, CountDownLatch sessioniAperte, CountDownLatch partenza) throws IOException, InterruptedException {
+		long[] latenze = new long[this.turniPerSessione];
+		boolean aperta = false;
+
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.porta);
+				BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				Writer scrittore = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+			socket.setTcpNoDelay(true);
+			ClienteCarico.verifica(lettore.readLine(), "BENVENUTO");
+			aperta = true;
+			sessioniAperte.countDown();
+			partenza.await();
+
+			for(int i = 0; i < this.turniPerSessione; i++) {
+				String comando = (generatore.nextInt(4) == 0 ? "FRECCIA " : "VAI ") + Direzioni.spostamentoRandom(generatore).name();
+
+				long inizio = System.nanoTime();
+				ClienteCarico.invia(scrittore, comando);
+				String risposta = lettore.readLine();
+				latenze[i] = System.nanoTime() - inizio;
+
+				ClienteCarico.verifica(risposta, "ESITO");
+				int esito = Integer.parseInt(risposta.split(" ")[1]);
+				if(esito == 0 || EsitoTurno.contiene(esito, EsitoTurno.PARTITA_TERMINATA)) {
+					ClienteCarico.invia(scrittore, "NUOVA");
+					ClienteCarico.verifica(lettore.readLine(), "OK");
+				}
+			}
+
+			ClienteCarico.invia(scrittore, "ESCI");
+			ClienteCarico.verifica(lettore.readLine(), "CIAO");
+		}
+		finally {
+			// Una sessione non riuscita non deve bloccare le altre in attesa della partenza
+			if(!aperta) {
+				sessioniAperte.countDown();
+			}
+		}
+		return latenze;
+	}
+
+	private static void invia(Writer scrittore, String comando) throws IOException {
+		scrittore.write(comando);
+		scrittore.write('\n');
+		scrittore.flush();
+	}
+
+	private static void verifica(String risposta, String attesa) throws IOException {
+		if(risposta == null || !(risposta.startsWith(attesa))) {
+			throw new IOException("Risposta inattesa dal server: " + risposta);
+		}
+	}
+
+	/**
+	 * Metodo main che esegue una prova di carico su di un server gia' avviato e ne stampa i risultati.
+	 * Argomenti opzionali: porta (default ServerPartite.DEFAULT_PORTA), numero di sessioni (default 1000),
+	 * turni per sessione (default 100).
+	 *
+	 * @param args Argomenti della riga di comando.
+	 * @throws IOException Se la prova non riesce.
+	 * @throws InterruptedException Se la prova viene interrotta.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int porta = args.length > 0 ? Integer.parseInt(args[0]) : ServerPartite.DEFAULT_PORTA;
+		int numSessioni = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int turniPerSessione = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+		System.out.println(new ClienteCarico(porta, numSessioni, turniPerSessione, 0).esegui());
+	}
+}
@@ -0,0 +1,527 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import model.gioco.Direzioni;
+import model.gioco.Partita;
+import model.gioco.TipoAzione;
+
+/**
+ * Classe che ospita molte partite senza interfaccia grafica con lo stesso protocollo testuale di
+ * ServerPartite, servendo tutte le connessioni da un unico thread con un Selector, senza un thread per
+ * connessione: in questo modo un solo processo puo' tenere aperte decine di migliaia di connessioni.
+ * <p>
+ * I comandi vengono riconosciuti direttamente nei byte ricevuti, senza costruire stringhe, e i turni
+ * vengono giocati sul thread del server con Partita.eseguiTurno; se il server ha un tempo per turno, ogni
+ * partita ha la propria scadenza nel temporizzatore condiviso. Ogni risposta viene scritta con una sola
+ * scrittura "gathering" della parte fissa, condivisa da tutte le connessioni, e della parte variabile
+ * (i numeri), scritta nel buffer della connessione; se il client non legge le risposte, la connessione
+ * smette di leggere comandi finche' la risposta in sospeso non e' stata scritta.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public class ServerNio implements Closeable {
+	// Lunghezza massima di un comando, compreso il terminatore di riga.
+	private static final int LUNGHEZZA_MASSIMA_COMANDO = 256;
+	// Intervallo tra due controlli dell'inattivita' delle connessioni.
+	private static final long INTERVALLO_CONTROLLO = TimeUnit.SECONDS.toNanos(1);
+
+	private static final byte[] VAI = ServerNio.ascii("VAI");
+	private static final byte[] FRECCIA = ServerNio.ascii("FRECCIA");
+	private static final byte[] STATO = ServerNio.ascii("STATO");
+	private static final byte[] NUOVA = ServerNio.ascii("NUOVA");
+	private static final byte[] ESCI = ServerNio.ascii("ESCI");
+	private static final Direzioni[] DIREZIONI = Direzioni.values();
+	private static final byte[][] NOMI_DIREZIONI = new byte[ServerNio.DIREZIONI.length][];
+	static {
+		for(int i = 0; i < ServerNio.DIREZIONI.length; i++) {
+			ServerNio.NOMI_DIREZIONI[i] = ServerNio.ascii(ServerNio.DIREZIONI[i].name());
+		}
+	}
+
+	/*
+	 * Parti fisse delle risposte. I testi sono raccolti in un unico array, condiviso da tutte le
+	 * connessioni: ogni connessione ne scrive la parte che le serve attraverso la propria vista.
+	 */
+	private enum Risposta {
+		BENVENUTO("BENVENUTO "),
+		ESITO("ESITO "),
+		STATO("STATO "),
+		OK("OK\n"),
+		CIAO("CIAO\n"),
+		INATTIVA("INATTIVA\n"),
+		COMANDO_NON_VALIDO("ERRORE comando non riconosciuto\n"),
+		DIREZIONE_NON_VALIDA("ERRORE direzione non valida\n"),
+		COMANDO_TROPPO_LUNGO("ERRORE comando troppo lungo\n");
+
+		private static final byte[] TESTI;
+		static {
+			int lunghezza = 0;
+			for(Risposta risposta : Risposta.values()) {
+				risposta.inizio = lunghezza;
+				lunghezza += risposta.testo.length();
+			}
+
+			TESTI = new byte[lunghezza];
+			for(Risposta risposta : Risposta.values()) {
+				System.arraycopy(ServerNio.ascii(risposta.testo), 0, Risposta.TESTI, risposta.inizio, risposta.testo.length());
+			}
+		}
+
+		private final String testo;
+		private int inizio;
+
+		private Risposta(String testo) {
+			this.testo = testo;
+		}
+	}
+
+	private final Selector selettore;
+	private final ServerSocketChannel canaleServer;
+	private final long tempoPerTurno;
+	private final long tempoInattivita;
+	private final Thread threadServer;
+	private volatile boolean attivo;
+	private volatile int numeroConnessioni;
+	private int ultimaSessione;
+
+	/**
+	 * Costruttore di ServerNio: apre il server sull'indirizzo locale e inizia ad accettare le connessioni.
+	 *
+	 * @param porta Porta del server; 0 per una porta libera qualsiasi (si veda getPorta).
+	 * @param tempoPerTurno Durata del turno delle partite in millisecondi; 0 per partite non temporizzate.
+	 * @param tempoInattivita Tempo in millisecondi dopo il quale una connessione senza comandi viene chiusa.
+	 * @throws IllegalArgumentException Se tempoPerTurno e' negativo o tempoInattivita non e' strettamente
+	 * 		positivo.
+	 * @throws IOException Se non e' possibile aprire il server sulla porta data.
+	 */
+	public ServerNio(int porta, long tempoPerTurno, int tempoInattivita) throws IllegalArgumentException, IOException {
+		if(tempoPerTurno < 0) {
+			throw new IllegalArgumentException("La durata del turno non puo' essere negativa");
+		}
+
+		if(tempoInattivita < 1) {
+			throw new IllegalArgumentException("Il tempo di inattivita' deve essere un valore positivo");
+		}
+
+		this.tempoPerTurno = tempoPerTurno;
+		this.tempoInattivita = TimeUnit.MILLISECONDS.toNanos(tempoInattivita);
+		this.selettore = Selector.open();
+		this.canaleServer = ServerSocketChannel.open();
+		this.canaleServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 4096);
+		this.canaleServer.configureBlocking(false);
+		this.canaleServer.register(this.selettore, SelectionKey.OP_ACCEPT);
+		this.attivo = true;
+
+		this.threadServer = new Thread(this::cicloSelettore, "server-nio-wumpus");
+		this.threadServer.setDaemon(true);
+		this.threadServer.start();
+	}
+
+	/**
+	 * Metodo che restituisce la porta su cui il server accetta le connessioni.
+	 *
+	 * @return Porta del server.
+	 */
+	public int getPorta() {
+		return this.canaleServer.socket().getLocalPort();
+	}
+
+	/**
+	 * Metodo che restituisce il numero di connessioni aperte.
+	 *
+	 * @return Numero di connessioni aperte.
+	 */
+	public int getNumeroConnessioniAperte() {
+		return this.numeroConnessioni;
+	}
+
+	/**
+	 * Metodo che chiude il server e tutte le connessioni aperte.
+	 *
+	 * @throws IOException Se non e' possibile chiudere il server.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.attivo = false;
+		this.selettore.wakeup();
+		try {
+			this.threadServer.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// Ciclo del thread del server: attende gli eventi delle connessioni e li gestisce.
+	private void cicloSelettore() {
+		long ultimoControllo = System.nanoTime();
+
+		try {
+			while(this.attivo) {
+				this.selettore.select(this::gestisci, TimeUnit.NANOSECONDS.toMillis(ServerNio.INTERVALLO_CONTROLLO));
+
+				long ora = System.nanoTime();
+				if(ora - ultimoControllo >= ServerNio.INTERVALLO_CONTROLLO) {
+					this.controllaInattivita(ora);
+					ultimoControllo = ora;
+				}
+			}
+		}
+		catch (IOException e) {
+			System.err.println("Server non piu' disponibile: " + e);
+		}
+		finally {
+			for(SelectionKey chiave : this.selettore.keys()) {
+				if(chiave.attachment() instanceof Connessione connessione) {
+					connessione.chiudi();
+				}
+			}
+			try {
+				this.canaleServer.close();
+				this.selettore.close();
+			}
+			catch (IOException e) {
+				// Il server e' comunque terminato
+			}
+		}
+	}
+
+	private void gestisci(SelectionKey chiave) {
+		try {
+			if(chiave.isAcceptable()) {
+				this.accettaConnessioni();
+				return;
+			}
+
+			Connessione connessione = (Connessione) chiave.attachment();
+			if(chiave.isWritable()) {
+				connessione.scriviRispostaInSospeso();
+			}
+			if(chiave.isValid() && chiave.isReadable()) {
+				connessione.leggi();
+			}
+		}
+		catch (IOException e) {
+			// La connessione e' stata chiusa dal client
+			if(chiave.attachment() instanceof Connessione connessione) {
+				connessione.chiudi();
+			}
+		}
+	}
+
+	private void accettaConnessioni() throws IOException {
+		SocketChannel canale;
+
+		while((canale = this.canaleServer.accept()) != null) {
+			canale.configureBlocking(false);
+			canale.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+			Connessione connessione = new Connessione(canale, ++this.ultimaSessione);
+			connessione.chiave = canale.register(this.selettore, SelectionKey.OP_READ, connessione);
+			this.numeroConnessioni++;
+			connessione.corpo.clear();
+			ServerNio.scriviIntero(connessione.corpo, connessione.numero);
+			connessione.corpo.put((byte) '\n');
+			connessione.rispondi(Risposta.BENVENUTO);
+		}
+	}
+
+	// Chiude le connessioni che non inviano comandi da piu' del tempo di inattivita'.
+	private void controllaInattivita(long ora) {
+		for(SelectionKey chiave : this.selettore.keys()) {
+			if(chiave.attachment() instanceof Connessione connessione && ora - connessione.ultimoComando >= this.tempoInattivita) {
+				// Un client che non legge la risposta in corso (anche l'ultima, prima della chiusura) non
+				// riceverebbe comunque quella di inattivita', e i buffer della risposta in sospeso non possono
+				// venire riutilizzati: la connessione viene chiusa subito.
+				if(connessione.rispostaInSospeso) {
+					connessione.chiudi();
+				}
+				else if(!(connessione.chiudiDopoRisposta)) {
+					try {
+						connessione.chiudiDopoRisposta = true;
+						connessione.corpo.clear();
+						connessione.rispondi(Risposta.INATTIVA);
+					}
+					catch (IOException e) {
+						connessione.chiudi();
+					}
+				}
+			}
+		}
+	}
+
+	// Connessione di un client, usata solo dal thread del server.
+	private final class Connessione {
+		private final SocketChannel canale;
+		private final int numero;
+		// Byte ricevuti: i comandi da eseguire sono tra inizioComandi e la posizione del buffer.
+		private final ByteBuffer ingresso;
+		private int inizioComandi;
+		// Parte variabile della risposta corrente.
+		private final ByteBuffer corpo;
+		// Vista sulla parte fissa della risposta corrente, in Risposta.TESTI.
+		private final ByteBuffer prefisso;
+		private final ByteBuffer[] risposta;
+		private SelectionKey chiave;
+		private Partita partita;
+		private long ultimoComando;
+		private boolean rispostaInSospeso;
+		private boolean chiudiDopoRisposta;
+
+		private Connessione(SocketChannel canale, int numero) {
+			this.canale = canale;
+			this.numero = numero;
+			this.ingresso = ByteBuffer.allocate(ServerNio.LUNGHEZZA_MASSIMA_COMANDO);
+			this.corpo = ByteBuffer.allocate(64);
+			this.prefisso = ByteBuffer.wrap(Risposta.TESTI).asReadOnlyBuffer();
+			this.risposta = new ByteBuffer[] { this.prefisso, this.corpo };
+			this.ultimoComando = System.nanoTime();
+			this.nuovaPartita();
+		}
+
+		private void nuovaPartita() {
+			if(this.partita != null) {
+				this.partita.fermaTemporizzazione();
+			}
+			this.partita = Partita.avviaPartita(false);
+			if(ServerNio.this.tempoPerTurno > 0) {
+				this.partita.avviaTemporizzazione(ServerNio.this.tempoPerTurno);
+			}
+		}
+
+		private void leggi() throws IOException {
+			if(this.canale.read(this.ingresso) < 0) {
+				this.chiudi();
+				return;
+			}
+			this.ultimoComando = System.nanoTime();
+			this.eseguiComandi();
+		}
+
+		// Esegue i comandi completi ricevuti, finche' non resta una risposta in sospeso.
+		private void eseguiComandi() throws IOException {
+			byte[] dati = this.ingresso.array();
+			int cercato = this.inizioComandi;
+
+			while(!(this.rispostaInSospeso) && !(this.chiudiDopoRisposta)) {
+				while(cercato < this.ingresso.position() && dati[cercato] != '\n') {
+					cercato++;
+				}
+				if(cercato == this.ingresso.position()) {
+					break;
+				}
+
+				int fine = cercato > this.inizioComandi && dati[cercato - 1] == '\r' ? cercato - 1 : cercato;
+				this.esegui(dati, this.inizioComandi, fine);
+				this.inizioComandi = ++cercato;
+			}
+
+			// La parte di comando non ancora completa viene spostata all'inizio del buffer
+			if(this.inizioComandi > 0) {
+				int rimasti = this.ingresso.position() - this.inizioComandi;
+				System.arraycopy(dati, this.inizioComandi, dati, 0, rimasti);
+				this.ingresso.position(rimasti);
+				this.inizioComandi = 0;
+			}
+			if(!(this.ingresso.hasRemaining()) && !(this.rispostaInSospeso) && !(this.chiudiDopoRisposta)) {
+				this.chiudiDopoRisposta = true;
+				this.corpo.clear();
+				this.rispondi(Risposta.COMANDO_TROPPO_LUNGO);
+			}
+		}
+
+		// Esegue il comando contenuto in dati tra inizio (incluso) e fine (escluso) e invia la risposta.
+		private void esegui(byte[] dati, int inizio, int fine) throws IOException {
+			int inizioAzione = ServerNio.saltaSpazi(dati, inizio, fine);
+			int fineAzione = ServerNio.fineParola(dati, inizioAzione, fine);
+			int inizioDirezione = ServerNio.saltaSpazi(dati, fineAzione, fine);
+			int fineDirezione = ServerNio.fineParola(dati, inizioDirezione, fine);
+			boolean unaParola = inizioDirezione == fine;
+			boolean dueParole = fineDirezione > inizioDirezione && ServerNio.saltaSpazi(dati, fineDirezione, fine) == fine;
+
+			this.corpo.clear();
+			if(dueParole && (ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.VAI) || ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.FRECCIA))) {
+				TipoAzione azione = ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.VAI) ? TipoAzione.VAI : TipoAzione.FRECCIA;
+				Direzioni direzione = null;
+				for(int i = 0; i < ServerNio.DIREZIONI.length && direzione == null; i++) {
+					if(ServerNio.uguale(dati, inizioDirezione, fineDirezione, ServerNio.NOMI_DIREZIONI[i])) {
+						direzione = ServerNio.DIREZIONI[i];
+					}
+				}
+				if(direzione == null) {
+					this.rispondi(Risposta.DIREZIONE_NON_VALIDA);
+					return;
+				}
+
+				ServerNio.scriviIntero(this.corpo, this.partita.eseguiTurno(azione, direzione));
+				this.corpo.put((byte) ' ');
+				ServerNio.scriviIntero(this.corpo, this.partita.getAgente().getPunteggio());
+				this.corpo.put((byte) ' ');
+				ServerNio.scriviIntero(this.corpo, this.partita.getAgente().getNumFrecce());
+				this.corpo.put((byte) '\n');
+				this.rispondi(Risposta.ESITO);
+			}
+			else if(unaParola && ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.STATO)) {
+				ServerNio.scriviIntero(this.corpo, this.partita.getAgente().getRiga());
+				this.corpo.put((byte) ' ');
+				ServerNio.scriviIntero(this.corpo, this.partita.getAgente().getColonna());
+				this.corpo.put((byte) ' ');
+				ServerNio.scriviIntero(this.corpo, this.partita.getAgente().getPunteggio());
+				this.corpo.put((byte) ' ');
+				ServerNio.scriviIntero(this.corpo, this.partita.getAgente().getNumFrecce());
+				this.corpo.put((byte) ' ');
+				this.corpo.put((byte) (this.partita.getAgente().getInGioco() ? '1' : '0'));
+				this.corpo.put((byte) ' ');
+				this.corpo.put((byte) (this.partita.getWumpus().getInGioco() ? '1' : '0'));
+				this.corpo.put((byte) '\n');
+				this.rispondi(Risposta.STATO);
+			}
+			else if(unaParola && ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.NUOVA)) {
+				this.nuovaPartita();
+				this.rispondi(Risposta.OK);
+			}
+			else if(unaParola && ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.ESCI)) {
+				this.chiudiDopoRisposta = true;
+				this.rispondi(Risposta.CIAO);
+			}
+			else if(dueParole || unaParola) {
+				this.rispondi(Risposta.COMANDO_NON_VALIDO);
+			}
+			else {
+				// Comando VAI o FRECCIA senza direzione o con parole in piu'
+				this.rispondi(ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.VAI) || ServerNio.uguale(dati, inizioAzione, fineAzione, ServerNio.FRECCIA) ? Risposta.DIREZIONE_NON_VALIDA : Risposta.COMANDO_NON_VALIDO);
+			}
+		}
+
+		// Scrive la risposta formata dalla parte fissa data e dal corpo (gia' riempito, in scrittura).
+		private void rispondi(Risposta tipo) throws IOException {
+			this.prefisso.limit(tipo.inizio + tipo.testo.length()).position(tipo.inizio);
+			this.corpo.flip();
+			this.canale.write(this.risposta);
+
+			if(this.corpo.hasRemaining() || this.prefisso.hasRemaining()) {
+				// Il client non legge: si attende che il canale sia di nuovo scrivibile
+				this.rispostaInSospeso = true;
+				this.chiave.interestOps(SelectionKey.OP_WRITE);
+			}
+			else if(this.chiudiDopoRisposta) {
+				this.chiudi();
+			}
+		}
+
+		private void scriviRispostaInSospeso() throws IOException {
+			this.canale.write(this.risposta);
+			if(this.corpo.hasRemaining() || this.prefisso.hasRemaining()) {
+				return;
+			}
+
+			this.rispostaInSospeso = false;
+			if(this.chiudiDopoRisposta) {
+				this.chiudi();
+				return;
+			}
+			this.chiave.interestOps(SelectionKey.OP_READ);
+			this.eseguiComandi();
+		}
+
+		// Chiude la connessione; puo' essere chiamato piu' volte.
+		private void chiudi() {
+			if(this.canale.isOpen()) {
+				ServerNio.this.numeroConnessioni--;
+				this.partita.fermaTemporizzazione();
+				try {
+					this.canale.close();
+				}
+				catch (IOException e) {
+					// La connessione e' comunque terminata
+				}
+			}
+		}
+	}
+
+	private static byte[] ascii(String testo) {
+		return testo.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static int saltaSpazi(byte[] dati, int inizio, int fine) {
+		while(inizio < fine && dati[inizio] == ' ') {
+			inizio++;
+		}
+		return inizio;
+	}
+
+	private static int fineParola(byte[] dati, int inizio, int fine) {
+		while(inizio < fine && dati[inizio] != ' ') {
+			inizio++;
+		}
+		return inizio;
+	}
+
+	// Confronta la parola tra inizio e fine con quella data (in maiuscolo), senza distinguere maiuscole e
+	// minuscole.
+	private static boolean uguale(byte[] dati, int inizio, int fine, byte[] parola) {
+		if(fine - inizio != parola.length) {
+			return false;
+		}
+
+		for(int i = 0; i < parola.length; i++) {
+			if((dati[inizio + i] & 0xDF) != parola[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Scrive un intero in cifre decimali ASCII, senza allocare memoria.
+	private static void scriviIntero(ByteBuffer buffer, int valore) {
+		long resto = valore;
+		if(resto < 0) {
+			buffer.put((byte) '-');
+			resto = -resto;
+		}
+
+		long divisore = 1;
+		while(divisore*10 <= resto) {
+			divisore *= 10;
+		}
+		for(; divisore > 0; divisore /= 10) {
+			buffer.put((byte) ('0' + resto/divisore));
+			resto %= divisore;
+		}
+	}
+
+	/**
+	 * Metodo main che avvia il server e lo lascia in esecuzione.
+	 * Argomenti opzionali: porta (default ServerPartite.DEFAULT_PORTA), durata del turno in millisecondi
+	 * (default 0, partite non temporizzate), tempo di inattivita' in millisecondi (default
+	 * ServerPartite.DEFAULT_TEMPO_INATTIVITA).
+	 *
+	 * @param args Argomenti della riga di comando.
+	 * @throws IOException Se non e' possibile aprire il server.
+	 * @throws InterruptedException Se il thread principale viene interrotto.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int porta = args.length > 0 ? Integer.parseInt(args[0]) : ServerPartite.DEFAULT_PORTA;
+		long tempoPerTurno = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		int tempoInattivita = args.length > 2 ? Integer.parseInt(args[2]) : ServerPartite.DEFAULT_TEMPO_INATTIVITA;
+
+		try (ServerNio server = new ServerNio(porta, tempoPerTurno, tempoInattivita)) {
+			System.out.println("Server in ascolto sulla porta " + server.getPorta());
+			Thread.currentThread().join();
+		}
+	}
+}
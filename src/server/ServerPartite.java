@@ -0,0 +1,421 @@
+package server;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.gioco.Direzioni;
+import model.gioco.Partita;
+import model.gioco.TipoAzione;
+
+/**
+ * Classe che ospita contemporaneamente molte partite senza interfaccia grafica: ogni connessione al server
+ * (sull'indirizzo locale) e' una sessione con la propria partita, comandata con un protocollo testuale a
+ * righe.
+ * <p>
+ * Comandi del client, uno per riga:
+ * <ul>
+ * <li><code>VAI direzione</code> oppure <code>FRECCIA direzione</code> (NORD, EST, SUD o OVEST): gioca un
+ * turno; risposta <code>ESITO esito punteggio frecce</code>, dove esito e' l'OR dei codici di EsitoTurno
+ * (0 se la partita era gia' terminata);</li>
+ * <li><code>STATO</code>: risposta <code>STATO riga colonna punteggio frecce agenteInGioco wumpusInGioco</code>
+ * (gli ultimi due valgono 1 o 0);</li>
+ * <li><code>NUOVA</code>: avvia una nuova partita nella sessione; risposta <code>OK</code>;</li>
+ * <li><code>ESCI</code>: chiude la sessione; risposta <code>CIAO</code>.</li>
+ * </ul>
+ * All'apertura della sessione il server invia <code>BENVENUTO numeroSessione</code>; un comando non valido
+ * riceve la risposta <code>ERRORE descrizione</code>. Se il client non invia comandi per il tempo di
+ * inattivita' il server invia <code>INATTIVA</code> e chiude la sessione.
+ * <p>
+ * Ogni sessione e' servita da un proprio thread, che attende i comandi del client. Normalmente i turni
+ * vengono eseguiti dalla casella dei comandi della partita (si veda Partita.inviaTurno) e, se il server
+ * ha un tempo per turno, ogni partita ha la propria scadenza nel temporizzatore condiviso. Con il ciclo
+ * bloccante, invece, il thread della sessione gioca direttamente sia i turni del client sia quelli
+ * automatici, quando l'attesa di un comando supera il tempo per turno: in questo caso le sessioni usano
+ * i thread virtuali, se disponibili (si veda ThreadSessioni).
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public class ServerPartite implements Closeable {
+	/**
+	 * Porta predefinita del server.
+	 */
+	public static final int DEFAULT_PORTA = 7070;
+
+	/**
+	 * Tempo di inattivita' predefinito dopo il quale una sessione viene chiusa, in millisecondi.
+	 */
+	public static final int DEFAULT_TEMPO_INATTIVITA = 60000;
+
+	private final ServerSocket serverSocket;
+	private final long tempoPerTurno;
+	private final int tempoInattivita;
+	private final boolean cicloBloccante;
+	private final ExecutorService threadSessioni;
+	// Sessioni aperte, per numero di sessione.
+	private final Map<Integer, Sessione> sessioni;
+	private final AtomicInteger numeroSessioni;
+
+	/**
+	 * Costruttore di ServerPartite: apre il server sull'indirizzo locale e inizia ad accettare le
+	 * connessioni.
+	 *
+	 * @param porta Porta del server; 0 per una porta libera qualsiasi (si veda getPorta).
+	 * @param tempoPerTurno Durata del turno delle partite in millisecondi; 0 per partite non temporizzate.
+	 * @param tempoInattivita Tempo in millisecondi dopo il quale una sessione senza comandi viene chiusa.
+	 * @throws IllegalArgumentException Se tempoPerTurno e' negativo o tempoInattivita non e' strettamente
+	 * 		positivo.
+	 * @throws IOException Se non e' possibile aprire il server sulla porta data.
+	 */
+	public ServerPartite(int porta, long tempoPerTurno, int tempoInattivita) throws IllegalArgumentException, IOException {
+		this(porta, tempoPerTurno, tempoInattivita, false);
+	}
+
+	/**
+	 * Costruttore di ServerPartite: apre il server sull'indirizzo locale e inizia ad accettare le
+	 * connessioni.
+	 *
+	 * @param porta Porta del server; 0 per una porta libera qualsiasi (si veda getPorta).
+	 * @param tempoPerTurno Durata del turno delle partite in millisecondi; 0 per partite non temporizzate.
+	 * @param tempoInattivita Tempo in millisecondi dopo il quale una sessione senza comandi viene chiusa.
+	 * @param cicloBloccante <em>true</em> se ogni sessione deve giocare sul proprio thread (virtuale, se
+	 * 		disponibile) sia i turni del client sia quelli automatici, <em>false</em> per usare la casella
+	 * 		dei comandi delle partite e il temporizzatore condiviso.
+	 * @throws IllegalArgumentException Se tempoPerTurno e' negativo o tempoInattivita non e' strettamente
+	 * 		positivo.
+	 * @throws IOException Se non e' possibile aprire il server sulla porta data.
+	 */
+	public ServerPartite(int porta, long tempoPerTurno, int tempoInattivita, boolean cicloBloccante) throws IllegalArgumentException, IOException {
+		if(tempoPerTurno < 0) {
+			throw new IllegalArgumentException("La durata del turno non puo' essere negativa");
+		}
+
+		if(tempoInattivita < 1) {
+			throw new IllegalArgumentException("Il tempo di inattivita' deve essere un valore positivo");
+		}
+
+		this.tempoPerTurno = tempoPerTurno;
+		this.tempoInattivita = tempoInattivita;
+		this.cicloBloccante = cicloBloccante;
+		this.sessioni = new ConcurrentHashMap<Integer, Sessione>();
+		this.numeroSessioni = new AtomicInteger();
+		this.threadSessioni = ThreadSessioni.crea(cicloBloccante, "sessione-wumpus");
+		this.serverSocket = new ServerSocket(porta, 1024, InetAddress.getLoopbackAddress());
+
+		Thread accettazione = new Thread(this::accettaConnessioni, "server-wumpus");
+		accettazione.setDaemon(true);
+		accettazione.start();
+	}
+
+	/**
+	 * Metodo che restituisce la porta su cui il server accetta le connessioni.
+	 *
+	 * @return Porta del server.
+	 */
+	public int getPorta() {
+		return this.serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Metodo che restituisce il numero di sessioni aperte.
+	 *
+	 * @return Numero di sessioni aperte.
+	 */
+	public int getNumeroSessioniAperte() {
+		return this.sessioni.size();
+	}
+
+	/**
+	 * Metodo che chiude il server e tutte le sessioni aperte.
+	 *
+	 * @throws IOException Se non e' possibile chiudere il server.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.serverSocket.close();
+		for(Sessione sessione : this.sessioni.values()) {
+			sessione.chiudi();
+		}
+		this.threadSessioni.shutdownNow();
+	}
+
+	// Accetta le connessioni finche' il server non viene chiuso, affidando ogni sessione ad un thread.
+	private void accettaConnessioni() {
+		while(!(this.serverSocket.isClosed())) {
+			try {
+				Socket socket = this.serverSocket.accept();
+				Sessione sessione = new Sessione(this.numeroSessioni.incrementAndGet(), socket);
+
+				this.sessioni.put(sessione.numero, sessione);
+				this.threadSessioni.execute(sessione);
+			}
+			catch (IOException e) {
+				if(!(this.serverSocket.isClosed())) {
+					System.err.println("Connessione non accettata: " + e);
+				}
+			}
+		}
+	}
+
+	// Sessione di un client: legge i comandi e risponde, una riga alla volta.
+	private class Sessione implements Runnable {
+		private final int numero;
+		private final Socket socket;
+		private Partita partita;
+		// Istante della scadenza del turno, usato solo con il ciclo bloccante e partite temporizzate.
+		private long scadenzaTurno;
+
+		private Sessione(int numero, Socket socket) {
+			this.numero = numero;
+			this.socket = socket;
+		}
+
+		@Override
+		public void run() {
+			try (InputStream ingresso = this.socket.getInputStream();
+					Writer scrittore = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+				LettoreRighe lettore = new LettoreRighe(ingresso);
+				long tempoInattivita = TimeUnit.MILLISECONDS.toNanos(ServerPartite.this.tempoInattivita);
+				long ultimoComando = System.nanoTime();
+
+				this.socket.setTcpNoDelay(true);
+				this.nuovaPartita();
+				ServerPartite.rispondi(scrittore, "BENVENUTO " + this.numero);
+
+				while(true) {
+					// Si attende il prossimo comando fino al termine del tempo di inattivita' o, con il
+					// ciclo bloccante, fino alla scadenza del turno
+					long ora = System.nanoTime();
+					long attesa = ultimoComando + tempoInattivita - ora;
+					if(this.cicloTemporizzato()) {
+						attesa = Math.min(attesa, this.scadenzaTurno - ora);
+					}
+					this.socket.setSoTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(attesa))));
+
+					String comando;
+					try {
+						comando = lettore.leggiRiga();
+					}
+					catch (SocketTimeoutException e) {
+						ora = System.nanoTime();
+						if(ora - ultimoComando >= tempoInattivita) {
+							ServerPartite.rispondi(scrittore, "INATTIVA");
+							break;
+						}
+						if(this.cicloTemporizzato() && ora - this.scadenzaTurno >= 0) {
+							this.partita.turnoAutomatico();
+							this.rinviaScadenza();
+						}
+						continue;
+					}
+
+					if(comando == null) {
+						break;
+					}
+					ultimoComando = System.nanoTime();
+
+					String risposta = this.esegui(comando);
+					ServerPartite.rispondi(scrittore, risposta);
+					if(risposta.equals("CIAO")) {
+						break;
+					}
+				}
+			}
+			catch (IOException e) {
+				// La connessione e' stata chiusa dal client o dal server: la sessione termina
+			}
+			finally {
+				this.chiudi();
+			}
+		}
+
+		// Indica se il thread della sessione deve giocare i turni automatici.
+		private boolean cicloTemporizzato() {
+			return ServerPartite.this.cicloBloccante && ServerPartite.this.tempoPerTurno > 0;
+		}
+
+		// Con il ciclo temporizzato, sposta la scadenza del turno ad un tempo per turno da adesso.
+		private void rinviaScadenza() {
+			if(this.cicloTemporizzato()) {
+				this.scadenzaTurno = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ServerPartite.this.tempoPerTurno);
+			}
+		}
+
+		// Esegue un comando del client e restituisce la risposta.
+		private String esegui(String comando) {
+			String[] parti = comando.trim().toUpperCase().split(" +");
+
+			switch(parti[0]) {
+				case "VAI", "FRECCIA" -> {
+					Direzioni direzione = ServerPartite.direzione(parti);
+					if(direzione == null) {
+						return "ERRORE direzione non valida";
+					}
+
+					TipoAzione azione = parti[0].equals("VAI") ? TipoAzione.VAI : TipoAzione.FRECCIA;
+					int esito;
+					if(ServerPartite.this.cicloBloccante) {
+						// Il thread della sessione e' l'unico che gioca i turni della partita
+						esito = this.partita.eseguiTurno(azione, direzione);
+						this.rinviaScadenza();
+					}
+					else {
+						esito = this.partita.inviaTurno(azione, direzione).join();
+					}
+					return "ESITO " + esito + " " + this.partita.getAgente().getPunteggio() + " " + this.partita.getAgente().getNumFrecce();
+				}
+				case "STATO" -> {
+					return "STATO " + this.partita.getAgente().getRiga() + " " + this.partita.getAgente().getColonna() + " " + this.partita.getAgente().getPunteggio() + " " + this.partita.getAgente().getNumFrecce() + " " + (this.partita.getAgente().getInGioco() ? 1 : 0) + " " + (this.partita.getWumpus().getInGioco() ? 1 : 0);
+				}
+				case "NUOVA" -> {
+					this.nuovaPartita();
+					return "OK";
+				}
+				case "ESCI" -> {
+					return "CIAO";
+				}
+				default -> {
+					return "ERRORE comando non riconosciuto";
+				}
+			}
+		}
+
+		// Avvia una nuova partita nella sessione, fermando la temporizzazione della precedente.
+		private void nuovaPartita() {
+			if(this.partita != null) {
+				this.partita.fermaTemporizzazione();
+			}
+			this.partita = Partita.avviaPartita(false);
+			if(ServerPartite.this.cicloBloccante) {
+				this.rinviaScadenza();
+			}
+			else if(ServerPartite.this.tempoPerTurno > 0) {
+				this.partita.avviaTemporizzazione(ServerPartite.this.tempoPerTurno);
+			}
+		}
+
+		// Chiude la sessione; puo' essere chiamato piu' volte.
+		private void chiudi() {
+			ServerPartite.this.sessioni.remove(this.numero);
+			if(this.partita != null) {
+				this.partita.fermaTemporizzazione();
+			}
+			try {
+				this.socket.close();
+			}
+			catch (IOException e) {
+				// La sessione e' comunque terminata
+			}
+		}
+	}
+
+	// Restituisce la direzione indicata nel comando, oppure null se manca o non e' valida.
+	private static Direzioni direzione(String[] parti) {
+		if(parti.length != 2) {
+			return null;
+		}
+
+		for(Direzioni direzione : Direzioni.values()) {
+			if(direzione.name().equals(parti[1])) {
+				return direzione;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Lettore delle righe inviate dal client. A differenza di BufferedReader.readLine non perde la parte
+	 * di riga gia' letta quando la lettura viene interrotta dal timeout del socket: i byte letti restano
+	 * nel buffer fino alla lettura successiva.
+	 */
+	private static final class LettoreRighe {
+		private static final int LUNGHEZZA_MASSIMA = 256;
+
+		private final InputStream ingresso;
+		private final byte[] buffer;
+		private int inizio;
+		private int fine;
+
+		private LettoreRighe(InputStream ingresso) {
+			this.ingresso = ingresso;
+			this.buffer = new byte[LettoreRighe.LUNGHEZZA_MASSIMA];
+		}
+
+		// Restituisce la prossima riga senza il terminatore, oppure null se il client ha chiuso la connessione.
+		private String leggiRiga() throws IOException {
+			int cercato = this.inizio;
+
+			while(true) {
+				for(; cercato < this.fine; cercato++) {
+					if(this.buffer[cercato] == '\n') {
+						int fineRiga = cercato > this.inizio && this.buffer[cercato - 1] == '\r' ? cercato - 1 : cercato;
+						String riga = new String(this.buffer, this.inizio, fineRiga - this.inizio, StandardCharsets.US_ASCII);
+
+						this.inizio = cercato + 1;
+						return riga;
+					}
+				}
+
+				// Riga incompleta: viene spostata all'inizio del buffer prima di leggere altri byte
+				if(this.inizio > 0) {
+					System.arraycopy(this.buffer, this.inizio, this.buffer, 0, this.fine - this.inizio);
+					cercato -= this.inizio;
+					this.fine -= this.inizio;
+					this.inizio = 0;
+				}
+				if(this.fine == this.buffer.length) {
+					throw new IOException("Comando troppo lungo");
+				}
+
+				int letti = this.ingresso.read(this.buffer, this.fine, this.buffer.length - this.fine);
+				if(letti < 0) {
+					return null;
+				}
+				this.fine += letti;
+			}
+		}
+	}
+
+	private static void rispondi(Writer scrittore, String risposta) throws IOException {
+		scrittore.write(risposta);
+		scrittore.write('\n');
+		scrittore.flush();
+	}
+
+	/**
+	 * Metodo main che avvia il server e lo lascia in esecuzione.
+	 * Argomenti opzionali: porta (default DEFAULT_PORTA), durata del turno in millisecondi (default 0,
+	 * partite non temporizzate), tempo di inattivita' in millisecondi (default DEFAULT_TEMPO_INATTIVITA),
+	 * "bloccante" per usare il ciclo bloccante.
+	 *
+	 * @param args Argomenti della riga di comando.
+	 * @throws IOException Se non e' possibile aprire il server.
+	 * @throws InterruptedException Se il thread principale viene interrotto.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int porta = args.length > 0 ? Integer.parseInt(args[0]) : ServerPartite.DEFAULT_PORTA;
+		long tempoPerTurno = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		int tempoInattivita = args.length > 2 ? Integer.parseInt(args[2]) : ServerPartite.DEFAULT_TEMPO_INATTIVITA;
+		boolean cicloBloccante = args.length > 3 && args[3].equals("bloccante");
+
+		try (ServerPartite server = new ServerPartite(porta, tempoPerTurno, tempoInattivita, cicloBloccante)) {
+			System.out.println("Server in ascolto sulla porta " + server.getPorta());
+			Thread.currentThread().join();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Classe che crea gli esecutori delle sessioni di ServerPartite, con un thread per ogni sessione.
+ * Se la versione di Java in esecuzione mette a disposizione i thread virtuali (Java 21 o successive),
+ * gli esecutori possono usare un thread virtuale per sessione, che costa poche centinaia di byte finche'
+ * la sessione e' in attesa: in questo modo si possono tenere aperte centinaia di migliaia di sessioni
+ * con un ciclo di gioco bloccante. Il progetto si compila con Java 17, quindi i thread virtuali vengono
+ * ottenuti per riflessione; se non sono disponibili si usano thread di piattaforma demoni.
+ *
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+public final class ThreadSessioni {
+	// Executors.newVirtualThreadPerTaskExecutor(), oppure null se i thread virtuali non sono disponibili.
+	private static final MethodHandle ESECUTORE_VIRTUALE = ThreadSessioni.cercaEsecutoreVirtuale();
+
+	private ThreadSessioni() {
+	}
+
+	private static MethodHandle cercaEsecutoreVirtuale() {
+		try {
+			MethodHandle esecutore = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+
+			// Nelle versioni in cui i thread virtuali sono un'anteprima il metodo esiste ma lancia
+			// un'eccezione se l'anteprima non e' abilitata
+			((ExecutorService) esecutore.invoke()).shutdown();
+			return esecutore;
+		}
+		catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Metodo statico che indica se la versione di Java in esecuzione mette a disposizione i thread virtuali.
+	 *
+	 * @return <em>true</em> se i thread virtuali sono disponibili, <em>false</em> altrimenti.
+	 */
+	public static boolean isVirtualiDisponibili() {
+		return ThreadSessioni.ESECUTORE_VIRTUALE != null;
+	}
+
+	/**
+	 * Metodo statico che crea un esecutore che esegue ogni compito su di un nuovo thread.
+	 *
+	 * @param virtuali <em>true</em> per usare i thread virtuali, se disponibili; <em>false</em> (o se non
+	 * 		sono disponibili) per usare thread di piattaforma demoni, riutilizzati tra un compito e l'altro.
+	 * @param nomeThread Nome dei thread di piattaforma.
+	 * @return Esecutore dei compiti.
+	 */
+	public static ExecutorService crea(boolean virtuali, String nomeThread) {
+		if(virtuali && ThreadSessioni.isVirtualiDisponibili()) {
+			try {
+				return (ExecutorService) ThreadSessioni.ESECUTORE_VIRTUALE.invoke();
+			}
+			catch (Throwable e) {
+				// Non accade: il metodo e' gia' stato invocato con successo
+			}
+		}
+
+		return Executors.newCachedThreadPool(compito -> {
+			Thread thread = new Thread(compito, nomeThread);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
@@ -0,0 +1,10 @@
+/**
+ * Pacchetto che contiene i server senza interfaccia grafica che ospitano molte partite del gioco del
+ * Wumpus contemporaneamente, comandate attraverso un semplice protocollo testuale su socket (con un thread
+ * per sessione oppure non bloccante, con un Selector), e il client che ne misura le prestazioni sotto carico.
+ * 
+ * @author Marcello_Mora_8808920
+ * @author Filiberto_Melis_20035059
+ * @author Simone_Garau_20005068
+ */
+package server;
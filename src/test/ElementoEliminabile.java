@@ -1,11 +1,12 @@
 package test;
 
 import java.beans.PropertyChangeSupport;
+import java.util.SplittableRandom;
 
 public class ElementoEliminabile extends model.elementi.ElementoEliminabile {
 
 	public ElementoEliminabile(int latoScacchiera, String nome) throws IllegalArgumentException {
-		super(latoScacchiera, nome);
+		super(latoScacchiera, nome, new SplittableRandom());
 	}
 
 	public ElementoEliminabile(int latoScacchiera, int riga, int colonna, String nome)
@@ -13,6 +13,10 @@ class Mappa extends model.gioco.Mappa {
 		super(latoMappa, probabilitaVoragine, numTesori, numSuperstiti, numCuccioli);
 	}
 
+	Mappa(int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli, model.gioco.ModalitaGenerazione modalitaGenerazione){
+		super(latoMappa, probabilitaVoragine, numTesori, numSuperstiti, numCuccioli, modalitaGenerazione);
+	}
+
 	Mappa(File f) throws IllegalArgumentException, IOException {
 		super(f);  
 	}
@@ -20,4 +24,9 @@ class Mappa extends model.gioco.Mappa {
 	static Mappa caricamento(String nomeFile) throws IllegalArgumentException, IOException {
 		return new Mappa(new File(nomeFile));
 	}
+	
+	@Override
+	protected boolean controlloValiditaMappa() {
+		return super.controlloValiditaMappa();
+	}
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import model.gioco.Casella;
 import model.gioco.Direzioni;
 
 class TestAgente {
@@ -33,29 +34,29 @@ class TestAgente {
 
 	@Test
 	void testScoccaFreccia1() {
-		Assertions.assertEquals(elementoPerTest.scoccaFreccia(Direzioni.NORD), new Elemento(10, 4, 7));
+		Assertions.assertEquals(Casella.di(4, 7), elementoPerTest.scoccaFreccia(Direzioni.NORD));
 	}
 
 	@Test
 	void testScoccaFreccia2() {
-		Assertions.assertEquals(elementoPerTest.scoccaFreccia(Direzioni.SUD), new Elemento(10, 6, 7));
+		Assertions.assertEquals(Casella.di(6, 7), elementoPerTest.scoccaFreccia(Direzioni.SUD));
 	}
 	
 	@Test
 	void testScoccaFreccia3() {
-		Assertions.assertEquals(elementoPerTest.scoccaFreccia(Direzioni.EST), new Elemento(10, 5, 8));
+		Assertions.assertEquals(Casella.di(5, 8), elementoPerTest.scoccaFreccia(Direzioni.EST));
 	}
 	
 	@Test
 	void testScoccaFreccia4() {
-		Assertions.assertEquals(elementoPerTest.scoccaFreccia(Direzioni.OVEST), new Elemento(10, 5, 6));
+		Assertions.assertEquals(Casella.di(5, 6), elementoPerTest.scoccaFreccia(Direzioni.OVEST));
 	}
 	
 	@Test
 	void testScoccaFreccia5() {
-		Assertions.assertEquals(elementoPerTest.scoccaFreccia(Direzioni.OVEST), new Elemento(10, 5, 6));
+		Assertions.assertEquals(Casella.di(5, 6), elementoPerTest.scoccaFreccia(Direzioni.OVEST));
 		Assertions.assertEquals(elementoPerTest.getNumFrecce(), 0);
-		Assertions.assertNull(elementoPerTest.scoccaFreccia(Direzioni.OVEST));
+		Assertions.assertEquals(Casella.NESSUNA, elementoPerTest.scoccaFreccia(Direzioni.OVEST));
 		Assertions.assertEquals(elementoPerTest.getNumFrecce(), 0);
 	}	
 		
@@ -0,0 +1,183 @@
+package test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.elementi.CuccioloDiWumpus;
+import model.elementi.Superstite;
+import model.gioco.Direzioni;
+import model.gioco.EsitoTurno;
+import model.gioco.Partita;
+import model.gioco.TipoAzione;
+
+class TestAllocazioniEventi {
+	private static final int NUMERO_OGGETTI = 20000;
+	private static final int NUMERO_TURNI = 1000;
+	private static final int NUMERO_SERIE = 5;
+
+	private com.sun.management.ThreadMXBean thread;
+
+	@BeforeEach
+	void setUp() {
+		Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		this.thread = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(this.thread.isThreadAllocatedMemorySupported() && this.thread.isThreadAllocatedMemoryEnabled());
+	}
+
+	// Byte allocati dal thread corrente per eliminare dal gioco tutti i superstiti e i cuccioli collocati
+	// sulla mappa della partita, come se fossero colpiti dalle frecce dell'agente
+	private long allocazioniEliminazioni(Partita partita) {
+		long inizio = this.thread.getCurrentThreadAllocatedBytes();
+		for(Superstite superstite : partita.getMappaDiGioco().getSuperstiti()) {
+			superstite.uccisioneSuperstite();
+		}
+		for(CuccioloDiWumpus cucciolo : partita.getCuccioli()) {
+			cucciolo.uccisioneCucciolo();
+		}
+		return this.thread.getCurrentThreadAllocatedBytes() - inizio;
+	}
+
+	// Byte allocati dal thread corrente per spostare un cucciolo collocato sulla mappa avanti e indietro
+	// tra la sua casella e quella adiacente nella direzione data
+	private long allocazioniSpostamenti(CuccioloDiWumpus cucciolo, Direzioni direzione) {
+		Direzioni opposta = Direzioni.values()[(direzione.ordinal() + 2) % 4];
+
+		long inizio = this.thread.getCurrentThreadAllocatedBytes();
+		for(int i = 0; i < TestAllocazioniEventi.NUMERO_OGGETTI; i++) {
+			cucciolo.sposta(i % 2 == 0 ? direzione : opposta);
+		}
+		return this.thread.getCurrentThreadAllocatedBytes() - inizio;
+	}
+
+	// Byte allocati dal thread corrente per giocare i turni, in cui l'agente si sposta avanti e indietro
+	// tra la sua casella e quella adiacente nella direzione data; in spostamenti vengono contati i turni
+	// in cui l'agente (posizione 0) e almeno un cucciolo (posizione 1) si sono spostati.
+	private long allocazioniTurni(Partita partita, Direzioni direzione, int[] spostamenti) {
+		Direzioni opposta = Direzioni.values()[(direzione.ordinal() + 2) % 4];
+
+		long inizio = this.thread.getCurrentThreadAllocatedBytes();
+		for(int i = 0; i < TestAllocazioniEventi.NUMERO_TURNI; i++) {
+			int esito = partita.eseguiTurno(TipoAzione.VAI, i % 2 == 0 ? direzione : opposta);
+
+			if(EsitoTurno.contiene(esito, EsitoTurno.AGENTE_SPOSTATO)) {
+				spostamenti[0]++;
+			}
+			if(EsitoTurno.contiene(esito, EsitoTurno.CUCCIOLO_SPOSTATO)) {
+				spostamenti[1]++;
+			}
+		}
+		return this.thread.getCurrentThreadAllocatedBytes() - inizio;
+	}
+
+	// Direzione in cui la casella adiacente a quella dell'agente e' vuota, in modo che l'agente possa
+	// spostarsi avanti e indietro senza incontrare voragini, tesori, superstiti o il Wumpus
+	private static Direzioni direzioneLibera(Partita partita) {
+		for(Direzioni direzione : Direzioni.values()) {
+			long adiacente = direzione.adiacente(partita.getAgente().getCasella());
+
+			if(partita.getMappaDiGioco().contiene(adiacente) && partita.getMappaDiGioco().contenutoCasella(adiacente) == null) {
+				return direzione;
+			}
+		}
+		return null;
+	}
+
+	private void verificaTurniSenzaAllocazioni(Partita partita) {
+		Direzioni direzione = TestAllocazioniEventi.direzioneLibera(partita);
+		Assertions.assertNotNull(direzione);
+
+		// Prima esecuzione per caricare le classi
+		int[] spostamenti = new int[2];
+		this.allocazioniTurni(partita, direzione, spostamenti);
+		Arrays.fill(spostamenti, 0);
+
+		// Si misurano piu' serie di turni e si tiene la minore: la prima esecuzione di un ramo (ad esempio
+		// il primo incontro con un cucciolo) risolve le costanti stringa che incontra, e le ricompilazioni
+		// della JVM possono allocare in una serie qualsiasi; sono costi una tantum, non del turno
+		long allocati = Long.MAX_VALUE;
+		int serie = 0;
+		while(allocati > 0 && serie < TestAllocazioniEventi.NUMERO_SERIE) {
+			allocati = Math.min(allocati, this.allocazioniTurni(partita, direzione, spostamenti));
+			serie++;
+		}
+
+		// La partita e' ancora in corso, e nei turni misurati si spostano sia l'agente sia i cuccioli
+		Assertions.assertTrue(partita.getAgente().getInGioco() && partita.getWumpus().getInGioco());
+		Assertions.assertEquals(serie*TestAllocazioniEventi.NUMERO_TURNI, spostamenti[0]);
+		Assertions.assertTrue(spostamenti[1] > 0, String.valueOf(spostamenti[1]));
+		// L'indice delle caselle della mappa viene aggiornato senza creare eventi ne' copie delle posizioni
+		Assertions.assertEquals(0, allocati);
+	}
+
+	@Test
+	void testTurniSenzaAllocazioni() {
+		this.verificaTurniSenzaAllocazioni(Partita.avviaPartita(false, new SplittableRandom(2), 10, 20, 3, 2, 5));
+		this.verificaTurniSenzaAllocazioni(Partita.avviaPartitaEstesa(false, 100, 20, 0.001, 0.001, 0.05, new SplittableRandom(11)));
+	}
+
+	@Test
+	void testEliminazioniInMappaSenzaSupportoEventi() {
+		// Prima esecuzione per caricare le classi
+		this.allocazioniEliminazioni(Partita.avviaPartitaEstesa(false, 100, 20, 0.001, 0.05, 0.05, new SplittableRandom(2)));
+
+		// Due partite identiche: nella seconda ogni superstite e ogni cucciolo ha un listener
+		Partita partitaSenzaListener = Partita.avviaPartitaEstesa(false, 100, 20, 0.001, 0.05, 0.05, new SplittableRandom(3));
+		Partita partitaConListener = Partita.avviaPartitaEstesa(false, 100, 20, 0.001, 0.05, 0.05, new SplittableRandom(3));
+		for(Superstite superstite : partitaConListener.getMappaDiGioco().getSuperstiti()) {
+			superstite.aggiungiListener(evt -> {});
+		}
+		for(CuccioloDiWumpus cucciolo : partitaConListener.getCuccioli()) {
+			cucciolo.aggiungiListener(evt -> {});
+		}
+		int eliminazioni = partitaSenzaListener.getMappaDiGioco().getSuperstiti().length + partitaSenzaListener.getCuccioli().length;
+
+		long senzaListener = this.allocazioniEliminazioni(partitaSenzaListener);
+		long conListener = this.allocazioniEliminazioni(partitaConListener);
+
+		// Gli elementi collocati sulla mappa non hanno il supporto agli eventi finche' qualcuno non li
+		// ascolta: l'eliminazione aggiorna l'indice delle caselle senza creare alcun oggetto
+		Assertions.assertEquals(0, senzaListener);
+		Assertions.assertTrue(conListener > 32L*eliminazioni, String.valueOf(conListener));
+		for(Superstite superstite : partitaSenzaListener.getMappaDiGioco().getSuperstiti()) {
+			Assertions.assertNull(partitaSenzaListener.getMappaDiGioco().contenutoCasella(superstite.getCasella()));
+		}
+		for(CuccioloDiWumpus cucciolo : partitaSenzaListener.getCuccioli()) {
+			Assertions.assertNull(partitaSenzaListener.getMappaDiGioco().contenutoCasella(cucciolo.getCasella()));
+		}
+	}
+
+	@Test
+	void testSpostamentiInMappaSenzaListener() {
+		Partita partita = Partita.avviaPartita(false, new SplittableRandom(7), 10, 20, 3, 2, 5);
+		// Si sceglie un cucciolo che possa spostarsi
+		CuccioloDiWumpus cucciolo = null;
+		int libere = 0;
+		for(int i = 0; i < partita.getCuccioli().length && libere == 0; i++) {
+			cucciolo = partita.getCuccioli()[i];
+			libere = partita.getMappaDiGioco().direzioniLibere(cucciolo.getCasella());
+		}
+		Assertions.assertNotEquals(0, libere);
+		long casella = cucciolo.getCasella();
+		Direzioni direzione = Direzioni.values()[Integer.numberOfTrailingZeros(libere)];
+
+		this.allocazioniSpostamenti(cucciolo, direzione);
+		long senzaListener = this.allocazioniSpostamenti(cucciolo, direzione);
+
+		cucciolo.aggiungiListener(evt -> {});
+		this.allocazioniSpostamenti(cucciolo, direzione);
+		long conListener = this.allocazioniSpostamenti(cucciolo, direzione);
+
+		// Il cucciolo e' tornato nella sua casella, e l'indice delle caselle della mappa lo ha seguito
+		Assertions.assertEquals(casella, cucciolo.getCasella());
+		Assertions.assertSame(cucciolo, partita.getMappaDiGioco().contenutoCasella(casella));
+		// Senza listener uno spostamento non crea l'evento ne' il valore della vecchia posizione
+		Assertions.assertEquals(0, senzaListener);
+		Assertions.assertTrue(conListener > 32L*TestAllocazioniEventi.NUMERO_OGGETTI, String.valueOf(conListener));
+	}
+}
@@ -0,0 +1,139 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.gioco.ArchivioSalvataggi;
+import model.gioco.ModalitaGenerazione;
+
+class TestArchivioSalvataggi {
+	
+	private Path fileArchivio;
+	private Mappa mappaPerTest;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		this.fileArchivio = Files.createTempFile("archivioSalvataggi", ".bin");
+		this.mappaPerTest = Mappa.caricamento("mappaPerTestElementiDellaMappa.txt");
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		Files.deleteIfExists(this.fileArchivio);
+	}
+	
+	// Confronta due mappe attraverso il loro salvataggio testuale
+	private static void assertMappeUguali(model.gioco.Mappa attesa, model.gioco.Mappa mappa) throws IOException {
+		File fileAtteso = File.createTempFile("mappaAttesa", ".txt");
+		File fileMappa = File.createTempFile("mappa", ".txt");
+		
+		try {
+			attesa.salvataggio(fileAtteso.getPath());
+			mappa.salvataggio(fileMappa.getPath());
+			Assertions.assertEquals(Files.readAllLines(fileAtteso.toPath()), Files.readAllLines(fileMappa.toPath()));
+		}
+		finally {
+			fileAtteso.delete();
+			fileMappa.delete();
+		}
+	}
+	
+	@Test
+	void testSalvaCarica() throws IOException {
+		long[] caselleScoperte = { 0b111L };
+		
+		try (ArchivioSalvataggi archivio = ArchivioSalvataggi.crea(this.fileArchivio, 100, 1024)) {
+			Assertions.assertNull(archivio.carica(1));
+			
+			archivio.salva(1, this.mappaPerTest, caselleScoperte);
+			for(long id = 2; id <= 100; id++) {
+				archivio.salva(id, new Mappa(10, 20, 3, 2, 2, ModalitaGenerazione.COSTRUTTIVA), null);
+			}
+			
+			Assertions.assertEquals(100, archivio.getNumeroPartite());
+			Assertions.assertTrue(archivio.contiene(1));
+			Assertions.assertFalse(archivio.contiene(101));
+			Assertions.assertEquals(1, archivio.getIdPartite()[0]);
+			Assertions.assertEquals(100, archivio.getIdPartite()[99]);
+			assertMappeUguali(this.mappaPerTest, archivio.carica(1));
+			Assertions.assertArrayEquals(caselleScoperte, archivio.carica(1).getCaselleScoperte());
+			Assertions.assertNull(archivio.carica(2).getCaselleScoperte());
+			
+			// Archivio pieno
+			Assertions.assertThrows(IllegalStateException.class, () -> archivio.salva(101, this.mappaPerTest, null));
+			
+			// Il salvataggio di una partita gia' presente sostituisce il precedente
+			Assertions.assertTrue(archivio.elimina(100));
+			Assertions.assertFalse(archivio.elimina(100));
+			model.gioco.Mappa nuovaMappa = new Mappa(10, 20, 3, 2, 2, ModalitaGenerazione.COSTRUTTIVA);
+			archivio.salva(2, nuovaMappa, null);
+			Assertions.assertEquals(99, archivio.getNumeroPartite());
+			assertMappeUguali(nuovaMappa, archivio.carica(2));
+		}
+	}
+	
+	@Test
+	void testRiapertura() throws IOException {
+		model.gioco.Mappa mappaEstesa = Mappa.generaMappaEstesa(100, 20, 0.001, 0.001, 0.001, new SplittableRandom(3));
+		
+		try (ArchivioSalvataggi archivio = ArchivioSalvataggi.crea(this.fileArchivio, 10, 4096)) {
+			archivio.salva(7, this.mappaPerTest, null);
+			archivio.salva(8, mappaEstesa, null);
+			archivio.salva(7, mappaEstesa, null);
+		}
+		
+		try (ArchivioSalvataggi archivio = ArchivioSalvataggi.apri(this.fileArchivio)) {
+			Assertions.assertEquals(10, archivio.getNumeroSlot());
+			Assertions.assertEquals(4096, archivio.getDimensioneSlot());
+			Assertions.assertEquals(2, archivio.getNumeroPartite());
+			assertMappeUguali(mappaEstesa, archivio.carica(7));
+			assertMappeUguali(mappaEstesa, archivio.carica(8));
+			
+			Assertions.assertThrows(IllegalArgumentException.class, () -> archivio.salva(9, Mappa.generaMappaEstesa(1000, 20, 0, 0, 0), null));
+		}
+	}
+	
+	@Test
+	void testSlotDanneggiato() throws IOException {
+		try (ArchivioSalvataggi archivio = ArchivioSalvataggi.crea(this.fileArchivio, 4, 1024)) {
+			archivio.salva(1, this.mappaPerTest, null);
+			archivio.salva(2, this.mappaPerTest, null);
+		}
+		
+		// Simula una scrittura interrotta alterando un byte del contenuto del primo slot
+		// (intestazione dell'archivio di 16 byte, intestazione dello slot di 24 byte)
+		try (FileChannel canale = FileChannel.open(this.fileArchivio, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			canale.write(ByteBuffer.wrap(new byte[] { 0x55 }), 16 + 24 + 30);
+		}
+		
+		try (ArchivioSalvataggi archivio = ArchivioSalvataggi.apri(this.fileArchivio)) {
+			Assertions.assertFalse(archivio.contiene(1));
+			Assertions.assertTrue(archivio.contiene(2));
+			Assertions.assertEquals(1, archivio.getNumeroPartite());
+			
+			// Lo slot scartato torna disponibile
+			archivio.salva(3, this.mappaPerTest, null);
+			archivio.salva(4, this.mappaPerTest, null);
+			archivio.salva(5, this.mappaPerTest, null);
+			Assertions.assertEquals(4, archivio.getNumeroPartite());
+		}
+	}
+	
+	@Test
+	void testApriFileNonValido() throws IOException {
+		Files.write(this.fileArchivio, new byte[64]);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ArchivioSalvataggi.apri(this.fileArchivio));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> ArchivioSalvataggi.crea(this.fileArchivio, 0, 1024));
+	}
+}
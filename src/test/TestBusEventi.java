@@ -0,0 +1,110 @@
+package test;
+
+import java.beans.PropertyChangeEvent;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import model.gioco.Casella;
+import model.gioco.Direzioni;
+import model.gioco.EsitoTurno;
+import model.gioco.FrameEventi;
+import model.gioco.Partita;
+import model.gioco.TipoAzione;
+
+class TestBusEventi {
+
+	@Test
+	void testFramePerTurno() {
+		Partita partita = Partita.avviaPartita(false, new SplittableRandom(3), 15, 10, 5, 5, 5);
+		List<FrameEventi> frame = new Vector<FrameEventi>();
+		SplittableRandom generatore = new SplittableRandom(3);
+
+		partita.getBusEventi().aggiungiAscoltatore(frame::add, Runnable::run);
+		for(int turno = 0; turno < 50; turno++) {
+			int numFrame = frame.size();
+			int riga = partita.getAgente().getRiga();
+			int colonna = partita.getAgente().getColonna();
+			int esito = partita.eseguiTurno(TipoAzione.VAI, Direzioni.spostamentoRandom(generatore));
+
+			if(esito == 0) {
+				Assertions.assertEquals(numFrame, frame.size());
+				break;
+			}
+
+			// Ogni turno in cui l'agente si sposta produce un solo frame, che descrive lo spostamento
+			// con la posizione raggiunta durante il turno
+			if(EsitoTurno.contiene(esito, EsitoTurno.AGENTE_SPOSTATO)) {
+				Assertions.assertEquals(numFrame + 1, frame.size());
+				FrameEventi ultimo = frame.get(numFrame);
+				Assertions.assertEquals(numFrame + 1, ultimo.getNumero());
+
+				PropertyChangeEvent spostamento = ultimo.getEventi().get(0);
+				Assertions.assertEquals("spostamento", spostamento.getPropertyName());
+				Assertions.assertSame(partita.getAgente(), spostamento.getSource());
+				Assertions.assertEquals(Casella.di(riga, colonna), spostamento.getOldValue());
+				long nuovaCasella = (Long) spostamento.getNewValue();
+				Assertions.assertTrue(Math.abs(riga - Casella.riga(nuovaCasella)) + Math.abs(colonna - Casella.colonna(nuovaCasella)) == 1);
+				Assertions.assertThrows(UnsupportedOperationException.class, () -> ultimo.getEventi().add(spostamento));
+			}
+		}
+
+		// Fuori dai turni ogni evento viene consegnato subito, in un frame a se'
+		int numFrame = frame.size();
+		if(partita.getAgente().getInGioco() && partita.getAgente().scagliaFreccia(Direzioni.NORD)) {
+			Assertions.assertEquals(numFrame + 2, frame.size());
+			Assertions.assertEquals("numFrecce", frame.get(numFrame).getEventi().get(0).getPropertyName());
+			Assertions.assertEquals("freccia", frame.get(numFrame + 1).getEventi().get(0).getPropertyName());
+		}
+	}
+
+	@Test
+	void testConsegnaAsincrona() throws InterruptedException {
+		Partita partita = Partita.avviaPartita(false, new SplittableRandom(5), 15, 10, 5, 5, 5);
+		ExecutorService esecutore = Executors.newSingleThreadExecutor();
+		CountDownLatch fineVisualizzazione = new CountDownLatch(1);
+		List<Long> numeri = new Vector<Long>();
+		SplittableRandom generatore = new SplittableRandom(5);
+
+		try {
+			// L'ascoltatore resta bloccato finche' i turni non sono terminati: i turni non lo attendono
+			partita.getBusEventi().aggiungiAscoltatore(frame -> {
+				try {
+					fineVisualizzazione.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				numeri.add(frame.getNumero());
+			}, esecutore);
+
+			int turniGiocati = 0;
+			for(int turno = 0; turno < 30 && partita.eseguiTurno(TipoAzione.VAI, Direzioni.spostamentoRandom(generatore)) != 0; turno++) {
+				turniGiocati++;
+			}
+			Assertions.assertTrue(turniGiocati > 0);
+			Assertions.assertTrue(numeri.isEmpty());
+
+			fineVisualizzazione.countDown();
+			esecutore.shutdown();
+			Assertions.assertTrue(esecutore.awaitTermination(5, TimeUnit.SECONDS));
+
+			// I frame arrivano tutti, nell'ordine in cui sono stati prodotti
+			Assertions.assertFalse(numeri.isEmpty());
+			for(int i = 0; i < numeri.size(); i++) {
+				Assertions.assertEquals(i + 1, numeri.get(i));
+			}
+		}
+		finally {
+			esecutore.shutdownNow();
+		}
+		Assertions.assertThrows(NullPointerException.class, () -> partita.getBusEventi().aggiungiAscoltatore(null, Runnable::run));
+	}
+}
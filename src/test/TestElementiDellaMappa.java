@@ -59,7 +59,7 @@ class TestElementiDellaMappa {
 		};
 		
 		this.cucicoloPerTest.aggiungiListener(listenerDiProva);
-		this.cucicoloPerTest.incontroConAgente(this.agentePerTest);
+		this.cucicoloPerTest.incontroConAgente(this.agentePerTest, this.mappaPerTest.getGeneratoreCasuale());
 		
 		PropertyChangeEvent eventoLanciato = eventiLanciati.get(0);
 		Assertions.assertEquals("cucciolo", eventoLanciato.getPropertyName());
@@ -71,7 +71,7 @@ class TestElementiDellaMappa {
 	void testEliminaSuperstite() {
 		int numFrecce = this.agentePerTest.getNumFrecce();
 		int punteggio = this.agentePerTest.getPunteggio();
-		String res = this.superstitePerTest.eliminaSuperstite(this.agentePerTest);
+		String res = this.superstitePerTest.eliminaSuperstite(this.agentePerTest, this.mappaPerTest.getGeneratoreCasuale());
 		
 		Assertions.assertNotEquals("", res);
 		Assertions.assertTrue(res.equals(this.superstitePerTest.getNome() + " ricompensa Link con una freccia.") || res.equals(this.superstitePerTest.getNome() + " ricompensa Link con " + this.superstitePerTest.getValore() + " monete d'oro."));
@@ -3,6 +3,7 @@ package test;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.SplittableRandom;
 import java.util.Vector;
 
 import org.junit.jupiter.api.Assertions;
@@ -16,7 +17,7 @@ class TestElementoEliminabile {
 	private class ElementoEliminabile extends model.elementi.ElementoEliminabile {
 
 		private ElementoEliminabile(int latoScacchiera, String nome) throws IllegalArgumentException {
-			super(latoScacchiera, nome);
+			super(latoScacchiera, nome, new SplittableRandom());
 		}
 
 		private ElementoEliminabile(int latoScacchiera, int riga, int colonna, String nome)
@@ -45,6 +46,16 @@ class TestElementoEliminabile {
 		Assertions.assertThrows(IllegalArgumentException.class, () -> {new ElementoEliminabile(0, "Elemento di prova");});
 	}
 	
+	@Test
+	void testCostruttoreConGeneratore() {
+		// La casella scelta a caso dipende solo dal generatore ricevuto
+		model.elementi.Tesoro primo = new model.elementi.Tesoro(15, new SplittableRandom(3));
+		model.elementi.Tesoro secondo = new model.elementi.Tesoro(15, new SplittableRandom(3));
+		
+		Assertions.assertEquals(primo.getCasella(), secondo.getCasella());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> {new model.elementi.Tesoro(15, null);});
+	}
+	
 	@ParameterizedTest
 	@CsvSource({"1, true", "0, false", "-1, false"})
 	void testCostruttoreConLatoScacchiera2(String latoScacchiera, String atteso) {
@@ -110,6 +121,9 @@ class TestElementoEliminabile {
 	
 	@Test
 	void testPresenzaPropertyChangeSupport() {
+		// Il PropertyChangeSupport viene creato solo con il primo listener
+		Assertions.assertNull(this.elementoPerTest.getSupportoEventi());
+		this.elementoPerTest.aggiungiListener(evt -> {});
 		Assertions.assertNotNull(this.elementoPerTest.getSupportoEventi());
 		Assertions.assertTrue(this.elementoPerTest.getSupportoEventi() instanceof PropertyChangeSupport);
 	}
@@ -189,7 +203,7 @@ class TestElementoEliminabile {
 		this.elementoPerTest.eliminaElemento();
 
 		PropertyChangeEvent eventoLanciato = eventiLanciati.get(0);
-		Assertions.assertTrue(((model.elementi.Elemento) eventoLanciato.getOldValue()).getInGioco());
+		Assertions.assertEquals(model.gioco.Casella.di(5, 7), eventoLanciato.getOldValue());
 		Assertions.assertFalse(((model.elementi.Elemento) eventoLanciato.getNewValue()).getInGioco());
 	}
 }
\ No newline at end of file
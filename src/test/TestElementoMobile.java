@@ -98,9 +98,9 @@ class TestElementoMobile {
 		this.elementoPerTest.sposta(1,1);
 		
 		PropertyChangeEvent eventoLanciato = eventiLanciati.get(0);
-		Assertions.assertEquals(((model.elementi.Elemento) eventoLanciato.getOldValue()).getRiga(), 5);
+		Assertions.assertEquals(model.gioco.Casella.riga((Long) eventoLanciato.getOldValue()), 5);
 		Assertions.assertEquals(((model.elementi.Elemento) eventoLanciato.getNewValue()).getRiga(), 6);
-		Assertions.assertEquals(((model.elementi.Elemento) eventoLanciato.getOldValue()).getColonna(), 7);		
+		Assertions.assertEquals(model.gioco.Casella.colonna((Long) eventoLanciato.getOldValue()), 7);		
 		Assertions.assertEquals(((model.elementi.Elemento) eventoLanciato.getNewValue()).getColonna(), 8);
 	}
 }
\ No newline at end of file
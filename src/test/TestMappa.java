@@ -5,8 +5,14 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 import java.util.Vector;
 
 import org.junit.jupiter.api.Assertions;
@@ -20,6 +26,9 @@ import model.elementi.CuccioloDiWumpus;
 import model.elementi.Superstite;
 import model.elementi.Tesoro;
 import model.elementi.Wumpus;
+import model.gioco.Casella;
+import model.gioco.Direzioni;
+import model.gioco.ModalitaGenerazione;
 
 class TestMappa {
 
@@ -61,6 +70,286 @@ class TestMappa {
 		}
 	}
 	
+	@ParameterizedTest
+	@CsvSource({"5, 10, 1, 1, 1", "15, 30, 5, 5, 5", "15, 10, 1, 1, 1"})
+	void testCostruttoreCompletoMappaLimiti(int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli) {
+		Mappa mappaLimite = new Mappa(latoMappa, probabilitaVoragine, numTesori, numSuperstiti, numCuccioli);
+		
+		Assertions.assertEquals(latoMappa, mappaLimite.getLatoMappa());
+		Assertions.assertEquals(numTesori, mappaLimite.getTesori().length);
+		Assertions.assertEquals(numSuperstiti, mappaLimite.getSuperstiti().length);
+		Assertions.assertEquals(numCuccioli, mappaLimite.getCuccioli().length);
+		Assertions.assertTrue(mappaLimite.controlloValiditaMappa());
+	}
+	
+	@Test
+	void testControlloValiditaMappa() throws IllegalArgumentException, IOException {
+		// Nella mappa di test tutti gli elementi sono raggiungibili dalla casella dell'agente
+		Assertions.assertTrue(this.mappaPerTestCaricata.controlloValiditaMappa());
+		// Le voragini circondano il Wumpus
+		Assertions.assertFalse(Mappa.caricamento("mappaPerTestWumpusIrraggiungibile.txt").controlloValiditaMappa());
+		// Le voragini isolano il tesoro nell'angolo della mappa
+		Assertions.assertFalse(Mappa.caricamento("mappaPerTestTesoroIrraggiungibile.txt").controlloValiditaMappa());
+	}
+	
+	@ParameterizedTest
+	@CsvSource({"RIGETTO, 10, 20", "COSTRUTTIVA, 10, 20", "COSTRUTTIVA, 15, 40", "COSTRUTTIVA, 5, 40"})
+	void testModalitaGenerazione(ModalitaGenerazione modalitaGenerazione, int latoMappa, int probabilitaVoragine) {
+		Mappa mappaGenerata = new Mappa(latoMappa, probabilitaVoragine, 3, 2, 2, modalitaGenerazione);
+		Vector<model.elementi.Elemento> elencoElementiMappa = mappaGenerata.getElencoElementiMappa();
+		
+		Assertions.assertEquals(3, mappaGenerata.getTesori().length);
+		Assertions.assertEquals(2, mappaGenerata.getSuperstiti().length);
+		Assertions.assertEquals(2, mappaGenerata.getCuccioli().length);
+		Assertions.assertEquals(mappaGenerata.getNumeroVoragini() + 1 + 3 + 2 + 2, elencoElementiMappa.size());
+		
+		// Ogni elemento occupa una casella distinta e nessun elemento si trova nella casella dell'agente
+		for(model.elementi.Elemento el : elencoElementiMappa) {
+			Assertions.assertSame(el, mappaGenerata.contenutoCasella(el));
+			Assertions.assertFalse(el.getRiga() == mappaGenerata.getAgente().getRiga() && el.getColonna() == mappaGenerata.getAgente().getColonna());
+		}
+		
+		// La generazione costruttiva deve produrre mappe giocabili anche con l'alta densita' di voragini
+		if(modalitaGenerazione == ModalitaGenerazione.COSTRUTTIVA) {
+			Assertions.assertTrue(mappaGenerata.controlloValiditaMappa());
+		}
+	}
+	
+	@Test
+	void testGeneratoreCasuale() {
+		// A parita' di seme, la generazione della mappa e' riproducibile
+		model.gioco.Mappa primaMappa = new model.gioco.Mappa(10, 20, 3, 2, 2, ModalitaGenerazione.COSTRUTTIVA, new SplittableRandom(7));
+		model.gioco.Mappa secondaMappa = new model.gioco.Mappa(10, 20, 3, 2, 2, ModalitaGenerazione.COSTRUTTIVA, new SplittableRandom(7));
+		
+		Assertions.assertEquals(primaMappa.getElencoElementiMappa().toString(), secondaMappa.getElencoElementiMappa().toString());
+		Assertions.assertEquals(primaMappa.getWumpus().getValore(), secondaMappa.getWumpus().getValore());
+		for(int i = 0; i < primaMappa.getSuperstiti().length; i++)
+			Assertions.assertEquals(primaMappa.getSuperstiti()[i].getValore(), secondaMappa.getSuperstiti()[i].getValore());
+		
+		// Anche gli spostamenti dei cuccioli usano il generatore della mappa
+		for(int turno = 0; turno < 20; turno++) {
+			for(int i = 0; i < primaMappa.getCuccioli().length; i++) {
+				Assertions.assertEquals(primaMappa.getCuccioli()[i].sposta(primaMappa), secondaMappa.getCuccioli()[i].sposta(secondaMappa));
+				Assertions.assertEquals(primaMappa.getCuccioli()[i].getCasella(), secondaMappa.getCuccioli()[i].getCasella());
+			}
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new model.gioco.Mappa(10, 20, 3, 2, 2, ModalitaGenerazione.COSTRUTTIVA, null));
+	}
+	
+	@Test
+	void testMappaEstesa() {
+		model.gioco.Mappa mappaEstesa = Mappa.generaMappaEstesa(1000, 20, 0.001, 0.0005, 0.0002);
+		
+		Assertions.assertEquals(1000, mappaEstesa.getLatoMappa());
+		Assertions.assertEquals(1000, mappaEstesa.getTesori().length);
+		Assertions.assertEquals(500, mappaEstesa.getSuperstiti().length);
+		Assertions.assertEquals(200, mappaEstesa.getCuccioli().length);
+		Assertions.assertTrue(mappaEstesa.getNumeroVoragini() > 150000 && mappaEstesa.getNumeroVoragini() < 250000);
+		
+		Assertions.assertSame(mappaEstesa.getWumpus(), mappaEstesa.contenutoCasella(mappaEstesa.getWumpus()));
+		for(Tesoro tesoro : mappaEstesa.getTesori())
+			Assertions.assertSame(tesoro, mappaEstesa.contenutoCasella(tesoro));
+		for(Superstite superstite : mappaEstesa.getSuperstiti())
+			Assertions.assertSame(superstite, mappaEstesa.contenutoCasella(superstite));
+		for(CuccioloDiWumpus cucciolo : mappaEstesa.getCuccioli())
+			Assertions.assertSame(cucciolo, mappaEstesa.contenutoCasella(cucciolo));
+		Assertions.assertNull(mappaEstesa.contenutoCasella(mappaEstesa.getAgente()));
+	}
+	
+	@ParameterizedTest
+	@CsvSource({"4, 20, 0.001, 0.001, 0.001", "10001, 20, 0.001, 0.001, 0.001", "100, 9, 0.001, 0.001, 0.001", "100, 20, -0.001, 0.001, 0.001", "100, 20, 0.001, 0.06, 0.001", "100, 20, 0.001, 0.001, NaN"})
+	void testMappaEstesaException(int latoMappa, int probabilitaVoragine, double densitaTesori, double densitaSuperstiti, double densitaCuccioli) {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> Mappa.generaMappaEstesa(latoMappa, probabilitaVoragine, densitaTesori, densitaSuperstiti, densitaCuccioli));
+	}
+	
+	@Test
+	void testSalvataggioMappaEstesa() throws IOException {
+		model.gioco.Mappa mappaEstesa = Mappa.generaMappaEstesa(100, 30, 0.002, 0.001, 0.001);
+		File fileMappaEstesa = File.createTempFile("mappaEstesa", ".txt");
+		
+		try {
+			mappaEstesa.salvataggio(fileMappaEstesa.getPath());
+			Mappa mappaCaricata = new Mappa(fileMappaEstesa);
+			
+			Assertions.assertEquals(100, mappaCaricata.getLatoMappa());
+			Assertions.assertEquals(mappaEstesa.getNumeroVoragini(), mappaCaricata.getNumeroVoragini());
+			Assertions.assertEquals(20, mappaCaricata.getTesori().length);
+			Assertions.assertEquals(mappaEstesa.getElencoElementiMappa(), mappaCaricata.getElencoElementiMappa());
+		}
+		finally {
+			fileMappaEstesa.delete();
+		}
+	}
+	
+	@Test
+	void testSalvataggioBinario() throws IOException {
+		File fileBinario = File.createTempFile("mappaBinaria", ".bin");
+		File fileTestuale = File.createTempFile("mappaBinaria", ".txt");
+		File fileAtteso = File.createTempFile("mappaTestuale", ".txt");
+		// La mappa di test ha lato 5: le 25 caselle stanno in un'unica parola
+		long[] caselleScoperte = { 0b1011L | 1L << 24 };
+		
+		try {
+			this.mappaPerTestCaricata.salvataggioBinario(fileBinario.getPath(), caselleScoperte);
+			Mappa mappaCaricata = new Mappa(fileBinario);
+			
+			// Il salvataggio testuale della mappa ricaricata coincide con quello della mappa originale
+			this.mappaPerTestCaricata.salvataggio(fileAtteso.getPath());
+			mappaCaricata.salvataggio(fileTestuale.getPath());
+			Assertions.assertEquals(Files.readAllLines(fileAtteso.toPath()), Files.readAllLines(fileTestuale.toPath()));
+			Assertions.assertArrayEquals(caselleScoperte, mappaCaricata.getCaselleScoperte());
+			Assertions.assertTrue(fileBinario.length() < fileAtteso.length());
+			
+			// Senza caselle scoperte la maschera non viene salvata
+			this.mappaPerTestCaricata.salvataggioBinario(fileBinario.getPath(), null);
+			Assertions.assertNull(new Mappa(fileBinario).getCaselleScoperte());
+			Assertions.assertNull(this.mappaPerTestCaricata.getCaselleScoperte());
+			
+			Assertions.assertThrows(IllegalArgumentException.class, () -> this.mappaPerTestCaricata.salvataggioBinario(fileBinario.getPath(), new long[2]));
+		}
+		finally {
+			fileBinario.delete();
+			fileTestuale.delete();
+			fileAtteso.delete();
+		}
+	}
+	
+	@Test
+	void testCaricamentoPiuRecente() throws IOException {
+		File fileBinario = File.createTempFile("mappaBinaria", ".bin");
+		File fileTestuale = File.createTempFile("mappaTestuale", ".txt");
+		Mappa mappaQuasiVuota = new Mappa(new File("mappaPerTestQuasiVuota.txt"));
+		
+		try {
+			// Il salvataggio binario e il salvataggio testuale descrivono due partite diverse
+			Assertions.assertNotEquals(this.mappaPerTestCaricata.getElencoElementiMappa(), mappaQuasiVuota.getElencoElementiMappa());
+			this.mappaPerTestCaricata.salvataggioBinario(fileBinario.getPath(), null);
+			mappaQuasiVuota.salvataggio(fileTestuale.getPath());
+			long adesso = System.currentTimeMillis();
+			
+			// Salvataggio testuale piu' recente di quello binario
+			Assertions.assertTrue(fileBinario.setLastModified(adesso - 60000));
+			Assertions.assertTrue(fileTestuale.setLastModified(adesso));
+			Assertions.assertEquals(mappaQuasiVuota.getElencoElementiMappa(), Mappa.caricamento(fileBinario, fileTestuale).getElencoElementiMappa());
+			
+			// Salvataggio binario piu' recente di quello testuale
+			Assertions.assertTrue(fileTestuale.setLastModified(adesso - 120000));
+			Assertions.assertEquals(this.mappaPerTestCaricata.getElencoElementiMappa(), Mappa.caricamento(fileBinario, fileTestuale).getElencoElementiMappa());
+			
+			// Se esiste uno solo dei due salvataggi viene caricato quello
+			Assertions.assertTrue(fileBinario.delete());
+			Assertions.assertEquals(mappaQuasiVuota.getElencoElementiMappa(), Mappa.caricamento(fileBinario, fileTestuale).getElencoElementiMappa());
+		}
+		finally {
+			fileBinario.delete();
+			fileTestuale.delete();
+		}
+	}
+	
+	@Test
+	void testSalvataggioBinarioMappaEstesa() throws IOException {
+		model.gioco.Mappa mappaEstesa = Mappa.generaMappaEstesa(300, 30, 0.002, 0.001, 0.001, new SplittableRandom(7));
+		File fileMappaEstesa = File.createTempFile("mappaEstesa", ".bin");
+		
+		try {
+			mappaEstesa.salvataggioBinario(fileMappaEstesa.getPath(), null);
+			Mappa mappaCaricata = new Mappa(fileMappaEstesa);
+			
+			Assertions.assertEquals(300, mappaCaricata.getLatoMappa());
+			Assertions.assertEquals(mappaEstesa.getNumeroVoragini(), mappaCaricata.getNumeroVoragini());
+			Assertions.assertEquals(mappaEstesa.getElencoElementiMappa(), mappaCaricata.getElencoElementiMappa());
+		}
+		finally {
+			fileMappaEstesa.delete();
+		}
+	}
+	
+	@Test
+	void testCaricamentoBinarioNonValido() throws IOException {
+		File fileBinario = File.createTempFile("mappaBinaria", ".bin");
+		
+		try {
+			this.mappaPerTestCaricata.salvataggioBinario(fileBinario.getPath(), null);
+			byte[] contenuto = Files.readAllBytes(fileBinario.toPath());
+			
+			// File troncato
+			Files.write(fileBinario.toPath(), Arrays.copyOf(contenuto, contenuto.length - 1));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> new Mappa(fileBinario));
+			
+			// Versione del formato non supportata
+			ByteBuffer.wrap(contenuto).putShort(4, (short) 99);
+			Files.write(fileBinario.toPath(), contenuto);
+			Assertions.assertThrows(IllegalArgumentException.class, () -> new Mappa(fileBinario));
+		}
+		finally {
+			fileBinario.delete();
+		}
+	}
+	
+	@Test
+	void testCaricamentoTestualeNonValido() throws IOException {
+		File fileTestuale = File.createTempFile("mappaNonValida", ".txt");
+		String contenuto = Files.readString(Path.of(this.salvataggioWumpusTest));
+		
+		try {
+			// Le linee terminate da "\r\n" vengono lette come quelle terminate da "\n"
+			Files.writeString(fileTestuale.toPath(), contenuto.replace("\n", "\r\n"));
+			Assertions.assertEquals(this.mappaPerTestCaricata.getElencoElementiMappa(), new Mappa(fileTestuale).getElencoElementiMappa());
+			
+			// L'errore indica la posizione della linea non valida
+			String nonValido = contenuto.replace("Numero dei tesori: 1", "Numero dei tesori: x");
+			Files.writeString(fileTestuale.toPath(), nonValido);
+			IllegalArgumentException errore = Assertions.assertThrows(IllegalArgumentException.class, () -> new Mappa(fileTestuale));
+			Assertions.assertTrue(errore.getMessage().contains("posizione " + nonValido.indexOf("Numero dei tesori")), errore.getMessage());
+			
+			// File troncato
+			Files.writeString(fileTestuale.toPath(), contenuto.substring(0, contenuto.indexOf("Elenco dei tesori")));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> new Mappa(fileTestuale));
+			
+			Files.writeString(fileTestuale.toPath(), contenuto.replace("Dimensione del lato della mappa: 5", "Dimensione del lato della mappa: 99999999999"));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> new Mappa(fileTestuale));
+		}
+		finally {
+			fileTestuale.delete();
+		}
+	}
+	
+	@Test
+	void testCaricamentoCartella() throws IOException, InterruptedException {
+		Path cartella = Files.createTempDirectory("salvataggi");
+		model.gioco.Mappa[] mappeSalvate = new model.gioco.Mappa[6];
+		
+		try {
+			for(int i = 0; i < mappeSalvate.length; i++) {
+				mappeSalvate[i] = new Mappa(10, 20, 3, 2, 2, ModalitaGenerazione.COSTRUTTIVA);
+				// Meta' dei salvataggi nel formato binario, meta' nel formato testuale
+				if(i % 2 == 0) {
+					mappeSalvate[i].salvataggioBinario(cartella.resolve("partita" + i).toString(), null);
+				}
+				else {
+					mappeSalvate[i].salvataggio(cartella.resolve("partita" + i).toString());
+				}
+			}
+			
+			Map<Path, model.gioco.Mappa> mappeCaricate = Mappa.caricamentoCartella(cartella, 3);
+			
+			Assertions.assertEquals(mappeSalvate.length, mappeCaricate.size());
+			for(int i = 0; i < mappeSalvate.length; i++) {
+				Assertions.assertEquals(mappeSalvate[i].getElencoElementiMappa(), mappeCaricate.get(cartella.resolve("partita" + i)).getElencoElementiMappa());
+			}
+			
+			Files.writeString(cartella.resolve("nonValido"), "Caratteristiche della mappa\n");
+			Assertions.assertThrows(IllegalArgumentException.class, () -> Mappa.caricamentoCartella(cartella, 3));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> Mappa.caricamentoCartella(cartella, 0));
+		}
+		finally {
+			try (var contenuto = Files.list(cartella)) {
+				contenuto.forEach(file -> file.toFile().delete());
+			}
+			Files.delete(cartella);
+		}
+	}
+	
 	@Test
 	void testCostruttoreCompletoMappa() {		
 		Vector<model.elementi.Elemento> elencoElementiMappa = this.mappaPerTest.getElencoElementiMappa();
@@ -168,14 +457,17 @@ class TestMappa {
 	void testAggiungiAllaMappa() {
 		Elemento elementoDaAggiungereValido = new Elemento(this.mappaPerTestCaricata.getLatoMappa(),3,3);
 		Elemento elementoDaAggiungereNonValido = new Elemento(this.mappaPerTestCaricata.getLatoMappa(),2,2); //qui c'e' il wumpus
+		// getElencoElementiMappa restituisce una copia dell'elenco, quindi la si richiede una sola volta
+		// dopo ogni modifica della mappa
 		Integer dimensioneElencoElementiMappaIniziale = this.mappaPerTestCaricata.getElencoElementiMappa().size();
 		
 		Assertions.assertFalse(this.mappaPerTestCaricata.aggiungiAllaMappa(elementoDaAggiungereNonValido));
 		Assertions.assertEquals(dimensioneElencoElementiMappaIniziale, this.mappaPerTestCaricata.getElencoElementiMappa().size());
 		
 		Assertions.assertTrue(this.mappaPerTestCaricata.aggiungiAllaMappa(elementoDaAggiungereValido));
-		Assertions.assertEquals(this.mappaPerTestCaricata.getElencoElementiMappa().get(this.mappaPerTestCaricata.getElencoElementiMappa().size()-1), elementoDaAggiungereValido);
-		Assertions.assertNotEquals(dimensioneElencoElementiMappaIniziale, this.mappaPerTestCaricata.getElencoElementiMappa().size());		
+		Vector<model.elementi.Elemento> elencoElementiMappa = this.mappaPerTestCaricata.getElencoElementiMappa();
+		Assertions.assertEquals(elencoElementiMappa.get(elencoElementiMappa.size()-1), elementoDaAggiungereValido);
+		Assertions.assertNotEquals(dimensioneElencoElementiMappaIniziale, elencoElementiMappa.size());		
 	}
 	
 	@Test
@@ -188,6 +480,116 @@ class TestMappa {
 		Assertions.assertNull(this.mappaPerTestCaricata.contenutoCasella(elementoNonPresente));
 	}
 	
+	@Test
+	void testContenutoCasellaCoordinate() {
+		Assertions.assertSame(this.wumpusPerTest, this.mappaPerTestCaricata.contenutoCasella(2, 2));
+		Assertions.assertNull(this.mappaPerTestCaricata.contenutoCasella(3, 3));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> this.mappaPerTestCaricata.contenutoCasella(-1, 0));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> this.mappaPerTestCaricata.contenutoCasella(0, this.mappaPerTestCaricata.getLatoMappa()));
+	}
+	
+	@Test
+	void testContenutoCasellaAggiornato() {
+		Elemento vecchiaCasellaCucciolo = new Elemento(this.mappaPerTestCaricata.getLatoMappa(), 4, 0);
+		Elemento nuovaCasellaCucciolo = new Elemento(this.mappaPerTestCaricata.getLatoMappa(), 4, 1); //unica casella libera adiacente al cucciolo
+		Elemento casellaSuperstite = new Elemento(this.mappaPerTestCaricata.getLatoMappa(), 1, 2);
+		
+		Assertions.assertSame(this.cuccioliPerTest[0], this.mappaPerTestCaricata.contenutoCasella(vecchiaCasellaCucciolo));
+		this.cuccioliPerTest[0].sposta(this.mappaPerTestCaricata);
+		Assertions.assertNull(this.mappaPerTestCaricata.contenutoCasella(vecchiaCasellaCucciolo));
+		Assertions.assertSame(this.cuccioliPerTest[0], this.mappaPerTestCaricata.contenutoCasella(nuovaCasellaCucciolo));
+		
+		Assertions.assertSame(this.superstitiPerTest[0], this.mappaPerTestCaricata.contenutoCasella(casellaSuperstite));
+		this.superstitiPerTest[0].uccisioneSuperstite();
+		Assertions.assertNull(this.mappaPerTestCaricata.contenutoCasella(casellaSuperstite));
+		Assertions.assertTrue(this.mappaPerTestCaricata.aggiungiAllaMappa(casellaSuperstite));
+	}
+	
+	@Test
+	void testDirezioniLibere() {
+		CuccioloDiWumpus cucciolo = this.cuccioliPerTest[0];
+		byte[] maschere = new byte[this.cuccioliPerTest.length];
+		
+		// L'unica casella libera adiacente al cucciolo e' quella ad est
+		Assertions.assertEquals(1 << Direzioni.EST.ordinal(), this.mappaPerTestCaricata.direzioniLibere(cucciolo.getCasella()));
+		cucciolo.sposta(this.mappaPerTestCaricata);
+		Assertions.assertEquals(1, Casella.colonna(cucciolo.getCasella()));
+		Assertions.assertTrue((this.mappaPerTestCaricata.direzioniLibere(Casella.di(4, 1)) & (1 << Direzioni.OVEST.ordinal())) != 0);
+		
+		// Un cucciolo che esce dal gioco libera la sua casella e non ha direzioni libere
+		cucciolo.uccisioneCucciolo();
+		this.mappaPerTestCaricata.direzioniLibere(this.cuccioliPerTest, maschere);
+		Assertions.assertEquals(0, maschere[0]);
+		Assertions.assertNull(this.mappaPerTestCaricata.contenutoCasella(4, 1));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> this.mappaPerTestCaricata.direzioniLibere(Casella.di(-1, 0)));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> this.mappaPerTestCaricata.direzioniLibere(this.cuccioliPerTest, new byte[0]));
+		
+		// Mentre i cuccioli si spostano l'indice di occupazione resta coerente con il contenuto delle caselle
+		model.gioco.Mappa mappaEstesa = Mappa.generaMappaEstesa(60, 20, 0.02, 0.02, 0.05, new SplittableRandom(7));
+		CuccioloDiWumpus[] cuccioli = mappaEstesa.getCuccioli();
+		SplittableRandom generatore = new SplittableRandom(7);
+		maschere = new byte[cuccioli.length];
+		
+		for(int turno = 0; turno < 20; turno++) {
+			mappaEstesa.direzioniLibere(cuccioli, maschere);
+			for(int i = 0; i < cuccioli.length; i++)
+				Assertions.assertEquals(cuccioli[i].getInGioco() ? mappaEstesa.direzioniLibere(cuccioli[i].getCasella()) : 0, maschere[i]);
+			
+			for(int i = 0; i < mappaEstesa.getLatoMappa(); i++)
+				for(int j = 0; j < mappaEstesa.getLatoMappa(); j++) {
+					int libere = 0;
+					
+					for(Direzioni direzione : Direzioni.values()) {
+						long adiacente = direzione.adiacente(Casella.di(i, j));
+						
+						if(mappaEstesa.contiene(adiacente) && mappaEstesa.contenutoCasella(adiacente) == null)
+							libere |= 1 << direzione.ordinal();
+					}
+					Assertions.assertEquals(libere, mappaEstesa.direzioniLibere(Casella.di(i, j)));
+				}
+			
+			for(CuccioloDiWumpus corrente : cuccioli)
+				corrente.spostaCasualmente(mappaEstesa, generatore);
+			cuccioli[turno].uccisioneCucciolo();
+		}
+	}
+	
+	@Test
+	void testScegliSpostamenti() {
+		model.gioco.Mappa mappaEstesa = Mappa.generaMappaEstesa(200, 20, 0.01, 0.01, 0.05, new SplittableRandom(3));
+		CuccioloDiWumpus[] cuccioli = mappaEstesa.getCuccioli();
+		byte[] inSequenza = new byte[cuccioli.length];
+		byte[] inParallelo = new byte[cuccioli.length];
+		int[] direzioniScelte = new int[Direzioni.values().length];
+		
+		cuccioli[0].uccisioneCucciolo();
+		mappaEstesa.scegliSpostamenti(cuccioli, 42, inSequenza, Integer.MAX_VALUE);
+		mappaEstesa.scegliSpostamenti(cuccioli, 42, inParallelo, 16);
+		
+		// La scelta in parallelo coincide con quella in sequenza e cade sempre su una direzione libera
+		Assertions.assertArrayEquals(inSequenza, inParallelo);
+		Assertions.assertEquals(-1, inSequenza[0]);
+		for(int i = 1; i < cuccioli.length; i++) {
+			int libere = mappaEstesa.direzioniLibere(cuccioli[i].getCasella());
+			
+			if(libere == 0)
+				Assertions.assertEquals(-1, inSequenza[i]);
+			else {
+				Assertions.assertTrue((libere & (1 << inSequenza[i])) != 0);
+				direzioniScelte[inSequenza[i]]++;
+			}
+		}
+		for(int scelte : direzioniScelte)
+			Assertions.assertTrue(scelte > 0);
+		
+		// La scelta non modifica la mappa e cambia con il seme
+		Assertions.assertSame(cuccioli[1], mappaEstesa.contenutoCasella(cuccioli[1].getCasella()));
+		mappaEstesa.scegliSpostamenti(cuccioli, 43, inParallelo, 16);
+		Assertions.assertFalse(Arrays.equals(inSequenza, inParallelo));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mappaEstesa.scegliSpostamenti(cuccioli, 42, new byte[1], 16));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mappaEstesa.scegliSpostamenti(cuccioli, 42, inSequenza, 0));
+	}
+	
 	@Test
 	void testControllaBrezza() {
 		Elemento brezzaPresente20 = new Elemento(this.mappaPerTestCaricata.getLatoMappa(), 2, 0);
@@ -216,6 +618,76 @@ class TestMappa {
 		Assertions.assertFalse(this.mappaPerTestCaricata.controllaPuzza(puzzaNonPresente));
 	}
 	
+	@Test
+	void testPuzzaDopoUccisioneWumpus() {
+		Elemento puzzaPresente12 = new Elemento(this.mappaPerTestCaricata.getLatoMappa(), 1, 2);
+		
+		Assertions.assertTrue(this.mappaPerTestCaricata.controllaPuzza(puzzaPresente12));
+		Assertions.assertTrue(this.wumpusPerTest.eliminaWumpus(this.agentePerTest));
+		Assertions.assertFalse(this.mappaPerTestCaricata.controllaPuzza(puzzaPresente12));
+		Assertions.assertFalse(this.mappaPerTestCaricata.controllaPuzza(new Elemento(this.mappaPerTestCaricata.getLatoMappa(), 2, 3)));
+	}
+	
+	@Test
+	void testPercezioniPrecalcolate() {
+		// Le percezioni precalcolate devono coincidere con quelle ricavate dal contenuto delle caselle adiacenti
+		for(int i = 0; i < this.mappaPerTest.getLatoMappa(); i++)
+			for(int j = 0; j < this.mappaPerTest.getLatoMappa(); j++) {
+				boolean brezzaAttesa = false;
+				boolean puzzaAttesa = false;
+				
+				for(model.gioco.Direzioni direzione : model.gioco.Direzioni.values()) {
+					int riga = i + direzione.getSpostamentoRiga();
+					int colonna = j + direzione.getSpostamentoColonna();
+					
+					if(riga >= 0 && riga < this.mappaPerTest.getLatoMappa() && colonna >= 0 && colonna < this.mappaPerTest.getLatoMappa()) {
+						Object contenuto = this.mappaPerTest.contenutoCasella(new Elemento(this.mappaPerTest.getLatoMappa(), riga, colonna));
+						brezzaAttesa |= contenuto instanceof model.gioco.Mappa.Voragine;
+						puzzaAttesa |= contenuto instanceof Wumpus;
+					}
+				}
+				
+				Assertions.assertEquals(brezzaAttesa, this.mappaPerTest.controllaBrezza(new Elemento(this.mappaPerTest.getLatoMappa(), i, j)));
+				Assertions.assertEquals(puzzaAttesa, this.mappaPerTest.controllaPuzza(new Elemento(this.mappaPerTest.getLatoMappa(), i, j)));
+			}
+	}
+	
+	@Test
+	void testCaselleCodificate() {
+		int lato = this.mappaPerTest.getLatoMappa();
+		
+		// Le interrogazioni con le caselle codificate coincidono con quelle con gli Elementi
+		for(int i = 0; i < lato; i++)
+			for(int j = 0; j < lato; j++) {
+				long casella = Casella.di(i, j);
+				Elemento cursore = new Elemento(lato, i, j);
+				
+				Assertions.assertEquals(i, Casella.riga(casella));
+				Assertions.assertEquals(j, Casella.colonna(casella));
+				Assertions.assertEquals(casella, cursore.getCasella());
+				Assertions.assertTrue(this.mappaPerTest.contiene(casella));
+				Assertions.assertSame(this.mappaPerTest.contenutoCasella(cursore), this.mappaPerTest.contenutoCasella(casella));
+				Assertions.assertEquals(this.mappaPerTest.controllaBrezza(cursore), this.mappaPerTest.controllaBrezza(casella));
+				Assertions.assertEquals(this.mappaPerTest.controllaPuzza(cursore), this.mappaPerTest.controllaPuzza(casella));
+				
+				for(Direzioni direzione : Direzioni.values()) {
+					long adiacente = direzione.adiacente(casella);
+					
+					Assertions.assertEquals(i + direzione.getSpostamentoRiga(), Casella.riga(adiacente));
+					Assertions.assertEquals(j + direzione.getSpostamentoColonna(), Casella.colonna(adiacente));
+				}
+			}
+		
+		// Le caselle esterne alla mappa non le appartengono e non hanno percezioni
+		long esterna = Direzioni.OVEST.adiacente(Casella.di(0, 0));
+		Assertions.assertEquals(-1, Casella.colonna(esterna));
+		Assertions.assertFalse(this.mappaPerTest.contiene(esterna));
+		Assertions.assertFalse(this.mappaPerTest.contiene(Casella.di(lato, 0)));
+		Assertions.assertFalse(this.mappaPerTest.controllaBrezza(esterna));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> this.mappaPerTest.contenutoCasella(Casella.di(-1, 0)));
+		Assertions.assertEquals("3, 4", Casella.toString(Casella.di(3, 4)));
+	}
+	
 	@Test
 	void testSalvataggio() {		
 		try {
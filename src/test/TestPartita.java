@@ -2,6 +2,12 @@ package test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,7 +16,13 @@ import org.junit.jupiter.api.Test;
 import model.elementi.Agente;
 import model.elementi.CuccioloDiWumpus;
 import model.elementi.Wumpus;
+import model.gioco.Casella;
+import model.gioco.Direzioni;
+import model.gioco.EsitoTurno;
 import model.gioco.Partita;
+import model.gioco.RegistroAzioni;
+import model.gioco.RiproduttorePartita;
+import model.gioco.TipoAzione;
 
 class TestPartita {
 	
@@ -116,6 +128,50 @@ class TestPartita {
 		Assertions.assertEquals(Mappa.DEFAULT_NUM_CUCCIOLI, partitaLocale1.getMappaDiGioco().getCuccioli().length);
 	}
 	
+	@Test
+	void testAvviaPartitaEstesa() {
+		Partita partitaEstesa = Partita.avviaPartitaEstesa(false, 500, 20, 0.001, 0.001, 0.0004);
+		Assertions.assertEquals(500, partitaEstesa.getMappaDiGioco().getLatoMappa());
+		Assertions.assertEquals(250, partitaEstesa.getMappaDiGioco().getTesori().length);
+		Assertions.assertEquals(250, partitaEstesa.getMappaDiGioco().getSuperstiti().length);
+		Assertions.assertEquals(100, partitaEstesa.getCuccioli().length);
+		Assertions.assertNotNull(partitaEstesa.turnoDiGioco("VAI", model.gioco.Direzioni.EST));
+	}
+	
+	@Test
+	void testSpostamentoCuccioliInDueFasi() {
+		// Con 2000 cuccioli le direzioni vengono scelte in parallelo: due partite con lo stesso seme
+		// devono comunque evolvere in modo identico
+		Partita partita = Partita.avviaPartitaEstesa(false, 200, 20, 0.001, 0.001, 0.05, new SplittableRandom(11));
+		Partita copia = Partita.avviaPartitaEstesa(false, 200, 20, 0.001, 0.001, 0.05, new SplittableRandom(11));
+		CuccioloDiWumpus[] cuccioli = partita.getCuccioli();
+		long[] caselle = new long[cuccioli.length];
+		int spostati = 0;
+		
+		Assertions.assertEquals(2000, cuccioli.length);
+		for(int turno = 0; turno < 10; turno++) {
+			for(int i = 0; i < cuccioli.length; i++)
+				caselle[i] = cuccioli[i].getCasella();
+			
+			Assertions.assertEquals(partita.eseguiTurno(null, null), copia.eseguiTurno(null, null));
+			
+			Set<Long> occupate = new HashSet<Long>();
+			for(int i = 0; i < cuccioli.length; i++) {
+				Assertions.assertEquals(cuccioli[i].getCasella(), copia.getCuccioli()[i].getCasella());
+				Assertions.assertEquals(cuccioli[i].getInGioco(), copia.getCuccioli()[i].getInGioco());
+				
+				// Ogni cucciolo si sposta al piu' di una casella e due cuccioli in gioco non finiscono
+				// mai nella stessa casella
+				int distanza = Math.abs(Casella.riga(caselle[i]) - cuccioli[i].getRiga()) + Math.abs(Casella.colonna(caselle[i]) - cuccioli[i].getColonna());
+				Assertions.assertTrue(distanza <= 1);
+				spostati += distanza;
+				if(cuccioli[i].getInGioco())
+					Assertions.assertTrue(occupate.add(cuccioli[i].getCasella()));
+			}
+		}
+		Assertions.assertTrue(spostati > 0);
+	}
+	
 	@Test
 	void testAvviaPartitaConTemporizzazione() throws InterruptedException {	
 		this.partitaPerTestDefaults = Partita.avviaPartita(); // mappa(10, 20, 3, 2, 2) -> Mappa(int latoMappa, int probabilitaVoragine, int numTesori, int numSuperstiti, int numCuccioli)
@@ -131,6 +187,146 @@ class TestPartita {
 		this.attesaPerTest.interrupt();
 	}
 	
+	@Test
+	void testTemporizzazioneConfigurabile() throws InterruptedException {
+		Partita partitaVeloce = Partita.avviaPartitaRegistrata(false, 1, 15, 10, 5, 5, 5);
+		Partita partitaLenta = Partita.avviaPartitaRegistrata(false, 1, 15, 10, 5, 5, 5);
+		Assertions.assertEquals(0, partitaVeloce.getTempoPerTurno());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> partitaVeloce.avviaTemporizzazione(0));
+		
+		partitaVeloce.avviaTemporizzazione(100);
+		partitaLenta.avviaTemporizzazione(60000);
+		Assertions.assertEquals(100, partitaVeloce.getTempoPerTurno());
+		Assertions.assertEquals(60000, partitaLenta.getTempoPerTurno());
+		
+		// Solo la partita con il turno breve gioca turni automatici
+		RegistroAzioni registroVeloce = partitaVeloce.getRegistroAzioni();
+		for(int i = 0; i < 100 && registroVeloce.getNumeroTurni() < 2 && partitaVeloce.getTempoPerTurno() != 0; i++) {
+			Thread.sleep(50);
+		}
+		Assertions.assertTrue(registroVeloce.getNumeroTurni() >= 1);
+		Assertions.assertTrue(registroVeloce.isAutomatico(0));
+		Assertions.assertEquals(0, partitaLenta.getRegistroAzioni().getNumeroTurni());
+		
+		// Dopo l'arresto della temporizzazione non si giocano altri turni automatici
+		partitaVeloce.fermaTemporizzazione();
+		Assertions.assertEquals(0, partitaVeloce.getTempoPerTurno());
+		int turniGiocati = registroVeloce.getNumeroTurni();
+		Thread.sleep(400);
+		Assertions.assertEquals(turniGiocati, registroVeloce.getNumeroTurni());
+		
+		// I turni del giocatore rinviano la scadenza del turno
+		partitaLenta.avviaTemporizzazione(1000);
+		for(int i = 0; i < 15; i++) {
+			partitaLenta.eseguiTurno(null, null);
+			Thread.sleep(100);
+		}
+		RegistroAzioni registroLento = partitaLenta.getRegistroAzioni();
+		for(int turno = 0; turno < registroLento.getNumeroTurni(); turno++) {
+			Assertions.assertFalse(registroLento.isAutomatico(turno));
+		}
+		partitaLenta.fermaTemporizzazione();
+	}
+	
+	@Test
+	void testInviaTurno() throws InterruptedException {
+		Partita partita = Partita.avviaPartitaRegistrata(false, 2, 15, 10, 5, 5, 5);
+		List<CompletableFuture<Integer>> esiti = new Vector<CompletableFuture<Integer>>();
+		Thread[] giocatori = new Thread[4];
+		
+		// Turni inviati da piu' thread mentre il temporizzatore avvia turni automatici
+		partita.avviaTemporizzazione(5);
+		for(int i = 0; i < giocatori.length; i++) {
+			SplittableRandom generatore = new SplittableRandom(i);
+			giocatori[i] = new Thread(() -> {
+				for(int j = 0; j < 100; j++) {
+					TipoAzione azione = generatore.nextBoolean() ? TipoAzione.VAI : null;
+					esiti.add(partita.inviaTurno(azione, Direzioni.spostamentoRandom(generatore)));
+				}
+			});
+			giocatori[i].start();
+		}
+		for(Thread giocatore : giocatori) {
+			giocatore.join();
+		}
+		int turniGiocati = 0;
+		for(CompletableFuture<Integer> esito : esiti) {
+			if(esito.join() != 0) {
+				turniGiocati++;
+			}
+		}
+		partita.fermaTemporizzazione();
+		
+		// Ogni turno e' stato giocato per intero, uno alla volta: la riproduzione del registro porta
+		// allo stesso stato della partita
+		RegistroAzioni registro = partita.getRegistroAzioni();
+		int turniAutomatici = 0;
+		for(int turno = 0; turno < registro.getNumeroTurni(); turno++) {
+			if(registro.isAutomatico(turno)) {
+				turniAutomatici++;
+			}
+		}
+		Assertions.assertEquals(400, esiti.size());
+		Assertions.assertEquals(turniGiocati + turniAutomatici, registro.getNumeroTurni());
+		
+		Partita riprodotta = new RiproduttorePartita(registro).riproduciTutto();
+		Assertions.assertEquals(partita.getAgente(), riprodotta.getAgente());
+		Assertions.assertEquals(partita.getAgente().getPunteggio(), riprodotta.getAgente().getPunteggio());
+		Assertions.assertEquals(partita.getAgente().getNumFrecce(), riprodotta.getAgente().getNumFrecce());
+		for(int i = 0; i < partita.getCuccioli().length; i++) {
+			Assertions.assertEquals(partita.getCuccioli()[i], riprodotta.getCuccioli()[i]);
+		}
+	}
+	
+	@Test
+	void testEseguiTurni() {
+		for(long seme = 0; seme < 20; seme++) {
+			Partita singoli = Partita.avviaPartitaRegistrata(false, seme, 15, 10, 5, 5, 5);
+			Partita aBlocchi = Partita.avviaPartitaRegistrata(false, seme, 15, 10, 5, 5, 5);
+			SplittableRandom generatore = new SplittableRandom(seme);
+			byte[] azioni = new byte[300];
+			
+			for(int i = 0; i < azioni.length; i++) {
+				TipoAzione azione = generatore.nextInt(5) == 0 ? TipoAzione.FRECCIA : TipoAzione.VAI;
+				azioni[i] = RegistroAzioni.codifica(azione, Direzioni.spostamentoRandom(generatore));
+			}
+			
+			// I turni giocati a blocchi hanno gli stessi esiti di quelli giocati uno alla volta,
+			// e si fermano al termine della partita
+			int[] esiti = new int[100];
+			int giocati = 0;
+			for(int inizio = 0; inizio < azioni.length; inizio += esiti.length) {
+				giocati += aBlocchi.eseguiTurni(azioni, inizio, esiti.length, esiti);
+			}
+			int giocatiSingoli = 0;
+			for(byte azione : azioni) {
+				if(singoli.eseguiTurno((azione & 3) == 0 ? TipoAzione.VAI : TipoAzione.FRECCIA, Direzioni.values()[azione >>> 2]) == 0) {
+					break;
+				}
+				giocatiSingoli++;
+			}
+			Assertions.assertEquals(giocatiSingoli, giocati);
+			Assertions.assertEquals(singoli.getAgente(), aBlocchi.getAgente());
+			Assertions.assertEquals(singoli.getAgente().getPunteggio(), aBlocchi.getAgente().getPunteggio());
+			Assertions.assertEquals(singoli.getAgente().getInGioco(), aBlocchi.getAgente().getInGioco());
+			if(!(aBlocchi.getAgente().getInGioco() && aBlocchi.getWumpus().getInGioco())) {
+				Assertions.assertEquals(0, aBlocchi.eseguiTurni(azioni).length);
+			}
+			
+			// I turni di un registro, compresi quelli automatici, vengono rigiocati uguali
+			singoli.turnoAutomatico();
+			Partita rigiocata = Partita.avviaPartitaRegistrata(false, seme, 15, 10, 5, 5, 5);
+			int[] esitiRigiocati = rigiocata.eseguiTurni(singoli.getRegistroAzioni().getTurni());
+			Assertions.assertEquals(singoli.getRegistroAzioni().getNumeroTurni(), esitiRigiocati.length);
+			Assertions.assertEquals(singoli.getAgente(), rigiocata.getAgente());
+			Assertions.assertEquals(singoli.getAgente().getPunteggio(), rigiocata.getAgente().getPunteggio());
+		}
+		
+		Partita partita = Partita.avviaPartitaRegistrata(false, 1, 15, 10, 5, 5, 5);
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> partita.eseguiTurni(new byte[10], 5, 10, new int[10]));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> partita.eseguiTurni(new byte[10], 0, 10, new int[5]));
+	}
+	
 	@Test
 	void testTurnoDiGiocoAgenteTrueWumpusTrue() throws IllegalArgumentException, IOException {
 		/**
@@ -201,6 +397,36 @@ class TestPartita {
 		Assertions.assertEquals(this.partitaPerTestDaMappa.getAgente(), agenteLocale);
 	}
 	
+	@Test
+	void testEseguiTurno() throws IllegalArgumentException, IOException {
+		File f = new File("mappaPerTestPartitaSpostamentoOVEST.txt");		
+		this.mappaPerTest = new test.Mappa(f);
+		this.partitaPerTestDaMappa = Partita.avviaPartita(false, this.mappaPerTest);
+		EsitoTurno ultimoTurno = this.partitaPerTestDaMappa.getUltimoTurno();
+		
+		int esito = this.partitaPerTestDaMappa.eseguiTurno(TipoAzione.VAI, model.gioco.Direzioni.OVEST);
+		Assertions.assertTrue(EsitoTurno.contiene(esito, EsitoTurno.AGENTE_SPOSTATO));
+		Assertions.assertTrue(EsitoTurno.contiene(esito, EsitoTurno.CUCCIOLO_SPOSTATO));
+		Assertions.assertFalse(EsitoTurno.contiene(esito, EsitoTurno.PARTITA_TERMINATA));
+		Assertions.assertEquals(4, ultimoTurno.getNumEventi());
+		Assertions.assertEquals(EsitoTurno.AGENTE_SPOSTATO, ultimoTurno.getCodiceEvento(0));
+		Assertions.assertEquals(0, ultimoTurno.getCasellaEvento(0));
+		Assertions.assertEquals(EsitoTurno.NESSUN_INCONTRO, ultimoTurno.getCodiceEvento(1));
+		Assertions.assertEquals(4*this.mappaPerTest.getLatoMappa() + 1, ultimoTurno.getCasellaEvento(2));
+		Assertions.assertEquals("Link prova a spostarsi a ovest.\nLink si sposta nella casella 0, 0.\n\nIl cucciolo di Wumpus cucciolo n. 1 si sposta nella casella 4, 1\n", ultimoTurno.getDescrizione());
+		
+		// La freccia scagliata a nord dalla casella 0, 0 esce dalla mappa
+		esito = this.partitaPerTestDaMappa.eseguiTurno(TipoAzione.FRECCIA, model.gioco.Direzioni.NORD);
+		Assertions.assertTrue(EsitoTurno.contiene(esito, EsitoTurno.FRECCIA_SCAGLIATA));
+		Assertions.assertTrue(EsitoTurno.contiene(esito, EsitoTurno.FRECCIA_CONTRO_PARETE));
+		Assertions.assertTrue(ultimoTurno.getDescrizione().startsWith("Link scaglia una freccia a nord.\nLa freccia colpisce le pareti della caverna."));
+		
+		esito = this.partitaPerTestDaMappa.eseguiTurno(TipoAzione.FRECCIA, model.gioco.Direzioni.NORD);
+		Assertions.assertTrue(EsitoTurno.contiene(esito, EsitoTurno.FRECCE_ESAURITE));
+		Assertions.assertFalse(EsitoTurno.contiene(esito, EsitoTurno.FRECCIA_SCAGLIATA));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> ultimoTurno.getCodiceEvento(ultimoTurno.getNumEventi()));
+	}
+	
 	@Test
 	void testTurnoDiGiocoSpostamentoNORD() throws IllegalArgumentException, IOException {
 		/**
@@ -0,0 +1,149 @@
+package test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.gioco.Direzioni;
+import model.gioco.Mappa;
+import model.gioco.Partita;
+import model.gioco.RegistroAzioni;
+import model.gioco.RiproduttorePartita;
+import model.gioco.TipoAzione;
+
+class TestRiproduttorePartita {
+
+	private Path fileRegistro;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.fileRegistro = Files.createTempFile("registro", ".bin");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		Files.deleteIfExists(this.fileRegistro);
+	}
+
+	// Restituisce il salvataggio testuale di una mappa, per confrontare due mappe
+	private static List<String> descrizione(Mappa mappa) throws IOException {
+		File fileMappa = File.createTempFile("mappa", ".txt");
+
+		try {
+			mappa.salvataggio(fileMappa.getPath());
+			return Files.readAllLines(fileMappa.toPath());
+		}
+		finally {
+			fileMappa.delete();
+		}
+	}
+
+	// Gioca turni casuali, alternando azioni del giocatore (anche non valide) e turni del temporizzatore,
+	// finche' la partita non termina o non si raggiunge il numero di turni dato; registra lo stato della
+	// mappa all'inizio e dopo ogni turno.
+	private static List<List<String>> giocaTurni(Partita partita, int maxTurni, SplittableRandom generatore) throws IOException {
+		List<List<String>> stati = new ArrayList<List<String>>();
+
+		stati.add(TestRiproduttorePartita.descrizione(partita.getMappaDiGioco()));
+		for(int i = 0; i < maxTurni; i++) {
+			int esito;
+
+			switch(generatore.nextInt(8)) {
+			case 0:
+				esito = partita.turnoAutomatico();
+				break;
+			case 1:
+				esito = partita.eseguiTurno(null, null);
+				break;
+			case 2:
+				esito = partita.eseguiTurno(TipoAzione.FRECCIA, Direzioni.spostamentoRandom(generatore));
+				break;
+			default:
+				esito = partita.eseguiTurno(TipoAzione.VAI, Direzioni.spostamentoRandom(generatore));
+			}
+
+			if(esito == 0) {
+				break;
+			}
+			stati.add(TestRiproduttorePartita.descrizione(partita.getMappaDiGioco()));
+		}
+		return stati;
+	}
+
+	@Test
+	void testRiproduzione() throws IOException {
+		for(long seme = 1; seme <= 5; seme++) {
+			Partita partita = Partita.avviaPartitaRegistrata(false, seme, 15, 10, 5, 5, 5);
+			List<List<String>> stati = TestRiproduttorePartita.giocaTurni(partita, 40, new SplittableRandom(seme));
+			int numTurni = stati.size() - 1;
+
+			RegistroAzioni registro = partita.getRegistroAzioni();
+			Assertions.assertEquals(numTurni, registro.getNumeroTurni());
+			registro.salva(this.fileRegistro);
+
+			RegistroAzioni caricato = RegistroAzioni.carica(this.fileRegistro);
+			Assertions.assertEquals(seme, caricato.getSeme());
+			Assertions.assertArrayEquals(new int[] { 15, 10, 5, 5, 5 }, caricato.getParametriMappa());
+			for(int turno = 0; turno < numTurni; turno++) {
+				Assertions.assertEquals(registro.getAzione(turno), caricato.getAzione(turno));
+				Assertions.assertEquals(registro.getDirezione(turno), caricato.getDirezione(turno));
+				Assertions.assertEquals(registro.isAutomatico(turno), caricato.isAutomatico(turno));
+			}
+
+			// Riproduzione completa
+			RiproduttorePartita riproduttore = new RiproduttorePartita(caricato, 3);
+			Assertions.assertEquals(stati.get(0), TestRiproduttorePartita.descrizione(riproduttore.getPartita().getMappaDiGioco()));
+			Assertions.assertEquals(stati.get(numTurni), TestRiproduttorePartita.descrizione(riproduttore.riproduciTutto().getMappaDiGioco()));
+			Assertions.assertEquals(numTurni / 3 + 1, riproduttore.getNumeroPuntiRipristino());
+			Assertions.assertFalse(riproduttore.avanza());
+
+			// Spostamenti all'indietro e in avanti, anche dopo essere ripartiti da un punto di ripristino
+			int[] turni = { 0, numTurni / 2, 1, numTurni, numTurni - 1, 2, numTurni / 3 };
+			for(int turno : turni) {
+				Partita riprodotta = riproduttore.vaiAlTurno(turno);
+				Assertions.assertEquals(turno, riproduttore.getTurnoCorrente());
+				Assertions.assertEquals(stati.get(turno), TestRiproduttorePartita.descrizione(riprodotta.getMappaDiGioco()));
+			}
+		}
+	}
+
+	@Test
+	void testParametriNonValidi() throws IOException {
+		Assertions.assertNull(Partita.avviaPartita(false, new SplittableRandom(1)).getRegistroAzioni());
+
+		Partita partita = Partita.avviaPartitaRegistrata(false, 1);
+		partita.eseguiTurno(TipoAzione.VAI, Direzioni.NORD);
+		RegistroAzioni registro = partita.getRegistroAzioni();
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> registro.getAzione(1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new RiproduttorePartita(registro, 0));
+
+		RiproduttorePartita riproduttore = new RiproduttorePartita(registro);
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> riproduttore.vaiAlTurno(-1));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> riproduttore.vaiAlTurno(2));
+
+		// I registri della versione 1, precedenti allo spostamento dei cuccioli in due fasi, vengono rifiutati
+		registro.salva(this.fileRegistro);
+		byte[] contenuto = Files.readAllBytes(this.fileRegistro);
+		Assertions.assertEquals(2, ByteBuffer.wrap(contenuto).getInt(4));
+		ByteBuffer.wrap(contenuto).putInt(4, 1);
+		Files.write(this.fileRegistro, contenuto);
+		IllegalArgumentException versione = Assertions.assertThrows(IllegalArgumentException.class, () -> RegistroAzioni.carica(this.fileRegistro));
+		Assertions.assertEquals("Versione del registro non supportata", versione.getMessage());
+
+		Files.write(this.fileRegistro, new byte[] { 1, 2, 3 });
+		Assertions.assertThrows(IllegalArgumentException.class, () -> RegistroAzioni.carica(this.fileRegistro));
+		Files.delete(this.fileRegistro);
+		Assertions.assertThrows(FileNotFoundException.class, () -> RegistroAzioni.carica(this.fileRegistro));
+	}
+}
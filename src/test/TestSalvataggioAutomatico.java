@@ -0,0 +1,221 @@
+package test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import controller.WumpusMenuController;
+import model.gioco.Direzioni;
+import model.gioco.Mappa;
+import model.gioco.Partita;
+import model.gioco.SalvataggioAutomatico;
+import model.gioco.TipoAzione;
+
+class TestSalvataggioAutomatico {
+
+	private Path cartella;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.cartella = Files.createTempDirectory("salvataggioAutomatico");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		try (var contenuto = Files.list(this.cartella)) {
+			contenuto.forEach(file -> file.toFile().delete());
+		}
+		Files.delete(this.cartella);
+	}
+
+	// Restituisce il salvataggio testuale di una mappa, per confrontare due mappe
+	private static List<String> descrizione(model.gioco.Mappa mappa) throws IOException {
+		File fileMappa = File.createTempFile("mappa", ".txt");
+
+		try {
+			mappa.salvataggio(fileMappa.getPath());
+			return Files.readAllLines(fileMappa.toPath());
+		}
+		finally {
+			fileMappa.delete();
+		}
+	}
+
+	// Gioca turni casuali finche' la partita non termina o non si raggiunge il numero di turni dato,
+	// registrando lo stato della mappa all'inizio e dopo ogni turno.
+	private static List<List<String>> giocaTurni(Partita partita, int maxTurni, SplittableRandom generatore) throws IOException {
+		List<List<String>> stati = new ArrayList<List<String>>();
+
+		stati.add(TestSalvataggioAutomatico.descrizione(partita.getMappaDiGioco()));
+		for(int i = 0; i < maxTurni; i++) {
+			TipoAzione azione = generatore.nextInt(4) == 0 ? TipoAzione.FRECCIA : TipoAzione.VAI;
+			if(partita.eseguiTurno(azione, Direzioni.spostamentoRandom(generatore)) == 0) {
+				break;
+			}
+			stati.add(TestSalvataggioAutomatico.descrizione(partita.getMappaDiGioco()));
+		}
+		return stati;
+	}
+
+	@Test
+	void testRipristino() throws IOException, InterruptedException {
+		for(long seme = 1; seme <= 5; seme++) {
+			Partita partita = Partita.avviaPartita(false, new SplittableRandom(seme), 15, 10, 5, 5, 5);
+			SplittableRandom generatore = new SplittableRandom(seme);
+
+			try (SalvataggioAutomatico salvataggio = partita.attivaSalvataggioAutomatico(this.cartella, 7)) {
+				Assertions.assertEquals(TestSalvataggioAutomatico.descrizione(partita.getMappaDiGioco()), TestSalvataggioAutomatico.descrizione(SalvataggioAutomatico.ripristina(this.cartella)));
+
+				// Dopo ogni turno (comprese le compattazioni del giornale) la partita ripristinata
+				// coincide con quella giocata
+				for(int turno = 1; turno <= 30; turno++) {
+					List<List<String>> stati = TestSalvataggioAutomatico.giocaTurni(partita, 1, generatore);
+					salvataggio.sincronizza();
+					// Al termine della partita il salvataggio automatico viene eliminato
+					if(!(partita.getAgente().getInGioco() && partita.getWumpus().getInGioco())) {
+						Assertions.assertFalse(SalvataggioAutomatico.esiste(this.cartella));
+						break;
+					}
+					Assertions.assertEquals(turno, SalvataggioAutomatico.ultimoTurnoSalvato(this.cartella));
+					Assertions.assertEquals(stati.get(stati.size() - 1), TestSalvataggioAutomatico.descrizione(SalvataggioAutomatico.ripristina(this.cartella)));
+				}
+			}
+		}
+	}
+
+	@Test
+	void testGiornaleDanneggiato() throws IOException, InterruptedException {
+		Partita partita = Partita.avviaPartita(false, new SplittableRandom(12), 15, 10, 5, 5, 5);
+		List<List<String>> stati;
+
+		try (SalvataggioAutomatico salvataggio = partita.attivaSalvataggioAutomatico(this.cartella, 1000)) {
+			stati = TestSalvataggioAutomatico.giocaTurni(partita, 10, new SplittableRandom(12));
+		}
+		// La partita e' ancora in corso, quindi il salvataggio non e' stato eliminato
+		Assertions.assertTrue(partita.getAgente().getInGioco() && partita.getWumpus().getInGioco());
+		int ultimoTurno = stati.size() - 1;
+		Assertions.assertTrue(ultimoTurno >= 3);
+		Assertions.assertEquals(stati.get(ultimoTurno), TestSalvataggioAutomatico.descrizione(SalvataggioAutomatico.ripristina(this.cartella)));
+
+		// Ultima variazione scritta solo in parte: si ripristina il turno precedente
+		Path giornale = this.cartella.resolve("giornale.bin");
+		try (FileChannel canale = FileChannel.open(giornale, StandardOpenOption.WRITE)) {
+			canale.truncate(canale.size() - 3);
+		}
+		Assertions.assertEquals(stati.get(ultimoTurno - 1), TestSalvataggioAutomatico.descrizione(SalvataggioAutomatico.ripristina(this.cartella)));
+
+		// Variazione danneggiata nel mezzo del giornale: si ripristina l'ultimo turno che la precede
+		byte[] contenuto = Files.readAllBytes(giornale);
+		int inizioTerzaVariazione = 0;
+		for(int i = 0; i < 2; i++) {
+			inizioTerzaVariazione += 4 + ByteBuffer.wrap(contenuto, inizioTerzaVariazione, 4).getInt() + 4;
+		}
+		contenuto[inizioTerzaVariazione + 8] ^= 1;
+		Files.write(giornale, contenuto);
+		Assertions.assertEquals(stati.get(2), TestSalvataggioAutomatico.descrizione(SalvataggioAutomatico.ripristina(this.cartella)));
+
+		// Senza giornale si ripristina l'istantanea iniziale
+		Files.delete(giornale);
+		Assertions.assertEquals(stati.get(0), TestSalvataggioAutomatico.descrizione(SalvataggioAutomatico.ripristina(this.cartella)));
+	}
+
+	@Test
+	void testRipristinoDalMenu() throws IOException, InterruptedException {
+		Partita partita = Partita.avviaPartita(false, new SplittableRandom(4), 15, 10, 5, 5, 5);
+		SplittableRandom generatore = new SplittableRandom(4);
+		Set<Integer> visitate = new HashSet<Integer>();
+		int lato = partita.getMappaDiGioco().getLatoMappa();
+
+		// Partita giocata con il salvataggio automatico, compattando il giornale ogni 5 turni
+		try (SalvataggioAutomatico salvataggio = partita.attivaSalvataggioAutomatico(this.cartella, 5)) {
+			visitate.add(partita.getAgente().getRiga()*lato + partita.getAgente().getColonna());
+			for(int turno = 0; turno < 12 && partita.eseguiTurno(TipoAzione.VAI, Direzioni.spostamentoRandom(generatore)) != 0; turno++) {
+				visitate.add(partita.getAgente().getRiga()*lato + partita.getAgente().getColonna());
+			}
+		}
+		Assertions.assertTrue(visitate.size() > 1);
+		Assertions.assertTrue(partita.getAgente().getInGioco() && partita.getWumpus().getInGioco());
+
+		// Il salvataggio automatico e' piu' recente di quelli manuali: il menu carica la partita
+		// ripristinata, con scoperte tutte e sole le caselle raggiunte dall'agente
+		model.gioco.Mappa ripristinata = WumpusMenuController.caricamentoPiuRecente(this.cartella);
+		long[] caselleScoperte = ripristinata.getCaselleScoperte();
+
+		Assertions.assertEquals(TestSalvataggioAutomatico.descrizione(partita.getMappaDiGioco()), TestSalvataggioAutomatico.descrizione(ripristinata));
+		Assertions.assertNotNull(caselleScoperte);
+		for(int casella = 0; casella < lato*lato; casella++) {
+			Assertions.assertEquals(visitate.contains(casella), (caselleScoperte[casella >>> 6] & (1L << casella)) != 0);
+		}
+
+		// Senza giornale restano scoperte le caselle raggiunte fino all'ultima istantanea
+		Files.delete(this.cartella.resolve("giornale.bin"));
+		Assertions.assertNotNull(WumpusMenuController.caricamentoPiuRecente(this.cartella).getCaselleScoperte());
+	}
+
+	@Test
+	void testPartitaSenzaTurniOTerminata() throws IOException, InterruptedException {
+		List<String> manuale = TestSalvataggioAutomatico.descrizione(Mappa.caricamento());
+
+		// Una partita appena avviata ha gia' l'istantanea iniziale, ma nessun turno: il menu carica il
+		// salvataggio manuale, anche se e' meno recente
+		Partita partita = Partita.avviaPartita(false, new SplittableRandom(3), 5, 30, 1, 1, 1);
+		try (SalvataggioAutomatico salvataggio = partita.attivaSalvataggioAutomatico(this.cartella, 5)) {
+			salvataggio.sincronizza();
+			Assertions.assertTrue(SalvataggioAutomatico.esiste(this.cartella));
+			Assertions.assertEquals(0, SalvataggioAutomatico.ultimoTurnoSalvato(this.cartella));
+			Assertions.assertEquals(manuale, TestSalvataggioAutomatico.descrizione(WumpusMenuController.caricamentoPiuRecente(this.cartella)));
+
+			// Dopo un turno viene caricata la partita salvata automaticamente
+			partita.eseguiTurno(TipoAzione.FRECCIA, Direzioni.NORD);
+			salvataggio.sincronizza();
+			if(partita.getAgente().getInGioco() && partita.getWumpus().getInGioco()) {
+				Assertions.assertEquals(TestSalvataggioAutomatico.descrizione(partita.getMappaDiGioco()), TestSalvataggioAutomatico.descrizione(WumpusMenuController.caricamentoPiuRecente(this.cartella)));
+			}
+
+			// Al termine della partita il salvataggio automatico viene eliminato e il menu torna a
+			// caricare il salvataggio manuale
+			SplittableRandom generatore = new SplittableRandom(3);
+			for(int turno = 0; turno < 1000 && partita.getAgente().getInGioco() && partita.getWumpus().getInGioco(); turno++) {
+				partita.eseguiTurno(TipoAzione.VAI, Direzioni.spostamentoRandom(generatore));
+			}
+			salvataggio.sincronizza();
+		}
+		Assertions.assertFalse(partita.getAgente().getInGioco() && partita.getWumpus().getInGioco());
+		Assertions.assertFalse(SalvataggioAutomatico.esiste(this.cartella));
+		Assertions.assertEquals(manuale, TestSalvataggioAutomatico.descrizione(WumpusMenuController.caricamentoPiuRecente(this.cartella)));
+	}
+
+	@Test
+	void testParametriNonValidi() throws IOException {
+		Partita partita = Partita.avviaPartita(false, new SplittableRandom(1));
+
+		Assertions.assertFalse(SalvataggioAutomatico.esiste(this.cartella));
+		Assertions.assertNull(SalvataggioAutomatico.ultimoAggiornamento(this.cartella));
+		Assertions.assertThrows(FileNotFoundException.class, () -> SalvataggioAutomatico.ripristina(this.cartella));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> partita.attivaSalvataggioAutomatico(this.cartella, 0));
+
+		try (SalvataggioAutomatico salvataggio = partita.attivaSalvataggioAutomatico(this.cartella, 10)) {
+			Assertions.assertTrue(SalvataggioAutomatico.esiste(this.cartella));
+			Assertions.assertSame(salvataggio, partita.getSalvataggioAutomatico());
+			Assertions.assertThrows(IllegalStateException.class, () -> partita.attivaSalvataggioAutomatico(this.cartella, 10));
+		}
+
+		Files.write(this.cartella.resolve("istantanea.bin"), new byte[] { 1, 2, 3 });
+		Assertions.assertThrows(IllegalArgumentException.class, () -> SalvataggioAutomatico.ripristina(this.cartella));
+	}
+}
@@ -0,0 +1,165 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import server.ClienteCarico;
+import server.ServerNio;
+
+class TestServerNio {
+
+	// Invia un comando e restituisce la risposta del server
+	private static String comando(BufferedReader lettore, Writer scrittore, String comando) throws IOException {
+		scrittore.write(comando + "\n");
+		scrittore.flush();
+		return lettore.readLine();
+	}
+
+	@Test
+	void testProtocollo() throws IOException, InterruptedException {
+		try (ServerNio server = new ServerNio(0, 0, 60000);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPorta());
+				BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				Writer scrittore = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+			Assertions.assertEquals("BENVENUTO 1", lettore.readLine());
+			Assertions.assertEquals(1, server.getNumeroConnessioniAperte());
+
+			String[] stato = TestServerNio.comando(lettore, scrittore, "STATO").split(" ");
+			Assertions.assertEquals(7, stato.length);
+			Assertions.assertEquals("STATO", stato[0]);
+			Assertions.assertEquals("1", stato[5]);
+
+			String[] esito = TestServerNio.comando(lettore, scrittore, "vai nord").split(" ");
+			Assertions.assertEquals("ESITO", esito[0]);
+			Assertions.assertEquals(4, esito.length);
+			Integer.parseInt(esito[2]);
+			Assertions.assertTrue(TestServerNio.comando(lettore, scrittore, "FRECCIA EST\r").startsWith("ESITO "));
+
+			Assertions.assertEquals("ERRORE comando non riconosciuto", TestServerNio.comando(lettore, scrittore, "SALTA NORD"));
+			Assertions.assertEquals("ERRORE direzione non valida", TestServerNio.comando(lettore, scrittore, "VAI SU"));
+			Assertions.assertTrue(TestServerNio.comando(lettore, scrittore, "VAI").startsWith("ERRORE"));
+			Assertions.assertTrue(TestServerNio.comando(lettore, scrittore, "STATO ORA").startsWith("ERRORE"));
+			Assertions.assertEquals("OK", TestServerNio.comando(lettore, scrittore, "NUOVA"));
+			Assertions.assertEquals("CIAO", TestServerNio.comando(lettore, scrittore, "ESCI"));
+			Assertions.assertNull(lettore.readLine());
+		}
+	}
+
+	@Test
+	void testComandiSpezzatiEAccodati() throws IOException, InterruptedException {
+		try (ServerNio server = new ServerNio(0, 0, 60000);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPorta());
+				BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				Writer scrittore = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+			Assertions.assertTrue(lettore.readLine().startsWith("BENVENUTO "));
+
+			// Un comando puo' arrivare in piu' parti
+			scrittore.write("STA");
+			scrittore.flush();
+			Thread.sleep(50);
+			Assertions.assertEquals(7, TestServerNio.comando(lettore, scrittore, "TO").split(" ").length);
+
+			// Piu' comandi in un'unica scrittura ricevono una risposta ciascuno, nell'ordine
+			scrittore.write("STATO\nVAI NORD\nNUOVA\nSTATO\n");
+			scrittore.flush();
+			Assertions.assertTrue(lettore.readLine().startsWith("STATO "));
+			Assertions.assertTrue(lettore.readLine().startsWith("ESITO "));
+			Assertions.assertEquals("OK", lettore.readLine());
+			Assertions.assertTrue(lettore.readLine().startsWith("STATO "));
+
+			// Un comando piu' lungo del buffer della connessione la chiude
+			Assertions.assertEquals("ERRORE comando troppo lungo", TestServerNio.comando(lettore, scrittore, "VAI " + "N".repeat(300)));
+			Assertions.assertNull(lettore.readLine());
+		}
+	}
+
+	@Test
+	void testInattivita() throws IOException, InterruptedException {
+		try (ServerNio server = new ServerNio(0, 50, 300);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPorta());
+				BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+			Assertions.assertTrue(lettore.readLine().startsWith("BENVENUTO "));
+
+			// Senza comandi la connessione viene chiusa dopo il tempo di inattivita'
+			Assertions.assertEquals("INATTIVA", lettore.readLine());
+			Assertions.assertNull(lettore.readLine());
+			for(int i = 0; i < 50 && server.getNumeroConnessioniAperte() > 0; i++) {
+				Thread.sleep(20);
+			}
+			Assertions.assertEquals(0, server.getNumeroConnessioniAperte());
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new ServerNio(0, -1, 1000));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new ServerNio(0, 0, 0));
+	}
+
+	@Test
+	void testInattivitaConRispostaInSospeso() throws IOException, InterruptedException {
+		try (ServerNio server = new ServerNio(0, 0, 300); Socket socket = new Socket()) {
+			// Il client invia moltissimi comandi senza mai leggere le risposte, finche' il server non
+			// riesce piu' a scriverle e resta con una risposta in sospeso
+			socket.setReceiveBufferSize(1024);
+			socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPorta()));
+			for(int i = 0; i < 50 && server.getNumeroConnessioniAperte() == 0; i++) {
+				Thread.sleep(20);
+			}
+			Assertions.assertEquals(1, server.getNumeroConnessioniAperte());
+			Thread invio = new Thread(() -> {
+				byte[] comandi = "STATO\n".repeat(10000).getBytes(StandardCharsets.US_ASCII);
+				try {
+					for(int i = 0; i < 1000; i++) {
+						socket.getOutputStream().write(comandi);
+					}
+				}
+				catch (IOException e) {
+					// Connessione chiusa dal server o dal test
+				}
+			});
+			invio.setDaemon(true);
+			invio.start();
+
+			// Dopo il tempo di inattivita' la connessione viene chiusa, anche se la risposta in sospeso
+			// non potra' mai essere completata
+			for(int i = 0; i < 250 && server.getNumeroConnessioniAperte() > 0; i++) {
+				Thread.sleep(20);
+			}
+			Assertions.assertEquals(0, server.getNumeroConnessioniAperte());
+
+			// Le righe ricevute sono risposte complete ai comandi: la risposta di inattivita' non
+			// sovrascrive quella in sospeso
+			BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			try {
+				Assertions.assertTrue(lettore.readLine().startsWith("BENVENUTO "));
+				for(String riga = lettore.readLine(); riga != null; riga = lettore.readLine()) {
+					Assertions.assertFalse(riga.contains("INATTIVA"), riga);
+				}
+			}
+			catch (SocketException e) {
+				// Connessione interrotta dal server con comandi non ancora letti
+			}
+		}
+	}
+
+	@Test
+	void testClienteCarico() throws IOException, InterruptedException {
+		try (ServerNio server = new ServerNio(0, 1000, 60000)) {
+			ClienteCarico.Risultato risultato = new ClienteCarico(server.getPorta(), 200, 20, 1).esegui();
+
+			Assertions.assertEquals(4000, risultato.getNumeroTurni());
+			for(int i = 0; i < 50 && server.getNumeroConnessioniAperte() > 0; i++) {
+				Thread.sleep(20);
+			}
+			Assertions.assertEquals(0, server.getNumeroConnessioniAperte());
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import server.ClienteCarico;
+import server.ServerPartite;
+
+class TestServerPartite {
+
+	// Invia un comando e restituisce la risposta del server
+	private static String comando(BufferedReader lettore, Writer scrittore, String comando) throws IOException {
+		scrittore.write(comando + "\n");
+		scrittore.flush();
+		return lettore.readLine();
+	}
+
+	@Test
+	void testProtocollo() throws IOException, InterruptedException {
+		try (ServerPartite server = new ServerPartite(0, 0, 60000);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPorta());
+				BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				Writer scrittore = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+			Assertions.assertTrue(lettore.readLine().startsWith("BENVENUTO "));
+			Assertions.assertEquals(1, server.getNumeroSessioniAperte());
+
+			String[] stato = TestServerPartite.comando(lettore, scrittore, "STATO").split(" ");
+			Assertions.assertEquals(7, stato.length);
+			Assertions.assertEquals("1", stato[5]);
+
+			String[] esito = TestServerPartite.comando(lettore, scrittore, "vai nord").split(" ");
+			Assertions.assertEquals("ESITO", esito[0]);
+			Assertions.assertEquals(4, esito.length);
+			Assertions.assertTrue(TestServerPartite.comando(lettore, scrittore, "FRECCIA EST").startsWith("ESITO "));
+
+			Assertions.assertTrue(TestServerPartite.comando(lettore, scrittore, "SALTA NORD").startsWith("ERRORE"));
+			Assertions.assertTrue(TestServerPartite.comando(lettore, scrittore, "VAI SU").startsWith("ERRORE"));
+			Assertions.assertTrue(TestServerPartite.comando(lettore, scrittore, "VAI").startsWith("ERRORE"));
+			Assertions.assertEquals("OK", TestServerPartite.comando(lettore, scrittore, "NUOVA"));
+			Assertions.assertEquals("CIAO", TestServerPartite.comando(lettore, scrittore, "ESCI"));
+			Assertions.assertNull(lettore.readLine());
+		}
+	}
+
+	@Test
+	void testInattivita() throws IOException, InterruptedException {
+		try (ServerPartite server = new ServerPartite(0, 50, 300);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPorta());
+				BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+			Assertions.assertTrue(lettore.readLine().startsWith("BENVENUTO "));
+
+			// Senza comandi la sessione viene chiusa dopo il tempo di inattivita'
+			Assertions.assertEquals("INATTIVA", lettore.readLine());
+			Assertions.assertNull(lettore.readLine());
+			for(int i = 0; i < 50 && server.getNumeroSessioniAperte() > 0; i++) {
+				Thread.sleep(20);
+			}
+			Assertions.assertEquals(0, server.getNumeroSessioniAperte());
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new ServerPartite(0, -1, 1000));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new ServerPartite(0, 0, 0));
+	}
+
+	@Test
+	void testCicloBloccante() throws IOException, InterruptedException {
+		try (ServerPartite server = new ServerPartite(0, 50, 60000, true);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPorta());
+				BufferedReader lettore = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				Writer scrittore = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+			Assertions.assertTrue(lettore.readLine().startsWith("BENVENUTO "));
+			String statoIniziale = TestServerPartite.comando(lettore, scrittore, "STATO");
+
+			// Il thread della sessione gioca i turni automatici mentre attende i comandi (STATO non rinvia la
+			// scadenza del turno): prima o poi l'Agente lascia la casella iniziale
+			boolean cambiato = false;
+			for(int i = 0; i < 50 && !cambiato; i++) {
+				Thread.sleep(100);
+				cambiato = !(statoIniziale.equals(TestServerPartite.comando(lettore, scrittore, "STATO")));
+			}
+			Assertions.assertTrue(cambiato);
+
+			// Un comando interrotto dalla scadenza del turno non va perso
+			scrittore.write("VAI");
+			scrittore.flush();
+			Thread.sleep(200);
+			Assertions.assertTrue(TestServerPartite.comando(lettore, scrittore, " NORD").startsWith("ESITO "));
+			Assertions.assertEquals("OK", TestServerPartite.comando(lettore, scrittore, "NUOVA"));
+			Assertions.assertEquals("CIAO", TestServerPartite.comando(lettore, scrittore, "ESCI"));
+		}
+
+		try (ServerPartite server = new ServerPartite(0, 1000, 60000, true)) {
+			Assertions.assertEquals(500, new ClienteCarico(server.getPorta(), 10, 50, 1).esegui().getNumeroTurni());
+		}
+	}
+
+	@Test
+	void testClienteCarico() throws IOException, InterruptedException {
+		try (ServerPartite server = new ServerPartite(0, 1000, 60000)) {
+			ClienteCarico.Risultato risultato = new ClienteCarico(server.getPorta(), 20, 50, 1).esegui();
+
+			Assertions.assertEquals(1000, risultato.getNumeroTurni());
+			Assertions.assertTrue(risultato.getPercentile(50) > 0);
+			Assertions.assertTrue(risultato.getPercentile(50) <= risultato.getPercentile(99));
+			Assertions.assertTrue(risultato.getTurniAlSecondo() > 0);
+			Assertions.assertThrows(IllegalArgumentException.class, () -> risultato.getPercentile(101));
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new ClienteCarico(0, 0, 10, 1));
+	}
+}
@@ -0,0 +1,64 @@
+package test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import model.gioco.Direzioni;
+import model.simulazione.Azione;
+import model.simulazione.PoliticaCasuale;
+import model.simulazione.Simulatore;
+import model.simulazione.StatisticheSimulazione;
+
+class TestSimulatore {
+	
+	@Test
+	void testEsegui() throws InterruptedException {
+		AtomicInteger politicheCreate = new AtomicInteger();
+		Simulatore simulatore = new Simulatore(1000, 42, () -> {
+			politicheCreate.incrementAndGet();
+			return new PoliticaCasuale();
+		}, Simulatore.DEFAULT_MAX_TURNI, 4);
+		StatisticheSimulazione statistiche = simulatore.esegui();
+		
+		Assertions.assertEquals(1000, statistiche.getNumPartite());
+		Assertions.assertEquals(1000, politicheCreate.get());
+		Assertions.assertEquals(statistiche.getNumPartite(), statistiche.getNumVittorie() + statistiche.getNumSconfitte() + statistiche.getNumInterrotte());
+		Assertions.assertEquals(1000, statistiche.getDistribuzionePunteggi().values().stream().mapToLong(Long::longValue).sum());
+		Assertions.assertTrue(statistiche.getPunteggioMinimo() <= statistiche.getPercentilePunteggio(0.5));
+		Assertions.assertTrue(statistiche.getPercentilePunteggio(0.5) <= statistiche.getPunteggioMassimo());
+		Assertions.assertEquals(statistiche.getPunteggioMassimo(), statistiche.getPercentilePunteggio(1));
+		Assertions.assertTrue(statistiche.getPartiteAlSecondo() > 0);
+	}
+	
+	@Test
+	void testRiproducibilita() throws InterruptedException {
+		// A parita' di seme le statistiche non dipendono dal numero di thread
+		StatisticheSimulazione unThread = new Simulatore(300, 7, PoliticaCasuale::new, Simulatore.DEFAULT_MAX_TURNI, 1).esegui();
+		StatisticheSimulazione quattroThread = new Simulatore(300, 7, PoliticaCasuale::new, Simulatore.DEFAULT_MAX_TURNI, 4).esegui();
+		
+		Assertions.assertEquals(unThread.getNumVittorie(), quattroThread.getNumVittorie());
+		Assertions.assertEquals(unThread.getNumTurni(), quattroThread.getNumTurni());
+		Assertions.assertEquals(unThread.getDistribuzionePunteggi(), quattroThread.getDistribuzionePunteggi());
+	}
+	
+	@Test
+	void testMaxTurni() throws InterruptedException {
+		// L'agente tenta sempre di uscire dalla mappa a nord: nessuna partita puo' terminare prima del limite di turni
+		Simulatore simulatore = new Simulatore(50, 0, () -> (partita, generatore) -> Azione.vai(Direzioni.NORD), 20, 2, 5, 10, 1, 1, 1);
+		StatisticheSimulazione statistiche = simulatore.esegui();
+		
+		Assertions.assertEquals(50, statistiche.getNumInterrotte());
+		Assertions.assertEquals(50*20, statistiche.getNumTurni());
+	}
+	
+	@Test
+	void testSimulatoreException() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new Simulatore(-1, 0, PoliticaCasuale::new, 10, 1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new Simulatore(10, 0, null, 10, 1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new Simulatore(10, 0, PoliticaCasuale::new, 0, 1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new Simulatore(10, 0, PoliticaCasuale::new, 10, 0));
+		Assertions.assertThrows(IllegalStateException.class, () -> new Simulatore(10, 0, PoliticaCasuale::new, 10, 1, 4).esegui());
+	}
+}
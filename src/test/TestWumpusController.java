@@ -43,6 +43,9 @@ class TestWumpusController {
 		
 		this.controllerPerTest.keyTyped(new KeyEvent(vista, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0, KeyEvent.VK_A, 'a'));
 		
+		// Il turno viene giocato sul thread dei turni: se ne attende il completamento
+		this.controllerPerTest.getUltimoTurno().join();
+		
 		Assertions.assertEquals(eventiLanciati.get(0).getPropertyName(), "spostamento");		
 		Assertions.assertNotEquals(new Agente(this.mappaPerTest.getLatoMappa(),0,3), this.controllerPerTest.getPartita().getAgente());
 		Assertions.assertEquals(new Agente(this.mappaPerTest.getLatoMappa(),0,2), this.controllerPerTest.getPartita().getAgente());		
@@ -67,6 +70,9 @@ class TestWumpusController {
 		
 		this.controllerPerTest.keyPressed(new KeyEvent(vista, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0, KeyEvent.VK_UP, (char) 38));
 		
+		// Il turno viene giocato sul thread dei turni: se ne attende il completamento
+		this.controllerPerTest.getUltimoTurno().join();
+		
 		Assertions.assertEquals(eventiLanciati.get(0).getPropertyName(), "freccia");		
 		Assertions.assertNotEquals(numFrecce, this.controllerPerTest.getPartita().getAgente().getNumFrecce());		
 	}
@@ -31,15 +31,16 @@ import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 
 import model.elementi.Agente;
 import model.elementi.CuccioloDiWumpus;
-import model.elementi.Elemento;
-import model.elementi.PersonaggioMondoDelWumpus;
 import model.elementi.Superstite;
 import model.elementi.Tesoro;
 import model.elementi.Wumpus;
+import model.gioco.Casella;
+import model.gioco.FrameEventi;
 import model.gioco.Mappa;
 import model.gioco.Partita;
 
@@ -74,6 +75,10 @@ public class WumpusView extends JFrame implements PropertyChangeListener{
     public static final int WIDTH = 720;
 	public static final int HEIGHT = 720; 
 	private final Dimension screenSize;
+	// Posizione dell'agente secondo gli eventi gia' visualizzati, che possono seguire di qualche turno
+	// la posizione attuale dell'agente nella partita.
+	private int rigaAgente;
+	private int colonnaAgente;
     
     
 	
@@ -155,30 +160,27 @@ public class WumpusView extends JFrame implements PropertyChangeListener{
 		}
 
 		this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteSud.gif"));
-		this.visualizzaSegnalatore(this.giocatore);
+		this.visualizzaSegnalatore(this.giocatore.getCasella());
 		
 		this.add(planciaDiGioco, BorderLayout.CENTER);
 
 		this.setVisible(true);
 
 		// Rende la GUI un Observer degli elementi del gioco
-		// (agente, Wumpus, cuccioli di Wumpus, tesori e superstiti)
-		this.giocatore.aggiungiListener(this);
+		// (agente, Wumpus, cuccioli di Wumpus, tesori e superstiti): gli eventi di ogni turno
+		// arrivano raccolti in un unico frame sul thread dell'interfaccia grafica, al termine del
+		// turno, in modo che il turno non attenda l'aggiornamento della grafica e dei suoni.
+		this.rigaAgente = this.giocatore.getRiga();
+		this.colonnaAgente = this.giocatore.getColonna();
+		this.partitaCorrente.getBusEventi().aggiungiAscoltatore(this::visualizzaFrame, SwingUtilities::invokeLater);
 
-		this.ilWumpus.aggiungiListener(this);
-		
-		for(CuccioloDiWumpus corrente : this.listaCuccioli) {
-			corrente.aggiungiListener(this);
-		}
-			
-		for(Tesoro corrente : this.listaTesori) {
-			corrente.aggiungiListener(this);
-		}
-		
-		for(Superstite corrente : this.listaSuperstiti) {
-			corrente.aggiungiListener(this);
+	}
+	
+	// Visualizza gli eventi di un turno di gioco, nell'ordine in cui sono avvenuti.
+	private void visualizzaFrame(FrameEventi frame) {
+		for(PropertyChangeEvent evento : frame.getEventi()) {
+			this.propertyChange(evento);
 		}
-
 	}
 	
 
@@ -236,26 +238,26 @@ public class WumpusView extends JFrame implements PropertyChangeListener{
 		if(evt.getPropertyName().equals("freccia")) {
 			this.audioGioco(new File("./src/resources/audio/arrowShoot.wav"), false, -10);
 			if(evt.getNewValue().equals("NORD")) {
-				this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteArcoNord.gif"));
+				this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteArcoNord.gif"));
 			} 
 			else if(evt.getNewValue().equals("EST")) {
-				this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteArcoEst.gif"));
+				this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteArcoEst.gif"));
 			} 
 			else if(evt.getNewValue().equals("SUD")) {
-				this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteArcoSud.gif"));
+				this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteArcoSud.gif"));
 			} 
 			else if(evt.getNewValue().equals("OVEST")) {
-				this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteArcoOvest.gif"));
+				this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteArcoOvest.gif"));
 			}
 		}
 		
 		if(evt.getPropertyName().equals("eliminazione")) {
 			if(evt.getSource() instanceof Tesoro) {
-				this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteConTesoro.gif"));
+				this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteConTesoro.gif"));
 				this.audioGioco(new File("./src/resources/audio/treasureChest.wav"), false, -10);
 			}
 			else if(evt.getSource() instanceof Superstite) {
-				this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteConSuperstite.gif"));
+				this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteConSuperstite.gif"));
 				this.audioGioco(new File("./src/resources/audio/zeldaHey.wav"), false, -10);
 			}
 			else if(evt.getSource() instanceof Wumpus) {
@@ -266,103 +268,116 @@ public class WumpusView extends JFrame implements PropertyChangeListener{
 		}
 		
 		if(evt.getPropertyName().equals("uccisioneSuperstite")) {
-			this.griglia[((Elemento) evt.getOldValue()).getRiga()][((Elemento) evt.getOldValue()).getColonna()].setIcon(creaImageIcon("/resources/pics/superstiteUcciso.gif"));
+			long casella = (Long) evt.getOldValue();
+			this.griglia[Casella.riga(casella)][Casella.colonna(casella)].setIcon(creaImageIcon("/resources/pics/superstiteUcciso.gif"));
 			this.audioGioco(new File("./src/resources/audio/zeldaScream.wav"), false, -10);
 		}
 		
 		if(evt.getPropertyName().equals("uccisioneCucciolo")) {
-			this.griglia[((Elemento) evt.getOldValue()).getRiga()][((Elemento) evt.getOldValue()).getColonna()].setIcon(creaImageIcon("/resources/pics/cuccioloUcciso.gif"));
+			long casella = (Long) evt.getOldValue();
+			this.griglia[Casella.riga(casella)][Casella.colonna(casella)].setIcon(creaImageIcon("/resources/pics/cuccioloUcciso.gif"));
 			this.audioGioco(new File("./src/resources/audio/cuccioloScream.wav"), false, -10);
 		}
 
 
 		if(evt.getPropertyName().equals("spostamento") && evt.getSource() instanceof Agente) {
-			Elemento oldPosizione = (Elemento) evt.getOldValue();
-			Elemento newPosizione = (Elemento) evt.getNewValue();
+			long oldPosizione = (Long) evt.getOldValue();
+			long newPosizione = (Long) evt.getNewValue();
+			int oldRiga = Casella.riga(oldPosizione);
+			int oldColonna = Casella.colonna(oldPosizione);
+			int newRiga = Casella.riga(newPosizione);
+			int newColonna = Casella.colonna(newPosizione);
 			
-			this.griglia[oldPosizione.getRiga()][oldPosizione.getColonna()].setIcon(null);
+			this.griglia[oldRiga][oldColonna].setIcon(null);
 			
-			if(oldPosizione.getRiga() < newPosizione.getRiga()) {
-				this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteSud.gif"));
+			if(oldRiga < newRiga) {
+				this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/agenteSud.gif"));
 			} 
-			else if(oldPosizione.getRiga() > newPosizione.getRiga()) {
-				this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteNord.gif"));
+			else if(oldRiga > newRiga) {
+				this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/agenteNord.gif"));
 			} 
-			else if(oldPosizione.getColonna() < newPosizione.getColonna()) {
-				this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteEst.gif"));
+			else if(oldColonna < newColonna) {
+				this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/agenteEst.gif"));
 			} 
-			else if (oldPosizione.getColonna() > newPosizione.getColonna()) {
-				this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteOvest.gif"));
+			else if (oldColonna > newColonna) {
+				this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/agenteOvest.gif"));
 			}
 			
-			this.visualizzaSegnalatore((PersonaggioMondoDelWumpus) newPosizione);
+			this.rigaAgente = newRiga;
+			this.colonnaAgente = newColonna;
+			this.visualizzaSegnalatore(newPosizione);
 		}
 		
 		if(evt.getPropertyName().equals("spostamento") && evt.getSource() instanceof CuccioloDiWumpus) {
-			Elemento oldPosizione = (Elemento) evt.getOldValue();
-			Elemento newPosizione = (Elemento) evt.getNewValue();
+			long oldPosizione = (Long) evt.getOldValue();
+			long newPosizione = (Long) evt.getNewValue();
+			int oldRiga = Casella.riga(oldPosizione);
+			int oldColonna = Casella.colonna(oldPosizione);
+			int newRiga = Casella.riga(newPosizione);
+			int newColonna = Casella.colonna(newPosizione);
 			
 			//Cancella la precedente posizione del cucciolo in ogni caso...
-			this.griglia[oldPosizione.getRiga()][oldPosizione.getColonna()].setIcon(null);
+			this.griglia[oldRiga][oldColonna].setIcon(null);
 
 			//... invece mette l'icona del cucciolo nella nuova posizione solo se essa e' gia' stata
 			// scoperta dall'agente (ovvero se il fondale della casella non � grigio)
-			if(this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].getBackground() != Color.GRAY) {
-				if(oldPosizione.getRiga() < newPosizione.getRiga()) {
-					this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusSud.gif"));
+			if(this.griglia[newRiga][newColonna].getBackground() != Color.GRAY) {
+				if(oldRiga < newRiga) {
+					this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusSud.gif"));
 				} 
-				else if(oldPosizione.getRiga() > newPosizione.getRiga()) {
-					this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusNord.gif"));
+				else if(oldRiga > newRiga) {
+					this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusNord.gif"));
 				} 
-				else if(oldPosizione.getColonna() < newPosizione.getColonna()) {
-					this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusEst.gif"));
+				else if(oldColonna < newColonna) {
+					this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusEst.gif"));
 				} 
-				else if (oldPosizione.getColonna() > newPosizione.getColonna()) {
-					this.griglia[newPosizione.getRiga()][newPosizione.getColonna()].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusOvest.gif"));
+				else if (oldColonna > newColonna) {
+					this.griglia[newRiga][newColonna].setIcon(creaImageIcon("/resources/pics/cuccioloWumpusOvest.gif"));
 				}
 			}
 			
 		}
 
 		if(evt.getPropertyName().equals("uccisoDaVoragine")) {
-			this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteUccisoDaVoragine.gif"));
+			this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteUccisoDaVoragine.gif"));
 			this.musicaBackground.stop();
 			this.audioGioco(new File("./src/resources/audio/linkFall.wav"), false, -10);
 		}
 		
 		if(evt.getPropertyName().equals("uccisoDaWumpus")) {
-			this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteUccisoDaWumpus.gif"));
+			this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteUccisoDaWumpus.gif"));
 			this.musicaBackground.stop();
 			this.audioGioco(new File("./src/resources/audio/linkDie.wav"), false, -10);
 		}
 		
 		if(evt.getPropertyName().equals("cucciolo")) {
-			this.griglia[this.giocatore.getRiga()][this.giocatore.getColonna()].setIcon(creaImageIcon("/resources/pics/agenteConCucciolo.gif"));
+			this.griglia[this.rigaAgente][this.colonnaAgente].setIcon(creaImageIcon("/resources/pics/agenteConCucciolo.gif"));
 			this.audioGioco(new File("./src/resources/audio/linkHurt.wav"), false, -10);
 		}
 	}
 	
-	protected void visualizzaSegnalatore(PersonaggioMondoDelWumpus cursore) {
-		boolean puzza = this.mondoDelWumpus.controllaPuzza(cursore);
-		boolean brezza = this.mondoDelWumpus.controllaBrezza(cursore);
+	protected void visualizzaSegnalatore(long casella) {
+		boolean puzza = this.mondoDelWumpus.controllaPuzza(casella);
+		boolean brezza = this.mondoDelWumpus.controllaBrezza(casella);
+		JLabel etichetta = this.griglia[Casella.riga(casella)][Casella.colonna(casella)];
 
 		// Se nella casella ci sono sia la puzza del Wumpus che la brezza proveniente da una
 		// voragine setto il colore del lable a black,
 		if(puzza && brezza) {
-			this.griglia[cursore.getRiga()][cursore.getColonna()].setBackground(Color.BLACK);
+			etichetta.setBackground(Color.BLACK);
 		}
 		// se nella casella c'e' la puzza del Wumpus setto il colore del label a red,
 		else if(puzza) {
-			this.griglia[cursore.getRiga()][cursore.getColonna()].setBackground(Color.RED);
+			etichetta.setBackground(Color.RED);
 		}
 		// se nella casella c'e' la brezza proveniente da una voragine setto il colore del label a blu.
 		else if(brezza) {
-			this.griglia[cursore.getRiga()][cursore.getColonna()].setBackground(Color.BLUE);
+			etichetta.setBackground(Color.BLUE);
 		}
 		// altrimenti, se non c'e' nulla, imposta lo sfondo della casella a white per indicare
 		// che e' una casella gia' visitata
 		else {
-			this.griglia[cursore.getRiga()][cursore.getColonna()].setBackground(Color.WHITE);
+			etichetta.setBackground(Color.WHITE);
 		}
 	}
 	
@@ -390,11 +405,51 @@ public class WumpusView extends JFrame implements PropertyChangeListener{
 		}
 	}
 	
+	/**
+	 * Metodo che restituisce la maschera di bit delle caselle gia' scoperte dal giocatore, da passare
+	 * al metodo salvataggioBinario di Mappa: la casella di coordinate (riga, colonna) corrisponde al
+	 * bit riga*latoMappa + colonna.
+	 * 
+	 * @return Maschera di bit delle caselle scoperte.
+	 */
+	public long[] caselleScoperte() {
+		long[] caselleScoperte = new long[(this.latoMappa*this.latoMappa + 63) >>> 6];
+		
+		for(int i = 0; i < this.latoMappa; i++) {
+			for(int j = 0; j < this.latoMappa; j++) {
+				// Una casella e' scoperta se il suo colore di sfondo e' diverso da GRAY
+				if(this.griglia[i][j].getBackground() != Color.GRAY) {
+					int casella = i*this.latoMappa + j;
+					caselleScoperte[casella >>> 6] |= 1L << casella;
+				}
+			}
+		}
+		return caselleScoperte;
+	}
+	
 	public void caricamentoCaselleScoperte() throws IllegalArgumentException, IOException {
 		String prossimaLinea;
 		String[] contenutoLinea;
 		File f = new File("salvataggioWumpus.txt");
 		
+		// Una mappa caricata da un salvataggio binario contiene gia' le caselle scoperte: il colore
+		// di ogni casella scoperta viene ricalcolato in base alla brezza e alla puzza della casella.
+		long[] caselleScoperte = this.mondoDelWumpus.getCaselleScoperte();
+		if(caselleScoperte != null) {
+			for(int parola = 0; parola < caselleScoperte.length; parola++) {
+				for(long bit = caselleScoperte[parola]; bit != 0; bit &= bit - 1) {
+					int casella = (parola << 6) + Long.numberOfTrailingZeros(bit);
+					this.visualizzaSegnalatore(Casella.di(casella / this.latoMappa, casella % this.latoMappa));
+				}
+			}
+			return;
+		}
+		// Senza salvataggio testuale e' scoperta solo la casella dell'agente, gia' visualizzata dal
+		// costruttore.
+		if(!(f.exists())) {
+			return;
+		}
+		
 		try (BufferedReader caricamento = new BufferedReader(new FileReader(f))) {
 			prossimaLinea = caricamento.readLine();
 			
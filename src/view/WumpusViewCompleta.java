@@ -4,10 +4,10 @@ import javax.swing.ImageIcon;
 
 import model.elementi.CuccioloDiWumpus;
 import model.elementi.Elemento;
-import model.elementi.PersonaggioMondoDelWumpus;
 import model.elementi.Superstite;
 import model.elementi.Tesoro;
 import model.elementi.Wumpus;
+import model.gioco.Casella;
 import model.gioco.Mappa;
 import model.gioco.Partita;
 
@@ -38,8 +38,8 @@ public class WumpusViewCompleta extends WumpusView {
 			for(int j = 0; j < this.latoMappa; j++) {
 				
 				ImageIcon miaImmagine = new ImageIcon();
-				PersonaggioMondoDelWumpus cursore = new PersonaggioMondoDelWumpus(this.latoMappa, i, j, "Cursore") {};
-				Elemento contenuto = this.mondoDelWumpus.contenutoCasella(cursore);
+				long casella = Casella.di(i, j);
+				Elemento contenuto = this.mondoDelWumpus.contenutoCasella(casella);
 				if(contenuto != null && contenuto.getInGioco()) {
 					if(contenuto instanceof Wumpus) miaImmagine = creaImageIcon("/resources/pics/wumpus.gif");
 					if(contenuto instanceof Mappa.Voragine) miaImmagine = creaImageIcon("/resources/pics/voragine.gif");
@@ -48,7 +48,7 @@ public class WumpusViewCompleta extends WumpusView {
 				}
 				
 				this.griglia[i][j].setIcon(miaImmagine);
-				this.visualizzaSegnalatore(cursore);
+				this.visualizzaSegnalatore(casella);
 			}
 		}
 